@@ -0,0 +1,96 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.AnnotationIndex;
+
+/**
+ * 查找类路径上带@Benchmark注解的方法：扫描类文件、读取保存的索引，与用新的类加载器加载每个类再检查注解的开销
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AnnotationIndexBenchmark {
+	private final ClassLoader loader = AnnotationIndexBenchmark.class.getClassLoader();
+	private List<File> roots;
+	private File cache;
+	private List<String> classNames;
+	private URL[] urls;
+
+	@Setup
+	public void setup() throws IOException {
+		roots = new ArrayList<File>();
+		for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+			roots.add(new File(path));
+		}
+		cache = File.createTempFile("annotation-index", ".bin");
+		AnnotationIndex index = AnnotationIndex.scan(loader, roots);
+		index.save(cache);
+		classNames = new ArrayList<String>(index.getClassNames());
+		urls = new URL[roots.size()];
+		for (int i = 0; i < urls.length; i++) {
+			urls[i] = roots.get(i).toURI().toURL();
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		cache.delete();
+	}
+
+	@Benchmark
+	public int scan() {
+		return AnnotationIndex.scan(loader, roots).getAnnotatedMethods(Benchmark.class).size();
+	}
+
+	@Benchmark
+	public int load() {
+		return AnnotationIndex.scan(loader, cache, roots).getAnnotatedMethods(Benchmark.class).size();
+	}
+
+	@Benchmark
+	public int loadEveryClass() throws IOException {
+		URLClassLoader classLoader = new URLClassLoader(urls, null);
+		int count = 0;
+		try {
+			for (String name : classNames) {
+				try {
+					for (java.lang.reflect.Method method : Class.forName(name, false, classLoader)
+							.getDeclaredMethods()) {
+						if (method.isAnnotationPresent(Benchmark.class)) {
+							count++;
+						}
+					}
+				} catch (Throwable ignore) {
+					// 缺少依赖的类
+				}
+			}
+		} finally {
+			classLoader.close();
+		}
+		return count;
+	}
+}
@@ -0,0 +1,96 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.vgerbot.reflect.Reflect;
+import com.vgerbot.reflect.Reflect.BatchReflect;
+
+/**
+ * BatchReflect.call批量调用（顺序、并行、流式），与循环调用Method.invoke及直接调用对比
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchReflectBenchmark {
+	@Param({ "10", "1000", "100000" })
+	private int size;
+
+	private Person[] persons;
+	private BatchReflect batch;
+	private BatchReflect parallelBatch;
+	private Method method;
+
+	@Setup
+	public void setup() throws NoSuchMethodException {
+		persons = new Person[size];
+		for (int i = 0; i < size; i++) {
+			persons[i] = new Person("" + i, i);
+		}
+		batch = Reflect.on((Object[]) persons);
+		parallelBatch = Reflect.on((Object[]) persons).parallel();
+		method = Person.class.getMethod("getName");
+	}
+
+	@Benchmark
+	public Object call() {
+		return batch.call("getName");
+	}
+
+	@Benchmark
+	public Object method() {
+		return batch.method("getName");
+	}
+
+	@Benchmark
+	public Object parallelCall() {
+		return parallelBatch.call("getName");
+	}
+
+	@Benchmark
+	public void stream(Blackhole blackhole) {
+		Iterator<Object> values = Reflect.stream(Arrays.asList(persons)).call("getName").values().iterator();
+		while (values.hasNext()) {
+			blackhole.consume(values.next());
+		}
+	}
+
+	@Benchmark
+	public Object wrapAndCall() {
+		return Reflect.on((Object[]) persons).call("getName");
+	}
+
+	@Benchmark
+	public void jdkInvoke(Blackhole blackhole) throws Exception {
+		for (Person person : persons) {
+			blackhole.consume(method.invoke(person));
+		}
+	}
+
+	@Benchmark
+	public void direct(Blackhole blackhole) {
+		for (Person person : persons) {
+			blackhole.consume(person.getName());
+		}
+	}
+}
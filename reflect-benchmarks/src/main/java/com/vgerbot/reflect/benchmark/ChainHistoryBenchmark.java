@@ -0,0 +1,109 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.Reflect;
+import com.vgerbot.reflect.Reflect.ChainHistory;
+
+/**
+ * 不同链式调用历史下构建长链条的耗时。
+ * <p>
+ * 保留的堆内存通过main方法测量：保存大量长链条的最后一个节点，GC后比较已用堆大小，运行：
+ * java -cp reflect-benchmarks/target/benchmarks.jar com.vgerbot.reflect.benchmark.ChainHistoryBenchmark
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChainHistoryBenchmark {
+	private static final int CHAIN_LENGTH = 100;
+
+	@Param({ "FULL", "WEAK", "DEPTH(4)", "DISABLED" })
+	private String history;
+
+	private ChainHistory chainHistory;
+
+	@Setup
+	public void setup() {
+		chainHistory = parse(history);
+	}
+
+	@Benchmark
+	public Object chain() {
+		return chain(chainHistory);
+	}
+
+	private static Reflect chain(ChainHistory history) {
+		Reflect reflect = Reflect.on(new Node()).chainHistory(history);
+		for (int i = 0; i < CHAIN_LENGTH; i++) {
+			reflect = reflect.call("next");
+		}
+		return reflect;
+	}
+
+	private static ChainHistory parse(String history) {
+		if ("FULL".equals(history)) {
+			return ChainHistory.FULL;
+		} else if ("WEAK".equals(history)) {
+			return ChainHistory.WEAK;
+		} else if ("DISABLED".equals(history)) {
+			return ChainHistory.DISABLED;
+		}
+		return ChainHistory.depth(Integer.parseInt(history.replaceAll("\\D", "")));
+	}
+
+	public static void main(String[] args) throws InterruptedException {
+		int chains = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		for (String history : new String[] { "FULL", "WEAK", "DEPTH(4)", "DISABLED" }) {
+			Reflect[] retained = new Reflect[chains];
+			long before = usedHeap();
+			for (int i = 0; i < chains; i++) {
+				retained[i] = chain(parse(history));
+			}
+			long after = usedHeap();
+			System.out.printf("%-10s %6d chains x %d calls, retained %8d KB%n", history, chains, CHAIN_LENGTH,
+					(after - before) / 1024);
+			retained = null;
+		}
+	}
+
+	private static long usedHeap() throws InterruptedException {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	/**
+	 * 链条上的节点，每个节点持有1KB数据
+	 */
+	public static class Node {
+		private final byte[] payload = new byte[1024];
+
+		public Node next() {
+			return new Node();
+		}
+
+		public int size() {
+			return payload.length;
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.ClassFinder;
+import com.vgerbot.reflect.Reflect;
+
+/**
+ * 按导入的包查找简单类名：ClassFinder与每次新建类加载器逐个尝试导入包的开销
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ClassFinderBenchmark {
+	private final List<String> imports = Arrays.asList("java.util.*", "java.io.*", "com.vgerbot.reflect.benchmark.*");
+	private final String simpleName = "Person";
+	private final URL[] urls = new URL[0];
+	private ClassFinder finder;
+
+	@Setup
+	public void setup() {
+		finder = ClassFinder.of();
+		finder.findClass(imports, simpleName);
+	}
+
+	@TearDown
+	public void tearDown() {
+		finder.close();
+	}
+
+	@Benchmark
+	public Object finder() {
+		return finder.findClass(imports, simpleName);
+	}
+
+	@Benchmark
+	public Object reflectFind() {
+		return Reflect.find(imports, simpleName, urls);
+	}
+
+	@Benchmark
+	public Object loaderPerCall() throws IOException {
+		URLClassLoader loader = new URLClassLoader(urls);
+		try {
+			for (String imported : imports) {
+				try {
+					return loader.loadClass(imported.substring(0, imported.length() - 1) + simpleName);
+				} catch (ClassNotFoundException ignore) {
+				}
+			}
+			return null;
+		} finally {
+			loader.close();
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.BeanCopier;
+import com.vgerbot.reflect.Reflect;
+import com.vgerbot.reflect.Reflect.FieldReflect;
+
+/**
+ * 批量复制对象：BeanCopier与fields()+get()+set()逐个字段复制及手写复制对比
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CopierBenchmark {
+	@Param({ "10", "1000" })
+	private int size;
+
+	private List<Person> persons;
+	private BeanCopier<Person, PersonDto> copier;
+
+	@Setup
+	public void setup() {
+		persons = new ArrayList<Person>(size);
+		for (int i = 0; i < size; i++) {
+			Person person = new Person("" + i, i);
+			person.id = i;
+			persons.add(person);
+		}
+		copier = Reflect.copier(Person.class, PersonDto.class);
+	}
+
+	@Benchmark
+	public Object copier() {
+		return copier.copyAll(persons);
+	}
+
+	@Benchmark
+	public Object fieldByField() {
+		List<PersonDto> targets = new ArrayList<PersonDto>(persons.size());
+		for (Person person : persons) {
+			Reflect target = Reflect.on(PersonDto.class).create();
+			for (Map.Entry<String, FieldReflect> entry : Reflect.on(person).fields(0).entrySet()) {
+				target.field(entry.getKey()).set(entry.getValue().get().off());
+			}
+			targets.add(target.<PersonDto>off());
+		}
+		return targets;
+	}
+
+	@Benchmark
+	public Object direct() {
+		List<PersonDto> targets = new ArrayList<PersonDto>(persons.size());
+		for (Person person : persons) {
+			PersonDto dto = new PersonDto();
+			dto.name = person.getName();
+			dto.age = person.getAge();
+			dto.id = person.id;
+			targets.add(dto);
+		}
+		return targets;
+	}
+
+	public static class PersonDto {
+		public String name;
+		public long age;
+		public long id;
+	}
+}
@@ -0,0 +1,73 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.Reflect;
+import com.vgerbot.reflect.Reflect.ClassReflect;
+import com.vgerbot.reflect.Reflect.ConstructorReflect;
+
+/**
+ * create(...)创建实例，与Constructor.newInstance及new对比
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CreateBenchmark {
+	private ClassReflect reflect;
+	private ConstructorReflect factory;
+	private Constructor<Person> constructor;
+
+	@Setup
+	public void setup() throws NoSuchMethodException {
+		reflect = Reflect.on(Person.class);
+		factory = reflect.constructor(String.class, int.class);
+		constructor = Person.class.getConstructor(String.class, int.class);
+	}
+
+	@Benchmark
+	public Object create() {
+		return reflect.create().off();
+	}
+
+	@Benchmark
+	public Object createWithArguments() {
+		return reflect.create("kankan", 26).off();
+	}
+
+	@Benchmark
+	public Object createRaw() {
+		return reflect.createRaw("kankan", 26);
+	}
+
+	@Benchmark
+	public Object factoryCreateRaw() {
+		return factory.createRaw("kankan", 26);
+	}
+
+	@Benchmark
+	public Object jdkNewInstance() throws Exception {
+		return constructor.newInstance("kankan", 26);
+	}
+
+	@Benchmark
+	public Object direct() {
+		return new Person("kankan", 26);
+	}
+}
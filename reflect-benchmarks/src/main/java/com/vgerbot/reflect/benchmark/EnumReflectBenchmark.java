@@ -0,0 +1,58 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.Reflect;
+import com.vgerbot.reflect.Reflect.EnumReflect;
+
+/**
+ * EnumReflect.add：已存在的枚举直接返回，新枚举需要重建values数组。
+ * 每次添加新枚举都会让枚举变大，因此新增场景按单次耗时测量
+ *
+ * @author y1j2x34
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EnumReflectBenchmark {
+	private EnumReflect<Sex> reflect;
+	private int sequence;
+
+	@Setup
+	public void setup() {
+		reflect = Reflect.onEnum(Sex.class);
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	public Object addExisting() {
+		return reflect.add("BOY");
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	public Object jdkValueOf() {
+		return Enum.valueOf(Sex.class, "BOY");
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SingleShotTime)
+	@Warmup(iterations = 5, batchSize = 100)
+	@Measurement(iterations = 10, batchSize = 100)
+	public Object addNew() {
+		return reflect.add("ALIEN" + (sequence++), "无");
+	}
+}
@@ -0,0 +1,90 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.Reflect;
+import com.vgerbot.reflect.Reflect.FieldReflect;
+
+/**
+ * field(...).get/set，与java.lang.reflect及直接访问对比
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FieldBenchmark {
+	private Person person;
+	private Reflect reflect;
+	private FieldReflect name;
+	private Field field;
+
+	@Setup
+	public void setup() throws NoSuchFieldException {
+		person = new Person("mario", 26);
+		reflect = Reflect.on(person);
+		name = reflect.field("name");
+		field = Person.class.getDeclaredField("name");
+		field.setAccessible(true);
+	}
+
+	@Benchmark
+	public Object lookupAndGet() {
+		return reflect.field("name").get().off();
+	}
+
+	@Benchmark
+	public Object lookupAndSet() {
+		return reflect.field("name").set("luigi");
+	}
+
+	@Benchmark
+	public boolean hasMissingField() {
+		return reflect.hasField("nickname");
+	}
+
+	@Benchmark
+	public Object cachedGet() {
+		return name.getValue();
+	}
+
+	@Benchmark
+	public Object cachedSet() {
+		return name.set("luigi");
+	}
+
+	@Benchmark
+	public Object jdkGet() throws IllegalAccessException {
+		return field.get(person);
+	}
+
+	@Benchmark
+	public void jdkSet() throws IllegalAccessException {
+		field.set(person, "luigi");
+	}
+
+	@Benchmark
+	public Object directGet() {
+		return person.getName();
+	}
+
+	@Benchmark
+	public void directSet() {
+		person.setName("luigi");
+	}
+}
@@ -0,0 +1,78 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToLongFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.Reflect;
+
+/**
+ * FieldReflect.longGetter/longSetter生成的函数，私有字段与公有字段对比。配合-prof gc运行，
+ * 两者的gc.alloc.rate.norm都应为0
+ *
+ * <pre>
+ * java -jar reflect-benchmarks/target/benchmarks.jar FieldFunctionBenchmark -prof gc
+ * </pre>
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FieldFunctionBenchmark {
+
+	public static class Bean {
+		private long id = 1L << 40;
+		public long visible = 1L << 40;
+	}
+
+	private Bean bean;
+	private ToLongFunction<Bean> privateGetter;
+	private ToLongFunction<Bean> publicGetter;
+	private ObjLongConsumer<Bean> privateSetter;
+	private ObjLongConsumer<Bean> publicSetter;
+	private long value = 1L << 40;
+
+	@Setup
+	public void setup() {
+		bean = new Bean();
+		privateGetter = Reflect.on(Bean.class).field("id").longGetter();
+		publicGetter = Reflect.on(Bean.class).field("visible").longGetter();
+		privateSetter = Reflect.on(Bean.class).field("id").longSetter();
+		publicSetter = Reflect.on(Bean.class).field("visible").longSetter();
+	}
+
+	@Benchmark
+	public long privateLongGetter() {
+		return privateGetter.applyAsLong(bean);
+	}
+
+	@Benchmark
+	public long publicLongGetter() {
+		return publicGetter.applyAsLong(bean);
+	}
+
+	@Benchmark
+	public void privateLongSetter() {
+		privateSetter.accept(bean, ++value);
+	}
+
+	@Benchmark
+	public void publicLongSetter() {
+		publicSetter.accept(bean, ++value);
+	}
+}
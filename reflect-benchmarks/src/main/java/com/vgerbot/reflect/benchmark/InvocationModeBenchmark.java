@@ -0,0 +1,57 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.Reflect;
+import com.vgerbot.reflect.Reflect.FieldReflect;
+import com.vgerbot.reflect.Reflect.InvocationMode;
+import com.vgerbot.reflect.Reflect.MethodReflect;
+
+/**
+ * 已缓存的MethodReflect/FieldReflect在不同调用方式下的开销
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InvocationModeBenchmark {
+	@Param({ "REFLECTION", "METHOD_HANDLE", "ACCESSOR" })
+	private InvocationMode mode;
+
+	private Person person;
+	private MethodReflect say;
+	private FieldReflect id;
+
+	@Setup
+	public void setup() {
+		person = new Person("mario", 26);
+		say = Reflect.on(person).method("say", String.class).invocationMode(mode);
+		id = Reflect.on(person).field("id").invocationMode(mode);
+	}
+
+	@Benchmark
+	public Object call() {
+		return say.callBy(person, new Object[] { "hello" }).off();
+	}
+
+	@Benchmark
+	public Object getValue() {
+		return id.getValue(person);
+	}
+}
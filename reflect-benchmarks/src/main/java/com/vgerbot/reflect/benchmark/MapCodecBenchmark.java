@@ -0,0 +1,65 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.Reflect;
+
+/**
+ * 对象与Map相互转换：Reflect.toMap/fromMap与fieldValues、逐个字段set对比。
+ * 分配情况使用-prof gc查看
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapCodecBenchmark {
+	private Person person;
+	private Map<String, Object> map;
+
+	@Setup
+	public void setup() {
+		person = new Person("name", 20);
+		person.id = 1L;
+		map = Reflect.toMap(person);
+	}
+
+	@Benchmark
+	public Object toMap() {
+		return Reflect.toMap(person);
+	}
+
+	@Benchmark
+	public Object fieldValues() {
+		return Reflect.on(person).fieldValues();
+	}
+
+	@Benchmark
+	public Object fromMap() {
+		return Reflect.fromMap(map, Person.class);
+	}
+
+	@Benchmark
+	public Object createAndSet() {
+		Reflect reflect = Reflect.on(Person.class).create();
+		reflect.field("name").set(map.get("name"));
+		reflect.field("age").set(map.get("age"));
+		reflect.field("id").set(map.get("id"));
+		return reflect.<Object>off();
+	}
+}
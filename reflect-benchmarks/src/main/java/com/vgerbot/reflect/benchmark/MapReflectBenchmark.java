@@ -0,0 +1,62 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.Reflect;
+import com.vgerbot.reflect.Reflect.MapReflect;
+
+/**
+ * MapReflect.call以getter/setter方式读写Map，与直接读写Map对比
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MapReflectBenchmark {
+	private Map<String, Object> map;
+	private MapReflect reflect;
+
+	@Setup
+	public void setup() {
+		map = new HashMap<String, Object>();
+		map.put("name", "mario");
+		reflect = Reflect.on(map);
+	}
+
+	@Benchmark
+	public Object callGetter() {
+		return reflect.call("getName").off();
+	}
+
+	@Benchmark
+	public Object callSetter() {
+		return reflect.call("setName", "luigi");
+	}
+
+	@Benchmark
+	public Object directGet() {
+		return map.get("name");
+	}
+
+	@Benchmark
+	public Object directPut() {
+		return map.put("name", "luigi");
+	}
+}
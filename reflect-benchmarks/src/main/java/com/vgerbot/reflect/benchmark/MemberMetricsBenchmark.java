@@ -0,0 +1,66 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.MemberMetrics;
+import com.vgerbot.reflect.Reflect;
+import com.vgerbot.reflect.Reflect.FieldReflect;
+import com.vgerbot.reflect.Reflect.MethodReflect;
+
+/**
+ * 开启、关闭MemberMetrics时缓存的MethodReflect调用与字段读取的开销，4个线程调用同一成员
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class MemberMetricsBenchmark {
+	@Param({ "false", "true" })
+	private boolean enabled;
+
+	private MethodReflect method;
+	private FieldReflect field;
+
+	@Setup
+	public void setup() {
+		Person person = new Person("name", 20);
+		method = Reflect.on(person).method("getName");
+		field = Reflect.on(person).field("id");
+		MemberMetrics.setEnabled(enabled);
+	}
+
+	@TearDown
+	public void tearDown() {
+		MemberMetrics.setEnabled(false);
+		MemberMetrics.reset();
+	}
+
+	@Benchmark
+	public Object invokeRaw() {
+		return method.invokeRaw();
+	}
+
+	@Benchmark
+	public Object getRaw() {
+		return field.getRaw();
+	}
+}
@@ -0,0 +1,142 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.ClassMetadata;
+import com.vgerbot.reflect.MetadataSnapshot;
+import com.vgerbot.reflect.Reflect;
+import com.vgerbot.reflect.Reflect.ClassReflect;
+import com.vgerbot.reflect.ReflectException;
+
+/**
+ * 冷启动时预热一批类（字段列表、按名称查找字段和方法、查找不存在的成员、查询注解）的开销：
+ * 每次调用前用新的类加载器重新加载这些类，比较直接反射查找与使用元数据快照
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Thread)
+public class MetadataSnapshotBenchmark {
+	private static final int CLASSES = 300;
+
+	private URL[] urls;
+	private List<String> classNames;
+	private File file;
+	private MetadataSnapshot snapshot;
+	private Class<?>[] types;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		File jar = new File(MetadataSnapshotBenchmark.class.getProtectionDomain().getCodeSource().getLocation().getPath());
+		urls = new URL[] { jar.toURI().toURL() };
+		classNames = new ArrayList<String>();
+		ZipFile zip = new ZipFile(jar);
+		try {
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements() && classNames.size() < CLASSES) {
+				String name = entries.nextElement().getName();
+				if (name.startsWith("org/apache/commons/math3/") && name.endsWith(".class") && name.indexOf('$') < 0) {
+					classNames.add(name.substring(0, name.length() - 6).replace('/', '.'));
+				}
+			}
+		} finally {
+			zip.close();
+		}
+		file = File.createTempFile("metadata-snapshot", ".bin");
+		List<Class<?>> warmed = new ArrayList<Class<?>>();
+		for (Class<?> type : load()) {
+			warm(type);
+			warmed.add(type);
+		}
+		MetadataSnapshot.write(file, warmed);
+		snapshot = MetadataSnapshot.load(file);
+	}
+
+	@Setup(Level.Invocation)
+	public void loadClasses() throws IOException {
+		types = load();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		ClassMetadata.setSnapshot(null);
+		file.delete();
+	}
+
+	private Class<?>[] load() throws IOException {
+		URLClassLoader loader = new URLClassLoader(urls, null);
+		List<Class<?>> types = new ArrayList<Class<?>>();
+		for (String name : classNames) {
+			try {
+				types.add(Class.forName(name, false, loader));
+			} catch (Throwable ignore) {
+				// 缺少依赖的类
+			}
+		}
+		return types.toArray(new Class<?>[types.size()]);
+	}
+
+	private static int warm(Class<?> type) {
+		ClassReflect reflect = Reflect.on(type);
+		int count = reflect.fields(0).size();
+		if (reflect.field("serialVersionUID") != null) {
+			count++;
+		}
+		for (String name : new String[] { "toString", "hashCode", "missing" }) {
+			try {
+				count += reflect.method(name).off() != null ? 1 : 0;
+			} catch (ReflectException ignore) {
+			}
+		}
+		if (reflect.getAnnotation(Deprecated.class) != null) {
+			count++;
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int reflection() {
+		ClassMetadata.setSnapshot(null);
+		int count = 0;
+		for (Class<?> type : types) {
+			count += warm(type);
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int snapshot() {
+		ClassMetadata.setSnapshot(snapshot);
+		int count = 0;
+		for (Class<?> type : types) {
+			count += warm(type);
+		}
+		return count;
+	}
+}
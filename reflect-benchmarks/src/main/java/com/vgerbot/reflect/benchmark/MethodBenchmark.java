@@ -0,0 +1,100 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.Reflect;
+import com.vgerbot.reflect.Reflect.MethodReflect;
+
+/**
+ * 方法查找与调用：精确查找method(name, Class...)、按参数查找method(name, Object...)，
+ * 与java.lang.reflect及直接调用对比；cachedCall与cachedInvokeRaw配合-prof gc对比包装返回值的内存分配
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MethodBenchmark {
+	private Person person;
+	private Reflect reflect;
+	private Method method;
+	private MethodReflect say;
+
+	@Setup
+	public void setup() throws NoSuchMethodException {
+		person = new Person("mario", 26);
+		reflect = Reflect.on(person);
+		method = Person.class.getMethod("say", String.class);
+		say = reflect.method("say", String.class);
+	}
+
+	@Benchmark
+	public Object lookupByTypes() {
+		return reflect.method("say", String.class);
+	}
+
+	@Benchmark
+	public Object lookupByArguments() {
+		return reflect.method("say", "hello");
+	}
+
+	@Benchmark
+	public boolean hasMissingMethod() {
+		return reflect.hasMethod("sing", String.class);
+	}
+
+	@Benchmark
+	public Object jdkLookup() throws NoSuchMethodException {
+		return Person.class.getMethod("say", String.class);
+	}
+
+	@Benchmark
+	public Object callByTypes() {
+		return reflect.method("say", String.class).call(new Object[] { "hello" }).off();
+	}
+
+	@Benchmark
+	public Object callByName() {
+		return reflect.call("say", "hello").off();
+	}
+
+	@Benchmark
+	public Object callVarargs() {
+		return reflect.call("count", "a", 1, 2L).off();
+	}
+
+	@Benchmark
+	public Object cachedCall() {
+		return say.call(new Object[] { "hello" }).off();
+	}
+
+	@Benchmark
+	public Object cachedInvokeRaw() {
+		return say.invokeRaw(new Object[] { "hello" });
+	}
+
+	@Benchmark
+	public Object jdkInvoke() throws Exception {
+		return method.invoke(person, "hello");
+	}
+
+	@Benchmark
+	public Object direct() {
+		return person.say("hello");
+	}
+}
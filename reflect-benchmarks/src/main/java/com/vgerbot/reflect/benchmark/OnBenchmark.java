@@ -0,0 +1,63 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.Reflect;
+
+/**
+ * Reflect.on(...)包装对象、类、类名的开销
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OnBenchmark {
+	private final Person person = new Person("mario", 26);
+	private final String className = Person.class.getName();
+	private final String arrayName = Person.class.getName() + "[][]";
+	private final String innerClassName = "java.util.Map.Entry";
+
+	@Benchmark
+	public Object onObject() {
+		return Reflect.on(person);
+	}
+
+	@Benchmark
+	public Object onClass() {
+		return Reflect.on(Person.class);
+	}
+
+	@Benchmark
+	public Object onClassName() {
+		return Reflect.on(className);
+	}
+
+	@Benchmark
+	public Object onArrayName() {
+		return Reflect.on(arrayName);
+	}
+
+	@Benchmark
+	public Object onInnerClassName() {
+		return Reflect.on(innerClassName);
+	}
+
+	@Benchmark
+	public Object jdkForName() throws ClassNotFoundException {
+		return Class.forName(className);
+	}
+}
@@ -0,0 +1,69 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.PropertyPath;
+import com.vgerbot.reflect.Reflect;
+
+/**
+ * 属性路径取值，与逐级field().get()及直接访问对比
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PathBenchmark {
+	private Map<String, Object> root;
+	private PropertyPath path;
+
+	@Setup
+	public void setup() {
+		List<Person> people = new ArrayList<Person>();
+		people.add(new Person("mario", 26));
+		people.add(new Person("luigi", 24));
+		root = new HashMap<String, Object>();
+		root.put("people", people);
+		path = Reflect.path("people[1].name");
+	}
+
+	@Benchmark
+	public Object compiledPath() {
+		return path.get(root);
+	}
+
+	@Benchmark
+	public Object lookupPath() {
+		return Reflect.path("people[1].name").get(root);
+	}
+
+	@Benchmark
+	public Object fieldChain() {
+		Object people = root.get("people");
+		return Reflect.on(((List<?>) people).get(1)).field("name").get().off();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Benchmark
+	public Object direct() {
+		return ((List<Person>) root.get("people")).get(1).getName();
+	}
+}
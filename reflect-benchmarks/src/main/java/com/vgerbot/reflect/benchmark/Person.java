@@ -0,0 +1,53 @@
+package com.vgerbot.reflect.benchmark;
+
+/**
+ * 基准测试使用的目标类
+ *
+ * @author y1j2x34
+ */
+public class Person {
+	private String name;
+	private int age = 0;
+	public long id;
+
+	public Person() {
+		name = "default name";
+	}
+
+	public Person(String name, int age) {
+		this.name = name;
+		this.age = age;
+	}
+
+	public Person(String name) {
+		this.name = name;
+	}
+
+	public String selfIntroduction() {
+		return "Hello!My name is '" + name + "'";
+	}
+
+	public String say(String something) {
+		return something;
+	}
+
+	public int count(Object... values) {
+		return values.length;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public int getAge() {
+		return age;
+	}
+
+	public void setAge(int age) {
+		this.age = age;
+	}
+}
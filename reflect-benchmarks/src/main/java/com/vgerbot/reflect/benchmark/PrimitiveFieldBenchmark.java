@@ -0,0 +1,84 @@
+package com.vgerbot.reflect.benchmark;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vgerbot.reflect.Reflect;
+import com.vgerbot.reflect.Reflect.FieldReflect;
+
+/**
+ * 基本类型字段读写。配合-prof gc运行，getInt/setInt系列的gc.alloc.rate.norm应为0，
+ * 取值时使用超出Long缓存范围的值，保证装箱路径确实分配对象。
+ *
+ * <pre>
+ * java -jar reflect-benchmarks/target/benchmarks.jar PrimitiveFieldBenchmark -prof gc
+ * </pre>
+ *
+ * @author y1j2x34
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PrimitiveFieldBenchmark {
+	private Person person;
+	private FieldReflect id;
+	private Field field;
+	private long value = 1L << 40;
+
+	@Setup
+	public void setup() throws NoSuchFieldException {
+		person = new Person();
+		person.id = value;
+		id = Reflect.on(person).field("id");
+		field = Person.class.getField("id");
+	}
+
+	@Benchmark
+	public long getLong() {
+		return id.getLong();
+	}
+
+	@Benchmark
+	public void setLong() {
+		id.setLong(++value);
+	}
+
+	@Benchmark
+	public void setLongNoForce() {
+		id.setLong(++value, false);
+	}
+
+	@Benchmark
+	public Object getValueBoxed() {
+		return id.getValue();
+	}
+
+	@Benchmark
+	public void setBoxed() {
+		id.set(++value);
+	}
+
+	@Benchmark
+	public long jdkGetLong() throws IllegalAccessException {
+		return field.getLong(person);
+	}
+
+	@Benchmark
+	public long direct() {
+		return person.id;
+	}
+}
@@ -0,0 +1,20 @@
+package com.vgerbot.reflect.benchmark;
+
+/**
+ * EnumReflect基准测试使用的枚举
+ *
+ * @author y1j2x34
+ */
+public enum Sex {
+	BOY("男"), GIRL("女");
+
+	final String displayName;
+
+	Sex(String displayName) {
+		this.displayName = displayName;
+	}
+
+	Sex() {
+		this("人妖");
+	}
+}
@@ -0,0 +1,1007 @@
+package com.vgerbot.reflect;
+
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.security.ProtectionDomain;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.vgerbot.reflect.ClassAccessor.ReflectiveClassAccessor;
+
+/**
+ * 为指定类生成{@link ClassAccessor}子类的字节码。
+ * <p>
+ * 生成的类文件版本为49（Java 5），不需要StackMapTable。优先定义在目标类所在的包和类加载器中
+ * （Java 9+使用Lookup.defineClass，Java 8使用ClassLoader.defineClass），此时可以直接访问包级成员；
+ * 失败时定义在子类加载器中，只直接访问公有成员；仍然失败时所有成员都通过反射访问。
+ *
+ * @author y1j2x34
+ */
+final class AccessorGenerator {
+	private static final String ACCESSOR = "com/vgerbot/reflect/ClassAccessor";
+	private static final String GENERATED_PACKAGE = "com.vgerbot.reflect.generated.";
+	private static final String SUFFIX = "$$ClassAccessor";
+
+	private static final int ACC_PUBLIC = 0x0001;
+	private static final int ACC_PROTECTED = 0x0004;
+	private static final int ACC_STATIC = 0x0008;
+	private static final int ACC_FINAL = 0x0010;
+	private static final int ACC_SUPER = 0x0020;
+
+	private static final int GET = 0;
+	private static final int SET = 1;
+	private static final int INVOKE = 2;
+	private static final int NEW = 3;
+	private static final int GET_PRIMITIVE = 4;
+	private static final int SET_PRIMITIVE = 5;
+
+	private static final Class<?>[] PRIMITIVES = { boolean.class, byte.class, char.class, short.class, int.class,
+			long.class, float.class, double.class };
+
+	// Java 9+
+	private static final Method lookupDefineClass = method(Lookup.class, "defineClass", byte[].class);
+	private static final Method getModule = method(Class.class, "getModule");
+	private static final Method isExported = isExported();
+	// Java 8
+	private static final Method classLoaderDefineClass = classLoaderDefineClass();
+
+	private final Class<?> type;
+	private final Field[] fields;
+	private final Method[] methods;
+	private final Constructor<?>[] constructors;
+	/**
+	 * 是否定义在目标类所在的包中，可直接访问包级成员
+	 */
+	private final boolean packageAccess;
+	private final String className;
+
+	private final Class<?>[] fieldOwners;
+	private final Class<?>[] methodOwners;
+	private final boolean[] directGetters;
+	private final boolean[] directSetters;
+	private final boolean[] directMethods;
+	private final boolean[] directConstructors;
+
+	private final ConstantPool pool = new ConstantPool();
+
+	private AccessorGenerator(Class<?> type, Field[] fields, Method[] methods, Constructor<?>[] constructors,
+			boolean packageAccess) {
+		this.type = type;
+		this.fields = fields;
+		this.methods = methods;
+		this.constructors = constructors;
+		this.packageAccess = packageAccess;
+		this.className = packageAccess ? type.getName() + SUFFIX : GENERATED_PACKAGE + type.getName() + SUFFIX;
+
+		fieldOwners = new Class<?>[fields.length];
+		directGetters = new boolean[fields.length];
+		directSetters = new boolean[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			Field field = fields[i];
+			Class<?> owner = owner(field);
+			fieldOwners[i] = owner;
+			directGetters[i] = owner != null;
+			directSetters[i] = owner != null && !Modifier.isFinal(field.getModifiers())
+					&& canAccess(field.getType());
+		}
+		methodOwners = new Class<?>[methods.length];
+		directMethods = new boolean[methods.length];
+		for (int i = 0; i < methods.length; i++) {
+			Method method = methods[i];
+			Class<?> owner = owner(method);
+			methodOwners[i] = owner;
+			// 类文件版本49不能通过invokestatic调用接口的静态方法
+			directMethods[i] = owner != null && canAccess(method.getParameterTypes())
+					&& !(owner.isInterface() && Modifier.isStatic(method.getModifiers()));
+		}
+		directConstructors = new boolean[constructors.length];
+		boolean instantiable = !type.isInterface() && !type.isEnum() && !Modifier.isAbstract(type.getModifiers())
+				&& canAccess(type);
+		for (int i = 0; i < constructors.length; i++) {
+			Constructor<?> constructor = constructors[i];
+			directConstructors[i] = instantiable && canAccess(constructor)
+					&& canAccess(constructor.getParameterTypes());
+		}
+	}
+
+	/**
+	 * 生成访问器，无法生成字节码时返回通过反射访问的实现
+	 *
+	 * @param type
+	 * @return
+	 */
+	static ClassAccessor generate(Class<?> type) {
+		Field[] fields = fields(type);
+		Method[] methods = methods(type);
+		Constructor<?>[] constructors = type.getDeclaredConstructors();
+		if (!type.isPrimitive() && !type.isArray()) {
+			ClassAccessor accessor = new AccessorGenerator(type, fields, methods, constructors, true).define();
+			if (accessor == null) {
+				accessor = new AccessorGenerator(type, fields, methods, constructors, false).define();
+			}
+			if (accessor != null) {
+				return accessor;
+			}
+		}
+		ClassAccessor accessor = new ReflectiveClassAccessor();
+		accessor.init(type, fields, methods, constructors, new boolean[fields.length], new boolean[fields.length],
+				new boolean[methods.length], new boolean[constructors.length]);
+		return accessor;
+	}
+
+	private static Field[] fields(Class<?> type) {
+		List<Field> fields = new ArrayList<Field>();
+		for (Class<?> t = type; t != null; t = t.getSuperclass()) {
+			fields.addAll(Arrays.asList(t.getDeclaredFields()));
+		}
+		return fields.toArray(new Field[fields.size()]);
+	}
+
+	private static Method[] methods(Class<?> type) {
+		List<Method> methods = new ArrayList<Method>();
+		Set<String> signatures = new HashSet<String>();
+		for (Class<?> t = type; t != null; t = t.getSuperclass()) {
+			for (Method method : t.getDeclaredMethods()) {
+				if (Modifier.isPrivate(method.getModifiers())) {
+					methods.add(method);
+				} else if (signatures.add(method.getName() + Arrays.toString(method.getParameterTypes()))) {
+					methods.add(method);
+				}
+			}
+		}
+		return methods.toArray(new Method[methods.size()]);
+	}
+
+	// ----------------------------------------------------------------
+	// 访问权限判断
+	// ----------------------------------------------------------------
+
+	/**
+	 * 生成的指令引用成员时使用的类，成员不可直接访问时返回null
+	 */
+	private Class<?> owner(Member member) {
+		int modifiers = member.getModifiers();
+		if (Modifier.isPrivate(modifiers)) {
+			return null;
+		}
+		Class<?> declaring = member.getDeclaringClass();
+		if (!Modifier.isPublic(modifiers) && !(packageAccess && samePackage(declaring))) {
+			return null;
+		}
+		if (canAccess(declaring)) {
+			return declaring;
+		}
+		// 不可访问的父类中声明的公有成员，通过目标类引用
+		if (Modifier.isPublic(modifiers) && canAccess(type)) {
+			return type;
+		}
+		return null;
+	}
+
+	private boolean canAccess(Constructor<?> constructor) {
+		int modifiers = constructor.getModifiers();
+		if (Modifier.isPrivate(modifiers)) {
+			return false;
+		}
+		return Modifier.isPublic(modifiers) || packageAccess && samePackage(constructor.getDeclaringClass());
+	}
+
+	private boolean canAccess(Class<?>[] types) {
+		for (Class<?> type : types) {
+			if (!canAccess(type)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean canAccess(Class<?> type) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		if (type.isPrimitive()) {
+			return true;
+		}
+		if (!exported(type)) {
+			return false;
+		}
+		return Modifier.isPublic(type.getModifiers()) || packageAccess && samePackage(type);
+	}
+
+	private boolean samePackage(Class<?> other) {
+		return other.getClassLoader() == type.getClassLoader() && packageName(other).equals(packageName(type));
+	}
+
+	/**
+	 * Java 9+ 中，命名模块未导出的包不可访问
+	 */
+	private boolean exported(Class<?> other) {
+		if (getModule == null || isExported == null) {
+			return true;
+		}
+		try {
+			Object module = getModule.invoke(other);
+			if (packageAccess && module == getModule.invoke(type)) {
+				return true;
+			}
+			return (Boolean) isExported.invoke(module, packageName(other));
+		} catch (Exception e) {
+			return false;
+		}
+	}
+
+	private static String packageName(Class<?> type) {
+		String name = type.getName();
+		int index = name.lastIndexOf('.');
+		return index < 0 ? "" : name.substring(0, index);
+	}
+
+	// ----------------------------------------------------------------
+	// 定义类
+	// ----------------------------------------------------------------
+
+	private ClassAccessor define() {
+		byte[] bytes;
+		try {
+			bytes = generate();
+		} catch (RuntimeException e) {
+			return null;
+		}
+		Class<?> accessorClass = packageAccess ? defineInPackage(bytes) : defineInChildLoader(bytes);
+		if (accessorClass == null || !ClassAccessor.class.isAssignableFrom(accessorClass)) {
+			return null;
+		}
+		try {
+			ClassAccessor accessor = (ClassAccessor) accessorClass.newInstance();
+			accessor.init(type, fields, methods, constructors, directGetters, directSetters, directMethods,
+					directConstructors);
+			return accessor;
+		} catch (Exception e) {
+			return null;
+		} catch (LinkageError e) {
+			return null;
+		}
+	}
+
+	private Class<?> defineInPackage(byte[] bytes) {
+		ClassLoader loader = type.getClassLoader();
+		try {
+			Lookup lookup = MethodHandleInvoker.privateLookup(type);
+			if (lookup != null && lookupDefineClass != null) {
+				return (Class<?>) lookupDefineClass.invoke(lookup, bytes);
+			}
+			if (classLoaderDefineClass != null && loader != null) {
+				ProtectionDomain domain = type.getProtectionDomain();
+				return (Class<?>) classLoaderDefineClass.invoke(loader, className, bytes, 0, bytes.length, domain);
+			}
+		} catch (InvocationTargetException e) {
+			// 已经定义过（例如元数据被清空后重新生成）
+			if (e.getCause() instanceof LinkageError && loader != null) {
+				try {
+					return Class.forName(className, true, loader);
+				} catch (ClassNotFoundException ignore) {
+				} catch (LinkageError ignore) {
+				}
+			}
+		} catch (Exception ignore) {
+		} catch (LinkageError ignore) {
+		}
+		return null;
+	}
+
+	private Class<?> defineInChildLoader(byte[] bytes) {
+		ClassLoader parent = type.getClassLoader();
+		if (parent == null) {
+			parent = ClassAccessor.class.getClassLoader();
+		}
+		try {
+			return new AccessorClassLoader(parent).define(className, bytes);
+		} catch (RuntimeException e) {
+			return null;
+		} catch (LinkageError e) {
+			return null;
+		}
+	}
+
+	private static Method method(Class<?> type, String name, Class<?>... parameterTypes) {
+		try {
+			return type.getMethod(name, parameterTypes);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	private static Method isExported() {
+		try {
+			return Class.forName("java.lang.Module").getMethod("isExported", String.class);
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	private static Method classLoaderDefineClass() {
+		try {
+			Method defineClass = ClassLoader.class.getDeclaredMethod("defineClass", String.class, byte[].class,
+					int.class, int.class, ProtectionDomain.class);
+			defineClass.setAccessible(true);
+			return defineClass;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	// ----------------------------------------------------------------
+	// 生成字节码
+	// ----------------------------------------------------------------
+
+	private byte[] generate() {
+		String internalName = className.replace('.', '/');
+		int thisClass = pool.classInfo(internalName);
+		int superClass = pool.classInfo(ACCESSOR);
+
+		ByteVector methods = new ByteVector();
+		writeConstructor(methods);
+		writeSwitchMethod(methods, GET, "getDirect", "(Ljava/lang/Object;I)Ljava/lang/Object;", 3, 2,
+				directGetters);
+		writeSwitchMethod(methods, SET, "setDirect", "(Ljava/lang/Object;ILjava/lang/Object;)V", 4, 2,
+				directSetters);
+		writeSwitchMethod(methods, INVOKE, "invokeDirect", "(Ljava/lang/Object;I[Ljava/lang/Object;)Ljava/lang/Object;",
+				4, 2, directMethods);
+		writeSwitchMethod(methods, NEW, "newInstanceDirect", "(I[Ljava/lang/Object;)Ljava/lang/Object;", 3, 1,
+				directConstructors);
+		int methodCount = 5 + writeFieldBridges(methods) + writePrimitiveSwitches(methods);
+		int codeAttribute = pool.utf8("Code");
+		if (pool.size() > 0xFFFF) {
+			throw new IllegalStateException("too many constants");
+		}
+
+		ByteVector out = new ByteVector();
+		out.u4(0xCAFEBABE);
+		out.u2(0);
+		out.u2(49);
+		out.u2(pool.size());
+		out.bytes(pool.bytes());
+		out.u2(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+		out.u2(thisClass);
+		out.u2(superClass);
+		out.u2(0); // interfaces
+		out.u2(0); // fields
+		out.u2(methodCount);
+		out.bytes(methods.replace(codeAttribute));
+		out.u2(0); // attributes
+		return out.toByteArray();
+	}
+
+	private void writeConstructor(ByteVector out) {
+		ByteVector code = new ByteVector();
+		code.u1(0x2a); // aload_0
+		code.u1(0xb7); // invokespecial
+		code.u2(pool.methodRef(ACCESSOR, "<init>", "()V", false));
+		code.u1(0xb1); // return
+		writeMethod(out, ACC_PUBLIC, "<init>", "()V", 1, 1, code);
+	}
+
+	private void writeSwitchMethod(ByteVector out, int kind, String name, String descriptor, int maxLocals,
+			int indexLocal, boolean[] direct) {
+		ByteVector code = new ByteVector();
+		int maxStack = 3;
+		int count = direct.length;
+		boolean any = false;
+		for (boolean d : direct) {
+			any |= d;
+		}
+		if (any) {
+			iload(code, indexLocal);
+			int start = code.length();
+			code.u1(0xaa); // tableswitch
+			while (code.length() % 4 != 0) {
+				code.u1(0);
+			}
+			int defaultOffset = code.length();
+			code.u4(0);
+			code.u4(0);
+			code.u4(count - 1);
+			int table = code.length();
+			for (int i = 0; i < count; i++) {
+				code.u4(0);
+			}
+			for (int i = 0; i < count; i++) {
+				if (direct[i]) {
+					code.putU4(table + i * 4, code.length() - start);
+					maxStack = Math.max(maxStack, writeCase(code, kind, i));
+				}
+			}
+			int defaultCase = code.length() - start;
+			code.putU4(defaultOffset, defaultCase);
+			for (int i = 0; i < count; i++) {
+				if (!direct[i]) {
+					code.putU4(table + i * 4, defaultCase);
+				}
+			}
+		}
+		// throw noSuchIndex(index);
+		code.u1(0x2a); // aload_0
+		iload(code, indexLocal);
+		code.u1(0xb6); // invokevirtual
+		code.u2(pool.methodRef(ACCESSOR, "noSuchIndex", "(I)Ljava/lang/RuntimeException;", false));
+		code.u1(0xbf); // athrow
+		if (code.length() > 0xFFFF) {
+			throw new IllegalStateException("method too large");
+		}
+		writeMethod(out, ACC_PROTECTED, name, descriptor, maxStack, maxLocals, code);
+	}
+
+	/**
+	 * 为可直接访问的字段生成类型精确的静态方法，供LambdaMetafactory使用：
+	 * <ul>
+	 * <li>public static R get$i(Object target)</li>
+	 * <li>public static void set$i(Object target, V value)</li>
+	 * </ul>
+	 *
+	 * @return 生成的方法数
+	 */
+	private int writeFieldBridges(ByteVector out) {
+		int count = 0;
+		for (int i = 0; i < fields.length; i++) {
+			Field field = fields[i];
+			Class<?> fieldType = field.getType();
+			String fieldDescriptor = descriptor(fieldType);
+			int slots = fieldType == long.class || fieldType == double.class ? 2 : 1;
+			boolean isStatic = Modifier.isStatic(field.getModifiers());
+			int fieldRef = directGetters[i] ? pool.fieldRef(internalName(fieldOwners[i]), field.getName(),
+					fieldDescriptor) : 0;
+			if (directGetters[i]) {
+				ByteVector code = new ByteVector();
+				if (isStatic) {
+					code.u1(0xb2); // getstatic
+				} else {
+					code.u1(0x2a); // aload_0
+					checkcast(code, fieldOwners[i]);
+					code.u1(0xb4); // getfield
+				}
+				code.u2(fieldRef);
+				code.u1(returnOpcode(fieldType));
+				writeMethod(out, ACC_PUBLIC | ACC_STATIC, ClassAccessor.GETTER_PREFIX + i,
+						"(Ljava/lang/Object;)" + fieldDescriptor, 2, 1, code);
+				count++;
+			}
+			if (directSetters[i]) {
+				ByteVector code = new ByteVector();
+				if (!isStatic) {
+					code.u1(0x2a); // aload_0
+					checkcast(code, fieldOwners[i]);
+				}
+				code.u1(loadOpcode(fieldType, 1));
+				code.u1(isStatic ? 0xb3 : 0xb5); // putstatic : putfield
+				code.u2(fieldRef);
+				code.u1(0xb1); // return
+				writeMethod(out, ACC_PUBLIC | ACC_STATIC, ClassAccessor.SETTER_PREFIX + i,
+						"(Ljava/lang/Object;" + fieldDescriptor + ")V", 1 + slots, 1 + slots, code);
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 为字段中出现的每种基本类型生成不装箱的读写方法，如int getIntDirect(Object, int)、void setIntDirect(Object, int, int)，
+	 * 只包括类型完全相同的字段
+	 *
+	 * @return 生成的方法数
+	 */
+	private int writePrimitiveSwitches(ByteVector out) {
+		int count = 0;
+		for (Class<?> primitive : PRIMITIVES) {
+			boolean[] getters = new boolean[fields.length];
+			boolean[] setters = new boolean[fields.length];
+			boolean any = false;
+			for (int i = 0; i < fields.length; i++) {
+				if (fields[i].getType() == primitive) {
+					getters[i] = directGetters[i];
+					setters[i] = directSetters[i];
+					any |= directGetters[i];
+				}
+			}
+			if (!any) {
+				continue;
+			}
+			String name = primitive.getName();
+			name = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+			String fieldDescriptor = descriptor(primitive);
+			int slots = primitive == long.class || primitive == double.class ? 2 : 1;
+			writeSwitchMethod(out, GET_PRIMITIVE, "get" + name + "Direct", "(Ljava/lang/Object;I)" + fieldDescriptor,
+					3, 2, getters);
+			writeSwitchMethod(out, SET_PRIMITIVE, "set" + name + "Direct",
+					"(Ljava/lang/Object;I" + fieldDescriptor + ")V", 3 + slots, 2, setters);
+			count += 2;
+		}
+		return count;
+	}
+
+	private static int returnOpcode(Class<?> type) {
+		if (!type.isPrimitive()) {
+			return 0xb0; // areturn
+		} else if (type == long.class) {
+			return 0xad; // lreturn
+		} else if (type == float.class) {
+			return 0xae; // freturn
+		} else if (type == double.class) {
+			return 0xaf; // dreturn
+		}
+		return 0xac; // ireturn
+	}
+
+	/**
+	 * xload_&lt;n&gt;，n取0到3
+	 */
+	private static int loadOpcode(Class<?> type, int local) {
+		if (!type.isPrimitive()) {
+			return 0x2a + local; // aload_<n>
+		} else if (type == long.class) {
+			return 0x1e + local; // lload_<n>
+		} else if (type == float.class) {
+			return 0x22 + local; // fload_<n>
+		} else if (type == double.class) {
+			return 0x26 + local; // dload_<n>
+		}
+		return 0x1a + local; // iload_<n>
+	}
+
+	/**
+	 * @return 该分支需要的最大操作数栈深度
+	 */
+	private int writeCase(ByteVector code, int kind, int index) {
+		switch (kind) {
+		case GET: {
+			Field field = fields[index];
+			Class<?> owner = fieldOwners[index];
+			String fieldDescriptor = descriptor(field.getType());
+			if (Modifier.isStatic(field.getModifiers())) {
+				code.u1(0xb2); // getstatic
+			} else {
+				code.u1(0x2b); // aload_1
+				checkcast(code, owner);
+				code.u1(0xb4); // getfield
+			}
+			code.u2(pool.fieldRef(internalName(owner), field.getName(), fieldDescriptor));
+			box(code, field.getType());
+			code.u1(0xb0); // areturn
+			return 2;
+		}
+		case SET: {
+			Field field = fields[index];
+			Class<?> owner = fieldOwners[index];
+			String fieldDescriptor = descriptor(field.getType());
+			boolean isStatic = Modifier.isStatic(field.getModifiers());
+			if (!isStatic) {
+				code.u1(0x2b); // aload_1
+				checkcast(code, owner);
+			}
+			code.u1(0x2d); // aload_3
+			unbox(code, field.getType());
+			code.u1(isStatic ? 0xb3 : 0xb5); // putstatic : putfield
+			code.u2(pool.fieldRef(internalName(owner), field.getName(), fieldDescriptor));
+			code.u1(0xb1); // return
+			return 3;
+		}
+		case GET_PRIMITIVE: {
+			Field field = fields[index];
+			Class<?> owner = fieldOwners[index];
+			if (Modifier.isStatic(field.getModifiers())) {
+				code.u1(0xb2); // getstatic
+			} else {
+				code.u1(0x2b); // aload_1
+				checkcast(code, owner);
+				code.u1(0xb4); // getfield
+			}
+			code.u2(pool.fieldRef(internalName(owner), field.getName(), descriptor(field.getType())));
+			code.u1(returnOpcode(field.getType()));
+			return 2;
+		}
+		case SET_PRIMITIVE: {
+			Field field = fields[index];
+			Class<?> owner = fieldOwners[index];
+			boolean isStatic = Modifier.isStatic(field.getModifiers());
+			if (!isStatic) {
+				code.u1(0x2b); // aload_1
+				checkcast(code, owner);
+			}
+			code.u1(loadOpcode(field.getType(), 3));
+			code.u1(isStatic ? 0xb3 : 0xb5); // putstatic : putfield
+			code.u2(pool.fieldRef(internalName(owner), field.getName(), descriptor(field.getType())));
+			code.u1(0xb1); // return
+			return 3;
+		}
+		case INVOKE: {
+			Method method = methods[index];
+			Class<?> owner = methodOwners[index];
+			boolean isStatic = Modifier.isStatic(method.getModifiers());
+			int stack = 0;
+			if (!isStatic) {
+				code.u1(0x2b); // aload_1
+				checkcast(code, owner);
+				stack = 1;
+			}
+			Class<?>[] parameterTypes = method.getParameterTypes();
+			stack += loadArguments(code, 0x2d, parameterTypes); // aload_3
+			String methodDescriptor = descriptor(parameterTypes, method.getReturnType());
+			if (isStatic) {
+				code.u1(0xb8); // invokestatic
+				code.u2(pool.methodRef(internalName(owner), method.getName(), methodDescriptor, false));
+			} else if (owner.isInterface()) {
+				code.u1(0xb9); // invokeinterface
+				code.u2(pool.methodRef(internalName(owner), method.getName(), methodDescriptor, true));
+				code.u1(stack);
+				code.u1(0);
+			} else {
+				code.u1(0xb6); // invokevirtual
+				code.u2(pool.methodRef(internalName(owner), method.getName(), methodDescriptor, false));
+			}
+			Class<?> returnType = method.getReturnType();
+			if (returnType == void.class) {
+				code.u1(0x01); // aconst_null
+			} else {
+				box(code, returnType);
+			}
+			code.u1(0xb0); // areturn
+			return stack + 3;
+		}
+		case NEW: {
+			Constructor<?> constructor = constructors[index];
+			code.u1(0xbb); // new
+			code.u2(pool.classInfo(internalName(type)));
+			code.u1(0x59); // dup
+			Class<?>[] parameterTypes = constructor.getParameterTypes();
+			int stack = 2 + loadArguments(code, 0x2c, parameterTypes); // aload_2
+			code.u1(0xb7); // invokespecial
+			code.u2(pool.methodRef(internalName(type), "<init>", descriptor(parameterTypes, void.class), false));
+			code.u1(0xb0); // areturn
+			return stack + 2;
+		}
+		default:
+			throw new IllegalArgumentException("kind:" + kind);
+		}
+	}
+
+	/**
+	 * 从Object[]中依次取出参数并拆箱或转型
+	 *
+	 * @return 参数占用的操作数栈深度
+	 */
+	private int loadArguments(ByteVector code, int aloadArray, Class<?>[] parameterTypes) {
+		int slots = 0;
+		for (int i = 0; i < parameterTypes.length; i++) {
+			code.u1(aloadArray);
+			pushInt(code, i);
+			code.u1(0x32); // aaload
+			unbox(code, parameterTypes[i]);
+			slots += parameterTypes[i] == long.class || parameterTypes[i] == double.class ? 2 : 1;
+		}
+		return slots;
+	}
+
+	private void checkcast(ByteVector code, Class<?> type) {
+		if (type != Object.class) {
+			code.u1(0xc0);
+			code.u2(pool.classInfo(internalName(type)));
+		}
+	}
+
+	private void unbox(ByteVector code, Class<?> type) {
+		if (!type.isPrimitive()) {
+			checkcast(code, type);
+			return;
+		}
+		String name = type.getName();
+		String method = "unbox" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		code.u1(0xb8); // invokestatic
+		code.u2(pool.methodRef(ACCESSOR, method, "(Ljava/lang/Object;)" + descriptor(type), false));
+	}
+
+	private void box(ByteVector code, Class<?> type) {
+		if (!type.isPrimitive()) {
+			return;
+		}
+		String wrapper = internalName(Reflect.wrapper(type));
+		code.u1(0xb8); // invokestatic
+		code.u2(pool.methodRef(wrapper, "valueOf", "(" + descriptor(type) + ")L" + wrapper + ";", false));
+	}
+
+	private static void iload(ByteVector code, int local) {
+		code.u1(0x1a + local); // iload_<n>
+	}
+
+	private void pushInt(ByteVector code, int value) {
+		if (value <= 5) {
+			code.u1(0x03 + value); // iconst_<n>
+		} else if (value <= Byte.MAX_VALUE) {
+			code.u1(0x10); // bipush
+			code.u1(value);
+		} else if (value <= Short.MAX_VALUE) {
+			code.u1(0x11); // sipush
+			code.u2(value);
+		} else {
+			code.u1(0x13); // ldc_w
+			code.u2(pool.integer(value));
+		}
+	}
+
+	private void writeMethod(ByteVector out, int access, String name, String descriptor, int maxStack,
+			int maxLocals, ByteVector code) {
+		out.u2(access);
+		out.u2(pool.utf8(name));
+		out.u2(pool.utf8(descriptor));
+		out.u2(1); // attributes
+		out.placeholder(); // "Code"，常量池写完后回填
+		out.u4(2 + 2 + 4 + code.length() + 2 + 2);
+		out.u2(maxStack);
+		out.u2(maxLocals);
+		out.u4(code.length());
+		out.bytes(code.toByteArray());
+		out.u2(0); // exception table
+		out.u2(0); // attributes
+	}
+
+	/**
+	 * 数组类型的getName()本身就是描述符形式
+	 */
+	private static String internalName(Class<?> type) {
+		return type.getName().replace('.', '/');
+	}
+
+	private static String descriptor(Class<?> type) {
+		if (type.isPrimitive()) {
+			if (type == int.class) {
+				return "I";
+			} else if (type == long.class) {
+				return "J";
+			} else if (type == boolean.class) {
+				return "Z";
+			} else if (type == double.class) {
+				return "D";
+			} else if (type == float.class) {
+				return "F";
+			} else if (type == byte.class) {
+				return "B";
+			} else if (type == char.class) {
+				return "C";
+			} else if (type == short.class) {
+				return "S";
+			}
+			return "V";
+		}
+		if (type.isArray()) {
+			return type.getName().replace('.', '/');
+		}
+		return "L" + type.getName().replace('.', '/') + ";";
+	}
+
+	private static String descriptor(Class<?>[] parameterTypes, Class<?> returnType) {
+		StringBuilder sb = new StringBuilder().append('(');
+		for (Class<?> parameterType : parameterTypes) {
+			sb.append(descriptor(parameterType));
+		}
+		return sb.append(')').append(descriptor(returnType)).toString();
+	}
+
+	/**
+	 * 常量池，相同的常量只写入一次
+	 */
+	private static final class ConstantPool {
+		private final ByteVector bytes = new ByteVector();
+		private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+		private int size = 1;
+
+		int size() {
+			return size;
+		}
+
+		byte[] bytes() {
+			return bytes.toByteArray();
+		}
+
+		int utf8(String value) {
+			String key = "U" + value;
+			Integer index = indexes.get(key);
+			if (index == null) {
+				bytes.u1(1);
+				bytes.utf8(value);
+				index = put(key, 1);
+			}
+			return index;
+		}
+
+		int integer(int value) {
+			String key = "I" + value;
+			Integer index = indexes.get(key);
+			if (index == null) {
+				bytes.u1(3);
+				bytes.u4(value);
+				index = put(key, 1);
+			}
+			return index;
+		}
+
+		int classInfo(String internalName) {
+			String key = "C" + internalName;
+			Integer index = indexes.get(key);
+			if (index == null) {
+				int name = utf8(internalName);
+				bytes.u1(7);
+				bytes.u2(name);
+				index = put(key, 1);
+			}
+			return index;
+		}
+
+		int nameAndType(String name, String descriptor) {
+			String key = "N" + name + ':' + descriptor;
+			Integer index = indexes.get(key);
+			if (index == null) {
+				int n = utf8(name);
+				int d = utf8(descriptor);
+				bytes.u1(12);
+				bytes.u2(n);
+				bytes.u2(d);
+				index = put(key, 1);
+			}
+			return index;
+		}
+
+		int fieldRef(String owner, String name, String descriptor) {
+			return memberRef(9, owner, name, descriptor);
+		}
+
+		int methodRef(String owner, String name, String descriptor, boolean isInterface) {
+			return memberRef(isInterface ? 11 : 10, owner, name, descriptor);
+		}
+
+		private int memberRef(int tag, String owner, String name, String descriptor) {
+			String key = "R" + tag + owner + '.' + name + ':' + descriptor;
+			Integer index = indexes.get(key);
+			if (index == null) {
+				int c = classInfo(owner);
+				int nt = nameAndType(name, descriptor);
+				bytes.u1(tag);
+				bytes.u2(c);
+				bytes.u2(nt);
+				index = put(key, 1);
+			}
+			return index;
+		}
+
+		private Integer put(String key, int slots) {
+			Integer index = size;
+			indexes.put(key, index);
+			size += slots;
+			return index;
+		}
+	}
+
+	/**
+	 * 可回填的字节缓冲
+	 */
+	private static final class ByteVector {
+		private byte[] data = new byte[256];
+		private int length;
+		private final List<Integer> placeholders = new ArrayList<Integer>();
+
+		int length() {
+			return length;
+		}
+
+		void u1(int value) {
+			ensure(1);
+			data[length++] = (byte) value;
+		}
+
+		void u2(int value) {
+			ensure(2);
+			data[length++] = (byte) (value >>> 8);
+			data[length++] = (byte) value;
+		}
+
+		void u4(int value) {
+			ensure(4);
+			putU4(length, value);
+			length += 4;
+		}
+
+		void putU4(int position, int value) {
+			data[position] = (byte) (value >>> 24);
+			data[position + 1] = (byte) (value >>> 16);
+			data[position + 2] = (byte) (value >>> 8);
+			data[position + 3] = (byte) value;
+		}
+
+		void placeholder() {
+			placeholders.add(length);
+			u2(0);
+		}
+
+		/**
+		 * 将所有占位的u2替换为指定值
+		 */
+		byte[] replace(int value) {
+			for (int position : placeholders) {
+				data[position] = (byte) (value >>> 8);
+				data[position + 1] = (byte) value;
+			}
+			return toByteArray();
+		}
+
+		void bytes(byte[] bytes) {
+			ensure(bytes.length);
+			System.arraycopy(bytes, 0, data, length, bytes.length);
+			length += bytes.length;
+		}
+
+		/**
+		 * modified UTF-8
+		 */
+		void utf8(String value) {
+			int start = length;
+			u2(0);
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				if (c >= 0x0001 && c <= 0x007F) {
+					u1(c);
+				} else if (c <= 0x07FF) {
+					u1(0xC0 | (c >> 6) & 0x1F);
+					u1(0x80 | c & 0x3F);
+				} else {
+					u1(0xE0 | (c >> 12) & 0x0F);
+					u1(0x80 | (c >> 6) & 0x3F);
+					u1(0x80 | c & 0x3F);
+				}
+			}
+			int size = length - start - 2;
+			if (size > 0xFFFF) {
+				throw new IllegalStateException("constant too long");
+			}
+			data[start] = (byte) (size >>> 8);
+			data[start + 1] = (byte) size;
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(data, length);
+		}
+
+		private void ensure(int size) {
+			if (length + size > data.length) {
+				data = Arrays.copyOf(data, Math.max(data.length * 2, length + size));
+			}
+		}
+	}
+
+	/**
+	 * 目标类加载器无法定义访问器时使用，自身提供{@link ClassAccessor}，其它类委托给目标类加载器
+	 */
+	private static final class AccessorClassLoader extends ClassLoader {
+		AccessorClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			if (name.equals(ClassAccessor.class.getName())) {
+				return ClassAccessor.class;
+			}
+			return super.loadClass(name, resolve);
+		}
+
+		Class<?> define(String name, byte[] bytes) {
+			return defineClass(name, bytes, 0, bytes.length, ClassAccessor.class.getProtectionDomain());
+		}
+	}
+}
@@ -0,0 +1,801 @@
+package com.vgerbot.reflect;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.vgerbot.reflect.Reflect.ClassReflect;
+import com.vgerbot.reflect.Reflect.FieldReflect;
+import com.vgerbot.reflect.Reflect.MethodReflect;
+
+/**
+ * 类路径上的类、父类型，以及类、方法、字段上注解的索引。直接解析类文件的常量池（见{@link ClassFileReader}），扫描时不加载任何类。
+ * <p>
+ * 查询返回的列表在访问某个元素时才加载对应的类（不执行静态初始化），并包装为{@link ClassReflect}、{@link MethodReflect}、
+ * {@link FieldReflect}。只记录运行时可见的注解；带{@link Inherited}的注解在查询时包括被注解类的子类。
+ * <p>
+ * 索引可以用{@link #save(File)}保存为二进制文件，{@link #scan(ClassLoader, File, List)}下次启动时比较各个根（jar的修改时间和大小，
+ * 目录中类文件的数量和最后修改时间），都没有变化时直接读取文件，不再扫描。
+ *
+ * @author y1j2x34
+ */
+public final class AnnotationIndex {
+	private static final int MAGIC = 0x52494458;
+	private static final int VERSION = 1;
+	private static final String CLASS_SUFFIX = ".class";
+
+	private final ClassLoader loader;
+	/**
+	 * 扫描时传入的根
+	 */
+	private final List<String> requested;
+	/**
+	 * 实际扫描的根，包括jar清单的Class-Path
+	 */
+	private final List<Root> roots;
+	private final Map<String, ClassEntry> classes;
+	private final Map<String, List<String>> annotatedClasses = new HashMap<String, List<String>>();
+	private final Map<String, List<MemberEntry>> annotatedMethods = new HashMap<String, List<MemberEntry>>();
+	private final Map<String, List<MemberEntry>> annotatedFields = new HashMap<String, List<MemberEntry>>();
+	/**
+	 * 父类或接口名称到直接子类型的映射
+	 */
+	private final Map<String, List<ClassEntry>> subtypes = new HashMap<String, List<ClassEntry>>();
+
+	private AnnotationIndex(ClassLoader loader, List<String> requested, List<Root> roots,
+			Map<String, ClassEntry> classes) {
+		this.loader = loader;
+		this.requested = requested;
+		this.roots = roots;
+		this.classes = classes;
+		for (ClassEntry entry : classes.values()) {
+			for (String annotation : entry.annotations) {
+				add(annotatedClasses, annotation, entry.name);
+			}
+			for (MemberEntry method : entry.methods) {
+				for (String annotation : method.annotations) {
+					add(annotatedMethods, annotation, method);
+				}
+			}
+			for (MemberEntry field : entry.fields) {
+				for (String annotation : field.annotations) {
+					add(annotatedFields, annotation, field);
+				}
+			}
+			if (entry.superName != null) {
+				add(subtypes, entry.superName, entry);
+			}
+			for (String name : entry.interfaces) {
+				add(subtypes, name, entry);
+			}
+		}
+	}
+
+	private static <T> void add(Map<String, List<T>> map, String key, T value) {
+		List<T> values = map.get(key);
+		if (values == null) {
+			values = new ArrayList<T>(2);
+			map.put(key, values);
+		}
+		values.add(value);
+	}
+
+	/**
+	 * 扫描jar文件和类目录，同名的类以先扫描到的为准
+	 *
+	 * @param loader
+	 *            查询结果使用的类加载器
+	 * @param roots
+	 *            jar文件或类目录，不存在的忽略
+	 * @return
+	 * @throws ReflectException
+	 *             读取jar文件失败
+	 */
+	public static AnnotationIndex scan(ClassLoader loader, List<File> roots) throws ReflectException {
+		Scanner scanner = new Scanner();
+		try {
+			for (File root : roots) {
+				scanner.add(root);
+			}
+		} catch (IOException e) {
+			throw new ReflectException(e);
+		}
+		return new AnnotationIndex(loader, paths(roots), scanner.roots, scanner.classes);
+	}
+
+	/**
+	 * 优先读取保存的索引文件，文件不存在、格式不符、扫描的根不同或有变化时重新扫描并保存
+	 *
+	 * @param loader
+	 * @param cache
+	 *            索引文件，为null时不保存
+	 * @param roots
+	 * @return
+	 * @throws ReflectException
+	 *             读取jar文件或保存索引失败
+	 */
+	public static AnnotationIndex scan(ClassLoader loader, File cache, List<File> roots) throws ReflectException {
+		if (cache != null && cache.isFile()) {
+			AnnotationIndex index;
+			try {
+				index = load(cache, loader);
+			} catch (ReflectException e) {
+				index = null;
+			}
+			if (index != null && index.requested.equals(paths(roots)) && !index.isStale()) {
+				return index;
+			}
+		}
+		AnnotationIndex index = scan(loader, roots);
+		if (cache != null) {
+			index.save(cache);
+		}
+		return index;
+	}
+
+	private static List<String> paths(List<File> roots) {
+		List<String> paths = new ArrayList<String>(roots.size());
+		for (File root : roots) {
+			paths.add(root.getAbsolutePath());
+		}
+		return paths;
+	}
+
+	/**
+	 * 读取{@link #save(File)}保存的索引，不检查是否过期
+	 *
+	 * @param file
+	 * @param loader
+	 * @return 文件不是索引文件或版本不同时返回null
+	 * @throws ReflectException
+	 *             读取失败或文件已损坏
+	 */
+	public static AnnotationIndex load(File file, ClassLoader loader) throws ReflectException {
+		try {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16));
+			try {
+				if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+					return null;
+				}
+				int count = readCount(in);
+				List<String> requested = new ArrayList<String>(count);
+				for (int i = 0; i < count; i++) {
+					requested.add(in.readUTF());
+				}
+				count = readCount(in);
+				List<Root> roots = new ArrayList<Root>(count);
+				for (int i = 0; i < count; i++) {
+					roots.add(new Root(in.readUTF(), in.readLong(), in.readLong()));
+				}
+				String[] strings = new String[readCount(in)];
+				for (int i = 0; i < strings.length; i++) {
+					strings[i] = in.readUTF();
+				}
+				count = readCount(in);
+				Map<String, ClassEntry> classes = new LinkedHashMap<String, ClassEntry>(count * 4 / 3 + 1);
+				for (int i = 0; i < count; i++) {
+					String name = strings[readVarInt(in)];
+					int superIndex = readVarInt(in);
+					int access = readVarInt(in);
+					String[] interfaces = readStrings(in, strings);
+					String[] annotations = readStrings(in, strings);
+					MemberEntry[] fields = readMembers(in, strings, name);
+					MemberEntry[] methods = readMembers(in, strings, name);
+					classes.put(name, new ClassEntry(name, superIndex == 0 ? null : strings[superIndex - 1],
+							interfaces, access, annotations, fields, methods));
+				}
+				return new AnnotationIndex(loader, requested, roots, classes);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			throw new ReflectException(e);
+		} catch (RuntimeException e) {
+			// 下标越界等，文件已损坏
+			throw new ReflectException("Corrupted index " + file, e);
+		}
+	}
+
+	/**
+	 * 读取元素数量，每个元素至少占一个字节，超过剩余字节数说明文件已损坏，避免按损坏的数量分配数组
+	 */
+	private static int readCount(DataInputStream in) throws IOException {
+		int count = readVarInt(in);
+		if (count < 0 || count > in.available()) {
+			throw new IOException("Corrupted count " + count);
+		}
+		return count;
+	}
+
+	private static String[] readStrings(DataInputStream in, String[] strings) throws IOException {
+		int count = readCount(in);
+		if (count == 0) {
+			return ClassEntry.NO_NAMES;
+		}
+		String[] values = new String[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = strings[readVarInt(in)];
+		}
+		return values;
+	}
+
+	private static MemberEntry[] readMembers(DataInputStream in, String[] strings, String owner) throws IOException {
+		int count = readCount(in);
+		if (count == 0) {
+			return MemberEntry.NONE;
+		}
+		MemberEntry[] members = new MemberEntry[count];
+		for (int i = 0; i < count; i++) {
+			String name = strings[readVarInt(in)];
+			String descriptor = strings[readVarInt(in)];
+			members[i] = new MemberEntry(owner, name, descriptor, readStrings(in, strings));
+		}
+		return members;
+	}
+
+	/**
+	 * 保存为二进制文件：所有名称集中在一张字符串表中，其余都是变长整数编码的下标。先写入临时文件再重命名。
+	 *
+	 * @param file
+	 * @throws ReflectException
+	 *             写入失败
+	 */
+	public void save(File file) throws ReflectException {
+		Map<String, Integer> table = new LinkedHashMap<String, Integer>();
+		for (ClassEntry entry : classes.values()) {
+			intern(table, entry.name);
+			if (entry.superName != null) {
+				intern(table, entry.superName);
+			}
+			intern(table, entry.interfaces);
+			intern(table, entry.annotations);
+			for (MemberEntry[] members : new MemberEntry[][] { entry.fields, entry.methods }) {
+				for (MemberEntry member : members) {
+					intern(table, member.name);
+					intern(table, member.descriptor);
+					intern(table, member.annotations);
+				}
+			}
+		}
+		File temp = new File(file.getPath() + ".tmp");
+		try {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16));
+			try {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				writeVarInt(out, requested.size());
+				for (String path : requested) {
+					out.writeUTF(path);
+				}
+				writeVarInt(out, roots.size());
+				for (Root root : roots) {
+					out.writeUTF(root.path);
+					out.writeLong(root.lastModified);
+					out.writeLong(root.length);
+				}
+				writeVarInt(out, table.size());
+				for (String string : table.keySet()) {
+					out.writeUTF(string);
+				}
+				writeVarInt(out, classes.size());
+				for (ClassEntry entry : classes.values()) {
+					writeVarInt(out, table.get(entry.name));
+					writeVarInt(out, entry.superName == null ? 0 : table.get(entry.superName) + 1);
+					writeVarInt(out, entry.access);
+					writeStrings(out, table, entry.interfaces);
+					writeStrings(out, table, entry.annotations);
+					writeMembers(out, table, entry.fields);
+					writeMembers(out, table, entry.methods);
+				}
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			temp.delete();
+			throw new ReflectException(e);
+		}
+		if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+			temp.delete();
+			throw new ReflectException("Can not write " + file);
+		}
+	}
+
+	private static void intern(Map<String, Integer> table, String... strings) {
+		for (String string : strings) {
+			if (!table.containsKey(string)) {
+				table.put(string, table.size());
+			}
+		}
+	}
+
+	private static void writeStrings(DataOutputStream out, Map<String, Integer> table, String[] strings)
+			throws IOException {
+		writeVarInt(out, strings.length);
+		for (String string : strings) {
+			writeVarInt(out, table.get(string));
+		}
+	}
+
+	private static void writeMembers(DataOutputStream out, Map<String, Integer> table, MemberEntry[] members)
+			throws IOException {
+		writeVarInt(out, members.length);
+		for (MemberEntry member : members) {
+			writeVarInt(out, table.get(member.name));
+			writeVarInt(out, table.get(member.descriptor));
+			writeStrings(out, table, member.annotations);
+		}
+	}
+
+	private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+
+	private static int readVarInt(DataInputStream in) throws IOException {
+		int value = 0;
+		for (int shift = 0;; shift += 7) {
+			if (shift > 28) {
+				throw new IOException("Corrupted varint");
+			}
+			int b = in.readUnsignedByte();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+	}
+
+	/**
+	 * @return 扫描过的根是否有变化（jar文件的修改时间、大小，目录中类文件的数量、最后修改时间）
+	 */
+	public boolean isStale() {
+		for (Root root : roots) {
+			if (!root.equals(Root.of(new File(root.path)))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 带有指定注解的类，注解带{@link Inherited}时包括被注解类的子类
+	 *
+	 * @param annotationType
+	 * @return 访问元素时才加载类
+	 */
+	public List<ClassReflect> getAnnotatedClasses(Class<? extends Annotation> annotationType) {
+		List<String> annotated = annotatedClasses.get(annotationType.getName());
+		if (annotated == null) {
+			return Collections.emptyList();
+		}
+		if (!annotationType.isAnnotationPresent(Inherited.class)) {
+			return classes(annotated);
+		}
+		Set<String> names = new LinkedHashSet<String>();
+		for (String name : annotated) {
+			names.add(name);
+			if (!classes.get(name).isInterface()) {
+				addSubclasses(name, names);
+			}
+		}
+		return classes(new ArrayList<String>(names));
+	}
+
+	private void addSubclasses(String name, Set<String> names) {
+		List<ClassEntry> direct = subtypes.get(name);
+		if (direct == null) {
+			return;
+		}
+		for (ClassEntry entry : direct) {
+			if (name.equals(entry.superName) && names.add(entry.name)) {
+				addSubclasses(entry.name, names);
+			}
+		}
+	}
+
+	/**
+	 * 带有指定注解的方法（不包括构造器）
+	 *
+	 * @param annotationType
+	 * @return 访问元素时才加载类
+	 */
+	public List<MethodReflect> getAnnotatedMethods(Class<? extends Annotation> annotationType) {
+		final List<MemberEntry> methods = annotatedMethods.get(annotationType.getName());
+		if (methods == null) {
+			return Collections.emptyList();
+		}
+		return new LazyList<MethodReflect>(methods.size()) {
+			@Override
+			MethodReflect resolve(int index) {
+				return Reflect.on(method(methods.get(index)));
+			}
+		};
+	}
+
+	/**
+	 * 带有指定注解的字段
+	 *
+	 * @param annotationType
+	 * @return 访问元素时才加载类
+	 */
+	public List<FieldReflect> getAnnotatedFields(Class<? extends Annotation> annotationType) {
+		final List<MemberEntry> fields = annotatedFields.get(annotationType.getName());
+		if (fields == null) {
+			return Collections.emptyList();
+		}
+		return new LazyList<FieldReflect>(fields.size()) {
+			@Override
+			FieldReflect resolve(int index) {
+				return Reflect.on(field(fields.get(index)));
+			}
+		};
+	}
+
+	/**
+	 * 索引中直接或间接继承、实现指定类型的类。只能沿索引中的类追溯，中间经过未索引的类（如JDK的类）时找不到。
+	 *
+	 * @param type
+	 * @return 访问元素时才加载类，不包括type本身
+	 */
+	public List<ClassReflect> getSubtypes(Class<?> type) {
+		Set<String> names = new LinkedHashSet<String>();
+		addSubtypes(type.getName(), names);
+		names.remove(type.getName());
+		return classes(new ArrayList<String>(names));
+	}
+
+	private void addSubtypes(String name, Set<String> names) {
+		List<ClassEntry> direct = subtypes.get(name);
+		if (direct == null) {
+			return;
+		}
+		for (ClassEntry entry : direct) {
+			if (names.add(entry.name)) {
+				addSubtypes(entry.name, names);
+			}
+		}
+	}
+
+	/**
+	 * @param className
+	 * @return 类是否在索引中
+	 */
+	public boolean contains(String className) {
+		return classes.containsKey(className);
+	}
+
+	/**
+	 * @return 索引中的所有类名
+	 */
+	public Set<String> getClassNames() {
+		return Collections.unmodifiableSet(classes.keySet());
+	}
+
+	public int size() {
+		return classes.size();
+	}
+
+	public ClassLoader getClassLoader() {
+		return loader;
+	}
+
+	private List<ClassReflect> classes(final List<String> names) {
+		return new LazyList<ClassReflect>(names.size()) {
+			@Override
+			ClassReflect resolve(int index) {
+				return Reflect.on(load(names.get(index)));
+			}
+		};
+	}
+
+	private Class<?> load(String name) throws ReflectException {
+		return ClassNameCache.forName(name, loader);
+	}
+
+	private Method method(MemberEntry entry) throws ReflectException {
+		try {
+			return Reflect.accessible(load(entry.owner).getDeclaredMethod(entry.name, parameterTypes(entry.descriptor)));
+		} catch (NoSuchMethodException e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	private Field field(MemberEntry entry) throws ReflectException {
+		try {
+			return Reflect.accessible(load(entry.owner).getDeclaredField(entry.name));
+		} catch (NoSuchFieldException e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	/**
+	 * 方法描述符（如"(I[Ljava/lang/String;)V"）中的参数类型
+	 */
+	private Class<?>[] parameterTypes(String descriptor) throws ReflectException {
+		List<Class<?>> types = new ArrayList<Class<?>>();
+		int i = 1;
+		while (descriptor.charAt(i) != ')') {
+			int start = i;
+			while (descriptor.charAt(i) == '[') {
+				i++;
+			}
+			if (descriptor.charAt(i) == 'L') {
+				i = descriptor.indexOf(';', i);
+			}
+			i++;
+			if (i - start == 1) {
+				types.add(ClassNameCache.descriptorType(descriptor.charAt(start)));
+			} else if (descriptor.charAt(start) == 'L') {
+				types.add(load(descriptor.substring(start + 1, i - 1).replace('/', '.')));
+			} else {
+				types.add(load(descriptor.substring(start, i).replace('/', '.')));
+			}
+		}
+		return types.toArray(new Class<?>[types.size()]);
+	}
+
+	@Override
+	public String toString() {
+		return "AnnotationIndex[classes=" + classes.size() + ", annotations="
+				+ (annotatedClasses.size() + annotatedMethods.size() + annotatedFields.size()) + ", roots="
+				+ roots.size() + "]";
+	}
+
+	/**
+	 * 访问元素时才解析，结果缓存
+	 */
+	private abstract static class LazyList<T> extends AbstractList<T> {
+		private final Object[] values;
+
+		LazyList(int size) {
+			values = new Object[size];
+		}
+
+		abstract T resolve(int index);
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public T get(int index) {
+			Object value = values[index];
+			if (value == null) {
+				value = resolve(index);
+				values[index] = value;
+			}
+			return (T) value;
+		}
+
+		@Override
+		public int size() {
+			return values.length;
+		}
+	}
+
+	static final class ClassEntry {
+		static final String[] NO_NAMES = new String[0];
+
+		final String name;
+		final String superName;
+		final String[] interfaces;
+		final int access;
+		final String[] annotations;
+		final MemberEntry[] fields;
+		final MemberEntry[] methods;
+
+		ClassEntry(String name, String superName, String[] interfaces, int access, String[] annotations,
+				MemberEntry[] fields, MemberEntry[] methods) {
+			this.name = name;
+			this.superName = superName;
+			this.interfaces = interfaces;
+			this.access = access;
+			this.annotations = annotations;
+			this.fields = fields;
+			this.methods = methods;
+		}
+
+		boolean isInterface() {
+			return (access & Modifier.INTERFACE) != 0;
+		}
+	}
+
+	/**
+	 * 带注解的字段或方法
+	 */
+	static final class MemberEntry {
+		static final MemberEntry[] NONE = new MemberEntry[0];
+
+		final String owner;
+		final String name;
+		final String descriptor;
+		final String[] annotations;
+
+		MemberEntry(String owner, String name, String descriptor, String[] annotations) {
+			this.owner = owner;
+			this.name = name;
+			this.descriptor = descriptor;
+			this.annotations = annotations;
+		}
+	}
+
+	/**
+	 * 扫描过的根及其指纹
+	 */
+	static final class Root {
+		final String path;
+		final long lastModified;
+		final long length;
+
+		Root(String path, long lastModified, long length) {
+			this.path = path;
+			this.lastModified = lastModified;
+			this.length = length;
+		}
+
+		/**
+		 * jar文件取修改时间和大小，目录取其中类文件和子目录的最后修改时间以及类文件数量
+		 */
+		static Root of(File file) {
+			if (!file.isDirectory()) {
+				return new Root(file.getPath(), file.lastModified(), file.length());
+			}
+			long[] fingerprint = { file.lastModified(), 0 };
+			fingerprint(file, fingerprint);
+			return new Root(file.getPath(), fingerprint[0], fingerprint[1]);
+		}
+
+		private static void fingerprint(File directory, long[] fingerprint) {
+			File[] files = directory.listFiles();
+			if (files == null) {
+				return;
+			}
+			for (File file : files) {
+				if (file.isDirectory()) {
+					fingerprint[0] = Math.max(fingerprint[0], file.lastModified());
+					fingerprint(file, fingerprint);
+				} else if (file.getName().endsWith(CLASS_SUFFIX)) {
+					fingerprint[0] = Math.max(fingerprint[0], file.lastModified());
+					fingerprint[1]++;
+				}
+			}
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Root)) {
+				return false;
+			}
+			Root other = (Root) obj;
+			return path.equals(other.path) && lastModified == other.lastModified && length == other.length;
+		}
+
+		@Override
+		public int hashCode() {
+			return path.hashCode();
+		}
+	}
+
+	private static final class Scanner {
+		final Map<String, ClassEntry> classes = new LinkedHashMap<String, ClassEntry>();
+		final List<Root> roots = new ArrayList<Root>();
+		final Set<File> visited = new HashSet<File>();
+
+		void add(File root) throws IOException {
+			root = root.getAbsoluteFile();
+			if (!visited.add(root) || !root.exists()) {
+				return;
+			}
+			roots.add(Root.of(root));
+			if (root.isDirectory()) {
+				addDirectory(root);
+				return;
+			}
+			addJar(root);
+			for (URL url : ClassIndex.manifestClassPath(root)) {
+				File file = ClassIndex.toFile(url);
+				if (file != null) {
+					add(file);
+				}
+			}
+		}
+
+		private void addDirectory(File directory) throws IOException {
+			File[] files = directory.listFiles();
+			if (files == null) {
+				return;
+			}
+			for (File file : files) {
+				String name = file.getName();
+				if (file.isDirectory()) {
+					if (name.indexOf('.') < 0 && !"META-INF".equals(name)) {
+						addDirectory(file);
+					}
+				} else if (isClassFile(name)) {
+					InputStream in = new FileInputStream(file);
+					try {
+						addClass(in, file.length());
+					} finally {
+						in.close();
+					}
+				}
+			}
+		}
+
+		private void addJar(File jar) throws IOException {
+			ZipFile zip = new ZipFile(jar);
+			try {
+				Enumeration<? extends ZipEntry> entries = zip.entries();
+				while (entries.hasMoreElements()) {
+					ZipEntry entry = entries.nextElement();
+					String name = entry.getName();
+					if (!entry.isDirectory() && !name.startsWith("META-INF/") && isClassFile(name)) {
+						InputStream in = zip.getInputStream(entry);
+						try {
+							addClass(in, entry.getSize());
+						} finally {
+							in.close();
+						}
+					}
+				}
+			} finally {
+				zip.close();
+			}
+		}
+
+		private static boolean isClassFile(String name) {
+			return name.endsWith(CLASS_SUFFIX) && !name.endsWith("module-info.class")
+					&& !name.endsWith("package-info.class");
+		}
+
+		private void addClass(InputStream in, long size) throws IOException {
+			ClassEntry entry = ClassFileReader.read(readFully(in, size));
+			// 无法解析的类文件忽略，同名的类以先扫描到的为准
+			if (entry != null && !classes.containsKey(entry.name)) {
+				classes.put(entry.name, entry);
+			}
+		}
+
+		private static byte[] readFully(InputStream in, long size) throws IOException {
+			byte[] bytes = new byte[size > 0 && size < Integer.MAX_VALUE ? (int) size : 4096];
+			int length = 0;
+			int n;
+			while ((n = in.read(bytes, length, bytes.length - length)) > 0) {
+				length += n;
+				if (length == bytes.length) {
+					if (length == size) {
+						break;
+					}
+					bytes = Arrays.copyOf(bytes, length * 2);
+				}
+			}
+			return length == bytes.length ? bytes : Arrays.copyOf(bytes, length);
+		}
+	}
+}
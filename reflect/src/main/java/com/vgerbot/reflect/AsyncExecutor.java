@@ -0,0 +1,291 @@
+package com.vgerbot.reflect;
+
+import java.lang.reflect.Method;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import com.vgerbot.reflect.Reflect.BatchReflect;
+
+/**
+ * MethodReflect、BatchMethodReflect异步调用的执行方式，适合调用JDBC、文件等阻塞的方法。
+ * <p>
+ * 限制并发数时，超出的调用在队列中等待，不会阻塞提交调用的线程；同一实例上发起的所有调用共用这个限制。
+ * 取消返回的{@link CompletableFuture}时，未开始的调用不再执行，cancel(true)会中断正在执行的调用。
+ *
+ * @author y1j2x34
+ */
+final class AsyncExecutor {
+	static final AsyncExecutor DEFAULT = new AsyncExecutor(null, 0);
+
+	/**
+	 * null表示使用{@link Reflect#getDefaultAsyncExecutor()}
+	 */
+	private final Executor executor;
+	/**
+	 * 最大并发数，0表示不限制
+	 */
+	private final int maxConcurrency;
+	private final Queue<Call> pending = new ConcurrentLinkedQueue<Call>();
+	private final AtomicInteger running = new AtomicInteger();
+
+	private AsyncExecutor(Executor executor, int maxConcurrency) {
+		this.executor = executor;
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * @param executor
+	 *            null时使用{@link Reflect#getDefaultAsyncExecutor()}
+	 * @param maxConcurrency
+	 *            0表示不限制
+	 * @return
+	 * @throws ReflectException
+	 *             maxConcurrency小于0
+	 */
+	static AsyncExecutor of(Executor executor, int maxConcurrency) throws ReflectException {
+		if (maxConcurrency < 0) {
+			throw new ReflectException("negative max concurrency:" + maxConcurrency);
+		}
+		if (executor == null && maxConcurrency == 0) {
+			return DEFAULT;
+		}
+		return new AsyncExecutor(executor, maxConcurrency);
+	}
+
+	/**
+	 * JDK支持虚拟线程（JDK 21+）时每个调用使用一个虚拟线程，否则使用守护线程的缓存线程池
+	 */
+	static Executor defaultExecutor() {
+		return DefaultExecutor.INSTANCE;
+	}
+
+	/**
+	 * 异步执行单个调用
+	 *
+	 * @param task
+	 *            index为0
+	 * @return
+	 */
+	CompletableFuture<Reflect> submit(BatchExecutor.Task<Reflect> task) {
+		Call call = new Call(this, task, 0);
+		execute(call);
+		return call;
+	}
+
+	/**
+	 * 异步执行每个元素的调用，全部完成后结果按元素顺序组成BatchReflect。
+	 * 有元素失败时合并所有失败，取消返回的Future会取消所有未完成的调用
+	 *
+	 * @param from
+	 * @param size
+	 * @param task
+	 * @return
+	 */
+	CompletableFuture<Reflect> submitAll(final Reflect from, final int size, BatchExecutor.Task<Reflect> task) {
+		final Call[] calls = new Call[size];
+		final Batch batch = new Batch(calls);
+		if (size == 0) {
+			batch.complete(BatchReflect.of(from, new Reflect[0]));
+			return batch;
+		}
+		final Reflect[] results = new Reflect[size];
+		final Throwable[] failures = new Throwable[size];
+		final AtomicInteger remaining = new AtomicInteger(size);
+		for (int i = 0; i < size; i++) {
+			final int index = i;
+			calls[i] = new Call(this, task, i);
+			calls[i].whenComplete(new BiConsumer<Reflect, Throwable>() {
+				@Override
+				public void accept(Reflect result, Throwable failure) {
+					results[index] = result;
+					failures[index] = failure;
+					if (remaining.decrementAndGet() == 0) {
+						ReflectException exception = BatchExecutor.failures(failures);
+						if (exception != null) {
+							batch.completeExceptionally(exception);
+						} else {
+							batch.complete(BatchReflect.of(from, results));
+						}
+					}
+				}
+			});
+		}
+		for (Call call : calls) {
+			execute(call);
+		}
+		return batch;
+	}
+
+	private void execute(Call call) {
+		if (maxConcurrency == 0) {
+			start(call);
+			return;
+		}
+		pending.offer(call);
+		drain();
+	}
+
+	/**
+	 * 在并发数未达上限时启动等待中的调用
+	 */
+	private void drain() {
+		for (;;) {
+			int count = running.get();
+			if (count >= maxConcurrency || pending.isEmpty()) {
+				return;
+			}
+			if (!running.compareAndSet(count, count + 1)) {
+				continue;
+			}
+			Call call = pending.poll();
+			if (call == null) {
+				running.decrementAndGet();
+				continue;
+			}
+			start(call);
+		}
+	}
+
+	private void start(Call call) {
+		Executor executor = this.executor != null ? this.executor : Reflect.getDefaultAsyncExecutor();
+		try {
+			executor.execute(call);
+		} catch (RejectedExecutionException e) {
+			call.completeExceptionally(new ReflectException("async call rejected by " + executor, e));
+			finished();
+		}
+	}
+
+	private void finished() {
+		if (maxConcurrency > 0) {
+			running.decrementAndGet();
+			drain();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "async(" + (executor == null ? "default" : executor) + ", maxConcurrency="
+				+ (maxConcurrency == 0 ? "unbounded" : maxConcurrency) + ")";
+	}
+
+	/**
+	 * 单个调用，取消时中断执行调用的线程
+	 */
+	private static final class Call extends CompletableFuture<Reflect> implements Runnable {
+		private final AsyncExecutor owner;
+		private final BatchExecutor.Task<Reflect> task;
+		private final int index;
+		private final Object lock = new Object();
+		private Thread runner;
+
+		Call(AsyncExecutor owner, BatchExecutor.Task<Reflect> task, int index) {
+			this.owner = owner;
+			this.task = task;
+			this.index = index;
+		}
+
+		@Override
+		public void run() {
+			try {
+				synchronized (lock) {
+					if (isDone()) {
+						return;
+					}
+					runner = Thread.currentThread();
+				}
+				try {
+					complete(task.run(index));
+				} catch (Throwable e) {
+					completeExceptionally(e);
+				} finally {
+					synchronized (lock) {
+						runner = null;
+					}
+					if (isCancelled()) {
+						// 清除取消时可能留下的中断状态，避免影响线程池执行的下一个任务
+						Thread.interrupted();
+					}
+				}
+			} finally {
+				owner.finished();
+			}
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled && mayInterruptIfRunning) {
+				interrupt();
+			}
+			return cancelled;
+		}
+
+		void interrupt() {
+			synchronized (lock) {
+				if (runner != null) {
+					runner.interrupt();
+				}
+			}
+		}
+	}
+
+	/**
+	 * 批量调用的结果，取消时传递给所有调用
+	 */
+	private static final class Batch extends CompletableFuture<Reflect> {
+		private final Call[] calls;
+
+		Batch(Call[] calls) {
+			this.calls = calls;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if (cancelled) {
+				// 先取消所有调用再中断，避免中断后腾出的并发名额启动尚未取消的调用
+				boolean[] interrupt = new boolean[calls.length];
+				for (int i = 0; i < calls.length; i++) {
+					interrupt[i] = calls[i].cancel(false) && mayInterruptIfRunning;
+				}
+				for (int i = 0; i < calls.length; i++) {
+					if (interrupt[i]) {
+						calls[i].interrupt();
+					}
+				}
+			}
+			return cancelled;
+		}
+	}
+
+	private static final class DefaultExecutor {
+		static final Executor INSTANCE = create();
+
+		private static Executor create() {
+			try {
+				Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+				return (ExecutorService) factory.invoke(null);
+			} catch (Exception ignore) {
+				// JDK 21之前没有虚拟线程
+			}
+			final AtomicInteger count = new AtomicInteger();
+			return Executors.newCachedThreadPool(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "reflect-async-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,207 @@
+package com.vgerbot.reflect;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * BatchReflect、BatchMethodReflect的执行方式：顺序执行，或按块拆分后交给线程池并行执行。
+ * <p>
+ * 并行执行时结果按元素下标保存，顺序与顺序执行一致；单个元素失败不会中断其它元素，
+ * 全部执行完后把所有失败合并为一个{@link ReflectException}，每个失败作为suppressed异常。
+ *
+ * @author y1j2x34
+ */
+final class BatchExecutor {
+	static final BatchExecutor SEQUENTIAL = new BatchExecutor(null, 0);
+
+	/**
+	 * null表示顺序执行
+	 */
+	private final Executor executor;
+	/**
+	 * 每块元素个数，0表示按并行度自动计算
+	 */
+	private final int chunkSize;
+
+	private BatchExecutor(Executor executor, int chunkSize) {
+		this.executor = executor;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * @param executor
+	 *            null时使用{@link Reflect#getDefaultBatchExecutor()}
+	 * @param chunkSize
+	 *            0表示自动计算
+	 * @return
+	 * @throws ReflectException
+	 *             chunkSize小于0
+	 */
+	static BatchExecutor parallel(Executor executor, int chunkSize) throws ReflectException {
+		if (chunkSize < 0) {
+			throw new ReflectException("negative chunk size:" + chunkSize);
+		}
+		return new BatchExecutor(executor, chunkSize);
+	}
+
+	boolean isParallel() {
+		return this != SEQUENTIAL;
+	}
+
+	/**
+	 * 对每个元素执行任务
+	 *
+	 * @param results
+	 *            保存每个元素的结果，长度为元素个数
+	 * @param task
+	 * @return results
+	 * @throws ReflectException
+	 *             顺序执行时为第一个失败；并行执行时合并所有失败
+	 */
+	<T> T[] run(T[] results, Task<? extends T> task) throws ReflectException {
+		int size = results.length;
+		if (!isParallel() || size < 2) {
+			for (int i = 0; i < size; i++) {
+				results[i] = task.run(i);
+			}
+			return results;
+		}
+		Throwable[] failures = new Throwable[size];
+		Executor executor = this.executor != null ? this.executor : Reflect.getDefaultBatchExecutor();
+		int chunkSize = this.chunkSize > 0 ? this.chunkSize : autoChunkSize(size, executor);
+		if (executor instanceof ForkJoinPool) {
+			((ForkJoinPool) executor).invoke(new Chunk<T>(task, results, failures, 0, size, chunkSize));
+		} else {
+			submit(executor, task, results, failures, size, chunkSize);
+		}
+		ReflectException exception = failures(failures);
+		if (exception != null) {
+			throw exception;
+		}
+		return results;
+	}
+
+	private static int autoChunkSize(int size, Executor executor) {
+		int parallelism = executor instanceof ForkJoinPool ? ((ForkJoinPool) executor).getParallelism()
+				: Runtime.getRuntime().availableProcessors();
+		// 每个线程约分到4块，兼顾负载均衡与调度开销
+		return Math.max(1, size / (parallelism * 4));
+	}
+
+	private static <T> void submit(Executor executor, final Task<? extends T> task, final T[] results,
+			final Throwable[] failures, int size, int chunkSize) {
+		int chunks = (size + chunkSize - 1) / chunkSize;
+		final CountDownLatch latch = new CountDownLatch(chunks);
+		for (int from = 0; from < size; from += chunkSize) {
+			final int start = from;
+			final int end = Math.min(size, from + chunkSize);
+			Runnable chunk = new Runnable() {
+				@Override
+				public void run() {
+					try {
+						runRange(task, results, failures, start, end);
+					} finally {
+						latch.countDown();
+					}
+				}
+			};
+			try {
+				executor.execute(chunk);
+			} catch (RejectedExecutionException e) {
+				chunk.run();
+			}
+		}
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ReflectException("interrupted while waiting for batch", e);
+		}
+	}
+
+	private static <T> void runRange(Task<? extends T> task, T[] results, Throwable[] failures, int from, int to) {
+		for (int i = from; i < to; i++) {
+			try {
+				results[i] = task.run(i);
+			} catch (Throwable e) {
+				failures[i] = e;
+			}
+		}
+	}
+
+	/**
+	 * 合并所有元素的失败
+	 *
+	 * @param failures
+	 *            按元素下标保存的失败，成功的元素为null
+	 * @return null if no failure
+	 */
+	static ReflectException failures(Throwable[] failures) {
+		int count = 0;
+		for (Throwable failure : failures) {
+			if (failure != null) {
+				count++;
+			}
+		}
+		if (count == 0) {
+			return null;
+		}
+		ReflectException exception = new ReflectException(count + " of " + failures.length + " batch elements failed");
+		for (int i = 0; i < failures.length; i++) {
+			if (failures[i] != null) {
+				exception.addSuppressed(new ReflectException("batch element " + i + " failed", failures[i]));
+			}
+		}
+		return exception;
+	}
+
+	@Override
+	public String toString() {
+		if (!isParallel()) {
+			return "sequential";
+		}
+		return "parallel(" + (executor == null ? "default" : executor) + ", chunkSize="
+				+ (chunkSize == 0 ? "auto" : chunkSize) + ")";
+	}
+
+	/**
+	 * 对单个元素执行的任务
+	 */
+	static abstract class Task<T> {
+		abstract T run(int index) throws ReflectException;
+	}
+
+	private static final class Chunk<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final Task<? extends T> task;
+		private final T[] results;
+		private final Throwable[] failures;
+		private final int from;
+		private final int to;
+		private final int chunkSize;
+
+		Chunk(Task<? extends T> task, T[] results, Throwable[] failures, int from, int to, int chunkSize) {
+			this.task = task;
+			this.results = results;
+			this.failures = failures;
+			this.from = from;
+			this.to = to;
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= chunkSize) {
+				runRange(task, results, failures, from, to);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new Chunk<T>(task, results, failures, from, middle, chunkSize),
+					new Chunk<T>(task, results, failures, middle, to, chunkSize));
+		}
+	}
+}
@@ -0,0 +1,399 @@
+package com.vgerbot.reflect;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 在两个类之间按字段名复制字段值（浅复制），通过{@link Reflect#copier(Class, Class)}获取。
+ * <p>
+ * 构建时按名称匹配一次源类与目标类的字段（见{@link MapCodec}的字段规则），生成复制计划，
+ * 复制时通过双方声明类的{@link ClassAccessor}按下标读写，不再按名称查找字段。字段匹配的条件：
+ * <ul>
+ * <li>目标字段类型可以直接接收源字段的值（包括装箱、拆箱）</li>
+ * <li>或者两边都是数值类型（基本类型或包装类），且源类型可以拓宽为目标类型，如int到long、Integer到Double</li>
+ * </ul>
+ * 两边都是基本类型的字段按类型读写，不装箱。类型不匹配的同名字段、目标类的final字段不参与复制。值为null时不会写入基本类型字段。
+ *
+ * @author y1j2x34
+ */
+public final class BeanCopier<S, T> {
+	private final Class<S> sourceType;
+	private final Class<T> targetType;
+	private final String[] names;
+	private final ClassAccessor[] sourceAccessors;
+	private final int[] sourceIndexes;
+	private final ClassAccessor[] targetAccessors;
+	private final int[] targetIndexes;
+	/**
+	 * 需要转换为包装类的目标基本类型，不需要转换时为null
+	 */
+	private final Class<?>[] conversions;
+	private final boolean[] primitives;
+	/**
+	 * 两边都是基本类型时字段的种类，用于按类型读写不装箱，否则为{@link #OBJECT}
+	 */
+	private final int[] sourceKinds;
+	private final int[] targetKinds;
+	private final boolean skipNull;
+	private final ClassAccessor accessor;
+	private final int constructorIndex;
+	private volatile BeanCopier<S, T> skipNullCopier;
+
+	private static final int OBJECT = 0;
+	private static final int BOOLEAN = 1;
+	private static final int BYTE = 2;
+	private static final int CHAR = 3;
+	private static final int SHORT = 4;
+	private static final int INT = 5;
+	private static final int LONG = 6;
+	private static final int FLOAT = 7;
+	private static final int DOUBLE = 8;
+
+	private BeanCopier(Class<S> sourceType, Class<T> targetType) {
+		this.sourceType = sourceType;
+		this.targetType = targetType;
+		Map<String, Field> targetFields = new HashMap<String, Field>();
+		for (Field field : MapCodec.fields(targetType)) {
+			if (!Modifier.isFinal(field.getModifiers())) {
+				targetFields.put(field.getName(), field);
+			}
+		}
+		List<Field[]> pairs = new ArrayList<Field[]>();
+		List<Class<?>> conversions = new ArrayList<Class<?>>();
+		for (Field source : MapCodec.fields(sourceType)) {
+			Field target = targetFields.get(source.getName());
+			if (target == null) {
+				continue;
+			}
+			Class<?> from = source.getType();
+			Class<?> to = target.getType();
+			if (to.isAssignableFrom(Reflect.wrapper(from))) {
+				conversions.add(null);
+			} else {
+				Class<?> primitiveFrom = from.isPrimitive() ? from : Reflect.primitiveType(from);
+				Class<?> primitiveTo = to.isPrimitive() ? to : Reflect.primitiveType(to);
+				if (primitiveFrom == null || primitiveTo == null || !Reflect.widens(primitiveFrom, primitiveTo)) {
+					continue;
+				}
+				conversions.add(to.isPrimitive() ? null : primitiveTo);
+			}
+			pairs.add(new Field[] { source, target });
+		}
+		int size = pairs.size();
+		names = new String[size];
+		sourceAccessors = new ClassAccessor[size];
+		sourceIndexes = new int[size];
+		targetAccessors = new ClassAccessor[size];
+		targetIndexes = new int[size];
+		primitives = new boolean[size];
+		sourceKinds = new int[size];
+		targetKinds = new int[size];
+		for (int i = 0; i < size; i++) {
+			Field source = pairs.get(i)[0];
+			Field target = pairs.get(i)[1];
+			names[i] = source.getName();
+			sourceAccessors[i] = ClassAccessor.of(source.getDeclaringClass());
+			sourceIndexes[i] = sourceAccessors[i].fieldIndex(source);
+			targetAccessors[i] = ClassAccessor.of(target.getDeclaringClass());
+			targetIndexes[i] = targetAccessors[i].fieldIndex(target);
+			primitives[i] = target.getType().isPrimitive();
+			if (source.getType().isPrimitive() && target.getType().isPrimitive()) {
+				sourceKinds[i] = kind(source.getType());
+				targetKinds[i] = kind(target.getType());
+			}
+		}
+		this.conversions = conversions.toArray(new Class<?>[size]);
+		this.skipNull = false;
+		this.accessor = ClassAccessor.of(targetType);
+		this.constructorIndex = targetType.isInterface() || Modifier.isAbstract(targetType.getModifiers()) ? -1
+				: accessor.constructorIndex();
+	}
+
+	private BeanCopier(BeanCopier<S, T> copier, boolean skipNull) {
+		this.sourceType = copier.sourceType;
+		this.targetType = copier.targetType;
+		this.names = copier.names;
+		this.sourceAccessors = copier.sourceAccessors;
+		this.sourceIndexes = copier.sourceIndexes;
+		this.targetAccessors = copier.targetAccessors;
+		this.targetIndexes = copier.targetIndexes;
+		this.conversions = copier.conversions;
+		this.primitives = copier.primitives;
+		this.sourceKinds = copier.sourceKinds;
+		this.targetKinds = copier.targetKinds;
+		this.skipNull = skipNull;
+		this.accessor = copier.accessor;
+		this.constructorIndex = copier.constructorIndex;
+	}
+
+	/**
+	 * 取得已缓存的复制器。目标类型来自源类型的类加载器链以外的类加载器时每次新建，调用方应保留返回的实例
+	 *
+	 * @param sourceType
+	 * @param targetType
+	 * @return
+	 * @throws ReflectException
+	 */
+	@SuppressWarnings("unchecked")
+	public static <S, T> BeanCopier<S, T> of(Class<S> sourceType, Class<T> targetType) throws ReflectException {
+		if (targetType == null) {
+			throw new ReflectException("target type is null");
+		}
+		return (BeanCopier<S, T>) ClassMetadata.of(sourceType).copier(targetType);
+	}
+
+	/**
+	 * 创建复制器，请通过{@link #of(Class, Class)}获取已缓存的实例
+	 */
+	static <S, T> BeanCopier<S, T> create(Class<S> sourceType, Class<T> targetType) throws ReflectException {
+		if (sourceType.isPrimitive() || sourceType.isArray() || targetType.isPrimitive() || targetType.isArray()) {
+			throw new ReflectException("not a bean type:" + (sourceType.isPrimitive() || sourceType.isArray()
+					? sourceType : targetType));
+		}
+		return new BeanCopier<S, T>(sourceType, targetType);
+	}
+
+	/**
+	 * 源字段值为null时保留目标字段原值的复制器，与当前复制器共用复制计划
+	 *
+	 * @return
+	 */
+	public BeanCopier<S, T> skipNull() {
+		if (skipNull) {
+			return this;
+		}
+		BeanCopier<S, T> copier = skipNullCopier;
+		if (copier == null) {
+			copier = new BeanCopier<S, T>(this, true);
+			skipNullCopier = copier;
+		}
+		return copier;
+	}
+
+	public boolean isSkipNull() {
+		return skipNull;
+	}
+
+	public Class<S> sourceType() {
+		return sourceType;
+	}
+
+	public Class<T> targetType() {
+		return targetType;
+	}
+
+	/**
+	 * @return 参与复制的字段名
+	 */
+	public List<String> names() {
+		return Collections.unmodifiableList(Arrays.asList(names));
+	}
+
+	/**
+	 * 复制字段值到已有的目标对象
+	 *
+	 * @param source
+	 * @param target
+	 * @return target
+	 * @throws ReflectException
+	 */
+	public T copy(S source, T target) throws ReflectException {
+		if (source == null) {
+			throw new ReflectException("source is null");
+		}
+		if (target == null) {
+			throw new ReflectException("target is null");
+		}
+		for (int i = 0; i < names.length; i++) {
+			if (targetKinds[i] != OBJECT) {
+				copyPrimitive(i, source, target);
+				continue;
+			}
+			Object value = sourceAccessors[i].get(source, sourceIndexes[i]);
+			if (value == null) {
+				if (skipNull || primitives[i]) {
+					continue;
+				}
+			} else if (conversions[i] != null) {
+				value = widen(value, conversions[i]);
+			}
+			targetAccessors[i].set(target, targetIndexes[i], value);
+		}
+		return target;
+	}
+
+	/**
+	 * 使用目标类的无参构造器创建实例并复制字段值
+	 *
+	 * @param source
+	 * @return 新的目标对象，source为null时返回null
+	 * @throws ReflectException
+	 */
+	@SuppressWarnings("unchecked")
+	public T copy(S source) throws ReflectException {
+		if (source == null) {
+			return null;
+		}
+		if (constructorIndex < 0) {
+			throw new ReflectException(new NoSuchMethodException("No constructor with params [] could be found on type "
+					+ targetType + "."));
+		}
+		return copy(source, (T) accessor.newInstance(constructorIndex));
+	}
+
+	/**
+	 * 逐个复制集合中的元素，null元素对应的结果为null
+	 *
+	 * @param sources
+	 * @return 与sources顺序相同的列表
+	 * @throws ReflectException
+	 */
+	public List<T> copyAll(Collection<? extends S> sources) throws ReflectException {
+		if (sources == null) {
+			throw new ReflectException("sources is null");
+		}
+		List<T> targets = new ArrayList<T>(sources.size());
+		for (S source : sources) {
+			targets.add(copy(source));
+		}
+		return targets;
+	}
+
+	/**
+	 * 逐个复制数组中的元素，null元素对应的结果为null
+	 *
+	 * @param sources
+	 * @return 元素类型为目标类的数组
+	 * @throws ReflectException
+	 */
+	@SuppressWarnings("unchecked")
+	public T[] copyAll(S[] sources) throws ReflectException {
+		if (sources == null) {
+			throw new ReflectException("sources is null");
+		}
+		T[] targets = (T[]) Array.newInstance(targetType, sources.length);
+		for (int i = 0; i < sources.length; i++) {
+			targets[i] = copy(sources[i]);
+		}
+		return targets;
+	}
+
+	/**
+	 * 按基本类型读写第i个字段，源类型与目标类型相同或可以拓宽
+	 */
+	private void copyPrimitive(int i, Object source, Object target) {
+		ClassAccessor from = sourceAccessors[i];
+		int fromIndex = sourceIndexes[i];
+		ClassAccessor to = targetAccessors[i];
+		int toIndex = targetIndexes[i];
+		switch (targetKinds[i]) {
+		case BOOLEAN:
+			to.setBoolean(target, toIndex, from.getBoolean(source, fromIndex));
+			break;
+		case BYTE:
+			to.setByte(target, toIndex, from.getByte(source, fromIndex));
+			break;
+		case CHAR:
+			to.setChar(target, toIndex, from.getChar(source, fromIndex));
+			break;
+		case SHORT:
+			to.setShort(target, toIndex, (short) integral(i, source));
+			break;
+		case INT:
+			to.setInt(target, toIndex, (int) integral(i, source));
+			break;
+		case LONG:
+			to.setLong(target, toIndex, integral(i, source));
+			break;
+		case FLOAT:
+			to.setFloat(target, toIndex, sourceKinds[i] == FLOAT ? from.getFloat(source, fromIndex)
+					: (float) integral(i, source));
+			break;
+		default:
+			double value;
+			if (sourceKinds[i] == DOUBLE) {
+				value = from.getDouble(source, fromIndex);
+			} else if (sourceKinds[i] == FLOAT) {
+				value = from.getFloat(source, fromIndex);
+			} else {
+				value = integral(i, source);
+			}
+			to.setDouble(target, toIndex, value);
+		}
+	}
+
+	/**
+	 * 按源字段的整数类型读取第i个字段，拓宽为long不损失精度
+	 */
+	private long integral(int i, Object source) {
+		ClassAccessor from = sourceAccessors[i];
+		int index = sourceIndexes[i];
+		switch (sourceKinds[i]) {
+		case BYTE:
+			return from.getByte(source, index);
+		case CHAR:
+			return from.getChar(source, index);
+		case SHORT:
+			return from.getShort(source, index);
+		case INT:
+			return from.getInt(source, index);
+		default:
+			return from.getLong(source, index);
+		}
+	}
+
+	private static int kind(Class<?> type) {
+		if (type == boolean.class) {
+			return BOOLEAN;
+		} else if (type == byte.class) {
+			return BYTE;
+		} else if (type == char.class) {
+			return CHAR;
+		} else if (type == short.class) {
+			return SHORT;
+		} else if (type == int.class) {
+			return INT;
+		} else if (type == long.class) {
+			return LONG;
+		} else if (type == float.class) {
+			return FLOAT;
+		}
+		return DOUBLE;
+	}
+
+	/**
+	 * 把数值包装类拓宽为目标基本类型对应的包装类
+	 */
+	private static Object widen(Object value, Class<?> to) {
+		if (value instanceof Character) {
+			value = Integer.valueOf(((Character) value).charValue());
+		}
+		Number number = (Number) value;
+		if (to == long.class) {
+			return Long.valueOf(number.longValue());
+		} else if (to == int.class) {
+			return Integer.valueOf(number.intValue());
+		} else if (to == double.class) {
+			return Double.valueOf(number.doubleValue());
+		} else if (to == float.class) {
+			return Float.valueOf(number.floatValue());
+		} else if (to == short.class) {
+			return Short.valueOf(number.shortValue());
+		}
+		return value;
+	}
+
+	@Override
+	public String toString() {
+		return "BeanCopier<" + sourceType.getName() + " -> " + targetType.getName() + ">" + Arrays.toString(names)
+				+ (skipNull ? " skipNull" : "");
+	}
+}
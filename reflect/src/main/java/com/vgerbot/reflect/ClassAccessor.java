@@ -0,0 +1,771 @@
+package com.vgerbot.reflect;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+/**
+ * 按下标访问一个类的字段、方法和构造器。
+ * <p>
+ * 通过{@link #of(Class)}取得的实例由运行时生成的字节码实现，对可访问的成员直接使用
+ * getfield/putfield/invokevirtual等指令，不可访问的成员（如私有成员）退回反射调用。
+ * 下标在同一个ClassAccessor内固定不变，可在初始化时解析一次后重复使用。
+ * <p>
+ * 字段包括该类及所有父类声明的字段，方法包括该类及所有父类声明的方法（被覆盖的方法只保留子类的），
+ * 构造器仅包括该类声明的构造器。
+ *
+ * @author y1j2x34
+ */
+public abstract class ClassAccessor {
+	private static final Object[] EMPTY_OBJECT_ARRAY = new Object[0];
+
+	/**
+	 * 生成的类中，可直接访问的字段对应的静态读写方法名前缀，后接字段下标
+	 */
+	static final String GETTER_PREFIX = "get$";
+	static final String SETTER_PREFIX = "set$";
+
+	private Class<?> type;
+	private Field[] fields;
+	private Class<?>[] fieldTypes;
+	private Method[] methods;
+	private Constructor<?>[] constructors;
+	private Class<?>[][] methodParameterTypes;
+	private Class<?>[][] constructorParameterTypes;
+	private boolean[] directGetters;
+	private boolean[] directSetters;
+	private boolean[] directMethods;
+	private boolean[] directConstructors;
+
+	protected ClassAccessor() {
+	}
+
+	/**
+	 * 取得指定类的访问器，首次调用时生成，之后从{@link ClassMetadata}中取得
+	 *
+	 * @param type
+	 * @return
+	 * @throws ReflectException
+	 */
+	public static ClassAccessor of(Class<?> type) throws ReflectException {
+		return ClassMetadata.of(type).accessor();
+	}
+
+	final void init(Class<?> type, Field[] fields, Method[] methods, Constructor<?>[] constructors,
+			boolean[] directGetters, boolean[] directSetters, boolean[] directMethods, boolean[] directConstructors) {
+		this.type = type;
+		this.fields = fields;
+		this.methods = methods;
+		this.constructors = constructors;
+		this.fieldTypes = new Class<?>[fields.length];
+		for (int i = 0; i < fields.length; i++) {
+			fieldTypes[i] = fields[i].getType();
+		}
+		this.methodParameterTypes = new Class<?>[methods.length][];
+		for (int i = 0; i < methods.length; i++) {
+			methodParameterTypes[i] = methods[i].getParameterTypes();
+		}
+		this.constructorParameterTypes = new Class<?>[constructors.length][];
+		for (int i = 0; i < constructors.length; i++) {
+			constructorParameterTypes[i] = constructors[i].getParameterTypes();
+		}
+		this.directGetters = directGetters;
+		this.directSetters = directSetters;
+		this.directMethods = directMethods;
+		this.directConstructors = directConstructors;
+	}
+
+	public Class<?> type() {
+		return type;
+	}
+
+	public int fieldCount() {
+		return fields.length;
+	}
+
+	public int methodCount() {
+		return methods.length;
+	}
+
+	public int constructorCount() {
+		return constructors.length;
+	}
+
+	public Field field(int index) {
+		return fields[index];
+	}
+
+	public Method method(int index) {
+		return methods[index];
+	}
+
+	public Constructor<?> constructor(int index) {
+		return constructors[index];
+	}
+
+	/**
+	 * 按名称取得字段下标，子类字段优先
+	 *
+	 * @param name
+	 * @return 找不到时返回-1
+	 */
+	public int fieldIndex(String name) {
+		for (int i = 0; i < fields.length; i++) {
+			if (fields[i].getName().equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param field
+	 * @return 找不到时返回-1
+	 */
+	public int fieldIndex(Field field) {
+		for (int i = 0; i < fields.length; i++) {
+			if (fields[i].equals(field)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 按名称和参数类型精确查找方法下标
+	 *
+	 * @param name
+	 * @param parameterTypes
+	 * @return 找不到时返回-1
+	 */
+	public int methodIndex(String name, Class<?>... parameterTypes) {
+		for (int i = 0; i < methods.length; i++) {
+			Method method = methods[i];
+			if (method.getName().equals(name) && Arrays.equals(methodParameterTypes[i], parameterTypes)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 方法本身不在列表中时，按签名查找覆盖了它的方法
+	 *
+	 * @param method
+	 * @return 找不到时返回-1
+	 */
+	public int methodIndex(Method method) {
+		for (int i = 0; i < methods.length; i++) {
+			if (methods[i].equals(method)) {
+				return i;
+			}
+		}
+		if (method.getDeclaringClass().isAssignableFrom(type) && !Modifier.isPrivate(method.getModifiers())) {
+			return methodIndex(method.getName(), method.getParameterTypes());
+		}
+		return -1;
+	}
+
+	/**
+	 * @param parameterTypes
+	 * @return 找不到时返回-1
+	 */
+	public int constructorIndex(Class<?>... parameterTypes) {
+		for (int i = 0; i < constructors.length; i++) {
+			if (Arrays.equals(constructorParameterTypes[i], parameterTypes)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param constructor
+	 * @return 找不到时返回-1
+	 */
+	public int constructorIndex(Constructor<?> constructor) {
+		for (int i = 0; i < constructors.length; i++) {
+			if (constructors[i].equals(constructor)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * 是否通过生成的字节码直接读取该字段
+	 *
+	 * @param index
+	 * @return
+	 */
+	public boolean isDirectField(int index) {
+		return directGetters[index];
+	}
+
+	/**
+	 * 是否通过生成的字节码直接写入该字段
+	 *
+	 * @param index
+	 * @return
+	 */
+	public boolean isDirectSetter(int index) {
+		return directSetters[index];
+	}
+
+	/**
+	 * 是否通过生成的字节码直接调用该方法
+	 *
+	 * @param index
+	 * @return
+	 */
+	public boolean isDirectMethod(int index) {
+		return directMethods[index];
+	}
+
+	/**
+	 * 是否通过生成的字节码直接调用该构造器
+	 *
+	 * @param index
+	 * @return
+	 */
+	public boolean isDirectConstructor(int index) {
+		return directConstructors[index];
+	}
+
+	/**
+	 * 读取字段值
+	 *
+	 * @param target
+	 *            静态字段时忽略
+	 * @param index
+	 *            字段下标
+	 * @return 基本类型的值会被装箱
+	 * @throws ReflectException
+	 */
+	public Object get(Object target, int index) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directGetters[index]) {
+				return getDirect(target, index);
+			}
+			return Reflect.accessible(field).get(target);
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	/**
+	 * 设置字段值，final字段通过反射设置
+	 *
+	 * @param target
+	 *            静态字段时忽略
+	 * @param index
+	 *            字段下标
+	 * @param value
+	 * @throws ReflectException
+	 */
+	public void set(Object target, int index, Object value) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directSetters[index]) {
+				Reflect.checkValue(field.getType(), value);
+				setDirect(target, index, value);
+			} else {
+				Reflect.accessible(field).set(target, value);
+			}
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	/**
+	 * 读取基本类型字段的值，不装箱。字段类型与方法相同时由生成的字节码直接读取，否则通过反射读取（允许拓宽转换）
+	 *
+	 * @param target
+	 *            静态字段时忽略
+	 * @param index
+	 *            字段下标
+	 * @return
+	 * @throws ReflectException
+	 */
+	public boolean getBoolean(Object target, int index) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directGetters[index] && fieldTypes[index] == boolean.class) {
+				return getBooleanDirect(target, index);
+			}
+			return Reflect.accessible(field).getBoolean(target);
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	/**
+	 * 写入基本类型字段的值，不装箱。字段类型与方法相同且不是final字段时由生成的字节码直接写入，否则通过反射写入
+	 *
+	 * @param target
+	 *            静态字段时忽略
+	 * @param index
+	 *            字段下标
+	 * @param value
+	 * @throws ReflectException
+	 */
+	public void setBoolean(Object target, int index, boolean value) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directSetters[index] && fieldTypes[index] == boolean.class) {
+				setBooleanDirect(target, index, value);
+			} else {
+				Reflect.accessible(field).setBoolean(target, value);
+			}
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	public byte getByte(Object target, int index) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directGetters[index] && fieldTypes[index] == byte.class) {
+				return getByteDirect(target, index);
+			}
+			return Reflect.accessible(field).getByte(target);
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	public void setByte(Object target, int index, byte value) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directSetters[index] && fieldTypes[index] == byte.class) {
+				setByteDirect(target, index, value);
+			} else {
+				Reflect.accessible(field).setByte(target, value);
+			}
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	public char getChar(Object target, int index) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directGetters[index] && fieldTypes[index] == char.class) {
+				return getCharDirect(target, index);
+			}
+			return Reflect.accessible(field).getChar(target);
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	public void setChar(Object target, int index, char value) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directSetters[index] && fieldTypes[index] == char.class) {
+				setCharDirect(target, index, value);
+			} else {
+				Reflect.accessible(field).setChar(target, value);
+			}
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	public short getShort(Object target, int index) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directGetters[index] && fieldTypes[index] == short.class) {
+				return getShortDirect(target, index);
+			}
+			return Reflect.accessible(field).getShort(target);
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	public void setShort(Object target, int index, short value) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directSetters[index] && fieldTypes[index] == short.class) {
+				setShortDirect(target, index, value);
+			} else {
+				Reflect.accessible(field).setShort(target, value);
+			}
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	public int getInt(Object target, int index) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directGetters[index] && fieldTypes[index] == int.class) {
+				return getIntDirect(target, index);
+			}
+			return Reflect.accessible(field).getInt(target);
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	public void setInt(Object target, int index, int value) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directSetters[index] && fieldTypes[index] == int.class) {
+				setIntDirect(target, index, value);
+			} else {
+				Reflect.accessible(field).setInt(target, value);
+			}
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	public long getLong(Object target, int index) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directGetters[index] && fieldTypes[index] == long.class) {
+				return getLongDirect(target, index);
+			}
+			return Reflect.accessible(field).getLong(target);
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	public void setLong(Object target, int index, long value) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directSetters[index] && fieldTypes[index] == long.class) {
+				setLongDirect(target, index, value);
+			} else {
+				Reflect.accessible(field).setLong(target, value);
+			}
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	public float getFloat(Object target, int index) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directGetters[index] && fieldTypes[index] == float.class) {
+				return getFloatDirect(target, index);
+			}
+			return Reflect.accessible(field).getFloat(target);
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	public void setFloat(Object target, int index, float value) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directSetters[index] && fieldTypes[index] == float.class) {
+				setFloatDirect(target, index, value);
+			} else {
+				Reflect.accessible(field).setFloat(target, value);
+			}
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	public double getDouble(Object target, int index) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directGetters[index] && fieldTypes[index] == double.class) {
+				return getDoubleDirect(target, index);
+			}
+			return Reflect.accessible(field).getDouble(target);
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	public void setDouble(Object target, int index, double value) throws ReflectException {
+		Field field = fields[index];
+		try {
+			Reflect.checkReceiver(field, target);
+			if (directSetters[index] && fieldTypes[index] == double.class) {
+				setDoubleDirect(target, index, value);
+			} else {
+				Reflect.accessible(field).setDouble(target, value);
+			}
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	/**
+	 * 调用方法，异常的包装方式与{@link Method#invoke(Object, Object...)}相同
+	 *
+	 * @param target
+	 *            静态方法时忽略
+	 * @param index
+	 *            方法下标
+	 * @param arguments
+	 * @return void方法返回null
+	 * @throws ReflectException
+	 */
+	public Object invoke(Object target, int index, Object... arguments) throws ReflectException {
+		if (arguments == null) {
+			arguments = EMPTY_OBJECT_ARRAY;
+		}
+		Method method = methods[index];
+		try {
+			if (!directMethods[index]) {
+				return Reflect.accessible(method).invoke(target, arguments);
+			}
+			Reflect.checkReceiver(method, target);
+			Reflect.checkArguments(methodParameterTypes[index], arguments);
+			try {
+				return invokeDirect(target, index, arguments);
+			} catch (Throwable e) {
+				throw new InvocationTargetException(e);
+			}
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	/**
+	 * 创建实例，异常的包装方式与{@link Constructor#newInstance(Object...)}相同
+	 *
+	 * @param index
+	 *            构造器下标
+	 * @param arguments
+	 * @return
+	 * @throws ReflectException
+	 */
+	public Object newInstance(int index, Object... arguments) throws ReflectException {
+		if (arguments == null) {
+			arguments = EMPTY_OBJECT_ARRAY;
+		}
+		Constructor<?> constructor = constructors[index];
+		try {
+			if (!directConstructors[index]) {
+				return Reflect.accessible(constructor).newInstance(arguments);
+			}
+			Reflect.checkArguments(constructorParameterTypes[index], arguments);
+			try {
+				return newInstanceDirect(index, arguments);
+			} catch (Throwable e) {
+				throw new InvocationTargetException(e);
+			}
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	// ----------------------------------------------------------------
+	// 由生成的子类实现，只会以直接访问的下标调用，参数已经过检查
+	// ----------------------------------------------------------------
+	protected abstract Object getDirect(Object target, int index);
+
+	protected abstract void setDirect(Object target, int index, Object value);
+
+	protected abstract Object invokeDirect(Object target, int index, Object[] arguments);
+
+	protected abstract Object newInstanceDirect(int index, Object[] arguments);
+
+	// 基本类型字段，生成的子类只实现存在该类型可直接访问字段的方法
+	protected boolean getBooleanDirect(Object target, int index) {
+		throw noSuchIndex(index);
+	}
+
+	protected void setBooleanDirect(Object target, int index, boolean value) {
+		throw noSuchIndex(index);
+	}
+
+	protected byte getByteDirect(Object target, int index) {
+		throw noSuchIndex(index);
+	}
+
+	protected void setByteDirect(Object target, int index, byte value) {
+		throw noSuchIndex(index);
+	}
+
+	protected char getCharDirect(Object target, int index) {
+		throw noSuchIndex(index);
+	}
+
+	protected void setCharDirect(Object target, int index, char value) {
+		throw noSuchIndex(index);
+	}
+
+	protected short getShortDirect(Object target, int index) {
+		throw noSuchIndex(index);
+	}
+
+	protected void setShortDirect(Object target, int index, short value) {
+		throw noSuchIndex(index);
+	}
+
+	protected int getIntDirect(Object target, int index) {
+		throw noSuchIndex(index);
+	}
+
+	protected void setIntDirect(Object target, int index, int value) {
+		throw noSuchIndex(index);
+	}
+
+	protected long getLongDirect(Object target, int index) {
+		throw noSuchIndex(index);
+	}
+
+	protected void setLongDirect(Object target, int index, long value) {
+		throw noSuchIndex(index);
+	}
+
+	protected float getFloatDirect(Object target, int index) {
+		throw noSuchIndex(index);
+	}
+
+	protected void setFloatDirect(Object target, int index, float value) {
+		throw noSuchIndex(index);
+	}
+
+	protected double getDoubleDirect(Object target, int index) {
+		throw noSuchIndex(index);
+	}
+
+	protected void setDoubleDirect(Object target, int index, double value) {
+		throw noSuchIndex(index);
+	}
+
+	protected final RuntimeException noSuchIndex(int index) {
+		return new IndexOutOfBoundsException("no direct member at index " + index + " of " + type);
+	}
+
+	// ----------------------------------------------------------------
+	// 拆箱，规则与Method.invoke相同，允许基本类型拓宽转换
+	// ----------------------------------------------------------------
+	protected static boolean unboxBoolean(Object value) {
+		if (value instanceof Boolean) {
+			return ((Boolean) value).booleanValue();
+		}
+		throw mismatch();
+	}
+
+	protected static char unboxChar(Object value) {
+		if (value instanceof Character) {
+			return ((Character) value).charValue();
+		}
+		throw mismatch();
+	}
+
+	protected static byte unboxByte(Object value) {
+		if (value instanceof Byte) {
+			return ((Byte) value).byteValue();
+		}
+		throw mismatch();
+	}
+
+	protected static short unboxShort(Object value) {
+		if (value instanceof Short || value instanceof Byte) {
+			return ((Number) value).shortValue();
+		}
+		throw mismatch();
+	}
+
+	protected static int unboxInt(Object value) {
+		if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ((Number) value).intValue();
+		}
+		if (value instanceof Character) {
+			return ((Character) value).charValue();
+		}
+		throw mismatch();
+	}
+
+	protected static long unboxLong(Object value) {
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ((Number) value).longValue();
+		}
+		if (value instanceof Character) {
+			return ((Character) value).charValue();
+		}
+		throw mismatch();
+	}
+
+	protected static float unboxFloat(Object value) {
+		if (value instanceof Float || value instanceof Long || value instanceof Integer || value instanceof Short
+				|| value instanceof Byte) {
+			return ((Number) value).floatValue();
+		}
+		if (value instanceof Character) {
+			return ((Character) value).charValue();
+		}
+		throw mismatch();
+	}
+
+	protected static double unboxDouble(Object value) {
+		if (value instanceof Double || value instanceof Float || value instanceof Long || value instanceof Integer
+				|| value instanceof Short || value instanceof Byte) {
+			return ((Number) value).doubleValue();
+		}
+		if (value instanceof Character) {
+			return ((Character) value).charValue();
+		}
+		throw mismatch();
+	}
+
+	private static IllegalArgumentException mismatch() {
+		return new IllegalArgumentException("argument type mismatch");
+	}
+
+	@Override
+	public String toString() {
+		return new StringBuilder().append(getClass().getSimpleName()).append('<').append(type.getName())
+				.append(">{fields=").append(fields.length).append(", methods=").append(methods.length)
+				.append(", constructors=").append(constructors.length).append('}').toString();
+	}
+
+	/**
+	 * 无法生成字节码时使用，所有成员均通过反射访问
+	 */
+	static final class ReflectiveClassAccessor extends ClassAccessor {
+		@Override
+		protected Object getDirect(Object target, int index) {
+			throw noSuchIndex(index);
+		}
+
+		@Override
+		protected void setDirect(Object target, int index, Object value) {
+			throw noSuchIndex(index);
+		}
+
+		@Override
+		protected Object invokeDirect(Object target, int index, Object[] arguments) {
+			throw noSuchIndex(index);
+		}
+
+		@Override
+		protected Object newInstanceDirect(int index, Object[] arguments) {
+			throw noSuchIndex(index);
+		}
+	}
+}
@@ -0,0 +1,256 @@
+package com.vgerbot.reflect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.vgerbot.reflect.AnnotationIndex.ClassEntry;
+import com.vgerbot.reflect.AnnotationIndex.MemberEntry;
+
+/**
+ * 直接解析类文件，读取类名、父类、接口以及类、字段、方法上运行时可见的注解，供{@link AnnotationIndex}使用。
+ * <p>
+ * 只解码用到的常量池字符串；注解的元素值只跳过，不解析。编译器生成的桥接方法、合成成员和构造器不记录。
+ *
+ * @author y1j2x34
+ */
+final class ClassFileReader {
+	private static final int MAGIC = 0xCAFEBABE;
+	private static final String RUNTIME_VISIBLE_ANNOTATIONS = "RuntimeVisibleAnnotations";
+	private static final int ACC_BRIDGE = 0x0040;
+	private static final int ACC_SYNTHETIC = 0x1000;
+	private static final String[] NO_ANNOTATIONS = new String[0];
+
+	private final byte[] bytes;
+	private int position;
+	/**
+	 * 常量池各项（tag）在类文件中的位置
+	 */
+	private int[] offsets;
+	private String[] strings;
+
+	private ClassFileReader(byte[] bytes) {
+		this.bytes = bytes;
+	}
+
+	/**
+	 * @param bytes
+	 *            类文件内容
+	 * @return 不是合法的类文件时返回null
+	 */
+	static ClassEntry read(byte[] bytes) {
+		try {
+			return new ClassFileReader(bytes).read();
+		} catch (IndexOutOfBoundsException e) {
+			return null;
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	private ClassEntry read() {
+		if (readInt() != MAGIC) {
+			return null;
+		}
+		// minor_version, major_version
+		position += 4;
+		readConstantPool();
+		int access = readUnsignedShort();
+		String name = className(readUnsignedShort());
+		int superIndex = readUnsignedShort();
+		String superName = superIndex == 0 ? null : className(superIndex);
+		String[] interfaces = new String[readUnsignedShort()];
+		for (int i = 0; i < interfaces.length; i++) {
+			interfaces[i] = className(readUnsignedShort());
+		}
+		MemberEntry[] fields = readMembers(name);
+		MemberEntry[] methods = readMembers(name);
+		String[] annotations = readAttributes();
+		return new ClassEntry(name, superName, interfaces, access, annotations, fields, methods);
+	}
+
+	private void readConstantPool() {
+		int count = readUnsignedShort();
+		offsets = new int[count];
+		strings = new String[count];
+		for (int i = 1; i < count; i++) {
+			offsets[i] = position;
+			int tag = bytes[position++] & 0xFF;
+			switch (tag) {
+			case 1: // Utf8
+				int length = readUnsignedShort();
+				position += length;
+				break;
+			case 7: // Class
+			case 8: // String
+			case 16: // MethodType
+			case 19: // Module
+			case 20: // Package
+				position += 2;
+				break;
+			case 15: // MethodHandle
+				position += 3;
+				break;
+			case 3: // Integer
+			case 4: // Float
+			case 9: // Fieldref
+			case 10: // Methodref
+			case 11: // InterfaceMethodref
+			case 12: // NameAndType
+			case 17: // Dynamic
+			case 18: // InvokeDynamic
+				position += 4;
+				break;
+			case 5: // Long
+			case 6: // Double
+				position += 8;
+				i++;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+			}
+		}
+	}
+
+	/**
+	 * 只返回带注解的成员
+	 */
+	private MemberEntry[] readMembers(String owner) {
+		int count = readUnsignedShort();
+		List<MemberEntry> members = null;
+		for (int i = 0; i < count; i++) {
+			int access = readUnsignedShort();
+			int nameIndex = readUnsignedShort();
+			int descriptorIndex = readUnsignedShort();
+			String[] annotations = readAttributes();
+			if (annotations.length == 0 || (access & (ACC_BRIDGE | ACC_SYNTHETIC)) != 0) {
+				continue;
+			}
+			String name = utf(nameIndex);
+			if (name.charAt(0) == '<') {
+				continue;
+			}
+			if (members == null) {
+				members = new ArrayList<MemberEntry>();
+			}
+			members.add(new MemberEntry(owner, name, utf(descriptorIndex), annotations));
+		}
+		return members == null ? MemberEntry.NONE : members.toArray(new MemberEntry[members.size()]);
+	}
+
+	/**
+	 * 读取属性表，返回其中运行时可见的注解类名
+	 */
+	private String[] readAttributes() {
+		int count = readUnsignedShort();
+		String[] annotations = NO_ANNOTATIONS;
+		for (int i = 0; i < count; i++) {
+			int nameIndex = readUnsignedShort();
+			int length = readInt();
+			int end = position + length;
+			if (RUNTIME_VISIBLE_ANNOTATIONS.equals(utf(nameIndex))) {
+				annotations = new String[readUnsignedShort()];
+				for (int j = 0; j < annotations.length; j++) {
+					String descriptor = utf(readUnsignedShort());
+					annotations[j] = descriptor.substring(1, descriptor.length() - 1).replace('/', '.');
+					skipElementValuePairs();
+				}
+			}
+			position = end;
+		}
+		return annotations;
+	}
+
+	private void skipElementValuePairs() {
+		int count = readUnsignedShort();
+		for (int i = 0; i < count; i++) {
+			position += 2;
+			skipElementValue();
+		}
+	}
+
+	private void skipElementValue() {
+		int tag = bytes[position++];
+		switch (tag) {
+		case 'B':
+		case 'C':
+		case 'D':
+		case 'F':
+		case 'I':
+		case 'J':
+		case 'S':
+		case 'Z':
+		case 's':
+		case 'c':
+			position += 2;
+			break;
+		case 'e':
+			position += 4;
+			break;
+		case '@':
+			position += 2;
+			skipElementValuePairs();
+			break;
+		case '[':
+			int count = readUnsignedShort();
+			for (int i = 0; i < count; i++) {
+				skipElementValue();
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown element value tag " + (char) tag);
+		}
+	}
+
+	private String className(int index) {
+		return utf(unsignedShort(offsets[index] + 1)).replace('/', '.');
+	}
+
+	/**
+	 * 解码常量池中的Modified UTF-8字符串
+	 */
+	private String utf(int index) {
+		String string = strings[index];
+		if (string != null) {
+			return string;
+		}
+		int offset = offsets[index];
+		if (bytes[offset] != 1) {
+			throw new IllegalArgumentException("Not a Utf8 constant: " + index);
+		}
+		int length = unsignedShort(offset + 1);
+		int p = offset + 3;
+		int end = p + length;
+		char[] chars = new char[length];
+		int n = 0;
+		while (p < end) {
+			int c = bytes[p++] & 0xFF;
+			if (c < 0x80) {
+				chars[n++] = (char) c;
+			} else if (c < 0xE0) {
+				chars[n++] = (char) (((c & 0x1F) << 6) | (bytes[p++] & 0x3F));
+			} else {
+				chars[n++] = (char) (((c & 0x0F) << 12) | ((bytes[p++] & 0x3F) << 6) | (bytes[p++] & 0x3F));
+			}
+		}
+		string = new String(chars, 0, n);
+		strings[index] = string;
+		return string;
+	}
+
+	private int readUnsignedShort() {
+		int value = unsignedShort(position);
+		position += 2;
+		return value;
+	}
+
+	private int unsignedShort(int offset) {
+		return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+	}
+
+	private int readInt() {
+		int value = ((bytes[position] & 0xFF) << 24) | ((bytes[position + 1] & 0xFF) << 16)
+				| ((bytes[position + 2] & 0xFF) << 8) | (bytes[position + 3] & 0xFF);
+		position += 4;
+		return value;
+	}
+}
@@ -0,0 +1,309 @@
+package com.vgerbot.reflect;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.vgerbot.reflect.Reflect.ClassReflect;
+
+/**
+ * 按导入的包查找简单类名，与{@link Reflect#find(List, String, URL[])}规则相同，适合脚本等需要反复解析类名的场景。
+ * 需要从额外的URLs中查找时，调用者应持有自己的ClassFinder实例。
+ * <p>
+ * ClassFinder在整个生命周期内持有同一个类加载器，用完后调用{@link #close()}释放。
+ * 类名通过{@link ClassNameCache}解析并缓存，每组导入包下每个简单类名的查找结果同样会被缓存，包括找不到的结果。
+ * <p>
+ * 索引能覆盖整个类加载器委派链时（父类加载器为JDK 8的系统类加载器），首次查找时建立类名索引（见{@link ClassIndex}，
+ * jar文件只读取中央目录），索引中已完整收录的包里不存在的类直接跳过，不再调用类加载器。
+ * 其它父类加载器以及JDK 9之后的系统模块中的类无法列出，此时不使用索引，所有类名都通过类加载器解析。
+ *
+ * @author y1j2x34
+ */
+public final class ClassFinder implements Closeable {
+	private static final ClassFinder DEFAULT = new ClassFinder(ClassLoader.getSystemClassLoader(), new URL[0]);
+
+	private final ClassLoader parent;
+	private final URL[] urls;
+	private final URLClassLoader ownLoader;
+	private final ClassLoader loader;
+	/**
+	 * 类名索引是否包括委派链上所有类加载器能加载的类，否则不能据此判断类不存在
+	 */
+	private final boolean indexable;
+	private final ConcurrentMap<List<String>, ConcurrentMap<String, Object>> results = new ConcurrentHashMap<List<String>, ConcurrentMap<String, Object>>();
+	private volatile ClassIndex index;
+	/**
+	 * 最近一次查找使用的导入包列表（调用者的实例）及其结果缓存，同一个脚本通常反复使用同一个列表
+	 */
+	private volatile Results last;
+	private volatile AnnotationIndex annotations;
+
+	private ClassFinder(ClassLoader parent, URL[] urls) {
+		this.parent = parent;
+		this.urls = urls.clone();
+		if (urls.length > 0) {
+			ownLoader = new URLClassLoader(this.urls, parent);
+			loader = ownLoader;
+		} else {
+			ownLoader = null;
+			loader = parent != null ? parent : ClassLoader.getSystemClassLoader();
+		}
+		ClassLoader system = ClassLoader.getSystemClassLoader();
+		indexable = (loader == system || parent == system) && ClassIndex.coversSystemClassLoader();
+	}
+
+	/**
+	 * 使用系统类加载器作为父类加载器
+	 *
+	 * @param urls
+	 * @return
+	 */
+	public static ClassFinder of(URL... urls) {
+		return of(ClassLoader.getSystemClassLoader(), urls);
+	}
+
+	/**
+	 * @param parent
+	 *            父类加载器
+	 * @param urls
+	 *            额外的jar文件或类目录
+	 * @return
+	 */
+	public static ClassFinder of(ClassLoader parent, URL... urls) {
+		return new ClassFinder(parent, urls == null ? new URL[0] : urls);
+	}
+
+	/**
+	 * {@link Reflect#find(List, String, URL[])}的实现：没有URLs时使用共用的实例；否则每次创建新的类加载器，查找后关闭，
+	 * 不在静态状态中保留任何类加载器
+	 */
+	static ClassReflect findOnce(List<String> importPackages, String simpleName, URL[] urls) throws ReflectException {
+		if (urls == null || urls.length == 0) {
+			return DEFAULT.find(importPackages, simpleName);
+		}
+		ClassFinder finder = new ClassFinder(ClassLoader.getSystemClassLoader(), urls);
+		try {
+			return finder.find(importPackages, simpleName);
+		} finally {
+			finder.close();
+		}
+	}
+
+	/**
+	 * 查找类，依次尝试：基本类型名称、导入的包（"pkg.*"为包下的类，"pkg.Name"为单个类，其它视为包名）、完整类名
+	 *
+	 * @param importPackages
+	 * @param simpleName
+	 *            null时返回Object
+	 * @return
+	 * @throws ReflectException
+	 *             类不存在
+	 */
+	public ClassReflect find(List<String> importPackages, String simpleName) throws ReflectException {
+		Class<?> type = findClass(importPackages, simpleName);
+		if (type == null) {
+			throw new ReflectException("Class not found:" + simpleName);
+		}
+		return Reflect.on(type);
+	}
+
+	/**
+	 * 同{@link #find(List, String)}
+	 *
+	 * @param importPackages
+	 *            查找结果按列表缓存，传入后不应再修改
+	 * @param simpleName
+	 * @return 类不存在时返回null
+	 */
+	public Class<?> findClass(List<String> importPackages, String simpleName) {
+		if (simpleName == null) {
+			return Object.class;
+		}
+		if (simpleName.length() < 8 && simpleName.length() > 2) {
+			Class<?> type = Reflect.namedType(simpleName);
+			if (type != null) {
+				return type;
+			}
+		}
+		if (importPackages == null) {
+			importPackages = Collections.emptyList();
+		}
+		ConcurrentMap<String, Object> cache = results(importPackages);
+		Object value = cache.get(simpleName);
+		if (value instanceof Class) {
+			return (Class<?>) value;
+		} else if (value instanceof ClassMetadata.Miss && !((ClassMetadata.Miss) value).isExpired()) {
+			return null;
+		}
+		Class<?> type = search(importPackages, simpleName);
+		cache.put(simpleName, type != null ? type : ClassMetadata.Miss.create());
+		return type;
+	}
+
+	private ConcurrentMap<String, Object> results(List<String> importPackages) {
+		Results last = this.last;
+		if (last != null && last.importPackages == importPackages) {
+			return last.cache;
+		}
+		ConcurrentMap<String, Object> cache = results.get(importPackages);
+		if (cache == null) {
+			cache = new ConcurrentHashMap<String, Object>();
+			ConcurrentMap<String, Object> previous = results.putIfAbsent(
+					Collections.unmodifiableList(Arrays.asList(importPackages.toArray(new String[0]))), cache);
+			if (previous != null) {
+				cache = previous;
+			}
+		}
+		this.last = new Results(importPackages, cache);
+		return cache;
+	}
+
+	private Class<?> search(List<String> importPackages, String simpleName) {
+		String suffix = "." + simpleName;
+		for (String imported : importPackages) {
+			String name;
+			if (imported.endsWith("*")) {
+				name = imported.substring(0, imported.length() - 1) + simpleName;
+			} else if (imported.endsWith(suffix) || imported.equals(simpleName)) {
+				name = imported;
+			} else {
+				name = imported + suffix;
+			}
+			Class<?> type = candidate(name);
+			if (type != null) {
+				return type;
+			}
+		}
+		Class<?> type = candidate(simpleName);
+		if (type == null) {
+			ClassLoader reflectLoader = Reflect.class.getClassLoader();
+			if (reflectLoader != null && reflectLoader != loader) {
+				type = ClassNameCache.find(simpleName, reflectLoader);
+			}
+		}
+		return type;
+	}
+
+	private Class<?> candidate(String name) {
+		if (indexable) {
+			ClassIndex index = index();
+			int lastDot = name.lastIndexOf('.');
+			if (index.isIndexed(lastDot < 0 ? "" : name.substring(0, lastDot)) && !index.contains(name)) {
+				return null;
+			}
+		}
+		return ClassNameCache.find(name, loader);
+	}
+
+	private ClassIndex index() {
+		ClassIndex index = this.index;
+		if (index == null) {
+			synchronized (this) {
+				index = this.index;
+				if (index == null) {
+					index = new ClassIndex();
+					for (URL url : urls) {
+						index.add(url);
+					}
+					if (parent == ClassLoader.getSystemClassLoader()) {
+						for (File file : ClassIndex.classPath()) {
+							index.add(file);
+						}
+					}
+					this.index = index;
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * 扫描URLs中的类（父类加载器为系统类加载器时还包括java.class.path，不包括JDK自带的类），建立注解索引，扫描结果在refresh前一直复用
+	 *
+	 * @param cache
+	 *            索引文件，存在且没有过期时直接读取，否则扫描后保存；为null时不保存
+	 * @return
+	 * @throws ReflectException
+	 *             读取jar文件或保存索引失败
+	 * @see AnnotationIndex#scan(ClassLoader, File, List)
+	 */
+	public AnnotationIndex annotationIndex(File cache) throws ReflectException {
+		AnnotationIndex annotations = this.annotations;
+		if (annotations == null) {
+			synchronized (this) {
+				annotations = this.annotations;
+				if (annotations == null) {
+					List<File> roots = new ArrayList<File>();
+					for (URL url : urls) {
+						File file = ClassIndex.toFile(url);
+						if (file != null) {
+							roots.add(file);
+						}
+					}
+					if (parent == ClassLoader.getSystemClassLoader()) {
+						roots.addAll(ClassIndex.userClassPath());
+					}
+					annotations = AnnotationIndex.scan(loader, cache, roots);
+					this.annotations = annotations;
+				}
+			}
+		}
+		return annotations;
+	}
+
+	/**
+	 * @return 查找类时使用的类加载器
+	 */
+	public ClassLoader getClassLoader() {
+		return loader;
+	}
+
+	/**
+	 * 清除缓存的查找结果、类名索引和注解索引，之后的查找重新建立索引
+	 */
+	public void refresh() {
+		last = null;
+		results.clear();
+		index = null;
+		annotations = null;
+	}
+
+	/**
+	 * 关闭持有的类加载器，之后不能再加载URLs中的类
+	 */
+	@Override
+	public void close() {
+		last = null;
+		results.clear();
+		if (ownLoader != null) {
+			try {
+				ownLoader.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ClassFinder" + Arrays.toString(urls) + (index == null ? "" : index.toString());
+	}
+
+	private static final class Results {
+		final List<String> importPackages;
+		final ConcurrentMap<String, Object> cache;
+
+		Results(List<String> importPackages, ConcurrentMap<String, Object> cache) {
+			this.importPackages = importPackages;
+			this.cache = cache;
+		}
+	}
+}
@@ -0,0 +1,365 @@
+package com.vgerbot.reflect;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * 类路径上的类名、包名索引，供{@link ClassFinder}判断某个类是否存在而不必调用类加载器。
+ * <p>
+ * jar文件只读取中央目录（内存映射），不解压任何条目；目录递归列出.class文件。
+ * 跟随jar清单中的Class-Path。无法读取的根（非file:的URL、ZIP64格式的jar等）会使索引标记为不完整，
+ * 此时{@link #isIndexed(String)}总是返回false。
+ *
+ * @author y1j2x34
+ */
+final class ClassIndex {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+	private static final int CENTRAL_DIRECTORY_ENTRY = 0x02014b50;
+	private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+	private static final String CLASS_SUFFIX = ".class";
+	private static final String META_INF = "META-INF/";
+	private static final String MANIFEST = META_INF + "MANIFEST.MF";
+
+	private final Set<String> classes = new HashSet<String>();
+	private final Set<String> packages = new HashSet<String>();
+	private final Set<File> roots = new HashSet<File>();
+	private boolean complete = true;
+
+	/**
+	 * 当前JVM的类路径：java.class.path，以及JDK 8的sun.boot.class.path、java.ext.dirs中的jar（JDK 9之后的系统模块不在索引中）
+	 *
+	 * @return
+	 */
+	static List<File> classPath() {
+		List<File> files = new ArrayList<File>();
+		String extDirs = System.getProperty("java.ext.dirs");
+		if (extDirs != null) {
+			for (String entry : extDirs.split(File.pathSeparator)) {
+				File[] jars = entry.length() == 0 ? null : new File(entry).listFiles();
+				if (jars != null) {
+					for (File jar : jars) {
+						if (jar.getName().endsWith(".jar")) {
+							files.add(jar);
+						}
+					}
+				}
+			}
+		}
+		addPath(files, "sun.boot.class.path");
+		addPath(files, "java.class.path");
+		return files;
+	}
+
+	/**
+	 * {@link #classPath()}是否包括系统类加载器及其父类加载器能加载的所有类：只有JDK 8（有sun.boot.class.path）并且
+	 * 系统类加载器没有被-Djava.system.class.loader替换时成立
+	 *
+	 * @return
+	 */
+	static boolean coversSystemClassLoader() {
+		if (System.getProperty("sun.boot.class.path") == null) {
+			return false;
+		}
+		ClassLoader system = ClassLoader.getSystemClassLoader();
+		return system != null && "sun.misc.Launcher$AppClassLoader".equals(system.getClass().getName());
+	}
+
+	/**
+	 * 应用的类路径：java.class.path，不包括JDK自带的类
+	 *
+	 * @return
+	 */
+	static List<File> userClassPath() {
+		List<File> files = new ArrayList<File>();
+		addPath(files, "java.class.path");
+		return files;
+	}
+
+	private static void addPath(List<File> files, String property) {
+		String path = System.getProperty(property);
+		if (path == null || path.length() == 0) {
+			return;
+		}
+		for (String entry : path.split(File.pathSeparator)) {
+			if (entry.length() > 0) {
+				files.add(new File(entry));
+			}
+		}
+	}
+
+	/**
+	 * @param url
+	 * @return file:形式的URL对应的文件，其它协议返回null
+	 */
+	static File toFile(URL url) {
+		if (!"file".equals(url.getProtocol())) {
+			return null;
+		}
+		try {
+			return new File(url.toURI());
+		} catch (URISyntaxException e) {
+			return new File(url.getPath());
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * 读取jar清单中的Class-Path，相对路径相对于jar所在目录
+	 *
+	 * @param jar
+	 * @return 没有清单或Class-Path时返回空列表
+	 * @throws IOException
+	 */
+	static List<URL> manifestClassPath(File jar) throws IOException {
+		JarFile file = new JarFile(jar);
+		String classPath;
+		try {
+			Manifest manifest = file.getManifest();
+			classPath = manifest == null ? null : manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+		} finally {
+			file.close();
+		}
+		List<URL> urls = new ArrayList<URL>();
+		if (classPath == null) {
+			return urls;
+		}
+		URL base = jar.getParentFile().toURI().toURL();
+		for (String entry : classPath.trim().split("\\s+")) {
+			if (entry.length() > 0) {
+				urls.add(new URL(base, entry));
+			}
+		}
+		return urls;
+	}
+
+	/**
+	 * 添加file:形式的URL，其它协议的URL使索引不完整
+	 *
+	 * @param url
+	 */
+	void add(URL url) {
+		File file = toFile(url);
+		if (file == null) {
+			complete = false;
+			return;
+		}
+		add(file);
+	}
+
+	/**
+	 * 添加jar文件或类目录，不存在的文件忽略
+	 *
+	 * @param root
+	 */
+	void add(File root) {
+		root = root.getAbsoluteFile();
+		if (!roots.add(root) || !root.exists()) {
+			return;
+		}
+		if (root.isDirectory()) {
+			addDirectory(root, "");
+			return;
+		}
+		try {
+			if (addJar(root)) {
+				for (URL url : manifestClassPath(root)) {
+					add(url);
+				}
+			}
+		} catch (IOException e) {
+			complete = false;
+		}
+	}
+
+	/**
+	 * @param className
+	 *            {@link Class#getName()}形式的类名
+	 * @return 类是否在索引中
+	 */
+	boolean contains(String className) {
+		return classes.contains(className);
+	}
+
+	/**
+	 * 包中的类是否都在索引中，是则索引中没有的类一定不存在
+	 *
+	 * @param packageName
+	 *            默认包为""
+	 * @return
+	 */
+	boolean isIndexed(String packageName) {
+		return complete && packages.contains(packageName);
+	}
+
+	boolean isComplete() {
+		return complete;
+	}
+
+	int size() {
+		return classes.size();
+	}
+
+	/**
+	 * 索引中的所有类名
+	 */
+	Set<String> classNames() {
+		return classes;
+	}
+
+	private void addDirectory(File directory, String packageName) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			complete = false;
+			return;
+		}
+		for (File file : files) {
+			String name = file.getName();
+			if (file.isDirectory()) {
+				if (name.indexOf('.') < 0 && !"META-INF".equals(name)) {
+					addDirectory(file, packageName.length() == 0 ? name : packageName + '.' + name);
+				}
+			} else if (name.endsWith(CLASS_SUFFIX) && !"module-info.class".equals(name)) {
+				String simpleName = name.substring(0, name.length() - CLASS_SUFFIX.length());
+				addClass(packageName, packageName.length() == 0 ? simpleName : packageName + '.' + simpleName);
+			}
+		}
+	}
+
+	private void addClass(String packageName, String className) {
+		classes.add(className);
+		packages.add(packageName);
+	}
+
+	/**
+	 * 读取jar文件的中央目录
+	 *
+	 * @return jar中是否有清单文件
+	 */
+	private boolean addJar(File jar) throws IOException {
+		RandomAccessFile file = new RandomAccessFile(jar, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			long size = channel.size();
+			if (size < END_OF_CENTRAL_DIRECTORY_SIZE) {
+				complete = false;
+				return false;
+			}
+			// 文件尾部的目录结束记录（其后最多有65535字节的注释）
+			long tailSize = Math.min(size, END_OF_CENTRAL_DIRECTORY_SIZE + 0xFFFF);
+			MappedByteBuffer tail = channel.map(FileChannel.MapMode.READ_ONLY, size - tailSize, tailSize);
+			tail.order(ByteOrder.LITTLE_ENDIAN);
+			int end = -1;
+			for (int i = (int) tailSize - END_OF_CENTRAL_DIRECTORY_SIZE; i >= 0; i--) {
+				if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY) {
+					end = i;
+					break;
+				}
+			}
+			if (end < 0) {
+				complete = false;
+				return false;
+			}
+			int entries = tail.getShort(end + 10) & 0xFFFF;
+			long directorySize = tail.getInt(end + 12) & 0xFFFFFFFFL;
+			long directoryOffset = tail.getInt(end + 16) & 0xFFFFFFFFL;
+			if (entries == 0xFFFF || directorySize == 0xFFFFFFFFL || directoryOffset == 0xFFFFFFFFL
+					|| directoryOffset + directorySize > size) {
+				// ZIP64
+				complete = false;
+				return false;
+			}
+			MappedByteBuffer directory = channel.map(FileChannel.MapMode.READ_ONLY, directoryOffset, directorySize);
+			directory.order(ByteOrder.LITTLE_ENDIAN);
+			boolean manifest = false;
+			byte[] buffer = new byte[256];
+			int position = 0;
+			for (int i = 0; i < entries && position + 46 <= directorySize; i++) {
+				if (directory.getInt(position) != CENTRAL_DIRECTORY_ENTRY) {
+					complete = false;
+					break;
+				}
+				int nameLength = directory.getShort(position + 28) & 0xFFFF;
+				int extraLength = directory.getShort(position + 30) & 0xFFFF;
+				int commentLength = directory.getShort(position + 32) & 0xFFFF;
+				if (buffer.length < nameLength) {
+					buffer = new byte[nameLength];
+				}
+				directory.position(position + 46);
+				directory.get(buffer, 0, nameLength);
+				if (!manifest && matches(buffer, nameLength, MANIFEST)) {
+					manifest = true;
+				}
+				addEntry(buffer, nameLength);
+				position += 46 + nameLength + extraLength + commentLength;
+			}
+			return manifest;
+		} finally {
+			file.close();
+		}
+	}
+
+	private static boolean matches(byte[] name, int length, String expected) {
+		return length == expected.length() && regionMatches(name, 0, expected);
+	}
+
+	private static boolean regionMatches(byte[] name, int offset, String expected) {
+		for (int i = 0; i < expected.length(); i++) {
+			if (name[offset + i] != expected.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 把"a/b/C.class"形式的条目名转换为类名，多版本jar的META-INF/versions/下的类与基础版本相同，忽略
+	 */
+	private void addEntry(byte[] name, int length) {
+		int classLength = length - CLASS_SUFFIX.length();
+		if (classLength <= 0 || !regionMatches(name, classLength, CLASS_SUFFIX)
+				|| (length > META_INF.length() && regionMatches(name, 0, META_INF))) {
+			return;
+		}
+		String className = null;
+		char[] chars = new char[classLength];
+		for (int i = 0; i < classLength; i++) {
+			byte b = name[i];
+			if (b < 0) {
+				// 非ASCII字符
+				className = new String(name, 0, classLength, UTF_8).replace('/', '.');
+				break;
+			}
+			chars[i] = b == '/' ? '.' : (char) b;
+		}
+		if (className == null) {
+			className = new String(chars);
+		}
+		int lastDot = className.lastIndexOf('.');
+		if (className.startsWith("module-info", lastDot + 1)) {
+			return;
+		}
+		addClass(lastDot < 0 ? "" : className.substring(0, lastDot), className);
+	}
+
+	@Override
+	public String toString() {
+		return "ClassIndex[classes=" + classes.size() + ", packages=" + packages.size() + ", roots=" + roots.size()
+				+ (complete ? "" : ", incomplete") + "]";
+	}
+}
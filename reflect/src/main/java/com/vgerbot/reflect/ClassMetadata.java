@@ -0,0 +1,755 @@
+package com.vgerbot.reflect;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.vgerbot.reflect.Reflect.MethodKey;
+
+import sun.reflect.FieldAccessor;
+
+/**
+ * 进程内共享的类元数据缓存，所有Reflect实例按Class共用字段、方法的查找结果。
+ * <p>
+ * 基于{@link ClassValue}存储，缓存挂在Class自身上，不会阻止类加载器被回收。
+ * <p>
+ * 找不到的字段、方法、构造器同样会被缓存（负缓存），重复查找不再扫描父类链，也不会创建异常。
+ * 默认负缓存永不过期，可通过{@link #setMissTtl(long, TimeUnit)}设置过期时间。
+ * <p>
+ * 通过{@link #setSnapshot(MetadataSnapshot)}使用预先生成的元数据快照后，缓存未命中时优先按快照记录的声明类和参数类型直接取得成员，
+ * 不再沿父类链查找或匹配重载。
+ *
+ * @author y1j2x34
+ */
+public final class ClassMetadata {
+
+	private static final ClassValue<ClassMetadata> METADATA = new ClassValue<ClassMetadata>() {
+		@Override
+		protected ClassMetadata computeValue(Class<?> type) {
+			return new ClassMetadata(type);
+		}
+	};
+
+	private static final LongAdder hits = new LongAdder();
+	private static final LongAdder misses = new LongAdder();
+
+	/**
+	 * 负缓存过期时间（纳秒），0表示永不过期
+	 */
+	private static volatile long missTtlNanos = 0;
+
+	private static volatile MetadataSnapshot snapshot;
+
+	private static final ClassLoader LIBRARY_LOADER = ClassMetadata.class.getClassLoader();
+	private static final ClassLoader SYSTEM_LOADER = ClassLoader.getSystemClassLoader();
+
+	private final Class<?> type;
+
+	/**
+	 * 值为Field或{@link Miss}
+	 */
+	final ConcurrentMap<String, Object> fields = new ConcurrentHashMap<String, Object>();
+
+	/**
+	 * 值为Method或{@link Miss}，参数类型来自其他类加载器的查找不缓存，见{@link #isCacheable(Class)}
+	 */
+	final ConcurrentMap<MethodKey, Object> methods = new ConcurrentHashMap<MethodKey, Object>();
+
+	/**
+	 * 值为Constructor或{@link Miss}
+	 */
+	final ConcurrentMap<MethodKey, Object> constructors = new ConcurrentHashMap<MethodKey, Object>();
+
+	/**
+	 * 强制写入字段的访问器，键为该类声明的字段
+	 */
+	private final ConcurrentMap<Field, FieldAccessor> forceAccessors = new ConcurrentHashMap<Field, FieldAccessor>();
+
+	private final ConcurrentMap<Method, MethodHandleInvoker> invokers = new ConcurrentHashMap<Method, MethodHandleInvoker>();
+
+	private final ConcurrentMap<Executable, VarargsSpreader> spreaders = new ConcurrentHashMap<Executable, VarargsSpreader>();
+
+	private final ConcurrentMap<List<Object>, Object> functions = new ConcurrentHashMap<List<Object>, Object>();
+
+	/**
+	 * {@link PropertyPath}中属性名的解析结果
+	 */
+	private final ConcurrentMap<String, PropertyPath.Resolved> properties = new ConcurrentHashMap<String, PropertyPath.Resolved>();
+
+	private volatile ClassAccessor accessor;
+
+	private volatile OverloadIndex<Method> methodOverloads;
+
+	private volatile OverloadIndex<Constructor<?>> constructorOverloads;
+
+	private volatile MapCodec<?> mapCodec;
+
+	private volatile FieldTable fieldTable;
+
+	/**
+	 * 当前快照中该类的记录
+	 */
+	private volatile MetadataSnapshot.ClassRecord record;
+
+	/**
+	 * 以该类为源类型的复制器，键为目标类型，目标类型来自其他类加载器时不缓存
+	 */
+	private final ConcurrentMap<Class<?>, BeanCopier<?, ?>> copiers = new ConcurrentHashMap<Class<?>, BeanCopier<?, ?>>();
+
+	private ClassMetadata(Class<?> type) {
+		this.type = type;
+	}
+
+	/**
+	 * 取得指定类的元数据缓存
+	 *
+	 * @param type
+	 * @return
+	 */
+	public static ClassMetadata of(Class<?> type) {
+		if (type == null) {
+			throw new ReflectException("type is null");
+		}
+		return METADATA.get(type);
+	}
+
+	/**
+	 * 所有类缓存命中次数之和
+	 *
+	 * @return
+	 */
+	public static long hitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * 所有类缓存未命中次数之和
+	 *
+	 * @return
+	 */
+	public static long missCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * 计数器清零
+	 */
+	public static void resetStatistics() {
+		hits.reset();
+		misses.reset();
+	}
+
+	/**
+	 * 设置负缓存的过期时间，只影响之后缓存的查找结果
+	 *
+	 * @param duration
+	 *            0表示永不过期
+	 * @param unit
+	 * @throws ReflectException
+	 *             duration小于0
+	 */
+	public static void setMissTtl(long duration, TimeUnit unit) throws ReflectException {
+		if (duration < 0) {
+			throw new ReflectException("negative ttl:" + duration);
+		}
+		missTtlNanos = unit.toNanos(duration);
+	}
+
+	public static long getMissTtl(TimeUnit unit) {
+		return unit.convert(missTtlNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * 使用元数据快照，只影响之后未命中缓存的查找
+	 *
+	 * @param snapshot
+	 *            null表示不使用快照
+	 * @see MetadataSnapshot#load(java.io.File)
+	 */
+	public static void setSnapshot(MetadataSnapshot snapshot) {
+		ClassMetadata.snapshot = snapshot;
+	}
+
+	public static MetadataSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	public Class<?> type() {
+		return type;
+	}
+
+	/**
+	 * @return 当前快照中该类的记录，没有使用快照时返回null
+	 */
+	MetadataSnapshot.ClassRecord record() {
+		MetadataSnapshot snapshot = ClassMetadata.snapshot;
+		if (snapshot == null) {
+			return null;
+		}
+		MetadataSnapshot.ClassRecord record = this.record;
+		if (record == null || record.snapshot != snapshot) {
+			record = snapshot.record(type);
+			this.record = record;
+		}
+		return record;
+	}
+
+	/**
+	 * 快照中记录了该元素上的注解并且不包括annotationType时返回true，不必解析注解
+	 *
+	 * @param element
+	 *            类、字段、方法或构造器
+	 * @param annotationType
+	 * @return
+	 */
+	static boolean isAnnotationAbsent(AnnotatedElement element, Class<? extends Annotation> annotationType) {
+		if (snapshot == null) {
+			return false;
+		}
+		Class<?> owner;
+		String key;
+		if (element instanceof Class) {
+			owner = (Class<?>) element;
+			key = "";
+		} else if (element instanceof Field) {
+			owner = ((Field) element).getDeclaringClass();
+			key = ((Field) element).getName();
+		} else if (element instanceof Executable) {
+			Executable executable = (Executable) element;
+			owner = executable.getDeclaringClass();
+			key = MetadataSnapshot.key(executable instanceof Constructor ? "<init>" : executable.getName(),
+					executable.getParameterTypes());
+		} else {
+			return false;
+		}
+		MetadataSnapshot.ClassRecord record = of(owner).record();
+		return record != null && record.isAnnotationAbsent(key, annotationType.getName());
+	}
+
+	/**
+	 * 清空该类已缓存的字段与方法，已生成的{@link ClassAccessor}保留
+	 */
+	public void clear() {
+		fields.clear();
+		methods.clear();
+		constructors.clear();
+		forceAccessors.clear();
+		invokers.clear();
+		spreaders.clear();
+		functions.clear();
+		properties.clear();
+		mapCodec = null;
+		copiers.clear();
+		fieldTable = null;
+	}
+
+	/**
+	 * 清除该类已缓存的查找失败结果
+	 */
+	public void evictMisses() {
+		evictMisses(fields);
+		evictMisses(methods);
+		evictMisses(constructors);
+	}
+
+	private static void evictMisses(ConcurrentMap<?, Object> cache) {
+		for (Iterator<Object> it = cache.values().iterator(); it.hasNext();) {
+			if (it.next() instanceof Miss) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * 按名称查找字段，先查公有字段（包括接口常量），再沿父类链查找声明的字段
+	 *
+	 * @param name
+	 * @return null if field not exist
+	 */
+	Field field(String name) {
+		Object field = cached(fields, "field", name);
+		if (field == null) {
+			Object event = ReflectEvents.beginLookup();
+			MetadataSnapshot.ClassRecord record = record();
+			Object recorded = record == null ? null : record.field(name);
+			Field found = recorded == null ? findField(name) : recorded instanceof Field ? (Field) recorded : null;
+			ReflectEvents.endLookup(event, type, "field", name, null, found != null);
+			field = store(fields, name, found);
+		}
+		return field instanceof Miss ? null : (Field) field;
+	}
+
+	boolean hasField(String name) {
+		return field(name) != null;
+	}
+
+	/**
+	 * 查找方法，找不到精确匹配的方法时按参数类型查找最接近的方法
+	 *
+	 * @param name
+	 * @param parameterTypes
+	 * @return
+	 * @throws ReflectException
+	 *             方法找不到时抛出该异常
+	 */
+	Method method(String name, Class<?>[] parameterTypes) throws ReflectException {
+		Method method = methodOrNull(name, parameterTypes);
+		if (method == null) {
+			throw new ReflectException(new NoSuchMethodException("No similar method " + name + " with params "
+					+ Arrays.toString(parameterTypes) + " could be found on type " + type + "."));
+		}
+		return method;
+	}
+
+	boolean hasMethod(String name, Class<?>[] parameterTypes) {
+		return methodOrNull(name, parameterTypes) != null;
+	}
+
+	private Method methodOrNull(String name, Class<?>[] parameterTypes) {
+		if (parameterTypes == null) {
+			parameterTypes = Reflect.EMPTY_CLASS_ARRAY;
+		}
+		if (!isCacheable(parameterTypes)) {
+			miss("method", name);
+			return lookupMethod(name, parameterTypes);
+		}
+		MethodKey key = new MethodKey(name, parameterTypes);
+		Object method = cached(methods, "method", key);
+		if (method == null) {
+			method = store(methods, key, lookupMethod(name, parameterTypes));
+		}
+		return method instanceof Miss ? null : (Method) method;
+	}
+
+	private Method lookupMethod(String name, Class<?>[] parameterTypes) {
+		Object event = ReflectEvents.beginLookup();
+		MetadataSnapshot.ClassRecord record = record();
+		Object recorded = record == null ? null : record.member(name, parameterTypes);
+		Method found = recorded == null ? findMethod(name, parameterTypes)
+				: recorded instanceof Method ? (Method) recorded : null;
+		ReflectEvents.endLookup(event, type, "method", name, parameterTypes, found != null);
+		return found;
+	}
+
+	/**
+	 * 查找该类声明的构造器，找不到精确匹配的构造器时按参数类型查找兼容的构造器
+	 *
+	 * @param parameterTypes
+	 * @return
+	 * @throws ReflectException
+	 *             构造器找不到时抛出该异常
+	 */
+	Constructor<?> constructor(Class<?>[] parameterTypes) throws ReflectException {
+		Constructor<?> constructor = constructorOrNull(parameterTypes);
+		if (constructor == null) {
+			throw new ReflectException(new NoSuchMethodException("No constructor with params "
+					+ Arrays.toString(parameterTypes) + " could be found on type " + type + "."));
+		}
+		return constructor;
+	}
+
+	Constructor<?> constructorOrNull(Class<?>[] parameterTypes) {
+		if (parameterTypes == null) {
+			parameterTypes = Reflect.EMPTY_CLASS_ARRAY;
+		}
+		if (!isCacheable(parameterTypes)) {
+			miss("constructor", "<init>");
+			return lookupConstructor(parameterTypes);
+		}
+		MethodKey key = new MethodKey("<init>", parameterTypes);
+		Object constructor = cached(constructors, "constructor", key);
+		if (constructor == null) {
+			constructor = store(constructors, key, lookupConstructor(parameterTypes));
+		}
+		return constructor instanceof Miss ? null : (Constructor<?>) constructor;
+	}
+
+	private Constructor<?> lookupConstructor(Class<?>[] parameterTypes) {
+		Object event = ReflectEvents.beginLookup();
+		MetadataSnapshot.ClassRecord record = record();
+		Object recorded = record == null ? null : record.member("<init>", parameterTypes);
+		Constructor<?> found = recorded == null ? findConstructor(parameterTypes)
+				: recorded instanceof Constructor ? (Constructor<?>) recorded : null;
+		ReflectEvents.endLookup(event, type, "constructor", "<init>", parameterTypes, found != null);
+		return found;
+	}
+
+	/**
+	 * 参数类型能否作为缓存键，见{@link #isCacheable(Class)}
+	 */
+	private boolean isCacheable(Class<?>[] types) {
+		for (Class<?> type : types) {
+			if (!isCacheable(type)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 缓存键中的类会被该类的元数据强引用。只有基本类型、引导类加载器、系统类加载器链、本库的类加载器以及该类的类加载器链中的类
+	 * 可以作为键，其他类加载器（如插件）的类只用于查找，不放入缓存，以免该类加载器无法回收
+	 */
+	private boolean isCacheable(Class<?> key) {
+		ClassLoader loader = key == null ? null : key.getClassLoader();
+		if (loader == null || loader == LIBRARY_LOADER) {
+			return true;
+		}
+		return isAncestor(loader, type.getClassLoader()) || isAncestor(loader, SYSTEM_LOADER);
+	}
+
+	private static boolean isAncestor(ClassLoader loader, ClassLoader child) {
+		for (ClassLoader current = child; current != null; current = current.getParent()) {
+			if (current == loader) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 取得缓存的查找结果，未缓存或负缓存已过期时返回null
+	 */
+	private <K> Object cached(ConcurrentMap<K, Object> cache, String name, K key) {
+		Object value = cache.get(key);
+		if (value instanceof Miss && ((Miss) value).isExpired()) {
+			cache.remove(key, value);
+			value = null;
+		}
+		if (value == null) {
+			miss(name, key);
+		} else {
+			hits.increment();
+		}
+		return value;
+	}
+
+	private void miss(String cache, Object key) {
+		misses.increment();
+		ReflectEvents.cacheMiss(type, cache, key);
+	}
+
+	private static <K> Object store(ConcurrentMap<K, Object> cache, K key, Member member) {
+		Object value = member != null ? member : Miss.create();
+		Object previous = cache.putIfAbsent(key, value);
+		return previous != null ? previous : value;
+	}
+
+	/**
+	 * 取得该类声明的字段的强制写入访问器，final字段同样可以写入，首次调用时创建。
+	 * 在字段的副本上去掉final修饰，缓存中共享的Field不受影响
+	 *
+	 * @param field
+	 *            由该类声明的字段
+	 * @return
+	 * @throws ReflectException
+	 */
+	FieldAccessor forceAccessor(Field field) throws ReflectException {
+		FieldAccessor accessor = forceAccessors.get(field);
+		if (accessor != null) {
+			hits.increment();
+			return accessor;
+		}
+		miss("forceAccessor", field);
+		accessor = Reflect.newForceAccessor(field);
+		FieldAccessor previous = forceAccessors.putIfAbsent(field, accessor);
+		return previous != null ? previous : accessor;
+	}
+
+	/**
+	 * 取得该类声明的方法对应的MethodHandle调用器，首次调用时解析
+	 *
+	 * @param method
+	 *            由该类声明的方法
+	 * @return
+	 * @throws ReflectException
+	 *             无法解析MethodHandle时抛出
+	 */
+	MethodHandleInvoker invoker(Method method) throws ReflectException {
+		MethodHandleInvoker invoker = invokers.get(method);
+		if (invoker != null) {
+			hits.increment();
+			return invoker;
+		}
+		miss("invoker", method);
+		invoker = MethodHandleInvoker.create(method);
+		MethodHandleInvoker previous = invokers.putIfAbsent(method, invoker);
+		return previous != null ? previous : invoker;
+	}
+
+	/**
+	 * 取得该类声明的可变参数方法或构造器的调用器，首次调用时解析
+	 *
+	 * @param executable
+	 *            由该类声明的可变参数方法或构造器
+	 * @return
+	 * @throws ReflectException
+	 *             无法解析MethodHandle时抛出
+	 */
+	VarargsSpreader spreader(Executable executable) throws ReflectException {
+		VarargsSpreader spreader = spreaders.get(executable);
+		if (spreader != null) {
+			hits.increment();
+			return spreader;
+		}
+		miss("spreader", executable);
+		spreader = VarargsSpreader.create(executable);
+		VarargsSpreader previous = spreaders.putIfAbsent(executable, spreader);
+		return previous != null ? previous : spreader;
+	}
+
+	/**
+	 * 取得该类声明的字段或方法对应的函数式接口实例，首次调用时通过LambdaMetafactory生成
+	 *
+	 * @param member
+	 *            由该类声明的字段或方法
+	 * @param shape
+	 * @return
+	 * @throws ReflectException
+	 *             成员无法转换为该形状时抛出
+	 */
+	Object function(Member member, LambdaFactory.Shape shape) throws ReflectException {
+		List<Object> key = Arrays.<Object>asList(member, shape);
+		Object function = functions.get(key);
+		if (function != null) {
+			hits.increment();
+			return function;
+		}
+		miss("function", key);
+		function = LambdaFactory.create(member, shape);
+		Object previous = functions.putIfAbsent(key, function);
+		return previous != null ? previous : function;
+	}
+
+	/**
+	 * 取得{@link PropertyPath}中的属性在该类上的取值函数，首次调用时解析
+	 *
+	 * @param name
+	 * @return
+	 * @throws ReflectException
+	 *             属性不存在
+	 */
+	PropertyPath.Resolved property(String name) throws ReflectException {
+		PropertyPath.Resolved property = properties.get(name);
+		if (property != null) {
+			hits.increment();
+			return property;
+		}
+		miss("property", name);
+		property = PropertyPath.resolve(type, name);
+		PropertyPath.Resolved previous = properties.putIfAbsent(name, property);
+		return previous != null ? previous : property;
+	}
+
+	/**
+	 * 取得该类的访问器，首次调用时生成字节码
+	 *
+	 * @return
+	 */
+	ClassAccessor accessor() {
+		ClassAccessor accessor = this.accessor;
+		if (accessor != null) {
+			hits.increment();
+			return accessor;
+		}
+		synchronized (this) {
+			accessor = this.accessor;
+			if (accessor == null) {
+				miss("accessor", type);
+				accessor = AccessorGenerator.generate(type);
+				this.accessor = accessor;
+			}
+		}
+		return accessor;
+	}
+
+	/**
+	 * 取得该类与Map相互转换的转换器，首次调用时构建
+	 *
+	 * @return
+	 */
+	MapCodec<?> mapCodec() {
+		MapCodec<?> mapCodec = this.mapCodec;
+		if (mapCodec != null) {
+			hits.increment();
+			return mapCodec;
+		}
+		synchronized (this) {
+			mapCodec = this.mapCodec;
+			if (mapCodec == null) {
+				miss("mapCodec", type);
+				mapCodec = MapCodec.create(type);
+				this.mapCodec = mapCodec;
+			}
+		}
+		return mapCodec;
+	}
+
+	/**
+	 * 取得从该类复制到目标类的复制器，首次调用时构建
+	 *
+	 * @param targetType
+	 * @return
+	 */
+	BeanCopier<?, ?> copier(Class<?> targetType) {
+		if (!isCacheable(targetType)) {
+			miss("copier", targetType);
+			return BeanCopier.create(type, targetType);
+		}
+		BeanCopier<?, ?> copier = copiers.get(targetType);
+		if (copier != null) {
+			hits.increment();
+			return copier;
+		}
+		miss("copier", targetType);
+		copier = BeanCopier.create(type, targetType);
+		BeanCopier<?, ?> previous = copiers.putIfAbsent(targetType, copier);
+		return previous != null ? previous : copier;
+	}
+
+	/**
+	 * 按类层次顺序（子类在前）列出的所有声明字段，包括被子类同名字段遮蔽的字段，供{@link Reflect#fields(int)}使用
+	 *
+	 * @return
+	 */
+	FieldTable fieldTable() {
+		FieldTable table = fieldTable;
+		if (table == null) {
+			MetadataSnapshot.ClassRecord record = record();
+			table = record == null ? null : record.fieldTable();
+			if (table == null) {
+				List<String> names = new ArrayList<String>();
+				List<Integer> modifiers = new ArrayList<Integer>();
+				for (Class<?> type = this.type; type != null; type = type.getSuperclass()) {
+					for (Field field : type.getDeclaredFields()) {
+						names.add(field.getName());
+						modifiers.add(field.getModifiers());
+					}
+				}
+				int[] values = new int[modifiers.size()];
+				for (int i = 0; i < values.length; i++) {
+					values[i] = modifiers.get(i);
+				}
+				table = new FieldTable(names.toArray(new String[names.size()]), values);
+			}
+			fieldTable = table;
+		}
+		return table;
+	}
+
+	private Field findField(String name) {
+		Class<?> type = this.type;
+		try {
+			return type.getField(name);
+		} catch (NoSuchFieldException e) {
+			while (type != null) {
+				try {
+					return Reflect.accessible(type.getDeclaredField(name));
+				} catch (NoSuchFieldException ignore) {
+				}
+				type = type.getSuperclass();
+			}
+		}
+		return null;
+	}
+
+	private Method findMethod(String name, Class<?>[] parameterTypes) {
+		Class<?> type = this.type;
+		try {
+			return type.getMethod(name, parameterTypes);
+		} catch (NoSuchMethodException e) {
+			while (type != null) {
+				try {
+					return Reflect.accessible(type.getDeclaredMethod(name, parameterTypes));
+				} catch (NoSuchMethodException ignore) {
+				}
+				type = type.getSuperclass();
+			}
+			return similarMethod(name, parameterTypes);
+		}
+	}
+
+	private Constructor<?> findConstructor(Class<?>[] parameterTypes) {
+		try {
+			return Reflect.accessible(type.getDeclaredConstructor(parameterTypes));
+		} catch (NoSuchMethodException e) {
+			OverloadIndex<Constructor<?>> overloads = constructorOverloads;
+			if (overloads == null) {
+				overloads = OverloadIndex.constructors(type);
+				constructorOverloads = overloads;
+			}
+			return Reflect.accessible(overloads.resolve("<init>", parameterTypes));
+		}
+	}
+
+	/**
+	 * 给定方法名和参数，通过重载索引匹配一个最接近的方法
+	 *
+	 * @return null if method not exist
+	 */
+	private Method similarMethod(String name, Class<?>[] types) {
+		OverloadIndex<Method> overloads = methodOverloads;
+		if (overloads == null) {
+			overloads = OverloadIndex.methods(type);
+			methodOverloads = overloads;
+		}
+		return Reflect.accessible(overloads.resolve(name, types));
+	}
+
+	static final class FieldTable {
+		final String[] names;
+		final int[] modifiers;
+
+		FieldTable(String[] names, int[] modifiers) {
+			this.names = names;
+			this.modifiers = modifiers;
+		}
+	}
+
+	/**
+	 * 负缓存标记
+	 */
+	static final class Miss {
+		private static final Miss PERMANENT = new Miss(0);
+
+		/**
+		 * System.nanoTime()过期时刻，0表示永不过期
+		 */
+		private final long deadline;
+
+		private Miss(long deadline) {
+			this.deadline = deadline;
+		}
+
+		static Miss create() {
+			long ttl = missTtlNanos;
+			if (ttl == 0) {
+				return PERMANENT;
+			}
+			long deadline = System.nanoTime() + ttl;
+			return new Miss(deadline == 0 ? 1 : deadline);
+		}
+
+		boolean isExpired() {
+			return deadline != 0 && System.nanoTime() - deadline >= 0;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return new StringBuilder().append("ClassMetadata<").append(type.getName()).append(">{fields=")
+				.append(fields.size()).append(", methods=").append(methods.size()).append('}').toString();
+	}
+}
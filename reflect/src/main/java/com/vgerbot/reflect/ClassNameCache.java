@@ -0,0 +1,253 @@
+package com.vgerbot.reflect;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 按类加载器缓存类名到Class的解析结果，供{@link Reflect#on(String)}、{@link Reflect#on(String, ClassLoader)}使用。
+ * <p>
+ * 每个类加载器一张表，类加载器被弱引用，表中的Class同样被弱引用，不会阻止类加载器被回收；
+ * 找不到的类名同样会被缓存（负缓存），过期时间与{@link ClassMetadata#setMissTtl(long, java.util.concurrent.TimeUnit)}相同。
+ * 同一个类名重复解析时只需一次Map查找。
+ * <p>
+ * 支持的类名：
+ * <ul>
+ * <li>{@link Class#getName()}的形式，如"java.lang.String"、"com.x.Outer$Inner"</li>
+ * <li>源码形式的内部类，如"com.x.Outer.Inner"（找不到时把最后一个'.'替换为'$'再查找一次）</li>
+ * <li>源码形式的数组，如"int[][]"、"java.lang.String[]"</li>
+ * <li>描述符形式的数组，如"[[I"、"[Ljava.lang.String;"（也接受省略';'的"[Ljava.lang.String"）</li>
+ * </ul>
+ *
+ * @author y1j2x34
+ */
+final class ClassNameCache {
+	private static final ReferenceQueue<ClassLoader> queue = new ReferenceQueue<ClassLoader>();
+	private static final ConcurrentMap<LoaderKey, Names> loaders = new ConcurrentHashMap<LoaderKey, Names>();
+
+	/**
+	 * 最近一次使用的类加载器的表，大多数应用只使用一个类加载器
+	 */
+	private static volatile Names last;
+
+	private ClassNameCache() {
+	}
+
+	/**
+	 * @param name
+	 * @param loader
+	 *            不为null
+	 * @return
+	 * @throws ReflectException
+	 *             类不存在
+	 */
+	static Class<?> forName(String name, ClassLoader loader) throws ReflectException {
+		Class<?> type = find(name, loader);
+		if (type == null) {
+			throw new ReflectException(new ClassNotFoundException(name));
+		}
+		return type;
+	}
+
+	/**
+	 * 同{@link #forName(String, ClassLoader)}，类不存在时返回null
+	 */
+	static Class<?> find(String name, ClassLoader loader) {
+		Names names = names(loader);
+		Object value = names.classes.get(name);
+		if (value instanceof Reference) {
+			Class<?> type = ((ClassRef) value).get();
+			if (type != null) {
+				return type;
+			}
+		} else if (value instanceof ClassMetadata.Miss && !((ClassMetadata.Miss) value).isExpired()) {
+			return null;
+		}
+		ReflectEvents.cacheMiss(null, "className", name);
+		Class<?> type = resolve(name, loader);
+		names.classes.put(name, type != null ? new ClassRef(type) : ClassMetadata.Miss.create());
+		return type;
+	}
+
+	/**
+	 * 清空所有类加载器的缓存
+	 */
+	static void clear() {
+		loaders.clear();
+		last = null;
+	}
+
+	private static Names names(ClassLoader loader) {
+		Names names = last;
+		if (names != null && names.key.get() == loader) {
+			return names;
+		}
+		expunge();
+		LoaderKey key = new LoaderKey(loader, queue);
+		names = loaders.get(key);
+		if (names == null) {
+			names = new Names(key);
+			Names previous = loaders.putIfAbsent(key, names);
+			if (previous != null) {
+				names = previous;
+			}
+		}
+		last = names;
+		return names;
+	}
+
+	private static void expunge() {
+		Reference<? extends ClassLoader> key;
+		while ((key = queue.poll()) != null) {
+			loaders.remove(key);
+		}
+	}
+
+	/**
+	 * 解析类名
+	 *
+	 * @return null if class not exist
+	 */
+	private static Class<?> resolve(String name, ClassLoader loader) {
+		int length = name.length();
+		int dimensions = 0;
+		int start = 0;
+		int end = length;
+		while (end >= 2 && name.charAt(end - 1) == ']' && name.charAt(end - 2) == '[') {
+			dimensions++;
+			end -= 2;
+		}
+		Class<?> element = null;
+		if (dimensions == 0) {
+			while (start < end && name.charAt(start) == '[') {
+				dimensions++;
+				start++;
+			}
+			if (dimensions > 0) {
+				if (end - start == 1) {
+					element = descriptorType(name.charAt(start));
+					if (element == null) {
+						return null;
+					}
+				} else if (start < end && name.charAt(start) == 'L') {
+					start++;
+					if (name.charAt(end - 1) == ';') {
+						end--;
+					}
+				} else {
+					return null;
+				}
+			}
+		} else {
+			element = Reflect.namedType(name.substring(0, end));
+		}
+		if (element == null) {
+			if (start >= end) {
+				return null;
+			}
+			element = load(dimensions == 0 ? name : name.substring(start, end), loader);
+			if (element == null) {
+				return null;
+			}
+		}
+		for (int i = 0; i < dimensions; i++) {
+			element = Array.newInstance(element, 0).getClass();
+		}
+		return element;
+	}
+
+	/**
+	 * @return 描述符字符（如'I'）对应的基本类型，不是基本类型时返回null
+	 */
+	static Class<?> descriptorType(char descriptor) {
+		switch (descriptor) {
+		case 'Z':
+			return boolean.class;
+		case 'B':
+			return byte.class;
+		case 'C':
+			return char.class;
+		case 'S':
+			return short.class;
+		case 'I':
+			return int.class;
+		case 'J':
+			return long.class;
+		case 'F':
+			return float.class;
+		case 'D':
+			return double.class;
+		default:
+			return null;
+		}
+	}
+
+	private static Class<?> load(String name, ClassLoader loader) {
+		Object event = ReflectEvents.beginLookup();
+		Class<?> type = null;
+		try {
+			type = loader.loadClass(name);
+		} catch (ClassNotFoundException e) {
+			int lastDotIndex = name.lastIndexOf('.');
+			if (lastDotIndex != -1) {
+				try {
+					type = loader.loadClass(name.substring(0, lastDotIndex) + "$" + name.substring(lastDotIndex + 1));
+				} catch (ClassNotFoundException ignore) {
+				}
+			}
+		} finally {
+			ReflectEvents.endLookup(event, null, "class", name, null, type != null);
+		}
+		return type;
+	}
+
+	/**
+	 * 按引用比较类加载器的弱引用
+	 */
+	private static final class LoaderKey extends WeakReference<ClassLoader> {
+		private final int hash;
+
+		LoaderKey(ClassLoader loader, ReferenceQueue<ClassLoader> queue) {
+			super(loader, queue);
+			this.hash = System.identityHashCode(loader);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof LoaderKey)) {
+				return false;
+			}
+			ClassLoader loader = get();
+			return loader != null && loader == ((LoaderKey) obj).get();
+		}
+	}
+
+	private static final class ClassRef extends WeakReference<Class<?>> {
+		ClassRef(Class<?> type) {
+			super(type);
+		}
+	}
+
+	private static final class Names {
+		final LoaderKey key;
+		/**
+		 * 值为{@link ClassRef}或{@link ClassMetadata.Miss}
+		 */
+		final ConcurrentMap<String, Object> classes = new ConcurrentHashMap<String, Object>();
+
+		Names(LoaderKey key) {
+			this.key = key;
+		}
+	}
+}
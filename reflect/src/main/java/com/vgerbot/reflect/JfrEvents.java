@@ -0,0 +1,216 @@
+package com.vgerbot.reflect;
+
+import java.lang.reflect.Member;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder事件定义，只通过{@link ReflectEvents}使用，避免在没有jdk.jfr的JDK上加载；
+ * 调用{@link ReflectEvents#enable()}后才会注册。
+ * <p>
+ * 事件均在"Reflect"分类下：
+ * <ul>
+ * <li>{@value #INVOKE}：方法调用、字段读写、构造器调用，默认只记录超过10 ms的调用</li>
+ * <li>{@value #LOOKUP}：缓存未命中时查找字段、方法、构造器（包括按参数类型匹配重载）和按名称加载类</li>
+ * <li>{@value #CACHE_MISS}：{@link ClassMetadata}各项缓存未命中</li>
+ * <li>{@value #ENUM_MUTATION}：通过{@link Reflect.EnumReflect#add(String, Object...)}添加枚举值</li>
+ * <li>{@value #CACHE_STATISTICS}：{@link ClassMetadata}累计的命中、未命中次数，每秒一次</li>
+ * </ul>
+ * 阈值可以在录制配置中调整，如：-XX:StartFlightRecording=settings=profile,...，
+ * 或{@code recording.enable("com.vgerbot.reflect.Invoke").withThreshold(Duration.ofMillis(1))}。
+ * 录制的文件可以使用{@link ReflectEventAnalyzer}分析。
+ *
+ * @author y1j2x34
+ */
+final class JfrEvents {
+	static final String INVOKE = "com.vgerbot.reflect.Invoke";
+	static final String LOOKUP = "com.vgerbot.reflect.Lookup";
+	static final String CACHE_MISS = "com.vgerbot.reflect.CacheMiss";
+	static final String ENUM_MUTATION = "com.vgerbot.reflect.EnumMutation";
+	static final String CACHE_STATISTICS = "com.vgerbot.reflect.CacheStatistics";
+
+	private JfrEvents() {
+	}
+
+	static void register() {
+		FlightRecorder.addListener(new FlightRecorderListener() {
+			@Override
+			public void recorderInitialized(FlightRecorder recorder) {
+				update(recorder);
+			}
+
+			@Override
+			public void recordingStateChanged(Recording recording) {
+				update(FlightRecorder.getFlightRecorder());
+			}
+		});
+		FlightRecorder.addPeriodicEvent(CacheStatisticsEvent.class, new Runnable() {
+			@Override
+			public void run() {
+				CacheStatisticsEvent event = new CacheStatisticsEvent();
+				event.hits = ClassMetadata.hitCount();
+				event.misses = ClassMetadata.missCount();
+				event.commit();
+			}
+		});
+	}
+
+	private static void update(FlightRecorder recorder) {
+		boolean running = false;
+		for (Recording recording : recorder.getRecordings()) {
+			if (recording.getState() == RecordingState.RUNNING) {
+				running = true;
+				break;
+			}
+		}
+		ReflectEvents.recording = running;
+	}
+
+	static Object beginInvoke() {
+		InvokeEvent event = new InvokeEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	static void endInvoke(Object e, Member member, boolean failed) {
+		InvokeEvent event = (InvokeEvent) e;
+		event.end();
+		if (event.shouldCommit()) {
+			event.member = MemberMetrics.describe(member);
+			event.declaringClass = member.getDeclaringClass();
+			event.failed = failed;
+			event.commit();
+		}
+	}
+
+	static Object beginLookup() {
+		LookupEvent event = new LookupEvent();
+		if (!event.isEnabled()) {
+			return null;
+		}
+		event.begin();
+		return event;
+	}
+
+	static void endLookup(Object e, Class<?> type, String kind, String name, Class<?>[] parameterTypes,
+			boolean found) {
+		LookupEvent event = (LookupEvent) e;
+		event.end();
+		if (event.shouldCommit()) {
+			event.type = type;
+			event.kind = kind;
+			event.name = parameterTypes == null ? name : name + parameters(parameterTypes);
+			event.found = found;
+			event.commit();
+		}
+	}
+
+	private static String parameters(Class<?>[] parameterTypes) {
+		StringBuilder parameters = new StringBuilder("(");
+		for (int i = 0; i < parameterTypes.length; i++) {
+			parameters.append(i == 0 ? "" : ",").append(parameterTypes[i].getName());
+		}
+		return parameters.append(')').toString();
+	}
+
+	static void cacheMiss(Class<?> type, String cache, Object key) {
+		CacheMissEvent event = new CacheMissEvent();
+		if (event.shouldCommit()) {
+			event.type = type;
+			event.cache = cache;
+			event.key = String.valueOf(key);
+			event.commit();
+		}
+	}
+
+	static void enumMutation(Class<?> enumType, String name, int ordinal) {
+		EnumMutationEvent event = new EnumMutationEvent();
+		if (event.shouldCommit()) {
+			event.enumType = enumType;
+			event.name = name;
+			event.ordinal = ordinal;
+			event.commit();
+		}
+	}
+
+	@Name(INVOKE)
+	@Label("Reflective Invocation")
+	@Category("Reflect")
+	@Description("Method call, field get/set or constructor call through Reflect")
+	@Threshold("10 ms")
+	static final class InvokeEvent extends Event {
+		@Label("Member")
+		String member;
+		@Label("Declaring Class")
+		Class<?> declaringClass;
+		@Label("Failed")
+		boolean failed;
+	}
+
+	@Name(LOOKUP)
+	@Label("Reflective Lookup")
+	@Category("Reflect")
+	@Description("Field, method, constructor or class lookup after a cache miss")
+	@Threshold("0 ms")
+	static final class LookupEvent extends Event {
+		@Label("Type")
+		Class<?> type;
+		@Label("Kind")
+		String kind;
+		@Label("Name")
+		String name;
+		@Label("Found")
+		boolean found;
+	}
+
+	@Name(CACHE_MISS)
+	@Label("Metadata Cache Miss")
+	@Category("Reflect")
+	@StackTrace(false)
+	static final class CacheMissEvent extends Event {
+		@Label("Type")
+		Class<?> type;
+		@Label("Cache")
+		String cache;
+		@Label("Key")
+		String key;
+	}
+
+	@Name(ENUM_MUTATION)
+	@Label("Enum Mutation")
+	@Category("Reflect")
+	static final class EnumMutationEvent extends Event {
+		@Label("Enum Type")
+		Class<?> enumType;
+		@Label("Name")
+		String name;
+		@Label("Ordinal")
+		int ordinal;
+	}
+
+	@Name(CACHE_STATISTICS)
+	@Label("Metadata Cache Statistics")
+	@Category("Reflect")
+	@Period("1 s")
+	@StackTrace(false)
+	static final class CacheStatisticsEvent extends Event {
+		@Label("Hits")
+		long hits;
+		@Label("Misses")
+		long misses;
+	}
+}
@@ -0,0 +1,474 @@
+package com.vgerbot.reflect;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * 通过{@link LambdaMetafactory}把字段、getter/setter方法转换为函数式接口实例，
+ * 生成的对象与手写的lambda一样可以被JIT内联。
+ * <p>
+ * 字段通过{@link ClassAccessor}生成类中的静态读写方法实现；生成类无法访问的字段使用MethodHandle，
+ * 都不可用时退回反射实现。
+ * 请通过{@link ClassMetadata}取得已缓存的实例。
+ *
+ * @author y1j2x34
+ */
+final class LambdaFactory {
+
+	/**
+	 * 函数式接口的形状
+	 */
+	enum Shape {
+		FUNCTION(Function.class, "apply", Object.class, null),
+		TO_INT(ToIntFunction.class, "applyAsInt", int.class, null),
+		TO_LONG(ToLongFunction.class, "applyAsLong", long.class, null),
+		TO_DOUBLE(ToDoubleFunction.class, "applyAsDouble", double.class, null),
+		PREDICATE(Predicate.class, "test", boolean.class, null),
+		BI_CONSUMER(BiConsumer.class, "accept", void.class, Object.class),
+		OBJ_INT(ObjIntConsumer.class, "accept", void.class, int.class),
+		OBJ_LONG(ObjLongConsumer.class, "accept", void.class, long.class),
+		OBJ_DOUBLE(ObjDoubleConsumer.class, "accept", void.class, double.class);
+
+		final Class<?> interfaceType;
+		final String name;
+		final MethodType samType;
+		/**
+		 * getter的返回值类型或setter的参数类型，Object表示任意类型
+		 */
+		final Class<?> valueType;
+
+		Shape(Class<?> interfaceType, String name, Class<?> returnType, Class<?> valueType) {
+			this.interfaceType = interfaceType;
+			this.name = name;
+			this.samType = valueType == null ? MethodType.methodType(returnType, Object.class)
+					: MethodType.methodType(returnType, Object.class, valueType);
+			this.valueType = valueType == null ? returnType : valueType;
+		}
+
+		boolean isGetter() {
+			return samType.returnType() != void.class;
+		}
+
+		/**
+		 * 字段或getter/setter的值类型能否不经过窄化转换地适配该形状
+		 */
+		boolean accepts(Class<?> type) {
+			if (valueType == Object.class) {
+				return true;
+			}
+			if (isGetter()) {
+				return Reflect.widens(type.isPrimitive() ? type : Reflect.primitiveType(type), valueType);
+			}
+			return type.isPrimitive() ? Reflect.widens(valueType, type)
+					: type.isAssignableFrom(Reflect.wrapper(valueType));
+		}
+	}
+
+	private LambdaFactory() {
+	}
+
+	/**
+	 * 创建函数式接口实例
+	 *
+	 * @param member
+	 *            字段，或实例getter（无参数、有返回值）/setter（一个参数）方法
+	 * @param shape
+	 * @return
+	 * @throws ReflectException
+	 *             成员与形状不匹配
+	 */
+	static Object create(Member member, Shape shape) throws ReflectException {
+		if (Modifier.isStatic(member.getModifiers())) {
+			throw new ReflectException("static member can not be converted to " + shape.interfaceType.getName()
+					+ ":" + member);
+		}
+		if (member instanceof Field) {
+			return create((Field) member, shape);
+		} else if (member instanceof Method) {
+			return create((Method) member, shape);
+		}
+		throw new ReflectException("unsupported member:" + member);
+	}
+
+	private static Object create(Field field, Shape shape) {
+		check(field, field.getType(), shape);
+		ClassAccessor accessor = ClassAccessor.of(field.getDeclaringClass());
+		int index = accessor.fieldIndex(field);
+		boolean direct = shape.isGetter() ? accessor.isDirectField(index) : accessor.isDirectSetter(index);
+		if (direct) {
+			Class<?> accessorClass = accessor.getClass();
+			Lookup lookup = MethodHandleInvoker.privateLookup(accessorClass);
+			if (lookup != null) {
+				try {
+					MethodHandle bridge;
+					if (shape.isGetter()) {
+						bridge = lookup.findStatic(accessorClass, ClassAccessor.GETTER_PREFIX + index,
+								MethodType.methodType(field.getType(), Object.class));
+					} else {
+						bridge = lookup.findStatic(accessorClass, ClassAccessor.SETTER_PREFIX + index,
+								MethodType.methodType(void.class, Object.class, field.getType()));
+					}
+					return metafactory(lookup, bridge, shape, Object.class, field.getType());
+				} catch (Throwable ignore) {
+				}
+			}
+		}
+		if (!direct) {
+			// 生成类无法直接访问的字段（如私有字段）使用MethodHandle读写
+			Lookup lookup = MethodHandleInvoker.privateLookup(field.getDeclaringClass());
+			if (lookup != null) {
+				try {
+					MethodHandle handle;
+					if (shape.isGetter()) {
+						handle = lookup.unreflectGetter(field);
+					} else {
+						handle = isFinal(field) ? null : lookup.unreflectSetter(field);
+					}
+					return new HandleFunction(shape, handle, field.getType());
+				} catch (IllegalAccessException ignore) {
+				}
+			}
+		}
+		return new ReflectiveFunction(accessor, index, null);
+	}
+
+	private static boolean isFinal(Field field) {
+		return Modifier.isFinal(field.getModifiers());
+	}
+
+	private static Object create(Method method, Shape shape) {
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		Class<?> valueType;
+		if (shape.isGetter()) {
+			if (parameterTypes.length != 0 || method.getReturnType() == void.class) {
+				throw new ReflectException("not a getter:" + method);
+			}
+			valueType = method.getReturnType();
+		} else {
+			if (parameterTypes.length != 1) {
+				throw new ReflectException("not a setter:" + method);
+			}
+			valueType = parameterTypes[0];
+		}
+		check(method, valueType, shape);
+		Lookup lookup = MethodHandleInvoker.privateLookup(method.getDeclaringClass());
+		if (lookup == null && Modifier.isPublic(method.getModifiers())
+				&& Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+			// 无法取得私有Lookup时（如未开放的模块），公有方法仍可在本类中生成
+			lookup = MethodHandles.lookup();
+		}
+		if (lookup != null) {
+			try {
+				return metafactory(lookup, lookup.unreflect(method), shape, method.getDeclaringClass(), valueType);
+			} catch (Throwable ignore) {
+			}
+		}
+		return new ReflectiveFunction(null, -1, method);
+	}
+
+	private static void check(Member member, Class<?> valueType, Shape shape) {
+		if (!shape.accepts(valueType)) {
+			throw new ReflectException(member + " can not be converted to " + shape.interfaceType.getName());
+		}
+	}
+
+	private static Object metafactory(Lookup lookup, MethodHandle implementation, Shape shape,
+			Class<?> receiverType, Class<?> valueType) throws Throwable {
+		MethodType instantiatedType;
+		if (shape.isGetter()) {
+			Class<?> returnType = shape == Shape.FUNCTION ? Reflect.wrapper(valueType) : shape.valueType;
+			instantiatedType = MethodType.methodType(returnType, receiverType);
+		} else {
+			Class<?> parameterType = shape == Shape.BI_CONSUMER ? Reflect.wrapper(valueType) : shape.valueType;
+			instantiatedType = MethodType.methodType(void.class, receiverType, parameterType);
+		}
+		CallSite site = LambdaMetafactory.metafactory(lookup, shape.name, MethodType.methodType(shape.interfaceType),
+				shape.samType, implementation, instantiatedType);
+		return site.getTarget().invoke();
+	}
+
+	/**
+	 * 无法通过LambdaMetafactory生成时的实现，同时实现所有形状的接口
+	 */
+	private static abstract class MemberFunction implements Function<Object, Object>, ToIntFunction<Object>,
+			ToLongFunction<Object>, ToDoubleFunction<Object>, Predicate<Object>, BiConsumer<Object, Object>,
+			ObjIntConsumer<Object>, ObjLongConsumer<Object>, ObjDoubleConsumer<Object> {
+
+		abstract Object read(Object target);
+
+		abstract void write(Object target, Object value);
+
+		@Override
+		public Object apply(Object target) {
+			return read(target);
+		}
+
+		@Override
+		public int applyAsInt(Object target) {
+			return ClassAccessor.unboxInt(read(target));
+		}
+
+		@Override
+		public long applyAsLong(Object target) {
+			return ClassAccessor.unboxLong(read(target));
+		}
+
+		@Override
+		public double applyAsDouble(Object target) {
+			return ClassAccessor.unboxDouble(read(target));
+		}
+
+		@Override
+		public boolean test(Object target) {
+			return ClassAccessor.unboxBoolean(read(target));
+		}
+
+		@Override
+		public void accept(Object target, Object value) {
+			write(target, value);
+		}
+
+		@Override
+		public void accept(Object target, int value) {
+			write(target, value);
+		}
+
+		@Override
+		public void accept(Object target, long value) {
+			write(target, value);
+		}
+
+		@Override
+		public void accept(Object target, double value) {
+			write(target, value);
+		}
+	}
+
+	/**
+	 * 基于字段MethodHandle的实现。句柄按形状转换为与函数式接口方法相同的类型，通过invokeExact调用，
+	 * 基本类型的值不装箱
+	 */
+	private static final class HandleFunction extends MemberFunction {
+		private final Shape shape;
+		private final Class<?> fieldType;
+		/**
+		 * 类型为{@link Shape#samType}，final字段的setter为null
+		 */
+		private final MethodHandle handle;
+
+		HandleFunction(Shape shape, MethodHandle handle, Class<?> fieldType) {
+			this.shape = shape;
+			this.fieldType = fieldType;
+			this.handle = handle == null ? null : handle.asType(shape.samType);
+		}
+
+		@Override
+		Object read(Object target) {
+			switch (shape) {
+			case FUNCTION:
+				return apply(target);
+			case TO_INT:
+				return applyAsInt(target);
+			case TO_LONG:
+				return applyAsLong(target);
+			case TO_DOUBLE:
+				return applyAsDouble(target);
+			case PREDICATE:
+				return test(target);
+			default:
+				throw unsupported();
+			}
+		}
+
+		@Override
+		void write(Object target, Object value) {
+			switch (shape) {
+			case BI_CONSUMER:
+				accept(target, value);
+				break;
+			case OBJ_INT:
+				accept(target, ClassAccessor.unboxInt(value));
+				break;
+			case OBJ_LONG:
+				accept(target, ClassAccessor.unboxLong(value));
+				break;
+			case OBJ_DOUBLE:
+				accept(target, ClassAccessor.unboxDouble(value));
+				break;
+			default:
+				throw unsupported();
+			}
+		}
+
+		@Override
+		public Object apply(Object target) {
+			check(Shape.FUNCTION);
+			try {
+				return (Object) handle.invokeExact(target);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		public int applyAsInt(Object target) {
+			check(Shape.TO_INT);
+			try {
+				return (int) handle.invokeExact(target);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		public long applyAsLong(Object target) {
+			check(Shape.TO_LONG);
+			try {
+				return (long) handle.invokeExact(target);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		public double applyAsDouble(Object target) {
+			check(Shape.TO_DOUBLE);
+			try {
+				return (double) handle.invokeExact(target);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		public boolean test(Object target) {
+			check(Shape.PREDICATE);
+			try {
+				return (boolean) handle.invokeExact(target);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		public void accept(Object target, Object value) {
+			check(Shape.BI_CONSUMER);
+			try {
+				Reflect.checkValue(fieldType, value);
+				handle.invokeExact(target, value);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		public void accept(Object target, int value) {
+			check(Shape.OBJ_INT);
+			try {
+				handle.invokeExact(target, value);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		public void accept(Object target, long value) {
+			check(Shape.OBJ_LONG);
+			try {
+				handle.invokeExact(target, value);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		@Override
+		public void accept(Object target, double value) {
+			check(Shape.OBJ_DOUBLE);
+			try {
+				handle.invokeExact(target, value);
+			} catch (Throwable e) {
+				throw rethrow(e);
+			}
+		}
+
+		private void check(Shape expected) {
+			if (shape != expected) {
+				throw unsupported();
+			}
+			if (handle == null) {
+				throw new ReflectException("can not set final field");
+			}
+		}
+
+		private ReflectException unsupported() {
+			return new ReflectException("created as " + shape.interfaceType.getName());
+		}
+
+		private static RuntimeException rethrow(Throwable e) {
+			if (e instanceof IllegalArgumentException) {
+				return new ReflectException(e);
+			}
+			if (e instanceof RuntimeException) {
+				return (RuntimeException) e;
+			}
+			return new ReflectException(e);
+		}
+	}
+
+	/**
+	 * 反射实现
+	 */
+	private static final class ReflectiveFunction extends MemberFunction {
+		private final ClassAccessor accessor;
+		private final int fieldIndex;
+		private final Method method;
+
+		ReflectiveFunction(ClassAccessor accessor, int fieldIndex, Method method) {
+			this.accessor = accessor;
+			this.fieldIndex = fieldIndex;
+			this.method = method;
+		}
+
+		@Override
+		Object read(Object target) {
+			if (method == null) {
+				return accessor.get(target, fieldIndex);
+			}
+			try {
+				return Reflect.accessible(method).invoke(target);
+			} catch (Exception e) {
+				throw new ReflectException(e);
+			}
+		}
+
+		@Override
+		void write(Object target, Object value) {
+			if (method == null) {
+				accessor.set(target, fieldIndex, value);
+				return;
+			}
+			try {
+				Reflect.accessible(method).invoke(target, value);
+			} catch (Exception e) {
+				throw new ReflectException(e);
+			}
+		}
+	}
+}
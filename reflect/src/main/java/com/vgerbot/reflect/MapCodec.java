@@ -0,0 +1,249 @@
+package com.vgerbot.reflect;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 对象与Map的相互转换，每个类只构建一次，由{@link ClassMetadata}持有，通过{@link Reflect#toMap(Object)}、
+ * {@link Reflect#fromMap(Map, Class)}使用。
+ * <p>
+ * 转换的字段为类及其父类声明的非静态、非合成字段，父类字段在前，按声明顺序排列，子类字段覆盖父类的同名字段；
+ * 键为字段名，与MapReflect相同。字段通过声明类的{@link ClassAccessor}按下标读写，值不包装为Reflect。
+ * <p>
+ * 展开时，类型不属于java.*、javax.*的嵌套对象（数组、集合、Map、枚举除外）按"字段.子字段"的键展开，
+ * 出现循环引用的对象不再展开。
+ *
+ * @author y1j2x34
+ */
+public final class MapCodec<T> {
+	private final Class<T> type;
+	private final String[] names;
+	private final Class<?>[] types;
+	private final ClassAccessor[] accessors;
+	private final int[] indexes;
+	private final ClassAccessor accessor;
+	/**
+	 * 无参构造器在accessor中的下标，-1表示没有
+	 */
+	private final int constructorIndex;
+	private final int capacity;
+
+	private MapCodec(Class<T> type) {
+		this.type = type;
+		List<Field> fields = fields(type);
+		int size = fields.size();
+		names = new String[size];
+		types = new Class<?>[size];
+		accessors = new ClassAccessor[size];
+		indexes = new int[size];
+		for (int i = 0; i < size; i++) {
+			Field field = fields.get(i);
+			names[i] = field.getName();
+			types[i] = field.getType();
+			accessors[i] = ClassAccessor.of(field.getDeclaringClass());
+			indexes[i] = accessors[i].fieldIndex(field);
+		}
+		accessor = ClassAccessor.of(type);
+		constructorIndex = type.isInterface() || Modifier.isAbstract(type.getModifiers()) ? -1
+				: accessor.constructorIndex();
+		capacity = (int) (size / 0.75f) + 1;
+	}
+
+	/**
+	 * 取得指定类已缓存的转换器
+	 *
+	 * @param type
+	 * @return
+	 * @throws ReflectException
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> MapCodec<T> of(Class<T> type) throws ReflectException {
+		return (MapCodec<T>) ClassMetadata.of(type).mapCodec();
+	}
+
+	/**
+	 * 创建转换器，请通过{@link #of(Class)}获取已缓存的实例
+	 */
+	static <T> MapCodec<T> create(Class<T> type) throws ReflectException {
+		if (type.isPrimitive() || type.isArray()) {
+			throw new ReflectException("not a bean type:" + type);
+		}
+		return new MapCodec<T>(type);
+	}
+
+	/**
+	 * 参与转换的字段，{@link BeanCopier}使用相同的规则
+	 */
+	static List<Field> fields(Class<?> type) {
+		List<Class<?>> hierarchy = new ArrayList<Class<?>>();
+		for (Class<?> t = type; t != null && t != Object.class; t = t.getSuperclass()) {
+			hierarchy.add(t);
+		}
+		Set<String> names = new HashSet<String>();
+		List<Field> fields = new ArrayList<Field>();
+		// 先收集子类字段，使子类覆盖父类的同名字段，再按父类在前的顺序排列
+		List<List<Field>> declared = new ArrayList<List<Field>>();
+		for (Class<?> t : hierarchy) {
+			List<Field> own = new ArrayList<Field>();
+			for (Field field : t.getDeclaredFields()) {
+				if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic() && names.add(field.getName())) {
+					own.add(field);
+				}
+			}
+			declared.add(own);
+		}
+		Collections.reverse(declared);
+		for (List<Field> own : declared) {
+			fields.addAll(own);
+		}
+		return fields;
+	}
+
+	public Class<T> type() {
+		return type;
+	}
+
+	/**
+	 * @return 参与转换的字段名，顺序与{@link #toMap(Object)}的键顺序相同
+	 */
+	public List<String> names() {
+		return Collections.unmodifiableList(Arrays.asList(names));
+	}
+
+	/**
+	 * 转换为Map，不展开嵌套对象
+	 *
+	 * @param object
+	 * @return 按字段顺序排列的Map
+	 * @throws ReflectException
+	 */
+	public Map<String, Object> toMap(T object) throws ReflectException {
+		return toMap(object, false);
+	}
+
+	/**
+	 * @param object
+	 * @param flatten
+	 *            是否把嵌套对象展开为"字段.子字段"的键
+	 * @return 按字段顺序排列的Map
+	 * @throws ReflectException
+	 */
+	public Map<String, Object> toMap(T object, boolean flatten) throws ReflectException {
+		if (object == null) {
+			throw new ReflectException("object is null");
+		}
+		Map<String, Object> map = new LinkedHashMap<String, Object>(capacity);
+		if (flatten) {
+			flatten(object, "", map, new IdentityHashMap<Object, Boolean>());
+		} else {
+			for (int i = 0; i < names.length; i++) {
+				map.put(names[i], accessors[i].get(object, indexes[i]));
+			}
+		}
+		return map;
+	}
+
+	private void flatten(Object object, String prefix, Map<String, Object> map, Map<Object, Boolean> visiting) {
+		visiting.put(object, Boolean.TRUE);
+		for (int i = 0; i < names.length; i++) {
+			Object value = accessors[i].get(object, indexes[i]);
+			String key = prefix.isEmpty() ? names[i] : prefix + names[i];
+			if (value != null && isBean(value.getClass()) && !visiting.containsKey(value)) {
+				of(value.getClass()).flatten(value, key + '.', map, visiting);
+			} else {
+				map.put(key, value);
+			}
+		}
+		visiting.remove(object);
+	}
+
+	/**
+	 * 从Map创建实例，类必须有无参构造器。
+	 * <p>
+	 * Map中不存在的键保留字段的默认值，基本类型字段对应的值为null时忽略；
+	 * 嵌套对象的键不存在而存在"字段.子字段"形式的键时，按展开的形式创建嵌套对象
+	 *
+	 * @param map
+	 * @return
+	 * @throws ReflectException
+	 *             没有无参构造器或值的类型与字段不符
+	 */
+	public T fromMap(Map<String, ?> map) throws ReflectException {
+		if (map == null) {
+			throw new ReflectException("map is null");
+		}
+		boolean flattened = false;
+		for (String key : map.keySet()) {
+			if (key != null && key.indexOf('.') > 0) {
+				flattened = true;
+				break;
+			}
+		}
+		return fromMap(map, "", flattened);
+	}
+
+	private T fromMap(Map<String, ?> map, String prefix, boolean flattened) {
+		T object = newInstance();
+		for (int i = 0; i < names.length; i++) {
+			String key = prefix.isEmpty() ? names[i] : prefix + names[i];
+			Object value = map.get(key);
+			if (value == null && !map.containsKey(key)) {
+				if (flattened && isBean(types[i]) && hasPrefix(map.keySet(), key + '.')) {
+					value = of(types[i]).fromMap(map, key + '.', true);
+				} else {
+					continue;
+				}
+			}
+			if (value == null && types[i].isPrimitive()) {
+				continue;
+			}
+			accessors[i].set(object, indexes[i], value);
+		}
+		return object;
+	}
+
+	private static boolean hasPrefix(Collection<String> keys, String prefix) {
+		for (String key : keys) {
+			if (key != null && key.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@SuppressWarnings("unchecked")
+	private T newInstance() {
+		if (constructorIndex < 0) {
+			throw new ReflectException(new NoSuchMethodException("No constructor with params [] could be found on type "
+					+ type + "."));
+		}
+		return (T) accessor.newInstance(constructorIndex);
+	}
+
+	/**
+	 * 展开时是否作为嵌套对象处理
+	 */
+	static boolean isBean(Class<?> type) {
+		if (type.isPrimitive() || type.isArray() || type.isEnum() || type.isInterface()
+				|| Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
+			return false;
+		}
+		String name = type.getName();
+		return !name.startsWith("java.") && !name.startsWith("javax.");
+	}
+
+	@Override
+	public String toString() {
+		return "MapCodec<" + type.getName() + ">" + Arrays.toString(names);
+	}
+}
@@ -0,0 +1,447 @@
+package com.vgerbot.reflect;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongBinaryOperator;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * 按成员统计反射调用的次数、失败次数和耗时分布，默认关闭，通过{@link #setEnabled(boolean)}开启。
+ * <p>
+ * 统计的调用包括{@link Reflect.MethodReflect}的call/callBy/invokeRaw、{@link Reflect.FieldReflect}的get/set、
+ * {@link Reflect.ConstructorReflect}的create。关闭时每次调用只多一次volatile读。
+ * <p>
+ * 计数使用{@link LongAdder}，多线程调用同一成员时不会互相竞争；耗时按对数分桶记录（与HdrHistogram类似，
+ * 每个2的幂区间分为8个子桶，相对误差不超过12.5%），分位数取所在桶的上界。
+ * 统计过的成员会一直保留到{@link #reset()}，或者声明它的类被回收。
+ *
+ * @author y1j2x34
+ */
+public final class MemberMetrics {
+	/**
+	 * 未开启时{@link #start()}的返回值
+	 */
+	static final long DISABLED = Long.MIN_VALUE;
+
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	static final String OBJECT_NAME = "com.vgerbot.reflect:type=MemberMetrics";
+
+	private static volatile boolean enabled;
+
+	/**
+	 * 按声明类保存统计结果，随类一起回收，不会阻止插件等类加载器被卸载
+	 */
+	private static final ClassValue<Recorders> recorders = new ClassValue<Recorders>() {
+		@Override
+		protected Recorders computeValue(Class<?> type) {
+			Recorders recorders = new Recorders();
+			synchronized (declared) {
+				declared.put(recorders, Boolean.TRUE);
+			}
+			return recorders;
+		}
+	};
+
+	/**
+	 * 所有声明类的统计结果，用于遍历和清空
+	 */
+	private static final Map<Recorders, Boolean> declared = new WeakHashMap<Recorders, Boolean>();
+
+	private MemberMetrics() {
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 开启或关闭统计，关闭时保留已有的统计结果
+	 *
+	 * @param enabled
+	 */
+	public static void setEnabled(boolean enabled) {
+		MemberMetrics.enabled = enabled;
+	}
+
+	/**
+	 * 清空所有统计结果
+	 */
+	public static void reset() {
+		for (Recorders members : declared()) {
+			members.clear();
+		}
+	}
+
+	private static List<Recorders> declared() {
+		synchronized (declared) {
+			return new ArrayList<Recorders>(declared.keySet());
+		}
+	}
+
+	/**
+	 * 调用开始
+	 *
+	 * @return 开始时间，未开启时返回{@link #DISABLED}
+	 */
+	static long start() {
+		return enabled ? System.nanoTime() : DISABLED;
+	}
+
+	/**
+	 * 调用结束
+	 *
+	 * @param member
+	 * @param start
+	 *            {@link #start()}的返回值
+	 * @param failed
+	 *            调用是否抛出异常
+	 */
+	static void record(Member member, long start, boolean failed) {
+		if (start == DISABLED) {
+			return;
+		}
+		long elapsed = System.nanoTime() - start;
+		Recorders members = recorders.get(member.getDeclaringClass());
+		Recorder recorder = members.get(member);
+		if (recorder == null) {
+			recorder = new Recorder();
+			Recorder previous = members.putIfAbsent(member, recorder);
+			if (previous != null) {
+				recorder = previous;
+			}
+		}
+		recorder.record(elapsed < 0 ? 0 : elapsed, failed);
+	}
+
+	/**
+	 * 取得指定成员的统计结果
+	 *
+	 * @param member
+	 * @return 没有统计过时返回null
+	 */
+	public static Snapshot snapshot(Member member) {
+		Recorder recorder = recorders.get(member.getDeclaringClass()).get(member);
+		return recorder == null ? null : recorder.snapshot(member);
+	}
+
+	/**
+	 * 取得所有成员的统计结果
+	 *
+	 * @return 按总耗时从大到小排列
+	 */
+	public static List<Snapshot> snapshot() {
+		List<Snapshot> snapshots = new ArrayList<Snapshot>();
+		for (Recorders members : declared()) {
+			for (Map.Entry<Member, Recorder> entry : members.entrySet()) {
+				snapshots.add(entry.getValue().snapshot(entry.getKey()));
+			}
+		}
+		Collections.sort(snapshots, new Comparator<Snapshot>() {
+			@Override
+			public int compare(Snapshot a, Snapshot b) {
+				return a.totalNanos < b.totalNanos ? 1 : a.totalNanos == b.totalNanos ? 0 : -1;
+			}
+		});
+		return snapshots;
+	}
+
+	/**
+	 * 总耗时最多的n个成员
+	 *
+	 * @param n
+	 * @return
+	 */
+	public static List<Snapshot> top(int n) {
+		List<Snapshot> snapshots = snapshot();
+		return n < snapshots.size() ? new ArrayList<Snapshot>(snapshots.subList(0, Math.max(n, 0))) : snapshots;
+	}
+
+	/**
+	 * 注册{@link MemberMetricsMXBean}到平台MBeanServer，ObjectName为"com.vgerbot.reflect:type=MemberMetrics"，
+	 * 重复调用不会重复注册
+	 *
+	 * @throws ReflectException
+	 */
+	public static synchronized void registerMBean() throws ReflectException {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(new MBean(), name);
+			}
+		} catch (JMException e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	public static synchronized void unregisterMBean() throws ReflectException {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (JMException e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	/**
+	 * 成员的描述，如"com.example.Foo#bar(int)"、"com.example.Foo#<init>()"、"com.example.Foo.name"
+	 */
+	static String describe(Member member) {
+		StringBuilder name = new StringBuilder(member.getDeclaringClass().getName());
+		if (member instanceof Field) {
+			return name.append('.').append(member.getName()).toString();
+		}
+		Class<?>[] types;
+		if (member instanceof Constructor) {
+			name.append("#<init>");
+			types = ((Constructor<?>) member).getParameterTypes();
+		} else {
+			name.append('#').append(member.getName());
+			types = ((Method) member).getParameterTypes();
+		}
+		name.append('(');
+		for (int i = 0; i < types.length; i++) {
+			name.append(i == 0 ? "" : ",").append(types[i].getSimpleName());
+		}
+		return name.append(')').toString();
+	}
+
+	static int bucket(long nanos) {
+		if (nanos < SUB_BUCKETS) {
+			return (int) nanos;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+		int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	/**
+	 * 桶内的最大值
+	 */
+	static long upperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lower + (1L << shift) - 1;
+	}
+
+	/**
+	 * 一个声明类中各成员的统计，按实例比较，可以作为WeakHashMap的键
+	 */
+	private static final class Recorders extends ConcurrentHashMap<Member, Recorder> {
+		private static final long serialVersionUID = 1L;
+
+		Recorders() {
+			super(4);
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return this == o;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this);
+		}
+	}
+
+	private static final class Recorder {
+		private final LongAdder count = new LongAdder();
+		private final LongAdder errors = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAccumulator maxNanos = new LongAccumulator(new LongBinaryOperator() {
+			@Override
+			public long applyAsLong(long left, long right) {
+				return Math.max(left, right);
+			}
+		}, 0);
+		/**
+		 * 用到时才创建
+		 */
+		private final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<LongAdder>(BUCKETS);
+
+		void record(long nanos, boolean failed) {
+			count.increment();
+			if (failed) {
+				errors.increment();
+			}
+			totalNanos.add(nanos);
+			maxNanos.accumulate(nanos);
+			int index = bucket(nanos);
+			LongAdder bucket = buckets.get(index);
+			if (bucket == null) {
+				buckets.compareAndSet(index, null, new LongAdder());
+				bucket = buckets.get(index);
+			}
+			bucket.increment();
+		}
+
+		Snapshot snapshot(Member member) {
+			long[] counts = new long[BUCKETS];
+			for (int i = 0; i < BUCKETS; i++) {
+				LongAdder bucket = buckets.get(i);
+				if (bucket != null) {
+					counts[i] = bucket.sum();
+				}
+			}
+			return new Snapshot(member, count.sum(), errors.sum(), totalNanos.sum(), maxNanos.get(), counts);
+		}
+	}
+
+	/**
+	 * 某一时刻单个成员的统计结果，各项数值分别读取，并发调用时彼此之间可能略有出入
+	 */
+	public static final class Snapshot {
+		private final Member member;
+		private final long count;
+		private final long errorCount;
+		private final long totalNanos;
+		private final long maxNanos;
+		private final long[] buckets;
+		private final long recorded;
+
+		Snapshot(Member member, long count, long errorCount, long totalNanos, long maxNanos, long[] buckets) {
+			this.member = member;
+			this.count = count;
+			this.errorCount = errorCount;
+			this.totalNanos = totalNanos;
+			this.maxNanos = maxNanos;
+			this.buckets = buckets;
+			long recorded = 0;
+			for (long bucket : buckets) {
+				recorded += bucket;
+			}
+			this.recorded = recorded;
+		}
+
+		public Member member() {
+			return member;
+		}
+
+		/**
+		 * @return 如"com.example.Foo#bar(int)"、"com.example.Foo.name"
+		 */
+		public String getName() {
+			return describe(member);
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getErrorCount() {
+			return errorCount;
+		}
+
+		public long getTotalNanos() {
+			return totalNanos;
+		}
+
+		public long getMaxNanos() {
+			return maxNanos;
+		}
+
+		public long getMeanNanos() {
+			return count == 0 ? 0 : totalNanos / count;
+		}
+
+		public long getP50Nanos() {
+			return percentile(50);
+		}
+
+		public long getP90Nanos() {
+			return percentile(90);
+		}
+
+		public long getP99Nanos() {
+			return percentile(99);
+		}
+
+		/**
+		 * @param percentile
+		 *            0~100
+		 * @return 耗时的近似分位数（纳秒），不超过最大耗时
+		 */
+		public long percentile(double percentile) {
+			if (recorded == 0) {
+				return 0;
+			}
+			long rank = (long) Math.ceil(recorded * Math.min(Math.max(percentile, 0), 100) / 100);
+			long seen = 0;
+			for (int i = 0; i < buckets.length; i++) {
+				seen += buckets[i];
+				if (seen >= rank && buckets[i] > 0) {
+					return Math.min(upperBound(i), maxNanos);
+				}
+			}
+			return maxNanos;
+		}
+
+		@Override
+		public String toString() {
+			return getName() + "[count=" + count + ", errors=" + errorCount + ", mean=" + getMeanNanos() + "ns, p50="
+					+ getP50Nanos() + "ns, p99=" + getP99Nanos() + "ns, max=" + maxNanos + "ns]";
+		}
+	}
+
+	private static final class MBean implements MemberMetricsMXBean {
+		@Override
+		public boolean isEnabled() {
+			return MemberMetrics.isEnabled();
+		}
+
+		@Override
+		public void setEnabled(boolean enabled) {
+			MemberMetrics.setEnabled(enabled);
+		}
+
+		@Override
+		public int getMemberCount() {
+			int count = 0;
+			for (Recorders members : declared()) {
+				count += members.size();
+			}
+			return count;
+		}
+
+		@Override
+		public List<Snapshot> getTopMembers() {
+			return MemberMetrics.top(DEFAULT_TOP);
+		}
+
+		@Override
+		public List<Snapshot> top(int n) {
+			return MemberMetrics.top(n);
+		}
+
+		@Override
+		public void reset() {
+			MemberMetrics.reset();
+		}
+	}
+}
@@ -0,0 +1,30 @@
+package com.vgerbot.reflect;
+
+import java.util.List;
+
+/**
+ * 通过JMX查看{@link MemberMetrics}的统计结果，使用{@link MemberMetrics#registerMBean()}注册
+ *
+ * @author y1j2x34
+ */
+public interface MemberMetricsMXBean {
+	/**
+	 * {@link #getTopMembers()}返回的成员数
+	 */
+	int DEFAULT_TOP = 10;
+
+	boolean isEnabled();
+
+	void setEnabled(boolean enabled);
+
+	int getMemberCount();
+
+	/**
+	 * @return 总耗时最多的{@value #DEFAULT_TOP}个成员
+	 */
+	List<MemberMetrics.Snapshot> getTopMembers();
+
+	List<MemberMetrics.Snapshot> top(int n);
+
+	void reset();
+}
@@ -0,0 +1,662 @@
+package com.vgerbot.reflect;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.CodeSource;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.vgerbot.reflect.Reflect.MethodKey;
+
+/**
+ * 预先生成的类元数据快照，用于缩短冷启动时的反射查找。
+ * <p>
+ * {@link #write(File, Collection)}在构建时或首次运行预热后，把指定类的元数据写入文件：
+ * <ul>
+ * <li>{@link ClassMetadata}中已缓存的字段、方法、构造器查找结果（包括找不到的结果和按参数匹配的重载），记录实际的声明类和参数类型</li>
+ * <li>该类声明的字段、方法、构造器的精确签名，以及{@link Reflect#fields(int)}用到的类层次字段名和修饰符</li>
+ * <li>类及其声明成员上的注解类型</li>
+ * </ul>
+ * {@link #load(File)}以内存映射方式打开文件，只读取类目录；通过{@link ClassMetadata#setSnapshot(MetadataSnapshot)}启用后，
+ * 某个类第一次未命中缓存时才解码该类的记录，查找直接在声明类上按精确签名取得成员，不再沿父类链查找、匹配重载或抛出异常，
+ * 找不到的结果直接作为负缓存；{@link Reflect.AnnotatedReflect#getAnnotation(Class)}查询快照中不存在的注解时不再解析注解。
+ * <p>
+ * 每条记录同时保存类的来源（jar文件或类目录的修改时间、大小，JDK类为版本号），以及所有父类、接口和记录中声明类的来源；
+ * 其中任何一个来源有变化或无法判断（如非file:的URL），或类层次与写入时不同，该类都不使用快照。
+ *
+ * @author y1j2x34
+ */
+public final class MetadataSnapshot {
+	private static final int MAGIC = 0x524D5353;
+	private static final int VERSION = 2;
+	private static final String[] MISSING = new String[0];
+	private static final String JDK = "jdk:" + System.getProperty("java.version");
+
+	private final ByteBuffer buffer;
+	private final int[] offsets;
+	private final String[] strings;
+	private final String[] locations;
+	private final AnnotationIndex.Root[] roots;
+	/**
+	 * 各个来源是否没有变化，null表示尚未检查
+	 */
+	private final Boolean[] unchanged;
+	/**
+	 * 类名到{来源下标, 记录位置}
+	 */
+	private final Map<String, int[]> directory;
+
+	private MetadataSnapshot(ByteBuffer buffer) {
+		this.buffer = buffer;
+		int position = 8;
+		offsets = new int[buffer.getInt(position)];
+		position += 4;
+		for (int i = 0; i < offsets.length; i++) {
+			offsets[i] = position;
+			position += 2 + (buffer.getShort(position) & 0xFFFF);
+		}
+		strings = new String[offsets.length];
+		int count = buffer.getInt(position);
+		position += 4;
+		locations = new String[count];
+		roots = new AnnotationIndex.Root[count];
+		unchanged = new Boolean[count];
+		for (int i = 0; i < count; i++) {
+			locations[i] = string(buffer.getInt(position));
+			roots[i] = new AnnotationIndex.Root(locations[i], buffer.getLong(position + 4), buffer.getLong(position + 12));
+			position += 20;
+		}
+		count = buffer.getInt(position);
+		position += 4;
+		directory = new HashMap<String, int[]>(count * 4 / 3 + 1);
+		for (int i = 0; i < count; i++) {
+			directory.put(string(buffer.getInt(position)),
+					new int[] { buffer.getInt(position + 4), buffer.getInt(position + 8) });
+			position += 12;
+		}
+	}
+
+	/**
+	 * 以内存映射方式打开快照文件，只读取字符串位置和类目录
+	 *
+	 * @param file
+	 * @return 文件不是快照文件或版本不同时返回null
+	 * @throws ReflectException
+	 *             读取失败
+	 */
+	public static MetadataSnapshot load(File file) throws ReflectException {
+		try {
+			RandomAccessFile in = new RandomAccessFile(file, "r");
+			try {
+				FileChannel channel = in.getChannel();
+				ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				if (buffer.limit() < 8 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+					return null;
+				}
+				return new MetadataSnapshot(buffer);
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			throw new ReflectException(e);
+		} catch (IndexOutOfBoundsException e) {
+			throw new ReflectException("Corrupted snapshot " + file, e);
+		}
+	}
+
+	/**
+	 * 解析指定类的元数据（字段、方法、构造器、注解）并写入文件，{@link ClassMetadata}中已缓存的查找结果一并写入。
+	 * 先写入临时文件再重命名。
+	 *
+	 * @param file
+	 * @param types
+	 * @throws ReflectException
+	 *             写入失败
+	 */
+	public static void write(File file, Collection<? extends Class<?>> types) throws ReflectException {
+		Writer writer = new Writer();
+		for (Class<?> type : types) {
+			writer.add(type);
+		}
+		File temp = new File(file.getPath() + ".tmp");
+		try {
+			OutputStream out = new FileOutputStream(temp);
+			try {
+				writer.writeTo(out);
+			} finally {
+				out.close();
+			}
+		} catch (IOException e) {
+			temp.delete();
+			throw new ReflectException(e);
+		}
+		if (!temp.renameTo(file) && !(file.delete() && temp.renameTo(file))) {
+			temp.delete();
+			throw new ReflectException("Can not write " + file);
+		}
+	}
+
+	/**
+	 * @return 快照中的类数量
+	 */
+	public int size() {
+		return directory.size();
+	}
+
+	/**
+	 * @param type
+	 * @return 快照中是否有该类的记录，并且类的来源没有变化
+	 */
+	public boolean contains(Class<?> type) {
+		return record(type).known;
+	}
+
+	/**
+	 * 解码类的记录，由{@link ClassMetadata}缓存
+	 *
+	 * @return 没有记录或来源已变化时返回空记录
+	 */
+	ClassRecord record(Class<?> type) {
+		int[] entry = directory.get(type.getName());
+		if (entry == null || !isUnchanged(entry[0], type)) {
+			return new ClassRecord(this, type.getClassLoader());
+		}
+		int position = entry[1];
+		Map<String, Class<?>> supertypes = supertypes(type);
+		int count = buffer.getInt(position);
+		position += 4;
+		if (count != supertypes.size()) {
+			return new ClassRecord(this, type.getClassLoader());
+		}
+		for (int i = 0; i < count; i++) {
+			Class<?> dependency = supertypes.get(string(buffer.getInt(position)));
+			if (dependency == null || !isUnchanged(buffer.getInt(position + 4), dependency)) {
+				return new ClassRecord(this, type.getClassLoader());
+			}
+			position += 8;
+		}
+		return decode(position, type.getClassLoader());
+	}
+
+	private boolean isUnchanged(int root, Class<?> type) {
+		if (!locations[root].equals(location(type))) {
+			return false;
+		}
+		Boolean result = unchanged[root];
+		if (result == null) {
+			String location = locations[root];
+			if (location.equals(JDK)) {
+				result = Boolean.TRUE;
+			} else {
+				File file;
+				try {
+					file = ClassIndex.toFile(new URL(location));
+				} catch (IOException e) {
+					file = null;
+				}
+				AnnotationIndex.Root current = file == null ? null : AnnotationIndex.Root.of(file);
+				result = current != null && current.lastModified == roots[root].lastModified
+						&& current.length == roots[root].length;
+			}
+			unchanged[root] = result;
+		}
+		return result;
+	}
+
+	/**
+	 * 类的所有父类和接口（不含类本身），字段、方法的声明类都在其中
+	 *
+	 * @return 类名到类
+	 */
+	static Map<String, Class<?>> supertypes(Class<?> type) {
+		Map<String, Class<?>> supertypes = new LinkedHashMap<String, Class<?>>();
+		addSupertypes(type, supertypes);
+		return supertypes;
+	}
+
+	private static void addSupertypes(Class<?> type, Map<String, Class<?>> supertypes) {
+		Class<?> superclass = type.getSuperclass();
+		if (superclass != null && supertypes.put(superclass.getName(), superclass) == null) {
+			addSupertypes(superclass, supertypes);
+		}
+		for (Class<?> face : type.getInterfaces()) {
+			if (supertypes.put(face.getName(), face) == null) {
+				addSupertypes(face, supertypes);
+			}
+		}
+	}
+
+	/**
+	 * 类的来源：jar文件或类目录的URL，JDK的类为"jdk:"加版本号，无法取得时返回null
+	 */
+	static String location(Class<?> type) {
+		CodeSource source = type.getProtectionDomain().getCodeSource();
+		URL url = source == null ? null : source.getLocation();
+		if (url != null) {
+			return "jrt".equals(url.getProtocol()) ? JDK : url.toExternalForm();
+		}
+		return type.getClassLoader() == null ? JDK : null;
+	}
+
+	/**
+	 * 查找键：名称加参数类型名，如"add(int,java.lang.Object)"
+	 */
+	static String key(String name, Class<?>[] parameterTypes) {
+		StringBuilder key = new StringBuilder(name).append('(');
+		for (int i = 0; i < parameterTypes.length; i++) {
+			if (i > 0) {
+				key.append(',');
+			}
+			key.append(parameterTypes[i] == null ? "null" : parameterTypes[i].getName());
+		}
+		return key.append(')').toString();
+	}
+
+	private ClassRecord decode(int position, ClassLoader loader) {
+		ClassRecord record = new ClassRecord(this, loader);
+		record.known = true;
+		int count = buffer.getInt(position);
+		position += 4;
+		String[] names = new String[count];
+		int[] modifiers = new int[count];
+		for (int i = 0; i < count; i++) {
+			names[i] = string(buffer.getInt(position));
+			modifiers[i] = buffer.getInt(position + 4);
+			position += 8;
+		}
+		record.fieldTable = new ClassMetadata.FieldTable(names, modifiers);
+		count = buffer.getInt(position);
+		position += 4;
+		record.fields = new HashMap<String, String>(count * 4 / 3 + 1);
+		for (int i = 0; i < count; i++) {
+			int declaring = buffer.getInt(position + 4);
+			record.fields.put(string(buffer.getInt(position)), declaring < 0 ? "" : string(declaring));
+			position += 8;
+		}
+		count = buffer.getInt(position);
+		position += 4;
+		record.members = new HashMap<String, String[]>(count * 4 / 3 + 1);
+		for (int i = 0; i < count; i++) {
+			String key = string(buffer.getInt(position));
+			String[] signature = strings(position + 4);
+			record.members.put(key, signature.length == 0 ? MISSING : signature);
+			position += 8 + signature.length * 4;
+		}
+		count = buffer.getInt(position);
+		position += 4;
+		record.annotations = new HashMap<String, String[]>(count * 4 / 3 + 1);
+		for (int i = 0; i < count; i++) {
+			String key = string(buffer.getInt(position));
+			String[] annotations = strings(position + 4);
+			record.annotations.put(key, annotations);
+			position += 8 + annotations.length * 4;
+		}
+		return record;
+	}
+
+	/**
+	 * 读取以数量开头的字符串下标数组
+	 */
+	private String[] strings(int position) {
+		String[] values = new String[buffer.getInt(position)];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = string(buffer.getInt(position + 4 + i * 4));
+		}
+		return values;
+	}
+
+	/**
+	 * 解码字符串表中的Modified UTF-8字符串（{@link DataOutputStream#writeUTF(String)}的格式）
+	 */
+	private String string(int index) {
+		String string = strings[index];
+		if (string != null) {
+			return string;
+		}
+		int p = offsets[index];
+		int length = buffer.getShort(p) & 0xFFFF;
+		p += 2;
+		int end = p + length;
+		char[] chars = new char[length];
+		int n = 0;
+		while (p < end) {
+			int c = buffer.get(p++) & 0xFF;
+			if (c < 0x80) {
+				chars[n++] = (char) c;
+			} else if (c < 0xE0) {
+				chars[n++] = (char) (((c & 0x1F) << 6) | (buffer.get(p++) & 0x3F));
+			} else {
+				chars[n++] = (char) (((c & 0x0F) << 12) | ((buffer.get(p++) & 0x3F) << 6) | (buffer.get(p++) & 0x3F));
+			}
+		}
+		string = new String(chars, 0, n);
+		strings[index] = string;
+		return string;
+	}
+
+	@Override
+	public String toString() {
+		return "MetadataSnapshot[classes=" + directory.size() + ", strings=" + strings.length + ", roots="
+				+ roots.length + "]";
+	}
+
+	/**
+	 * 快照中一个类的记录，成员在查找时才从声明类取得
+	 */
+	static final class ClassRecord {
+		final MetadataSnapshot snapshot;
+		/**
+		 * 该类的类加载器，用于解析声明类
+		 */
+		final ClassLoader loader;
+		boolean known;
+		ClassMetadata.FieldTable fieldTable;
+		/**
+		 * 字段名到声明类名，""表示找不到
+		 */
+		Map<String, String> fields;
+		/**
+		 * 方法、构造器查找键到{声明类名, 参数类型名...}，空数组表示找不到
+		 */
+		Map<String, String[]> members;
+		/**
+		 * 元素键（类为""，字段为字段名，方法、构造器为查找键）到注解类名
+		 */
+		Map<String, String[]> annotations;
+
+		ClassRecord(MetadataSnapshot snapshot, ClassLoader loader) {
+			this.snapshot = snapshot;
+			this.loader = loader;
+		}
+
+		ClassMetadata.FieldTable fieldTable() {
+			return fieldTable;
+		}
+
+		/**
+		 * @return 快照记录的字段；记录为找不到时返回{@link ClassMetadata.Miss}；没有记录或无法取得时返回null
+		 */
+		Object field(String name) {
+			String declaring = fields == null ? null : fields.get(name);
+			if (declaring == null) {
+				return null;
+			}
+			if (declaring.length() == 0) {
+				return ClassMetadata.Miss.create();
+			}
+			Class<?> owner = resolve(declaring, loader);
+			if (owner == null) {
+				return null;
+			}
+			try {
+				return Reflect.accessible(owner.getDeclaredField(name));
+			} catch (NoSuchFieldException e) {
+				return null;
+			}
+		}
+
+		/**
+		 * @param name
+		 *            方法名，构造器为"&lt;init&gt;"
+		 * @param parameterTypes
+		 *            查找时使用的参数类型
+		 * @return 快照记录的Method或Constructor；记录为找不到时返回{@link ClassMetadata.Miss}；没有记录或无法取得时返回null
+		 */
+		Object member(String name, Class<?>[] parameterTypes) {
+			String[] signature = members == null ? null : members.get(key(name, parameterTypes));
+			if (signature == null) {
+				return null;
+			}
+			if (signature == MISSING) {
+				return ClassMetadata.Miss.create();
+			}
+			Class<?> owner = resolve(signature[0], loader);
+			if (owner == null) {
+				return null;
+			}
+			Class<?>[] types = new Class<?>[signature.length - 1];
+			for (int i = 0; i < types.length; i++) {
+				types[i] = resolve(signature[i + 1], owner.getClassLoader());
+				if (types[i] == null) {
+					return null;
+				}
+			}
+			try {
+				if ("<init>".equals(name)) {
+					return Reflect.accessible(owner.getDeclaredConstructor(types));
+				}
+				return Reflect.accessible(owner.getDeclaredMethod(name, types));
+			} catch (NoSuchMethodException e) {
+				return null;
+			}
+		}
+
+		boolean isAnnotationAbsent(String key, String annotationName) {
+			String[] names = annotations == null ? null : annotations.get(key);
+			if (names == null) {
+				return false;
+			}
+			for (String name : names) {
+				if (name.equals(annotationName)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	private static Class<?> resolve(String name, ClassLoader loader) {
+		Class<?> type = Reflect.namedType(name);
+		if (type != null) {
+			return type;
+		}
+		return ClassNameCache.find(name, loader != null ? loader : ClassLoader.getSystemClassLoader());
+	}
+
+	/**
+	 * 收集记录并按文件格式写出：
+	 *
+	 * <pre>
+	 * magic, version
+	 * 字符串表：数量, (u2长度, Modified UTF-8)...
+	 * 来源：数量, (URL, 修改时间, 大小)...
+	 * 类目录：数量, (类名, 来源, 记录位置)...
+	 * 记录：依赖（父类、接口）, 字段表, 字段查找, 方法和构造器查找, 注解
+	 * </pre>
+	 *
+	 * 除字符串外都是定长的int、long，读取时可以直接按位置访问。
+	 */
+	private static final class Writer {
+		private final Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+		private final Map<String, Integer> locations = new LinkedHashMap<String, Integer>();
+		private final Map<String, int[]> directory = new LinkedHashMap<String, int[]>();
+		private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+		private final DataOutputStream records = new DataOutputStream(recordBytes);
+
+		void add(Class<?> type) throws ReflectException {
+			String location = location(type);
+			if (location == null || directory.containsKey(type.getName())) {
+				return;
+			}
+			Map<String, Class<?>> supertypes = supertypes(type);
+			for (Class<?> supertype : supertypes.values()) {
+				if (location(supertype) == null) {
+					return;
+				}
+			}
+			int root = root(location);
+			ClassMetadata metadata = ClassMetadata.of(type);
+			ClassMetadata.FieldTable table = metadata.fieldTable();
+			for (String name : table.names) {
+				metadata.field(name);
+			}
+			Map<String, AnnotatedElement> elements = new LinkedHashMap<String, AnnotatedElement>();
+			elements.put("", type);
+			for (Field field : type.getDeclaredFields()) {
+				elements.put(field.getName(), field);
+			}
+			for (Method method : type.getDeclaredMethods()) {
+				if (!method.isSynthetic()) {
+					metadata.hasMethod(method.getName(), method.getParameterTypes());
+					elements.put(key(method.getName(), method.getParameterTypes()), method);
+				}
+			}
+			for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+				if (!constructor.isSynthetic()) {
+					metadata.constructorOrNull(constructor.getParameterTypes());
+					elements.put(key("<init>", constructor.getParameterTypes()), constructor);
+				}
+			}
+			Map<String, Object> fields = new LinkedHashMap<String, Object>(metadata.fields);
+			Map<String, Object> members = new LinkedHashMap<String, Object>();
+			putMembers(members, metadata.methods);
+			putMembers(members, metadata.constructors);
+			if (!isDeclaredInHierarchy(type, supertypes, fields.values())
+					|| !isDeclaredInHierarchy(type, supertypes, members.values())) {
+				return;
+			}
+			directory.put(type.getName(), new int[] { root, recordBytes.size() });
+			try {
+				records.writeInt(supertypes.size());
+				for (Map.Entry<String, Class<?>> entry : supertypes.entrySet()) {
+					records.writeInt(intern(entry.getKey()));
+					records.writeInt(root(location(entry.getValue())));
+				}
+				records.writeInt(table.names.length);
+				for (int i = 0; i < table.names.length; i++) {
+					records.writeInt(intern(table.names[i]));
+					records.writeInt(table.modifiers[i]);
+				}
+				records.writeInt(fields.size());
+				for (Map.Entry<String, Object> entry : fields.entrySet()) {
+					records.writeInt(intern(entry.getKey()));
+					Object value = entry.getValue();
+					records.writeInt(value instanceof Field ? intern(((Field) value).getDeclaringClass().getName()) : -1);
+				}
+				records.writeInt(members.size());
+				for (Map.Entry<String, Object> entry : members.entrySet()) {
+					records.writeInt(intern(entry.getKey()));
+					Object value = entry.getValue();
+					if (value instanceof Member) {
+						Class<?>[] parameterTypes = value instanceof Method ? ((Method) value).getParameterTypes()
+								: ((Constructor<?>) value).getParameterTypes();
+						records.writeInt(parameterTypes.length + 1);
+						records.writeInt(intern(((Member) value).getDeclaringClass().getName()));
+						for (Class<?> parameterType : parameterTypes) {
+							records.writeInt(intern(parameterType.getName()));
+						}
+					} else {
+						records.writeInt(0);
+					}
+				}
+				records.writeInt(elements.size());
+				for (Map.Entry<String, AnnotatedElement> entry : elements.entrySet()) {
+					records.writeInt(intern(entry.getKey()));
+					AnnotatedElement element = entry.getValue();
+					Annotation[] annotations = element instanceof Class ? element.getAnnotations()
+							: element.getDeclaredAnnotations();
+					records.writeInt(annotations.length);
+					for (Annotation annotation : annotations) {
+						records.writeInt(intern(annotation.annotationType().getName()));
+					}
+				}
+			} catch (IOException e) {
+				throw new ReflectException(e);
+			}
+		}
+
+		/**
+		 * 记录中的声明类都要在依赖中，才能在声明类变化时丢弃记录
+		 */
+		private static boolean isDeclaredInHierarchy(Class<?> type, Map<String, Class<?>> supertypes,
+				Collection<Object> found) {
+			for (Object value : found) {
+				if (value instanceof Member) {
+					Class<?> declaring = ((Member) value).getDeclaringClass();
+					if (declaring != type && supertypes.get(declaring.getName()) != declaring) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		private static void putMembers(Map<String, Object> members, Map<MethodKey, Object> cache) {
+			for (Map.Entry<MethodKey, Object> entry : cache.entrySet()) {
+				members.put(key(entry.getKey().name(), entry.getKey().parameterTypes()), entry.getValue());
+			}
+		}
+
+		private int root(String location) {
+			Integer root = locations.get(location);
+			if (root == null) {
+				root = locations.size();
+				locations.put(location, root);
+			}
+			return root;
+		}
+
+		private int intern(String string) {
+			Integer index = strings.get(string);
+			if (index == null) {
+				index = strings.size();
+				strings.put(string, index);
+			}
+			return index;
+		}
+
+		void writeTo(OutputStream stream) throws IOException {
+			for (String location : locations.keySet()) {
+				intern(location);
+			}
+			for (String name : directory.keySet()) {
+				intern(name);
+			}
+			ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+			DataOutputStream header = new DataOutputStream(headerBytes);
+			header.writeInt(MAGIC);
+			header.writeInt(VERSION);
+			header.writeInt(strings.size());
+			for (String string : strings.keySet()) {
+				header.writeUTF(string);
+			}
+			header.writeInt(locations.size());
+			for (String location : locations.keySet()) {
+				AnnotationIndex.Root root = fingerprint(location);
+				header.writeInt(strings.get(location));
+				header.writeLong(root.lastModified);
+				header.writeLong(root.length);
+			}
+			header.writeInt(directory.size());
+			int recordsStart = headerBytes.size() + directory.size() * 12;
+			for (Map.Entry<String, int[]> entry : directory.entrySet()) {
+				header.writeInt(strings.get(entry.getKey()));
+				header.writeInt(entry.getValue()[0]);
+				header.writeInt(recordsStart + entry.getValue()[1]);
+			}
+			headerBytes.writeTo(stream);
+			recordBytes.writeTo(stream);
+		}
+
+		private static AnnotationIndex.Root fingerprint(String location) throws IOException {
+			File file = location.equals(JDK) ? null : ClassIndex.toFile(new URL(location));
+			return file == null ? new AnnotationIndex.Root(location, 0, 0) : AnnotationIndex.Root.of(file);
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package com.vgerbot.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * 基于MethodHandle的方法调用器，每个Method只解析一次，缓存在{@link ClassMetadata}中。
+ * <p>
+ * 调用前按{@link Method#invoke(Object, Object...)}的规则检查接收者和参数，
+ * 目标方法抛出的异常包装成{@link InvocationTargetException}，保证与反射调用的异常一致。
+ *
+ * @author y1j2x34
+ */
+final class MethodHandleInvoker {
+	private static final Object[] EMPTY_OBJECT_ARRAY = new Object[0];
+
+	// MethodHandles.privateLookupIn(Class, Lookup) 自Java 9起可用
+	private static final Method privateLookupIn = privateLookupIn();
+	// Java 8 没有privateLookupIn，通过私有构造器创建
+	private static final Constructor<Lookup> lookupConstructor = privateLookupIn == null ? lookupConstructor() : null;
+	private static final int ALL_MODES = Lookup.PUBLIC | Lookup.PRIVATE | Lookup.PROTECTED | Lookup.PACKAGE;
+
+	private final Method method;
+	private final Class<?>[] parameterTypes;
+	/**
+	 * (Object receiver, Object[] arguments)Object
+	 */
+	private final MethodHandle spreader;
+
+	private MethodHandleInvoker(Method method) throws IllegalAccessException {
+		this.method = method;
+		this.parameterTypes = method.getParameterTypes();
+		MethodHandle handle = unreflect(method).asFixedArity();
+		if (Modifier.isStatic(method.getModifiers())) {
+			handle = MethodHandles.dropArguments(handle, 0, Object.class);
+		}
+		handle = handle.asType(MethodType.genericMethodType(handle.type().parameterCount()));
+		this.spreader = handle.asSpreader(Object[].class, parameterTypes.length);
+	}
+
+	/**
+	 * 创建调用器，请通过{@link ClassMetadata}获取已缓存的实例
+	 *
+	 * @param method
+	 * @return
+	 * @throws ReflectException
+	 */
+	static MethodHandleInvoker create(Method method) throws ReflectException {
+		try {
+			return new MethodHandleInvoker(method);
+		} catch (IllegalAccessException e) {
+			throw new ReflectException(e);
+		} catch (RuntimeException e) {
+			throw new ReflectException("cannot resolve method handle of " + method, e);
+		}
+	}
+
+	static MethodHandleInvoker of(Method method) throws ReflectException {
+		return ClassMetadata.of(method.getDeclaringClass()).invoker(method);
+	}
+
+	/**
+	 * 取得可访问目标类私有成员的Lookup，当前运行环境不支持时返回null
+	 *
+	 * @param type
+	 * @return
+	 */
+	static Lookup privateLookup(Class<?> type) {
+		try {
+			if (privateLookupIn != null) {
+				return (Lookup) privateLookupIn.invoke(null, type, MethodHandles.lookup());
+			}
+			if (lookupConstructor != null) {
+				return lookupConstructor.newInstance(type, ALL_MODES);
+			}
+		} catch (Exception ignore) {
+		}
+		return null;
+	}
+
+	static MethodHandle unreflect(Method method) throws IllegalAccessException {
+		Lookup lookup = privateLookup(method.getDeclaringClass());
+		if (lookup != null) {
+			try {
+				return lookup.unreflect(method);
+			} catch (IllegalAccessException ignore) {
+			}
+		}
+		return MethodHandles.lookup().unreflect(Reflect.accessible(method));
+	}
+
+	private static Method privateLookupIn() {
+		try {
+			return MethodHandles.class.getMethod("privateLookupIn", Class.class, Lookup.class);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	private static Constructor<Lookup> lookupConstructor() {
+		try {
+			Constructor<Lookup> constructor = Lookup.class.getDeclaredConstructor(Class.class, int.class);
+			constructor.setAccessible(true);
+			return constructor;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	Method method() {
+		return method;
+	}
+
+	/**
+	 * 调用方法
+	 *
+	 * @param receiver
+	 *            静态方法时忽略
+	 * @param arguments
+	 * @return 方法返回值，void方法返回null
+	 * @throws InvocationTargetException
+	 *             目标方法抛出异常
+	 * @throws IllegalArgumentException
+	 *             接收者或参数与方法签名不符
+	 * @throws NullPointerException
+	 *             非静态方法的接收者为null
+	 */
+	Object invoke(Object receiver, Object... arguments) throws InvocationTargetException {
+		if (arguments == null) {
+			arguments = EMPTY_OBJECT_ARRAY;
+		}
+		Reflect.checkReceiver(method, receiver);
+		Reflect.checkArguments(parameterTypes, arguments);
+		try {
+			return (Object) spreader.invokeExact(receiver, arguments);
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+}
@@ -0,0 +1,258 @@
+package com.vgerbot.reflect;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按(方法名, 参数个数)分组的重载索引，每个类只构建一次，由{@link ClassMetadata}持有。
+ * <p>
+ * 参考JLS 15.12.2分阶段匹配：精确 &gt; 拓宽 &gt; 装箱 &gt; 可变参数，取所有参数中代价最高的转换作为方法的阶段，
+ * 在最低阶段的候选中选择最具体的方法；仍无法区分时依次按总代价、声明类的继承深度（子类优先）、
+ * 签名字符串排序，保证结果确定。
+ * <p>
+ * 实参类型由参数值得到，总是包装类型，因此包装类型传给对应的基本类型形参视为精确匹配。
+ *
+ * @author y1j2x34
+ */
+final class OverloadIndex<E extends Executable> {
+	private static final int EXACT = 0;
+	private static final int WIDENING = 1;
+	private static final int BOXING = 2;
+	private static final int VARARGS = 3;
+	private static final int INAPPLICABLE = Integer.MAX_VALUE;
+
+	/**
+	 * (方法名, 参数个数) -&gt; 重载
+	 */
+	private final Map<String, List<E>> overloads;
+	/**
+	 * 方法名 -&gt; 可变参数重载
+	 */
+	private final Map<String, List<E>> varargs;
+
+	private OverloadIndex(Map<String, List<E>> overloads, Map<String, List<E>> varargs) {
+		this.overloads = overloads;
+		this.varargs = varargs;
+	}
+
+	/**
+	 * 索引类的所有方法：先是公有方法（包括继承的接口方法），再沿父类链的声明方法，
+	 * 子类覆盖的方法与桥接方法不重复收录
+	 *
+	 * @param type
+	 * @return
+	 */
+	static OverloadIndex<Method> methods(Class<?> type) {
+		Map<String, List<Method>> overloads = new HashMap<String, List<Method>>();
+		Map<String, List<Method>> varargs = new HashMap<String, List<Method>>();
+		Set<List<Object>> signatures = new HashSet<List<Object>>();
+		add(overloads, varargs, signatures, type.getMethods());
+		for (Class<?> t = type; t != null; t = t.getSuperclass()) {
+			add(overloads, varargs, signatures, t.getDeclaredMethods());
+		}
+		return new OverloadIndex<Method>(overloads, varargs);
+	}
+
+	/**
+	 * 索引类声明的构造器
+	 *
+	 * @param type
+	 * @return
+	 */
+	static OverloadIndex<Constructor<?>> constructors(Class<?> type) {
+		Map<String, List<Constructor<?>>> overloads = new HashMap<String, List<Constructor<?>>>();
+		Map<String, List<Constructor<?>>> varargs = new HashMap<String, List<Constructor<?>>>();
+		for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+			put(overloads, key("<init>", constructor.getParameterCount()), constructor);
+			if (constructor.isVarArgs()) {
+				put(varargs, "<init>", constructor);
+			}
+		}
+		return new OverloadIndex<Constructor<?>>(overloads, varargs);
+	}
+
+	private static void add(Map<String, List<Method>> overloads, Map<String, List<Method>> varargs,
+			Set<List<Object>> signatures, Method[] methods) {
+		for (Method method : methods) {
+			if (method.isBridge()) {
+				continue;
+			}
+			List<Object> signature = new ArrayList<Object>(method.getParameterCount() + 1);
+			signature.add(method.getName());
+			signature.addAll(Arrays.asList(method.getParameterTypes()));
+			if (signatures.add(signature)) {
+				put(overloads, key(method.getName(), method.getParameterCount()), method);
+				if (method.isVarArgs()) {
+					put(varargs, method.getName(), method);
+				}
+			}
+		}
+	}
+
+	private static <E> void put(Map<String, List<E>> overloads, String key, E executable) {
+		List<E> list = overloads.get(key);
+		if (list == null) {
+			list = new ArrayList<E>(1);
+			overloads.put(key, list);
+		}
+		list.add(executable);
+	}
+
+	private static String key(String name, int arity) {
+		return name + '/' + arity;
+	}
+
+	/**
+	 * 选择与实参类型最匹配的重载，结果由调用方缓存
+	 *
+	 * @param name
+	 *            方法名，构造器为&lt;init&gt;
+	 * @param argumentTypes
+	 * @return null if no applicable overload
+	 */
+	E resolve(String name, Class<?>[] argumentTypes) {
+		E best = resolve(overloads.get(key(name, argumentTypes.length)), argumentTypes, false);
+		if (best == null) {
+			best = resolve(varargs.get(name), argumentTypes, true);
+		}
+		return best;
+	}
+
+	/**
+	 * @param variableArity
+	 *            是否按可变参数展开末尾的实参
+	 */
+	private static <E extends Executable> E resolve(List<E> candidates, Class<?>[] argumentTypes,
+			boolean variableArity) {
+		if (candidates == null) {
+			return null;
+		}
+		E best = null;
+		int bestPhase = INAPPLICABLE;
+		int bestCost = 0;
+		for (E candidate : candidates) {
+			Class<?>[] parameterTypes = candidate.getParameterTypes();
+			if (variableArity && argumentTypes.length < parameterTypes.length - 1) {
+				continue;
+			}
+			int phase = variableArity ? VARARGS : EXACT;
+			int cost = 0;
+			for (int i = 0; i < argumentTypes.length && phase != INAPPLICABLE; i++) {
+				int conversion = conversion(parameterType(parameterTypes, i, variableArity), argumentTypes[i]);
+				phase = Math.max(phase, conversion);
+				cost += conversion;
+			}
+			if (phase == INAPPLICABLE || phase > bestPhase) {
+				continue;
+			}
+			if (best == null || phase < bestPhase
+					|| isBetter(candidate, cost, best, bestCost, argumentTypes.length, variableArity)) {
+				best = candidate;
+				bestPhase = phase;
+				bestCost = cost;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * 第index个实参对应的形参类型，按可变参数展开时末尾的实参对应数组的元素类型
+	 */
+	private static Class<?> parameterType(Class<?>[] parameterTypes, int index, boolean variableArity) {
+		int last = parameterTypes.length - 1;
+		if (variableArity && index >= last) {
+			return parameterTypes[last].getComponentType();
+		}
+		return parameterTypes[index];
+	}
+
+	/**
+	 * 同一阶段的两个候选比较
+	 */
+	private static boolean isBetter(Executable candidate, int cost, Executable best, int bestCost, int arity,
+			boolean variableArity) {
+		boolean candidateMoreSpecific = isMoreSpecific(candidate, best, arity, variableArity);
+		boolean bestMoreSpecific = isMoreSpecific(best, candidate, arity, variableArity);
+		if (candidateMoreSpecific != bestMoreSpecific) {
+			return candidateMoreSpecific;
+		}
+		if (cost != bestCost) {
+			return cost < bestCost;
+		}
+		int depth = depth(candidate.getDeclaringClass());
+		int bestDepth = depth(best.getDeclaringClass());
+		if (depth != bestDepth) {
+			return depth > bestDepth;
+		}
+		return candidate.toString().compareTo(best.toString()) < 0;
+	}
+
+	/**
+	 * a的每个形参都可以不经装箱地转换为b的对应形参，或是b的对应形参的基本类型
+	 */
+	private static boolean isMoreSpecific(Executable a, Executable b, int arity, boolean variableArity) {
+		Class<?>[] as = a.getParameterTypes();
+		Class<?>[] bs = b.getParameterTypes();
+		int length = variableArity ? Math.max(arity, Math.max(as.length, bs.length)) : as.length;
+		for (int i = 0; i < length; i++) {
+			if (!isSubtype(parameterType(as, i, variableArity), parameterType(bs, i, variableArity))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isSubtype(Class<?> a, Class<?> b) {
+		if (a == b) {
+			return true;
+		}
+		if (a.isPrimitive()) {
+			return b.isPrimitive() ? Reflect.widens(a, b) : b.isAssignableFrom(Reflect.wrapper(a));
+		}
+		return !b.isPrimitive() && b.isAssignableFrom(a);
+	}
+
+	private static int depth(Class<?> type) {
+		int depth = 0;
+		while ((type = type.getSuperclass()) != null) {
+			depth++;
+		}
+		return depth;
+	}
+
+	/**
+	 * 实参类型转换为形参类型的代价
+	 *
+	 * @param parameterType
+	 * @param argumentType
+	 *            null值的类型为{@link Reflect#isNullType(Class)}
+	 * @return
+	 */
+	static int conversion(Class<?> parameterType, Class<?> argumentType) {
+		if (parameterType == argumentType) {
+			return EXACT;
+		}
+		if (Reflect.isNullType(argumentType)) {
+			return parameterType.isPrimitive() ? INAPPLICABLE : WIDENING;
+		}
+		if (parameterType.isPrimitive()) {
+			Class<?> primitive = argumentType.isPrimitive() ? argumentType : Reflect.primitiveType(argumentType);
+			if (primitive == parameterType) {
+				return EXACT;
+			}
+			return primitive != null && Reflect.widens(primitive, parameterType) ? WIDENING : INAPPLICABLE;
+		}
+		if (argumentType.isPrimitive()) {
+			return parameterType.isAssignableFrom(Reflect.wrapper(argumentType)) ? BOXING : INAPPLICABLE;
+		}
+		return parameterType.isAssignableFrom(argumentType) ? WIDENING : INAPPLICABLE;
+	}
+}
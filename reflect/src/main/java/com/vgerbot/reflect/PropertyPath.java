@@ -0,0 +1,233 @@
+package com.vgerbot.reflect;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 编译后的属性路径，如"customer.address.zip"、"orders[3].items[0].name"，通过{@link Reflect#path(String)}获取。
+ * <p>
+ * 每次调用{@link #compile(String)}都会重新解析路径，调用者应保存编译后的实例重复使用。
+ * 每一段按值的运行时类型解析为字段或getter的{@link Function}（见{@link Reflect.MethodReflect#getter()}），
+ * 解析结果缓存在该类型的{@link ClassMetadata}中，路径只弱引用最近一次解析的结果，不会阻止类加载器被回收。
+ * 取值时不创建Reflect包装对象，任一段的值为null时直接返回null。
+ * <ul>
+ * <li>属性：Map取同名键的值（与MapReflect相同），否则依次查找字段、getXxx()、isXxx()、xxx()</li>
+ * <li>下标[n]：数组、List按下标取值，Map取键为整数n的值</li>
+ * </ul>
+ *
+ * @author y1j2x34
+ */
+public final class PropertyPath {
+	private static final Class<?>[] NO_PARAMETERS = new Class<?>[0];
+
+	private final String expression;
+	private final Step[] steps;
+
+	private PropertyPath(String expression, Step[] steps) {
+		this.expression = expression;
+		this.steps = steps;
+	}
+
+	/**
+	 * 解析属性路径
+	 *
+	 * @param expression
+	 * @return
+	 * @throws ReflectException
+	 *             路径格式错误
+	 */
+	public static PropertyPath compile(String expression) throws ReflectException {
+		if (expression == null) {
+			throw new ReflectException("path is null");
+		}
+		return new PropertyPath(expression, parse(expression));
+	}
+
+	/**
+	 * 把属性解析为字段或getter，由{@link ClassMetadata#property(String)}缓存
+	 *
+	 * @throws ReflectException
+	 *             属性不存在
+	 */
+	@SuppressWarnings("unchecked")
+	static Resolved resolve(Class<?> type, String name) throws ReflectException {
+		ClassMetadata metadata = ClassMetadata.of(type);
+		final Field field = metadata.field(name);
+		if (field != null) {
+			if (Modifier.isStatic(field.getModifiers())) {
+				return new Resolved(type, new Function<Object, Object>() {
+					@Override
+					public Object apply(Object value) {
+						try {
+							return Reflect.accessible(field).get(null);
+						} catch (IllegalAccessException e) {
+							throw new ReflectException(e);
+						}
+					}
+				});
+			}
+			return new Resolved(type, (Function<Object, Object>) function(field));
+		}
+		String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+		for (String getter : new String[] { "get" + suffix, "is" + suffix, name }) {
+			if (metadata.hasMethod(getter, NO_PARAMETERS)) {
+				Method method = metadata.method(getter, NO_PARAMETERS);
+				if (method.getReturnType() != void.class && !Modifier.isStatic(method.getModifiers())) {
+					return new Resolved(type, (Function<Object, Object>) function(method));
+				}
+			}
+		}
+		throw new ReflectException(new NoSuchFieldException("No property " + name + " on type " + type));
+	}
+
+	private static Object function(Member member) {
+		return ClassMetadata.of(member.getDeclaringClass()).function(member, LambdaFactory.Shape.FUNCTION);
+	}
+
+	private static Step[] parse(String expression) {
+		List<Step> steps = new ArrayList<Step>();
+		int length = expression.length();
+		int i = 0;
+		while (i < length) {
+			char c = expression.charAt(i);
+			if (c == '[') {
+				int end = expression.indexOf(']', i);
+				if (end < 0) {
+					throw illegal(expression, i);
+				}
+				try {
+					steps.add(new Index(Integer.parseInt(expression.substring(i + 1, end).trim())));
+				} catch (NumberFormatException e) {
+					throw illegal(expression, i + 1);
+				}
+				i = end + 1;
+			} else {
+				if (c == '.') {
+					if (steps.isEmpty() || i + 1 >= length) {
+						throw illegal(expression, i);
+					}
+					c = expression.charAt(++i);
+				} else if (!steps.isEmpty()) {
+					throw illegal(expression, i);
+				}
+				int start = i;
+				while (i < length && Character.isJavaIdentifierPart(expression.charAt(i))) {
+					i++;
+				}
+				if (start == i || !Character.isJavaIdentifierStart(c)) {
+					throw illegal(expression, start);
+				}
+				steps.add(new Property(expression.substring(start, i)));
+			}
+		}
+		if (steps.isEmpty()) {
+			throw illegal(expression, 0);
+		}
+		return steps.toArray(new Step[steps.size()]);
+	}
+
+	private static ReflectException illegal(String expression, int index) {
+		return new ReflectException("Illegal path '" + expression + "' at index " + index);
+	}
+
+	/**
+	 * 从root开始按路径取值
+	 *
+	 * @param root
+	 * @return 路径上任一值为null时返回null
+	 * @throws ReflectException
+	 *             属性不存在或下标越界
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object root) throws ReflectException {
+		Object value = root;
+		for (int i = 0; i < steps.length && value != null; i++) {
+			value = steps[i].get(value);
+		}
+		return (T) value;
+	}
+
+	public String getExpression() {
+		return expression;
+	}
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+
+	private static abstract class Step {
+		abstract Object get(Object value) throws ReflectException;
+	}
+
+	private static final class Property extends Step {
+		private final String name;
+		/**
+		 * 最近一次解析的结果，由ClassMetadata强引用
+		 */
+		private volatile WeakReference<Resolved> last;
+
+		Property(String name) {
+			this.name = name;
+		}
+
+		@Override
+		Object get(Object value) throws ReflectException {
+			if (value instanceof Map) {
+				return ((Map<?, ?>) value).get(name);
+			}
+			Class<?> type = value.getClass();
+			WeakReference<Resolved> last = this.last;
+			Resolved resolved = last == null ? null : last.get();
+			if (resolved == null || resolved.type != type) {
+				resolved = ClassMetadata.of(type).property(name);
+				this.last = new WeakReference<Resolved>(resolved);
+			}
+			return resolved.getter.apply(value);
+		}
+	}
+
+	private static final class Index extends Step {
+		private final int index;
+
+		Index(int index) {
+			this.index = index;
+		}
+
+		@Override
+		Object get(Object value) throws ReflectException {
+			try {
+				if (value instanceof Object[]) {
+					return ((Object[]) value)[index];
+				} else if (value instanceof List) {
+					return ((List<?>) value).get(index);
+				} else if (value instanceof Map) {
+					return ((Map<?, ?>) value).get(index);
+				} else if (value.getClass().isArray()) {
+					return Array.get(value, index);
+				}
+			} catch (IndexOutOfBoundsException e) {
+				throw new ReflectException(e);
+			}
+			throw new ReflectException("[" + index + "] is not applicable to " + value.getClass());
+		}
+	}
+
+	static final class Resolved {
+		final Class<?> type;
+		final Function<Object, Object> getter;
+
+		Resolved(Class<?> type, Function<Object, Object> getter) {
+			this.type = type;
+			this.getter = getter;
+		}
+	}
+}
@@ -0,0 +1,3779 @@
+package com.vgerbot.reflect;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import sun.reflect.ConstructorAccessor;
+import sun.reflect.FieldAccessor;
+import sun.reflect.ReflectionFactory;
+
+@SuppressWarnings("restriction")
+public abstract class Reflect {
+	// **************************************************************************
+	// 定义修饰符
+	// **************************************************************************
+	public static final int STATIC = Modifier.STATIC;
+	public static final int PUBLIC = Modifier.PUBLIC;
+	public static final int PRIVATE = Modifier.PRIVATE;
+	public static final int PROTECTED = Modifier.PROTECTED;
+	public static final int FINAL = Modifier.FINAL;
+	public static final int TRANSIENT = Modifier.TRANSIENT;
+	public static final int VOLATILE = Modifier.VOLATILE;
+
+	// **************************************************************************
+	// 定义反修饰符
+	// **************************************************************************
+	public static final int NOT_STATIC = ~STATIC;
+	public static final int NOT_PUBLIC = ~PUBLIC;
+	public static final int NOT_PRIVATE = ~PRIVATE;
+	public static final int NOT_PROTECTED = ~PROTECTED;
+	public static final int NOT_FINAL = ~FINAL;
+	public static final int NOT_TRANSIENT = ~TRANSIENT;
+	public static final int NOT_VOLATILE = ~VOLATILE;
+
+	// 空数组避免过多临时对象
+	private static final Object[] EMPTY_OBJECT_ARRAY = new Object[0];
+	static final Class<?>[] EMPTY_CLASS_ARRAY = new Class[0];
+
+
+	// 基本类型映射
+	private static final Map<String, Class<?>> PRIMTYPEMAPPING = new HashMap<String, Class<?>>();
+
+	static {
+		PRIMTYPEMAPPING.put("int", int.class);
+		PRIMTYPEMAPPING.put("string", String.class);
+		PRIMTYPEMAPPING.put("char", char.class);
+		PRIMTYPEMAPPING.put("byte", byte.class);
+		PRIMTYPEMAPPING.put("short", short.class);
+		PRIMTYPEMAPPING.put("float", float.class);
+		PRIMTYPEMAPPING.put("long", long.class);
+		PRIMTYPEMAPPING.put("double", double.class);
+		PRIMTYPEMAPPING.put("boolean", boolean.class);
+		PRIMTYPEMAPPING.put("void", void.class);
+		PRIMTYPEMAPPING.put("class", Class.class);
+	}
+
+	// ********************************************************************
+	// 基本类型判断方法， 判断一个类型是基本类型或者包装类型
+	// ********************************************************************
+	public static boolean isInt(Class<?> type) {
+		return int.class == type || Integer.class == type;
+	}
+
+	public static boolean isFloat(Class<?> type) {
+		return float.class == type || Float.class == type;
+	}
+
+	public static boolean isDouble(Class<?> type) {
+		return double.class == type || Double.class == type;
+	}
+
+	public static boolean isShort(Class<?> type) {
+		return short.class == type || Short.class == type;
+	}
+
+	public static boolean isByte(Class<?> type) {
+		return byte.class == type || Byte.class == type;
+	}
+
+	public static boolean isChar(Class<?> type) {
+		return char.class == type || Character.class == type;
+	}
+
+	public static boolean isLong(Class<?> type) {
+		return long.class == type || Long.class == type;
+	}
+
+	public static boolean isBoolean(Class<?> type) {
+		return boolean.class == type || Boolean.class == type;
+	}
+
+	public static boolean isText(Class<?> type) {
+		return CharSequence.class.isAssignableFrom(type);
+	}
+
+	/**
+	 * 基本类型拓宽转换判断（JLS 5.1.2），相同类型视为可转换
+	 *
+	 * @param from
+	 *            基本类型
+	 * @param to
+	 *            基本类型
+	 * @return
+	 */
+	static boolean widens(Class<?> from, Class<?> to) {
+		if (from == to) {
+			return true;
+		}
+		if (from == null || to == null || !from.isPrimitive() || !to.isPrimitive()) {
+			return false;
+		}
+		if (to == double.class) {
+			return from != boolean.class && from != void.class;
+		} else if (to == float.class) {
+			return from == long.class || from == int.class || from == char.class || from == short.class
+					|| from == byte.class;
+		} else if (to == long.class) {
+			return from == int.class || from == char.class || from == short.class || from == byte.class;
+		} else if (to == int.class) {
+			return from == char.class || from == short.class || from == byte.class;
+		} else if (to == short.class) {
+			return from == byte.class;
+		}
+		return false;
+	}
+
+	/**
+	 * 按{@link Method#invoke(Object, Object...)}的规则检查接收者
+	 *
+	 * @throws NullPointerException
+	 *             非静态成员的接收者为null
+	 * @throws IllegalArgumentException
+	 *             接收者不是成员所属类的实例
+	 */
+	static void checkReceiver(Member member, Object receiver) {
+		if (Modifier.isStatic(member.getModifiers())) {
+			return;
+		}
+		if (receiver == null) {
+			throw new NullPointerException();
+		}
+		if (!member.getDeclaringClass().isInstance(receiver)) {
+			throw new IllegalArgumentException("object is not an instance of declaring class");
+		}
+	}
+
+	/**
+	 * 按{@link Method#invoke(Object, Object...)}的规则检查参数个数与类型，允许拆箱及基本类型拓宽转换
+	 *
+	 * @throws IllegalArgumentException
+	 *             参数与声明不符
+	 */
+	static void checkArguments(Class<?>[] parameterTypes, Object[] arguments) {
+		if (arguments.length != parameterTypes.length) {
+			throw new IllegalArgumentException("wrong number of arguments");
+		}
+		for (int i = 0; i < parameterTypes.length; i++) {
+			checkValue(parameterTypes[i], arguments[i]);
+		}
+	}
+
+	static void checkValue(Class<?> type, Object value) {
+		if (type.isPrimitive()) {
+			if (value == null || !widens(primitiveType(value.getClass()), type)) {
+				throw new IllegalArgumentException("argument type mismatch");
+			}
+		} else if (value != null && !type.isInstance(value)) {
+			throw new IllegalArgumentException("argument type mismatch");
+		}
+	}
+
+	// 第一个字母小写
+	private static final String unTitle(String str) {
+		if (str == null || str.length() < 1)
+			return null;
+		char[] chs = str.toCharArray();
+		chs[0] = Character.toLowerCase(chs[0]);
+		return new String(chs);
+	}
+
+	/**
+	 * 获取包装类
+	 * 
+	 * @author y1j2x34
+	 * @version 1.0
+	 * @date 2015-3-30
+	 * @param type
+	 * @return
+	 */
+	public static Class<?> wrapper(Class<?> type) {
+		if (type == null) {
+			return null;
+		} else if (type.isPrimitive()) {
+			if (boolean.class == type) {
+				return Boolean.class;
+			} else if (int.class == type) {
+				return Integer.class;
+			} else if (long.class == type) {
+				return Long.class;
+			} else if (short.class == type) {
+				return Short.class;
+			} else if (byte.class == type) {
+				return Byte.class;
+			} else if (double.class == type) {
+				return Double.class;
+			} else if (float.class == type) {
+				return Float.class;
+			} else if (char.class == type) {
+				return Character.class;
+			} else if (void.class == type) {
+				return Void.class;
+			}
+		}
+		return type;
+	}
+
+	/**
+	 * 获取基本类
+	 * 
+	 * @author y1j2x34
+	 * @version 1.0
+	 * @date 2015-3-30
+	 * @param wrapper
+	 * @return
+	 */
+	public static Class<?> primitiveType(Class<?> wrapper) {
+		if (wrapper == null) {
+			return null;
+		} else if (!wrapper.isPrimitive()) {
+			if (Integer.class == wrapper) {
+				return int.class;
+			} else if (Short.class == wrapper) {
+				return short.class;
+			} else if (Byte.class == wrapper) {
+				return byte.class;
+			} else if (Float.class == wrapper) {
+				return float.class;
+			} else if (Character.class == wrapper) {
+				return char.class;
+			} else if (Long.class == wrapper) {
+				return long.class;
+			} else if (Double.class == wrapper) {
+				return double.class;
+			} else if (Boolean.class == wrapper) {
+				return boolean.class;
+			} else if (Void.class == wrapper) {
+				return void.class;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * 判断是否为基本类型
+	 * 
+	 * @param cls
+	 * @return null或者不是基本类型的情况返回false,其它情况返回true
+	 */
+	public static boolean isPrimitiveType(Class<?> cls) {
+		return cls != null && cls.isPrimitive();
+	}
+
+	/**
+	 * 根据名称判断是否为基本类型
+	 * 
+	 * @see #PRIMTYPEMAPPING
+	 * @param name
+	 * @return
+	 */
+	public static boolean isPrimitiveType(String name) {
+		Class<?> cls = PRIMTYPEMAPPING.get(name);
+		return isPrimitiveType(cls);
+	}
+
+	/**
+	 * 将访问受限的对象转为访问不受限的对象
+	 * 
+	 * @author y1j2x34
+	 * @version 1.0
+	 * @date 2015-3-30
+	 * @param accessible
+	 *            访问受限的对象
+	 * @return 如果accessible不为空，则为访问不受限的对象
+	 */
+	public static <T extends AccessibleObject> T accessible(T accessible) {
+		if (accessible == null)
+			return null;
+		if (accessible instanceof Member) {
+			Member m = (Member) accessible;
+			if (Modifier.isPublic(m.getModifiers())
+					&& Modifier.isPublic(((Member) accessible).getDeclaringClass().getModifiers())) {
+				return accessible;
+			}
+		}
+		if (!accessible.isAccessible()) {
+			accessible.setAccessible(true);
+		}
+		return accessible;
+	}
+
+	private static ReflectionFactory reflectionFactory = ReflectionFactory.getReflectionFactory();
+
+	private static volatile InvocationMode defaultInvocationMode = InvocationMode.REFLECTION;
+
+	/**
+	 * 设置全局默认的方法调用方式，未单独指定调用方式的MethodReflect使用该设置
+	 *
+	 * @param mode
+	 */
+	public static void setDefaultInvocationMode(InvocationMode mode) {
+		if (mode == null) {
+			throw new ReflectException("invocation mode is null");
+		}
+		defaultInvocationMode = mode;
+	}
+
+	public static InvocationMode getDefaultInvocationMode() {
+		return defaultInvocationMode;
+	}
+
+	private static volatile Executor defaultBatchExecutor = ForkJoinPool.commonPool();
+
+	/**
+	 * 设置并行批量调用默认使用的线程池，默认为{@link ForkJoinPool#commonPool()}
+	 *
+	 * @param executor
+	 */
+	public static void setDefaultBatchExecutor(Executor executor) {
+		if (executor == null) {
+			throw new ReflectException("executor is null");
+		}
+		defaultBatchExecutor = executor;
+	}
+
+	public static Executor getDefaultBatchExecutor() {
+		return defaultBatchExecutor;
+	}
+
+	private static volatile ChainHistory defaultChainHistory = ChainHistory.FULL;
+
+	/**
+	 * 设置全局默认的链式调用历史，未单独指定的链条使用该设置，默认为{@link ChainHistory#FULL}
+	 *
+	 * @param history
+	 */
+	public static void setDefaultChainHistory(ChainHistory history) {
+		if (history == null) {
+			throw new ReflectException("chain history is null");
+		}
+		defaultChainHistory = history;
+	}
+
+	public static ChainHistory getDefaultChainHistory() {
+		return defaultChainHistory;
+	}
+
+	private static volatile Executor defaultAsyncExecutor;
+
+	/**
+	 * 设置异步调用默认使用的线程池，默认在支持虚拟线程的JDK上每个调用使用一个虚拟线程，
+	 * 否则使用守护线程的缓存线程池
+	 *
+	 * @param executor
+	 *            null时恢复默认
+	 */
+	public static void setDefaultAsyncExecutor(Executor executor) {
+		defaultAsyncExecutor = executor;
+	}
+
+	public static Executor getDefaultAsyncExecutor() {
+		Executor executor = defaultAsyncExecutor;
+		return executor != null ? executor : AsyncExecutor.defaultExecutor();
+	}
+
+	/**
+	 * 打破final修饰，使字段可写
+	 * 
+	 * @param field
+	 * @return
+	 * @throws IllegalAccessException
+	 * @throws NoSuchFieldException
+	 */
+	public static Field breakFinal(Field field) throws IllegalAccessException, NoSuchFieldException {
+		field.setAccessible(true);
+		Field modifiersField = Field.class.getDeclaredField("modifiers");
+		modifiersField.setAccessible(true);
+		int modifiers = modifiersField.getInt(field);
+		modifiers &= ~Modifier.FINAL;
+		modifiersField.setInt(field, modifiers);
+		return field;
+	}
+
+	/**
+	 * 复制字段并打破副本的final修饰，参数中的字段不受影响
+	 */
+	static Field copyField(Field field) throws ReflectException {
+		try {
+			return breakFinal(field.getDeclaringClass().getDeclaredField(field.getName()));
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		}
+	}
+
+	/**
+	 * 创建可以写入final字段的访问器，由{@link ClassMetadata#forceAccessor(Field)}缓存
+	 */
+	static FieldAccessor newForceAccessor(Field field) throws ReflectException {
+		return reflectionFactory.newFieldAccessor(copyField(field), false);
+	}
+
+	// ----------------------------------------------------------------
+	// 内部工具方法
+	// ----------------------------------------------------------------
+	/**
+	 * 链条的起点，没有上一节点，所有链条共用
+	 */
+	private static final NullReflect NULL_REFLECT = new NullReflect(null);
+
+	private static Reflect nullReflect() {
+		return NULL_REFLECT;
+	}
+
+	private static ClassLoader getDefaultClassLoader() {
+		ClassLoader cl = null;
+		try {
+			cl = Thread.currentThread().getContextClassLoader();
+		} catch (Throwable t) {
+			// cannot access thread context classLoader - falling back
+		}
+		if (cl == null) {
+			cl = Reflect.class.getClassLoader();
+			if (cl == null) {
+				cl = ClassLoader.getSystemClassLoader();
+			}
+		}
+		return cl;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Class<T> forName(String name, ClassLoader loader) throws ReflectException {
+		Class<?> pmtype = PRIMTYPEMAPPING.get(name);
+		if (pmtype != null) {
+			return (Class<T>) pmtype;
+		}
+		if (loader == null) {
+			loader = getDefaultClassLoader();
+		}
+		return (Class<T>) ClassNameCache.forName(name, loader);
+	}
+
+	/**
+	 * 清空{@link #on(String)}、{@link #on(String, ClassLoader)}缓存的类名解析结果，包括找不到的类名
+	 */
+	public static void clearClassNameCache() {
+		ClassNameCache.clear();
+	}
+
+	/**
+	 * 基本类型等简写名称对应的类型
+	 * 
+	 * @see #PRIMTYPEMAPPING
+	 */
+	static Class<?> namedType(String name) {
+		return PRIMTYPEMAPPING.get(name);
+	}
+
+	private static <T> Class<T> forName(String name) throws ReflectException {
+		return forName(name, null);
+	}
+
+	private static Class<?>[] types(Object[] values) {
+		if (values == null)
+			return EMPTY_CLASS_ARRAY;
+		Class<?>[] types = new Class[values.length];
+		for (int i = 0; i < values.length; i++) {
+			types[i] = values[i] == null ? NULL.class : values[i].getClass();
+		}
+		return types;
+	}
+
+	private static final boolean matchModifiers(int a, int b) {
+		return (a & b) == a || (a | b) == a;
+	}
+
+	/**
+	 * 是否为null参数的类型，见{@link #types(Object[])}
+	 */
+	static boolean isNullType(Class<?> type) {
+		return type == NULL.class;
+	}
+
+	/**
+	 * 按导入的包查找简单类名，规则见{@link ClassFinder#find(List, String)}。
+	 * <p>
+	 * 没有URLs时使用共用的{@link ClassFinder}及其缓存；指定URLs时每次调用都创建新的类加载器并在查找后关闭，
+	 * 需要反复查找时请持有自己的ClassFinder
+	 * 
+	 * @param importPackages
+	 * @param simpleName
+	 * @param urls
+	 * @return
+	 * @throws ReflectException
+	 *             类不存在
+	 */
+	public static final ClassReflect find(List<String> importPackages, String simpleName, URL[] urls)
+			throws ReflectException {
+		return ClassFinder.findOnce(importPackages, simpleName, urls);
+	}
+
+	private static ObjectReflect on(Reflect from, Object object) throws ReflectException {
+		return new ObjectReflect(from, object);
+	}
+
+	public static ObjectReflect on(Object object) throws ReflectException {
+		return on(nullReflect(), object);
+	}
+
+	public static BatchReflect on(Object[] objects) throws ReflectException {
+		return on(nullReflect(), objects);
+	}
+
+	public static BatchReflect on(Reflect from, Object[] objects) throws ReflectException {
+		if (objects == null || objects.length < 1) {
+			return new BatchReflect(nullReflect(), objects);
+		}
+		Reflect[] reflects = new Reflect[objects.length];
+		for (int i = 0; i < objects.length; i++) {
+			reflects[i] = auto(objects[i]);
+		}
+		return new BatchReflect(from, objects, reflects);
+	}
+
+	/**
+	 * 惰性地对每个元素执行链式调用，元素在消费结果流时才逐个读取，适合无法一次放入内存的大量数据
+	 * 
+	 * @param objects
+	 * @return
+	 * @throws ReflectException
+	 *             objects为null
+	 */
+	public static StreamReflect stream(Iterable<?> objects) throws ReflectException {
+		if (objects == null) {
+			throw new ReflectException("objects is null");
+		}
+		return stream(StreamSupport.stream(objects.spliterator(), false));
+	}
+
+	/**
+	 * 同{@link #stream(Iterable)}，关闭结果流时会关闭objects
+	 * 
+	 * @param objects
+	 * @return
+	 * @throws ReflectException
+	 *             objects为null
+	 */
+	public static StreamReflect stream(Stream<?> objects) throws ReflectException {
+		if (objects == null) {
+			throw new ReflectException("objects is null");
+		}
+		return new StreamReflect(objects.map(new Function<Object, Reflect>() {
+			@Override
+			public Reflect apply(Object object) {
+				if (object == null) {
+					return nullReflect();
+				}
+				if (object instanceof Class || object instanceof Map || object instanceof Member) {
+					return auto(object);
+				}
+				return new ObjectReflect(nullReflect(), object);
+			}
+		}));
+	}
+
+	/**
+	 * 解析属性路径，如"customer.address.zip"、"orders[3].name"，见{@link PropertyPath}。每次调用都会重新解析，应保存返回的实例重复使用
+	 * 
+	 * @param path
+	 * @return
+	 * @throws ReflectException
+	 *             路径格式错误
+	 */
+	public static PropertyPath path(String path) throws ReflectException {
+		return PropertyPath.compile(path);
+	}
+
+	/**
+	 * 把对象的字段转换为Map，键为字段名，按字段声明顺序排列，见{@link MapCodec}
+	 * 
+	 * @param object
+	 * @return
+	 * @throws ReflectException
+	 */
+	public static Map<String, Object> toMap(Object object) throws ReflectException {
+		return toMap(object, false);
+	}
+
+	/**
+	 * @param object
+	 * @param flatten
+	 *            是否把嵌套对象展开为"字段.子字段"的键
+	 * @return
+	 * @throws ReflectException
+	 */
+	@SuppressWarnings("unchecked")
+	public static Map<String, Object> toMap(Object object, boolean flatten) throws ReflectException {
+		if (object == null) {
+			throw new ReflectException("object is null");
+		}
+		return ((MapCodec<Object>) MapCodec.of(object.getClass())).toMap(object, flatten);
+	}
+
+	/**
+	 * 使用无参构造器创建实例，并按字段名设置Map中的值，见{@link MapCodec#fromMap(Map)}
+	 * 
+	 * @param map
+	 * @param type
+	 * @return
+	 * @throws ReflectException
+	 */
+	public static <T> T fromMap(Map<String, ?> map, Class<T> type) throws ReflectException {
+		return MapCodec.of(type).fromMap(map);
+	}
+
+	/**
+	 * 取得按字段名从sourceType复制到targetType的复制器，字段只匹配一次，见{@link BeanCopier}
+	 * 
+	 * @param sourceType
+	 * @param targetType
+	 * @return 已缓存的复制器
+	 * @throws ReflectException
+	 */
+	public static <S, T> BeanCopier<S, T> copier(Class<S> sourceType, Class<T> targetType) throws ReflectException {
+		return BeanCopier.of(sourceType, targetType);
+	}
+
+	public static ClassReflect on(String name) throws ReflectException {
+		if (name == null || name.length() < 1)
+			throw new ReflectException("no characters!");
+		return on(forName(name));
+	}
+
+	public static ClassReflect on(String name, ClassLoader loader) throws ReflectException {
+		if (name == null || name.length() < 1)
+			throw new ReflectException("no characters!");
+		return on(forName(name, loader));
+	}
+
+	public static MapReflect on(Map<String, Object> map) throws ReflectException {
+		return new MapReflect(nullReflect(), map == null ? new HashMap<String, Object>(0) : map);
+	}
+
+	public static ClassReflect on(Class<?> clazz) throws ReflectException {
+		if (clazz == null) {
+			throw new ReflectException("Illegal argument:null");
+		}
+		return new ClassReflect(nullReflect(), clazz);
+	}
+
+	public static <T extends Enum<T>> EnumReflect<T> onEnum(Class<T> enumType) throws ReflectException {
+		if (enumType == null) {
+			throw new ReflectException("enum type == null");
+		}
+		return new EnumReflect<T>(enumType);
+	}
+
+	public static FieldReflect on(Field field) throws ReflectException {
+		return on(field, null);
+	}
+
+	public static FieldReflect on(Field field, Object object) throws ReflectException {
+		if (field == null) {
+			throw new ReflectException("field is null");
+		}
+		return new FieldReflect(nullReflect(), field, object);
+	}
+
+	public static MethodReflect on(Method method, Object object) {
+		if (method == null) {
+			throw new ReflectException("method is null");
+		}
+		return new MethodReflect(nullReflect(), method, object);
+	}
+
+	public static MethodReflect on(Method method, Object... arguments) {
+		if (method == null) {
+			throw new ReflectException("method is null");
+		}
+		return new MethodReflect(nullReflect(), method, null, arguments);
+	}
+
+	public static MethodReflect on(Method method, Object object, Object... arguments) {
+		if (method == null) {
+			throw new ReflectException("method is null");
+		}
+		return new MethodReflect(nullReflect(), method, object, arguments);
+	}
+
+	public static MethodReflect on(Method method) {
+		return on(method, EMPTY_OBJECT_ARRAY);
+	}
+
+	public static ConstructorReflect on(Constructor<?> constructor, Object... arguments) {
+		if (constructor == null) {
+			throw new ReflectException("constructor is null");
+		}
+		return new ConstructorReflect(nullReflect(), constructor, arguments);
+	}
+
+	public static ConstructorReflect on(Constructor<?> constructor) {
+		return on(constructor, EMPTY_OBJECT_ARRAY);
+	}
+
+	/**
+	 * @param object
+	 * @return
+	 */
+	@SuppressWarnings({ "rawtypes" })
+	public static Reflect auto(Object object) {
+		if (object == null) {
+			return nullReflect();
+		}
+		if (object instanceof Class<?> && ((Class) object).isEnum()) {
+			return Reflect.on(Reflect.class).method("onEnum", object.getClass()).call(object).release().off();
+		}
+		try {
+			return Reflect.on(Reflect.class).method("on", object.getClass()).call(object).release().off();
+		} catch (Exception e) {
+			return Reflect.on(object);
+		}
+	}
+
+	protected Class<?> type;
+
+	protected Reflect from;
+
+	/**
+	 * {@link ChainHistory#WEAK}时代替from
+	 */
+	private WeakReference<Reflect> weakFrom;
+	/**
+	 * 链条的历史设置，null表示使用全局默认设置，由上一节点传给下一节点
+	 */
+	private ChainHistory history;
+	/**
+	 * {@link ChainHistory#depth(int)}时强引用的上一节点个数
+	 */
+	private int depth;
+	/**
+	 * {@link ChainHistory#depth(int)}时以该节点为上一节点的节点个数，不为1时断开链条会影响其他分支
+	 */
+	private volatile int children;
+
+	private static final AtomicIntegerFieldUpdater<Reflect> CHILDREN = AtomicIntegerFieldUpdater
+			.newUpdater(Reflect.class, "children");
+
+	public Reflect(Reflect from) {
+		if (from != null) {
+			this.history = from.history;
+		}
+		link(from);
+	}
+
+	private void link(Reflect from) {
+		if (from == null || from == NULL_REFLECT) {
+			this.from = from;
+			return;
+		}
+		ChainHistory history = this.history != null ? this.history : defaultChainHistory;
+		if (history == ChainHistory.DISABLED) {
+			this.from = nullReflect();
+		} else if (history == ChainHistory.WEAK) {
+			this.weakFrom = new WeakReference<Reflect>(from);
+		} else {
+			this.from = from;
+			if (history.maxDepth > 0) {
+				CHILDREN.incrementAndGet(from);
+				this.depth = from.depth + 1;
+				if (this.depth > history.maxDepth) {
+					trim(history.maxDepth);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 断开第maxDepth个上一节点之后的链条。途经的节点有其他分支时不断开，以免截断其他链条，
+	 * 这些节点在创建时已经断开过，保留的节点数仍然有限
+	 */
+	private void trim(int maxDepth) {
+		Reflect node = this;
+		for (int i = 0; i < maxDepth; i++) {
+			node = node.from;
+			if (node == null || node == NULL_REFLECT || node.weakFrom != null || node.children != 1) {
+				return;
+			}
+		}
+		node.from = nullReflect();
+		node.depth = 0;
+		this.depth = maxDepth;
+	}
+
+	/**
+	 * 设置从当前节点开始的链条的历史，之后由该节点得到的Reflect都使用这个设置，不影响当前节点已有的上一节点
+	 * 
+	 * @param history
+	 * @return
+	 */
+	public Reflect chainHistory(ChainHistory history) {
+		if (history == null) {
+			throw new ReflectException("chain history is null");
+		}
+		this.history = history;
+		return this;
+	}
+
+	public ChainHistory getChainHistory() {
+		return history != null ? history : defaultChainHistory;
+	}
+
+	public boolean isClass() {
+		return false;
+	}
+
+	public boolean isField() {
+		return false;
+	}
+
+	public boolean isMethod() {
+		return false;
+	}
+
+	public boolean isConstructor() {
+		return false;
+	}
+
+	public boolean isMap() {
+		return false;
+	}
+
+	public boolean isNull() {
+		return false;
+	}
+
+	public ObjectReflect asObject() {
+		ObjectReflect reflect = new ObjectReflect(null, off());
+		// 代替当前节点：上一节点和历史设置相同
+		Reflect node = reflect;
+		node.history = history;
+		node.link(back());
+		return reflect;
+	}
+
+	/**
+	 * 获取被包装的对象
+	 * 
+	 * @author y1j2x34
+	 * @version 1.0
+	 * @date 2015-3-30
+	 * @return
+	 */
+	public abstract <T> T off();
+
+	public final Class<?> type() {
+		return type;
+	}
+
+	/**
+	 * @author y1j2x34
+	 * @date 2015年3月31日
+	 * @param name
+	 *            方法名
+	 * @return
+	 * @throws ReflectException
+	 *             方法找不到时抛出该异常
+	 */
+	public MethodReflect method(String name) throws ReflectException {
+		return method(name, EMPTY_CLASS_ARRAY);
+	}
+
+	/**
+	 * @author y1j2x34
+	 * @date 2015年3月31日
+	 * @param name
+	 *            方法名
+	 * @param parameterTypes
+	 *            参数类型数组
+	 * @return
+	 * @throws ReflectException
+	 *             方法找不到时抛出该异常
+	 */
+	public MethodReflect method(String name, Class<?>... parameterTypes) throws ReflectException {
+		Method method = method0(name, parameterTypes);
+		if (method == null)
+			return null;
+		return new MethodReflect(this, method, off());
+	}
+
+	public MethodReflect method(String name, Object... arguments) throws ReflectException {
+		return method(name, types(arguments));
+	}
+
+	/**
+	 * 获取字段
+	 * 
+	 * @author y1j2x34
+	 * @version 1.0
+	 * @date 2015-3-30
+	 * @param name
+	 * @return null if field not exist
+	 */
+	public FieldReflect field(String name) {
+		Field field = field0(name);
+		if (field != null) {
+			return new FieldReflect(this, field, off());
+		} else {
+			return null;
+		}
+	}
+
+	/**
+	 * 是否存在指定名称的字段，查找结果会被缓存，字段不存在时不会创建异常
+	 * 
+	 * @param name
+	 * @return
+	 */
+	public boolean hasField(String name) {
+		return name != null && ClassMetadata.of(type()).hasField(name);
+	}
+
+	/**
+	 * 是否存在可以接受指定参数类型的方法，查找规则与{@link #method(String, Class...)}相同，
+	 * 方法不存在时不会创建异常
+	 * 
+	 * @param name
+	 * @param parameterTypes
+	 * @return
+	 */
+	public boolean hasMethod(String name, Class<?>... parameterTypes) {
+		return name != null && ClassMetadata.of(type()).hasMethod(name, parameterTypes);
+	}
+
+	private Field field0(String name) throws ReflectException {
+		return ClassMetadata.of(type()).field(name);
+	}
+
+	/**
+	 * @param modifier
+	 * @author y1j2x34
+	 * @version 1.0
+	 * @date 2015-3-30
+	 * @return
+	 */
+	public Map<String, FieldReflect> fields(int modifiers) {
+		return fields0(modifiers);
+	}
+
+	/**
+	 * 所有字段对应的值
+	 * 
+	 * @author y1j2x34
+	 * @version 1.0
+	 * @date 2015-3-30
+	 * @return
+	 */
+	public Map<String, Reflect> fieldValues() {
+		Map<String, FieldReflect> fields = fields0(0);
+		Map<String, Reflect> fieldValues = new HashMap<String, Reflect>(fields.size());
+		for (Map.Entry<String, FieldReflect> entry : fields.entrySet()) {
+			String name = entry.getKey();
+			FieldReflect fieldReflect = entry.getValue();
+			fieldValues.put(name, fieldReflect.get());
+		}
+		return fieldValues;
+	}
+
+	private Map<String, FieldReflect> fields0(int modifiers) {
+		Map<String, FieldReflect> fields = new HashMap<String, FieldReflect>();
+		ClassMetadata.FieldTable table = ClassMetadata.of(type()).fieldTable();
+		for (int i = 0; i < table.names.length; i++) {
+			if (matchModifiers(table.modifiers[i], modifiers)) {
+				String name = table.names[i];
+				if (!fields.containsKey(name)) {
+					fields.put(name, field(name));
+				}
+			}
+		}
+		return fields;
+	}
+
+	private Method method0(String name, Class<?>... parameterTypes) throws ReflectException {
+		return ClassMetadata.of(type()).method(name, parameterTypes);
+	}
+
+	/**
+	 * 指定对象来调用某个方法
+	 * 
+	 * @author y1j2x34
+	 * @version 1.0
+	 * @date 2015-3-31
+	 * @param receiver
+	 * @param name
+	 * @param arguments
+	 * @return
+	 * @throws ReflectException
+	 */
+	public Reflect callBy(Object receiver, String name, Object... arguments) throws ReflectException {
+		MethodReflect mr = method(name);
+		if (mr != null) {
+			return mr.callBy(this, receiver, arguments);
+		} else {
+			return nullReflect();
+		}
+	}
+
+	/**
+	 * 调用无参方法
+	 * 
+	 * @author y1j2x34
+	 * @version 1.0
+	 * @date 2015-3-31
+	 * @param name
+	 * @return
+	 * @throws ReflectException
+	 */
+	public Reflect call(String name) throws ReflectException {
+		MethodReflect mr = method(name);
+		if (mr != null) {
+			return mr.call(this);
+		} else {
+			return nullReflect();
+		}
+	}
+
+	/**
+	 * 调用对象上的方法
+	 * 
+	 * @author y1j2x34
+	 * @version 1.0
+	 * @date 2015-3-31
+	 * @param name
+	 * @param arguments
+	 * @return
+	 * @throws ReflectException
+	 */
+	public Reflect call(String name, Object... arguments) throws ReflectException {
+		if (name == null || name.length() < 1) {
+			throw new ReflectException("Illegal method name:" + name);
+		}
+		Class<?>[] types = types(arguments);
+		return method(name, types).call(this, arguments);
+	}
+
+	/**
+	 * 创建实例（无参数）
+	 * 
+	 * @author y1j2x34
+	 * @version 1.0
+	 * @date 2015-3-31
+	 * @return
+	 * @throws ReflectException
+	 */
+	public Reflect create() throws ReflectException {
+		return create(EMPTY_OBJECT_ARRAY);
+	}
+
+	/**
+	 * 创建实例（有参数）
+	 * 
+	 * @author y1j2x34
+	 * @version 1.0
+	 * @date 2015-3-31
+	 * @param arguments
+	 *            构造器参数和查找对应构造器的依据
+	 * @return
+	 * @throws ReflectException
+	 */
+	public Reflect create(Object... arguments) throws ReflectException {
+		Constructor<?> constructor = ClassMetadata.of(type()).constructor(types(arguments));
+		return new ConstructorReflect(this, constructor).create(this, arguments);
+	}
+
+	/**
+	 * 创建实例并直接返回，不创建Reflect包装对象，适合在循环中大量创建实例
+	 * 
+	 * @param arguments
+	 *            构造器参数和查找对应构造器的依据
+	 * @return
+	 * @throws ReflectException
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T createRaw(Object... arguments) throws ReflectException {
+		Constructor<?> constructor = ClassMetadata.of(type()).constructor(types(arguments));
+		long start = MemberMetrics.start();
+		Object event = ReflectEvents.beginInvoke();
+		boolean failed = true;
+		try {
+			Object instance = newInstance(constructor, arguments);
+			failed = false;
+			return (T) instance;
+		} catch (ReflectException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new ReflectException(e);
+		} finally {
+			MemberMetrics.record(constructor, start, failed);
+			ReflectEvents.endInvoke(event, constructor, failed);
+		}
+	}
+
+	private static Object newInstance(Constructor<?> constructor, Object[] arguments) throws Exception {
+		if (constructor.isVarArgs()) {
+			VarargsSpreader spreader = VarargsSpreader.of(constructor);
+			if (spreader.isVariableArityCall(arguments)) {
+				return spreader.invoke(null, arguments);
+			}
+		}
+		if (defaultInvocationMode == InvocationMode.ACCESSOR) {
+			ClassAccessor accessor = ClassAccessor.of(constructor.getDeclaringClass());
+			int index = accessor.constructorIndex(constructor);
+			if (index >= 0) {
+				return accessor.newInstance(index, arguments);
+			}
+		}
+		return constructor.newInstance(arguments);
+	}
+
+	/**
+	 * 获得链式调用的上一节点
+	 * 
+	 * @author y1j2x34
+	 * @date 2015年3月31日
+	 * @return
+	 */
+	public Reflect back() {
+		if (weakFrom != null) {
+			Reflect from = weakFrom.get();
+			return from != null ? from : nullReflect();
+		}
+		return from;
+	}
+
+	/**
+	 * 从链条中释放,释放后该Reflect不再持有链式调用的上一个节点引用，back() 方法将返回 NullReflect
+	 * 
+	 * @return
+	 */
+	public Reflect release() {
+		from = nullReflect();
+		weakFrom = null;
+		depth = 0;
+		return this;
+	}
+
+	/**
+	 * 判断是否等价
+	 * 
+	 * @author y1j2x34
+	 * @date 2015年3月31日
+	 * @param other
+	 * @return
+	 */
+	public boolean is(Reflect other) {
+		return other != null && this == other || other.off() == this.off();
+	}
+
+	@Override
+	public String toString() {
+		return new StringBuilder().append(getClass()).append('<').append((Object) off()).append('>').toString();
+	}
+
+	public static class AnnotatedReflect<A extends AnnotatedElement> extends Reflect {
+		protected A value;
+		private List<Annotation> annotations;
+		private List<Annotation> declaredAnnotations;
+
+		public AnnotatedReflect(Reflect from, A value) {
+			super(from);
+			this.value = value;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public A off() {
+			return value;
+		}
+
+		public <T extends Annotation> T getAnnotation(Class<T> annotationClass) {
+			if (ClassMetadata.isAnnotationAbsent(value, annotationClass)) {
+				return null;
+			}
+			return this.value.getAnnotation(annotationClass);
+		}
+
+		public <T extends Annotation> List<T> getAnnotations(Class<T> annotationClass) {
+			T annotation = value.getAnnotation(annotationClass);
+			if (annotation == null) {
+				return Arrays.asList();
+			}
+			return Arrays.asList(annotation);
+		}
+
+		public List<Annotation> getDeclaredAnnotations() {
+			List<Annotation> declaredAnnotations = this.declaredAnnotations;
+			if (declaredAnnotations == null) {
+				Annotation[] annos = value.getDeclaredAnnotations();
+				if (annos == null || annos.length < 1) {
+					declaredAnnotations = new ArrayList<Annotation>(0);
+				}
+				declaredAnnotations = Arrays.asList(annos);
+				this.declaredAnnotations = declaredAnnotations;
+			}
+			return declaredAnnotations;
+		}
+
+		public List<Annotation> getAnnotations() {
+			List<Annotation> annotations = this.annotations;
+			if (annotations == null) {
+				Annotation[] annos = value.getAnnotations();
+				if (annos == null || annos.length < 1) {
+					annotations = new ArrayList<Annotation>(0);
+				} else {
+					annotations = Arrays.asList(annos);
+				}
+				this.annotations = annotations;
+			}
+			return annotations;
+		}
+
+		@Override
+		public int hashCode() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((value == null) ? 0 : value.hashCode());
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (!AnnotatedReflect.class.isAssignableFrom(obj.getClass()))
+				return false;
+			AnnotatedReflect<?> other = (AnnotatedReflect<?>) obj;
+			if (value == null) {
+				if (other.value != null)
+					return false;
+			} else if (!value.equals(other.value))
+				return false;
+			return true;
+		}
+
+	}
+
+	public static class ClassReflect extends AnnotatedReflect<Class<?>> {
+		public ClassReflect(Reflect from, Class<?> type) {
+			super(from, type);
+			super.type = type;
+		}
+
+		@Override
+		public Class<?> off() {
+			return type;
+		}
+
+		@Override
+		public boolean isClass() {
+			return true;
+		}
+
+		@Override
+		public String toString() {
+			return String.valueOf(super.type);
+		}
+
+		public boolean isAbstract() {
+			return Modifier.isAbstract(super.type.getModifiers());
+		}
+
+		public boolean isInterface() {
+			return Modifier.isInterface(super.type.getModifiers());
+		}
+
+		public boolean isStrict() {
+			return Modifier.isStrict(super.type.getModifiers());
+		}
+
+		public boolean isFinal() {
+			return Modifier.isFinal(super.type.getModifiers());
+		}
+
+		public boolean isStatic() {
+			return Modifier.isStatic(super.type.getModifiers());
+		}
+
+		public ClassReflect superclass() {
+			return Reflect.on(super.type.getSuperclass());
+		}
+
+		public boolean isParentTypeOf(Class<?> type) {
+			return super.type.isAssignableFrom(type);
+		}
+
+		public boolean isParentTypeOf(Reflect r) {
+			if (r == null)
+				return false;
+			return isParentTypeOf(r.type());
+		}
+
+		public boolean isChildTypeOf(Class<?> type) {
+			return type != null && type.isAssignableFrom(super.type);
+		}
+
+		public boolean isChildTypeOf(Reflect r) {
+			if (r == null)
+				return false;
+			return isChildTypeOf(r.type());
+		}
+
+		public boolean isInt() {
+			return isInt(super.type);
+		}
+
+		public boolean isFloat() {
+			return isFloat(super.type);
+		}
+
+		public boolean isShort() {
+			return isShort(super.type);
+		}
+
+		public boolean isByte() {
+			return isByte(super.type);
+		}
+
+		public boolean isBoolean() {
+			return isBoolean(super.type);
+		}
+
+		public boolean isLong() {
+			return isLong(super.type);
+		}
+
+		public boolean isDouble() {
+			return isDouble(super.type);
+		}
+
+		public boolean isChar() {
+			return isChar(super.type);
+		}
+
+		public boolean isText() {
+			return isText(super.type);
+		}
+
+		public boolean isAnnotation() {
+			return super.type.isAnnotation();
+		}
+
+		public boolean hasEnclosingClass() {
+			return super.type.getEnclosingClass() != null;
+		}
+
+		/**
+		 * 顶级类或嵌套类（静态内部类）
+		 * 
+		 * @return
+		 */
+		public boolean isIndependent() {
+			return !hasEnclosingClass() || (super.type.getDeclaringClass() != null && !isStatic());
+		}
+
+		@Override
+		public ClassReflect release() {
+			super.release();
+			return this;
+		}
+
+		public void simpleConvert(Object obj) {
+
+		}
+
+		/**
+		 * 取得该类的按下标访问器，首次调用时生成字节码
+		 *
+		 * @return
+		 */
+		public ClassAccessor accessor() {
+			return ClassAccessor.of(super.type);
+		}
+
+		/**
+		 * 查找构造器，找不到精确匹配的构造器时按参数类型查找兼容的构造器，查找结果被缓存。
+		 * 返回的ConstructorReflect可以重复用于创建实例
+		 * 
+		 * @param parameterTypes
+		 * @return
+		 * @throws ReflectException
+		 *             构造器找不到时抛出该异常
+		 */
+		public ConstructorReflect constructor(Class<?>... parameterTypes) throws ReflectException {
+			return new ConstructorReflect(this, ClassMetadata.of(super.type).constructor(parameterTypes));
+		}
+	}
+
+	public static class MemberReflect<M extends Member & AnnotatedElement> extends AnnotatedReflect<M> {
+		// private M member;
+		private Object receiver;
+		private InvocationMode invocationMode;
+		private volatile ClassAccessor accessor;
+		private int accessorIndex;
+
+		public MemberReflect(Reflect from, M member) {
+			this(from, member, null);
+		}
+
+		public MemberReflect(Reflect from, M member, Object receiver) {
+			super(from, member);
+			// this.member = member;
+			if (member != null) {
+				super.type = member.getClass();
+			}
+			this.receiver = receiver;
+		}
+
+		@Override
+		public M off() {
+			return super.off();
+		}
+
+		public boolean isStatic() {
+			return Modifier.isStatic(off().getModifiers());
+		}
+
+		public boolean isPublic() {
+			return Modifier.isPublic(off().getModifiers());
+		}
+
+		public boolean isPrivate() {
+			return Modifier.isPrivate(off().getModifiers());
+		}
+
+		public boolean isProtected() {
+			return Modifier.isProtected(off().getModifiers());
+		}
+
+		public boolean isFinal() {
+			return Modifier.isFinal(off().getModifiers());
+		}
+
+		/**
+		 * 取得定义该成员的类
+		 * 
+		 * @author y1j2x34
+		 * @version 1.0
+		 * @date 2015-3-31
+		 * @return
+		 */
+		public ClassReflect declaring() {
+			return new ClassReflect(this, off().getDeclaringClass());
+		}
+
+		@Override
+		public MemberReflect<M> release() {
+			super.release();
+			return this;
+		}
+
+		public Object getReceiver() {
+			return receiver;
+		}
+
+		/**
+		 * 指定该成员的调用方式，传入null时使用全局默认设置
+		 *
+		 * @see Reflect#setDefaultInvocationMode(InvocationMode)
+		 * @param mode
+		 * @return
+		 */
+		public MemberReflect<M> invocationMode(InvocationMode mode) {
+			this.invocationMode = mode;
+			return this;
+		}
+
+		public InvocationMode getInvocationMode() {
+			InvocationMode mode = this.invocationMode;
+			return mode == null ? defaultInvocationMode : mode;
+		}
+
+		/**
+		 * 声明该成员的类的访问器，该成员在其中的下标见{@link #accessorIndex}
+		 */
+		ClassAccessor declaringAccessor() throws ReflectException {
+			ClassAccessor accessor = this.accessor;
+			if (accessor == null) {
+				M member = off();
+				accessor = ClassAccessor.of(member.getDeclaringClass());
+				int index;
+				if (member instanceof Field) {
+					index = accessor.fieldIndex((Field) member);
+				} else if (member instanceof Method) {
+					index = accessor.methodIndex((Method) member);
+				} else {
+					index = accessor.constructorIndex((Constructor<?>) member);
+				}
+				if (index < 0) {
+					throw new ReflectException("member not found in accessor:" + member);
+				}
+				this.accessorIndex = index;
+				this.accessor = accessor;
+			}
+			return accessor;
+		}
+
+		/**
+		 * 取得该成员对应的函数式接口实例，同一成员与形状共享一个实例
+		 */
+		Object function(LambdaFactory.Shape shape) throws ReflectException {
+			M member = off();
+			return ClassMetadata.of(member.getDeclaringClass()).function(member, shape);
+		}
+	}
+
+	public static class FieldReflect extends MemberReflect<Field> {
+		private static final int WRITE_REFLECTION = 0;
+		private static final int WRITE_ACCESSOR = 1;
+		private static final int WRITE_FORCE = 2;
+
+		private static final int BOOLEAN = 0;
+		private static final int BYTE = 1;
+		private static final int CHAR = 2;
+		private static final int SHORT = 3;
+		private static final int INT = 4;
+		private static final int LONG = 5;
+		private static final int FLOAT = 6;
+		private static final int DOUBLE = 7;
+
+		/**
+		 * 调用过{@link #noFinal()}，持有的是去掉final修饰的字段副本
+		 */
+		private boolean finalBroken;
+
+		public FieldReflect(Reflect from, Field member, Object object) {
+			super(from, member, object);
+		}
+
+		public FieldReflect(Reflect from, Field member) {
+			super(from, member);
+		}
+
+		public FieldReflect set(Object value) throws ReflectException {
+			return set(value, true);
+		}
+
+		public FieldReflect set(Object value, boolean force) throws ReflectException {
+			long start = MemberMetrics.start();
+			Object event = ReflectEvents.beginInvoke();
+			boolean failed = true;
+			try {
+				switch (writePath(force)) {
+				case WRITE_ACCESSOR:
+					declaringAccessor().set(super.receiver, super.accessorIndex, value);
+					break;
+				case WRITE_FORCE:
+					forceAccessor().set(super.receiver, value);
+					break;
+				default:
+					writable(force).set(super.receiver, value);
+				}
+				failed = false;
+			} catch (ReflectException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new ReflectException(e);
+			} finally {
+				MemberMetrics.record(super.value, start, failed);
+				ReflectEvents.endInvoke(event, super.value, failed);
+			}
+			return this;
+		}
+
+		public Reflect get(Object object) throws ReflectException {
+			return Reflect.on(this, (Object) getValue(object));
+		}
+
+		public Reflect get() throws ReflectException {
+			return Reflect.on(this, (Object) getValue(super.receiver));
+		}
+
+		@SuppressWarnings("unchecked")
+		public <T> T getValue(Object object) throws ReflectException {
+			long start = MemberMetrics.start();
+			Object event = ReflectEvents.beginInvoke();
+			boolean failed = true;
+			try {
+				Object value;
+				if (getInvocationMode() == InvocationMode.ACCESSOR) {
+					value = declaringAccessor().get(object, super.accessorIndex);
+				} else {
+					value = accessible(super.off()).get(object);
+				}
+				failed = false;
+				return (T) value;
+			} catch (ReflectException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new ReflectException(e);
+			} finally {
+				MemberMetrics.record(super.value, start, failed);
+				ReflectEvents.endInvoke(event, super.value, failed);
+			}
+		}
+
+		public <T> T getValue() throws ReflectException {
+			return getValue(super.receiver);
+		}
+
+		/**
+		 * 同{@link #getValue(Object)}，与{@link MethodReflect#invokeRaw()}、{@link ConstructorReflect#createRaw()}
+		 * 对应的不创建Reflect包装对象的读取方法
+		 */
+		public <T> T getRaw(Object object) throws ReflectException {
+			return getValue(object);
+		}
+
+		public <T> T getRaw() throws ReflectException {
+			return getValue(super.receiver);
+		}
+
+		public boolean getBoolean(Object object) throws ReflectException {
+			return read(object, BOOLEAN) != 0;
+		}
+
+		public boolean getBoolean() throws ReflectException {
+			return getBoolean(super.receiver);
+		}
+
+		public FieldReflect setBoolean(boolean value) throws ReflectException {
+			return setBoolean(value, true);
+		}
+
+		public FieldReflect setBoolean(boolean value, boolean force) throws ReflectException {
+			return write(value ? 1 : 0, BOOLEAN, force);
+		}
+
+		public byte getByte(Object object) throws ReflectException {
+			return (byte) read(object, BYTE);
+		}
+
+		public byte getByte() throws ReflectException {
+			return getByte(super.receiver);
+		}
+
+		public FieldReflect setByte(byte value) throws ReflectException {
+			return setByte(value, true);
+		}
+
+		public FieldReflect setByte(byte value, boolean force) throws ReflectException {
+			return write(value, BYTE, force);
+		}
+
+		public char getChar(Object object) throws ReflectException {
+			return (char) read(object, CHAR);
+		}
+
+		public char getChar() throws ReflectException {
+			return getChar(super.receiver);
+		}
+
+		public FieldReflect setChar(char value) throws ReflectException {
+			return setChar(value, true);
+		}
+
+		public FieldReflect setChar(char value, boolean force) throws ReflectException {
+			return write(value, CHAR, force);
+		}
+
+		public short getShort(Object object) throws ReflectException {
+			return (short) read(object, SHORT);
+		}
+
+		public short getShort() throws ReflectException {
+			return getShort(super.receiver);
+		}
+
+		public FieldReflect setShort(short value) throws ReflectException {
+			return setShort(value, true);
+		}
+
+		public FieldReflect setShort(short value, boolean force) throws ReflectException {
+			return write(value, SHORT, force);
+		}
+
+		/**
+		 * 读取基本类型字段的值，不装箱；字段类型可拓宽为int时同样可用
+		 *
+		 * @param object
+		 *            静态字段时忽略
+		 * @return
+		 * @throws ReflectException
+		 */
+		public int getInt(Object object) throws ReflectException {
+			return (int) read(object, INT);
+		}
+
+		public int getInt() throws ReflectException {
+			return getInt(super.receiver);
+		}
+
+		public FieldReflect setInt(int value) throws ReflectException {
+			return setInt(value, true);
+		}
+
+		/**
+		 * 写入基本类型字段的值，不装箱
+		 *
+		 * @param value
+		 * @param force
+		 *            为true时final字段同样可以修改
+		 * @return
+		 * @throws ReflectException
+		 */
+		public FieldReflect setInt(int value, boolean force) throws ReflectException {
+			return write(value, INT, force);
+		}
+
+		public long getLong(Object object) throws ReflectException {
+			return read(object, LONG);
+		}
+
+		public long getLong() throws ReflectException {
+			return getLong(super.receiver);
+		}
+
+		public FieldReflect setLong(long value) throws ReflectException {
+			return setLong(value, true);
+		}
+
+		public FieldReflect setLong(long value, boolean force) throws ReflectException {
+			return write(value, LONG, force);
+		}
+
+		public float getFloat(Object object) throws ReflectException {
+			return Float.intBitsToFloat((int) read(object, FLOAT));
+		}
+
+		public float getFloat() throws ReflectException {
+			return getFloat(super.receiver);
+		}
+
+		public FieldReflect setFloat(float value) throws ReflectException {
+			return setFloat(value, true);
+		}
+
+		public FieldReflect setFloat(float value, boolean force) throws ReflectException {
+			return write(Float.floatToRawIntBits(value), FLOAT, force);
+		}
+
+		public double getDouble(Object object) throws ReflectException {
+			return Double.longBitsToDouble(read(object, DOUBLE));
+		}
+
+		public double getDouble() throws ReflectException {
+			return getDouble(super.receiver);
+		}
+
+		public FieldReflect setDouble(double value) throws ReflectException {
+			return setDouble(value, true);
+		}
+
+		public FieldReflect setDouble(double value, boolean force) throws ReflectException {
+			return write(Double.doubleToRawLongBits(value), DOUBLE, force);
+		}
+
+		/**
+		 * 按类型读取基本类型字段并记录统计、JFR事件，不装箱。
+		 * 值编码为long：boolean为0或1，float、double为原始位
+		 *
+		 * @param kind
+		 *            {@link #BOOLEAN}到{@link #DOUBLE}
+		 */
+		private long read(Object object, int kind) throws ReflectException {
+			long start = MemberMetrics.start();
+			Object event = ReflectEvents.beginInvoke();
+			boolean failed = true;
+			try {
+				long bits;
+				if (getInvocationMode() == InvocationMode.ACCESSOR) {
+					bits = read(declaringAccessor(), super.accessorIndex, object, kind);
+				} else {
+					bits = read(accessible(super.off()), object, kind);
+				}
+				failed = false;
+				return bits;
+			} catch (ReflectException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new ReflectException(e);
+			} finally {
+				MemberMetrics.record(super.value, start, failed);
+				ReflectEvents.endInvoke(event, super.value, failed);
+			}
+		}
+
+		private static long read(ClassAccessor accessor, int index, Object object, int kind) {
+			switch (kind) {
+			case BOOLEAN:
+				return accessor.getBoolean(object, index) ? 1 : 0;
+			case BYTE:
+				return accessor.getByte(object, index);
+			case CHAR:
+				return accessor.getChar(object, index);
+			case SHORT:
+				return accessor.getShort(object, index);
+			case INT:
+				return accessor.getInt(object, index);
+			case LONG:
+				return accessor.getLong(object, index);
+			case FLOAT:
+				return Float.floatToRawIntBits(accessor.getFloat(object, index));
+			default:
+				return Double.doubleToRawLongBits(accessor.getDouble(object, index));
+			}
+		}
+
+		private static long read(Field field, Object object, int kind) throws IllegalAccessException {
+			switch (kind) {
+			case BOOLEAN:
+				return field.getBoolean(object) ? 1 : 0;
+			case BYTE:
+				return field.getByte(object);
+			case CHAR:
+				return field.getChar(object);
+			case SHORT:
+				return field.getShort(object);
+			case INT:
+				return field.getInt(object);
+			case LONG:
+				return field.getLong(object);
+			case FLOAT:
+				return Float.floatToRawIntBits(field.getFloat(object));
+			default:
+				return Double.doubleToRawLongBits(field.getDouble(object));
+			}
+		}
+
+		/**
+		 * 按类型写入基本类型字段并记录统计、JFR事件，值的编码同{@link #read(Object, int)}
+		 */
+		private FieldReflect write(long bits, int kind, boolean force) throws ReflectException {
+			long start = MemberMetrics.start();
+			Object event = ReflectEvents.beginInvoke();
+			boolean failed = true;
+			try {
+				switch (writePath(force)) {
+				case WRITE_ACCESSOR:
+					write(declaringAccessor(), super.accessorIndex, bits, kind);
+					break;
+				case WRITE_FORCE:
+					write(forceAccessor(), bits, kind);
+					break;
+				default:
+					write(writable(force), bits, kind);
+				}
+				failed = false;
+			} catch (ReflectException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new ReflectException(e);
+			} finally {
+				MemberMetrics.record(super.value, start, failed);
+				ReflectEvents.endInvoke(event, super.value, failed);
+			}
+			return this;
+		}
+
+		private void write(ClassAccessor accessor, int index, long bits, int kind) {
+			Object receiver = super.receiver;
+			switch (kind) {
+			case BOOLEAN:
+				accessor.setBoolean(receiver, index, bits != 0);
+				break;
+			case BYTE:
+				accessor.setByte(receiver, index, (byte) bits);
+				break;
+			case CHAR:
+				accessor.setChar(receiver, index, (char) bits);
+				break;
+			case SHORT:
+				accessor.setShort(receiver, index, (short) bits);
+				break;
+			case INT:
+				accessor.setInt(receiver, index, (int) bits);
+				break;
+			case LONG:
+				accessor.setLong(receiver, index, bits);
+				break;
+			case FLOAT:
+				accessor.setFloat(receiver, index, Float.intBitsToFloat((int) bits));
+				break;
+			default:
+				accessor.setDouble(receiver, index, Double.longBitsToDouble(bits));
+			}
+		}
+
+		private void write(FieldAccessor accessor, long bits, int kind) throws IllegalAccessException {
+			Object receiver = super.receiver;
+			switch (kind) {
+			case BOOLEAN:
+				accessor.setBoolean(receiver, bits != 0);
+				break;
+			case BYTE:
+				accessor.setByte(receiver, (byte) bits);
+				break;
+			case CHAR:
+				accessor.setChar(receiver, (char) bits);
+				break;
+			case SHORT:
+				accessor.setShort(receiver, (short) bits);
+				break;
+			case INT:
+				accessor.setInt(receiver, (int) bits);
+				break;
+			case LONG:
+				accessor.setLong(receiver, bits);
+				break;
+			case FLOAT:
+				accessor.setFloat(receiver, Float.intBitsToFloat((int) bits));
+				break;
+			default:
+				accessor.setDouble(receiver, Double.longBitsToDouble(bits));
+			}
+		}
+
+		private void write(Field field, long bits, int kind) throws IllegalAccessException {
+			Object receiver = super.receiver;
+			switch (kind) {
+			case BOOLEAN:
+				field.setBoolean(receiver, bits != 0);
+				break;
+			case BYTE:
+				field.setByte(receiver, (byte) bits);
+				break;
+			case CHAR:
+				field.setChar(receiver, (char) bits);
+				break;
+			case SHORT:
+				field.setShort(receiver, (short) bits);
+				break;
+			case INT:
+				field.setInt(receiver, (int) bits);
+				break;
+			case LONG:
+				field.setLong(receiver, bits);
+				break;
+			case FLOAT:
+				field.setFloat(receiver, Float.intBitsToFloat((int) bits));
+				break;
+			default:
+				field.setDouble(receiver, Double.longBitsToDouble(bits));
+			}
+		}
+
+		/**
+		 * 写入方式：非final字段在ACCESSOR模式下通过声明类的访问器写入；final字段强制写入时使用缓存的FieldAccessor；其它情况通过反射写入
+		 */
+		private int writePath(boolean force) {
+			if (isFinal()) {
+				return force ? WRITE_FORCE : WRITE_REFLECTION;
+			}
+			return getInvocationMode() == InvocationMode.ACCESSOR && !finalBroken ? WRITE_ACCESSOR : WRITE_REFLECTION;
+		}
+
+		/**
+		 * 通过反射写入时使用的字段，非强制写入时不修改可访问性
+		 */
+		private Field writable(boolean force) {
+			return force ? accessible(super.value) : super.value;
+		}
+
+		private FieldAccessor forceAccessor() throws ReflectException {
+			Field field = super.value;
+			return ClassMetadata.of(field.getDeclaringClass()).forceAccessor(field);
+		}
+
+		@Override
+		public boolean isField() {
+			return true;
+		}
+
+		public boolean isTransient() {
+			return Modifier.isTransient(super.off().getModifiers());
+		}
+
+		public boolean isVolatile() {
+			return Modifier.isVolatile(super.off().getModifiers());
+		}
+
+		/**
+		 * 之后通过该实例写入时不受final修饰限制，只修改该实例持有的字段副本，缓存中共享的Field不受影响
+		 *
+		 * @return
+		 */
+		public FieldReflect noFinal() {
+			if (!isFinal()) {
+				return this;
+			}
+			try {
+				super.value = copyField(super.value);
+				finalBroken = true;
+			} catch (ReflectException e) {
+			}
+			return this;
+		}
+
+		@Override
+		public Field off() {
+			return super.off();
+		}
+
+		@Override
+		public FieldReflect release() {
+			super.release();
+			return this;
+		}
+
+		public Class<?> fieldType() {
+			return super.value.getType();
+		}
+
+		@Override
+		public FieldReflect invocationMode(InvocationMode mode) {
+			super.invocationMode(mode);
+			return this;
+		}
+
+		/**
+		 * 把字段读取转换为{@link Function}，生成的实例可被JIT内联，适合在热点代码中重复使用
+		 *
+		 * @return
+		 * @throws ReflectException
+		 */
+		@SuppressWarnings("unchecked")
+		public <T, R> Function<T, R> getter() throws ReflectException {
+			return (Function<T, R>) function(LambdaFactory.Shape.FUNCTION);
+		}
+
+		/**
+		 * 同{@link #getter()}，读取int及可拓宽为int的值时不装箱
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> ToIntFunction<T> intGetter() throws ReflectException {
+			return (ToIntFunction<T>) function(LambdaFactory.Shape.TO_INT);
+		}
+
+		@SuppressWarnings("unchecked")
+		public <T> ToLongFunction<T> longGetter() throws ReflectException {
+			return (ToLongFunction<T>) function(LambdaFactory.Shape.TO_LONG);
+		}
+
+		@SuppressWarnings("unchecked")
+		public <T> ToDoubleFunction<T> doubleGetter() throws ReflectException {
+			return (ToDoubleFunction<T>) function(LambdaFactory.Shape.TO_DOUBLE);
+		}
+
+		@SuppressWarnings("unchecked")
+		public <T> Predicate<T> booleanGetter() throws ReflectException {
+			return (Predicate<T>) function(LambdaFactory.Shape.PREDICATE);
+		}
+
+		/**
+		 * 把字段写入转换为{@link BiConsumer}，第一个参数为接收者
+		 *
+		 * @return
+		 * @throws ReflectException
+		 */
+		@SuppressWarnings("unchecked")
+		public <T, V> BiConsumer<T, V> setter() throws ReflectException {
+			return (BiConsumer<T, V>) function(LambdaFactory.Shape.BI_CONSUMER);
+		}
+
+		/**
+		 * 同{@link #setter()}，写入int时不装箱
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> ObjIntConsumer<T> intSetter() throws ReflectException {
+			return (ObjIntConsumer<T>) function(LambdaFactory.Shape.OBJ_INT);
+		}
+
+		@SuppressWarnings("unchecked")
+		public <T> ObjLongConsumer<T> longSetter() throws ReflectException {
+			return (ObjLongConsumer<T>) function(LambdaFactory.Shape.OBJ_LONG);
+		}
+
+		@SuppressWarnings("unchecked")
+		public <T> ObjDoubleConsumer<T> doubleSetter() throws ReflectException {
+			return (ObjDoubleConsumer<T>) function(LambdaFactory.Shape.OBJ_DOUBLE);
+		}
+
+	}
+
+	public static class MethodReflect extends MemberReflect<Method> {
+		private boolean bind = false;
+		private Object[] arguments = EMPTY_OBJECT_ARRAY;
+		private String[] parameterNames;
+		private Class<?>[] parameterTypes;
+		private Annotation[][] parameterAnnotations;
+		private MethodHandleInvoker invoker;
+		private VarargsSpreader spreader;
+		private AsyncExecutor asyncExecutor = AsyncExecutor.DEFAULT;
+
+		public MethodReflect(Reflect from, Method member) {
+			super(from, member);
+		}
+
+		public MethodReflect(Reflect from, Method member, Object receiver) {
+			super(from, member, receiver);
+			bind = true;
+		}
+
+		public MethodReflect(Reflect from, Method member, Object receiver, Object[] arguments) {
+			super(from, member, receiver);
+			if (arguments != null) {
+				this.arguments = arguments;
+			}
+			bind = true;
+		}
+
+		public Annotation[][] getParameterAnnotations() {
+			if (parameterAnnotations == null) {
+				parameterAnnotations = this.value.getParameterAnnotations();
+			}
+			return parameterAnnotations;
+		}
+
+		public Class<?>[] getParameterTypes() {
+			if (parameterTypes == null) {
+				parameterTypes = this.value.getParameterTypes();
+			}
+			return parameterTypes;
+		}
+
+		public String[] getParameterNames() {
+			if (parameterNames == null) {
+				int parameterSize = parameterSize();
+				parameterNames = new String[parameterSize];
+				for (int i = 0; i < parameterSize; i++) {
+					parameterNames[i] = "args" + i;
+				}
+			}
+			return parameterNames;
+		}
+
+		public MethodReflect bind(Object... arguments) {
+			this.arguments = arguments;
+			bind = true;
+			return this;
+		}
+
+		public Reflect call() throws ReflectException {
+			return callBy(super.receiver, arguments);
+		}
+
+		public Reflect call(Object... arguments) throws ReflectException {
+			return callBy(super.receiver, arguments);
+		}
+
+		private Reflect callBy(Reflect from, Object receiver, Object... arguments) throws ReflectException {
+			Object returns = invokeChecked(receiver, arguments);
+			if (returns == null) {
+				return new NullReflect(from);
+			}
+			return Reflect.on(from, returns);
+		}
+
+		/**
+		 * 使用绑定的接收者和参数调用，直接返回方法的返回值，不创建Reflect包装对象，适合在循环中大量调用
+		 * 
+		 * @return 方法的返回值，void方法返回null
+		 * @throws ReflectException
+		 */
+		public <T> T invokeRaw() throws ReflectException {
+			return invokeRawBy(super.receiver, arguments);
+		}
+
+		public <T> T invokeRaw(Object... arguments) throws ReflectException {
+			return invokeRawBy(super.receiver, arguments);
+		}
+
+		/**
+		 * 同{@link #callBy(Object, Object...)}，直接返回方法的返回值
+		 * 
+		 * @param receiver
+		 * @param arguments
+		 * @return 方法的返回值，void方法返回null
+		 * @throws ReflectException
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> T invokeRawBy(Object receiver, Object... arguments) throws ReflectException {
+			return (T) invokeChecked(receiver, arguments);
+		}
+
+		private Object invokeChecked(Object receiver, Object[] arguments) throws ReflectException {
+			long start = MemberMetrics.start();
+			Object event = ReflectEvents.beginInvoke();
+			boolean failed = true;
+			try {
+				Object returns = invoke(receiver, arguments);
+				failed = false;
+				return returns;
+			} catch (ReflectException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new ReflectException(e);
+			} finally {
+				MemberMetrics.record(super.value, start, failed);
+				ReflectEvents.endInvoke(event, super.value, failed);
+			}
+		}
+
+		private Object invoke(Object receiver, Object[] arguments) throws Exception {
+			if (super.value.isVarArgs() && VarargsSpreader.isVariableArityCall(getParameterTypes(), arguments)) {
+				return spreader().invoke(receiver, arguments);
+			}
+			switch (getInvocationMode()) {
+			case METHOD_HANDLE:
+				return invoker().invoke(receiver, arguments);
+			case ACCESSOR:
+				return declaringAccessor().invoke(receiver, super.accessorIndex, arguments);
+			default:
+				return accessible(super.off()).invoke(receiver, arguments);
+			}
+		}
+
+		public Reflect callBy(Object receiver, Object... arguments) throws ReflectException {
+			return callBy(this, receiver, arguments);
+		}
+
+		/**
+		 * 以receiver为接收者调用，结果的上一步是绑定了receiver和参数的MethodReflect。
+		 * 用于批量调用时按类型共用的MethodReflect，调用器由当前对象共用
+		 * 
+		 * @param from
+		 *            绑定的MethodReflect的上一步
+		 */
+		Reflect callBound(Reflect from, Object receiver, Object[] arguments) throws ReflectException {
+			return callBy(new MethodReflect(from, super.value, receiver, arguments), receiver, arguments);
+		}
+
+		public Reflect callBy(Object receiver) throws ReflectException {
+			return callBy(this, receiver, this.arguments);
+		}
+
+		private Reflect call(Reflect from, Object... arguments) throws ReflectException {
+			return callBy(from, super.receiver, arguments);
+		}
+
+		/**
+		 * 异步调用，见{@link #async(Executor, int)}
+		 * 
+		 * @return 完成时为调用结果；调用失败时以ReflectException结束
+		 */
+		public CompletableFuture<Reflect> callAsync() {
+			return callByAsync(super.receiver, arguments);
+		}
+
+		public CompletableFuture<Reflect> callAsync(Object... arguments) {
+			return callByAsync(super.receiver, arguments);
+		}
+
+		public CompletableFuture<Reflect> callByAsync(Object receiver) {
+			return callByAsync(receiver, arguments);
+		}
+
+		public CompletableFuture<Reflect> callByAsync(final Object receiver, final Object... arguments) {
+			return asyncExecutor.submit(new BatchExecutor.Task<Reflect>() {
+				@Override
+				Reflect run(int index) {
+					return callBy(receiver, arguments);
+				}
+			});
+		}
+
+		public MethodReflect async(Executor executor) {
+			return async(executor, 0);
+		}
+
+		/**
+		 * 设置异步调用的线程池和最大并发数，之后通过该对象发起的所有异步调用共用这个并发限制。
+		 * 超出限制的调用排队等待，不会阻塞调用线程；取消返回的Future时，未开始的调用不再执行，
+		 * cancel(true)会中断正在执行的调用
+		 * 
+		 * @param executor
+		 *            null时使用{@link Reflect#getDefaultAsyncExecutor()}
+		 * @param maxConcurrency
+		 *            0表示不限制
+		 * @return
+		 * @throws ReflectException
+		 *             maxConcurrency小于0
+		 */
+		public MethodReflect async(Executor executor, int maxConcurrency) throws ReflectException {
+			this.asyncExecutor = AsyncExecutor.of(executor, maxConcurrency);
+			return this;
+		}
+
+		@Override
+		public MethodReflect invocationMode(InvocationMode mode) {
+			super.invocationMode(mode);
+			return this;
+		}
+
+		/**
+		 * 把无参数的实例getter方法转换为{@link Function}，生成的实例可被JIT内联，适合在热点代码中重复使用
+		 *
+		 * @return
+		 * @throws ReflectException
+		 */
+		@SuppressWarnings("unchecked")
+		public <T, R> Function<T, R> getter() throws ReflectException {
+			return (Function<T, R>) function(LambdaFactory.Shape.FUNCTION);
+		}
+
+		/**
+		 * 同{@link #getter()}，读取int及可拓宽为int的值时不装箱
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> ToIntFunction<T> intGetter() throws ReflectException {
+			return (ToIntFunction<T>) function(LambdaFactory.Shape.TO_INT);
+		}
+
+		@SuppressWarnings("unchecked")
+		public <T> ToLongFunction<T> longGetter() throws ReflectException {
+			return (ToLongFunction<T>) function(LambdaFactory.Shape.TO_LONG);
+		}
+
+		@SuppressWarnings("unchecked")
+		public <T> ToDoubleFunction<T> doubleGetter() throws ReflectException {
+			return (ToDoubleFunction<T>) function(LambdaFactory.Shape.TO_DOUBLE);
+		}
+
+		@SuppressWarnings("unchecked")
+		public <T> Predicate<T> booleanGetter() throws ReflectException {
+			return (Predicate<T>) function(LambdaFactory.Shape.PREDICATE);
+		}
+
+		/**
+		 * 把单参数的实例setter方法转换为{@link BiConsumer}，第一个参数为接收者
+		 *
+		 * @return
+		 * @throws ReflectException
+		 */
+		@SuppressWarnings("unchecked")
+		public <T, V> BiConsumer<T, V> setter() throws ReflectException {
+			return (BiConsumer<T, V>) function(LambdaFactory.Shape.BI_CONSUMER);
+		}
+
+		/**
+		 * 同{@link #setter()}，写入int时不装箱
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> ObjIntConsumer<T> intSetter() throws ReflectException {
+			return (ObjIntConsumer<T>) function(LambdaFactory.Shape.OBJ_INT);
+		}
+
+		@SuppressWarnings("unchecked")
+		public <T> ObjLongConsumer<T> longSetter() throws ReflectException {
+			return (ObjLongConsumer<T>) function(LambdaFactory.Shape.OBJ_LONG);
+		}
+
+		@SuppressWarnings("unchecked")
+		public <T> ObjDoubleConsumer<T> doubleSetter() throws ReflectException {
+			return (ObjDoubleConsumer<T>) function(LambdaFactory.Shape.OBJ_DOUBLE);
+		}
+
+		private VarargsSpreader spreader() {
+			VarargsSpreader spreader = this.spreader;
+			if (spreader == null) {
+				spreader = VarargsSpreader.of(super.off());
+				this.spreader = spreader;
+			}
+			return spreader;
+		}
+
+		private MethodHandleInvoker invoker() {
+			MethodHandleInvoker invoker = this.invoker;
+			if (invoker == null) {
+				invoker = MethodHandleInvoker.of(super.off());
+				this.invoker = invoker;
+			}
+			return invoker;
+		}
+
+		public int parameterSize() {
+			return getParameterTypes().length;
+		}
+
+		public ClassReflect parameterTypeAt(int index) {
+			Class<?>[] types = super.off().getParameterTypes();
+			return types.length == 0 ? null : new ClassReflect(this, types[index]);
+		}
+
+		@Override
+		public boolean isMethod() {
+			return true;
+		}
+
+		public boolean isNative() {
+			return Modifier.isNative(super.off().getModifiers());
+		}
+
+		public boolean isSynchronized() {
+			return Modifier.isSynchronized(super.off().getModifiers());
+		}
+
+		public boolean isAbstract() {
+			return Modifier.isAbstract(super.off().getModifiers());
+		}
+
+		public boolean isStrict() {
+			return Modifier.isStrict(super.off().getModifiers());
+		}
+
+		@Override
+		public Method off() {
+			return super.off();
+		}
+
+		@Override
+		public MethodReflect release() {
+			super.release();
+			return this;
+		}
+
+		public Object[] getArguments() {
+			return arguments;
+		}
+
+		public boolean isBind() {
+			return bind;
+		}
+	}
+
+	public static class BatchMethodReflect extends MethodReflect implements Iterable<MethodReflect> {
+		private final MethodReflect[] reflects;
+		/**
+		 * 不为null时reflects为按类型共用、未绑定接收者的MethodReflect，调用时以receivers中对应元素为接收者
+		 */
+		private final Object[] receivers;
+		private BatchExecutor batchExecutor = BatchExecutor.SEQUENTIAL;
+
+		public BatchMethodReflect(Reflect from, MethodReflect[] reflects) {
+			this(from, reflects, null, EMPTY_OBJECT_ARRAY);
+		}
+
+		public BatchMethodReflect(Reflect from, MethodReflect[] reflects, Object[] arguments) {
+			this(from, reflects, null, arguments);
+		}
+
+		public BatchMethodReflect(Reflect from, MethodReflect[] reflects, Object receiver, Object[] arguments) {
+			super(from, null, receiver, arguments);
+			this.reflects = reflects;
+			this.receivers = null;
+		}
+
+		private BatchMethodReflect(Reflect from, MethodReflect[] shared, Object[] receivers, Object[] arguments) {
+			super(from, null, null, arguments);
+			this.reflects = shared;
+			this.receivers = receivers;
+		}
+
+		/**
+		 * @param receivers
+		 *            每个元素的接收者
+		 * @param shared
+		 *            每个元素对应的MethodReflect，同一类型的元素共用同一个实例
+		 * @param arguments
+		 */
+		static BatchMethodReflect shared(Reflect from, Object[] receivers, MethodReflect[] shared, Object[] arguments) {
+			return new BatchMethodReflect(from, shared, receivers, arguments);
+		}
+
+		public boolean isNative() {
+			boolean isNative = true;
+			for (MethodReflect reflect : reflects) {
+				isNative &= reflect.isNative();
+			}
+			return isNative;
+		}
+
+		public boolean isSynchronized() {
+			boolean isSynchronized = true;
+			for (MethodReflect reflect : reflects) {
+				isSynchronized &= reflect.isSynchronized();
+			}
+			return isSynchronized;
+		}
+
+		public boolean isAbstract() {
+			boolean isAbstract = true;
+			for (MethodReflect reflect : reflects) {
+				isAbstract &= reflect.isAbstract();
+			}
+			return isAbstract;
+		}
+
+		public boolean isStrict() {
+			boolean isStrict = true;
+			for (MethodReflect reflect : reflects) {
+				isStrict &= reflect.isStrict();
+			}
+			return isStrict;
+		}
+
+		@Override
+		public BatchReflect call() throws ReflectException {
+			return BatchReflect.collect(this, batchExecutor, reflects.length, callTask());
+		}
+
+		@Override
+		public BatchReflect call(Object... arguments) throws ReflectException {
+			return BatchReflect.collect(this, batchExecutor, reflects.length, callTask(arguments));
+		}
+
+		@Override
+		public BatchReflect callBy(Object receiver, Object... arguments) throws ReflectException {
+			return BatchReflect.collect(this, batchExecutor, reflects.length, callByTask(receiver, arguments));
+		}
+
+		@Override
+		public BatchReflect callBy(Object receiver) throws ReflectException {
+			return BatchReflect.collect(this, batchExecutor, reflects.length, callByTask(receiver));
+		}
+
+		/**
+		 * 返回值按元素顺序组成的Object[]，不创建Reflect包装对象
+		 */
+		@Override
+		public <T> T invokeRaw() throws ReflectException {
+			return raw(new BatchExecutor.Task<Object>() {
+				@Override
+				Object run(int index) {
+					if (receivers != null) {
+						MethodReflect reflect = reflects[index];
+						return reflect.invokeRawBy(receivers[index], reflect.getArguments());
+					}
+					return reflects[index].invokeRaw();
+				}
+			});
+		}
+
+		@Override
+		public <T> T invokeRaw(final Object... arguments) throws ReflectException {
+			return raw(new BatchExecutor.Task<Object>() {
+				@Override
+				Object run(int index) {
+					if (receivers != null) {
+						return reflects[index].invokeRawBy(receivers[index], arguments);
+					}
+					return reflects[index].invokeRaw(arguments);
+				}
+			});
+		}
+
+		@Override
+		public <T> T invokeRawBy(final Object receiver, final Object... arguments) throws ReflectException {
+			return raw(new BatchExecutor.Task<Object>() {
+				@Override
+				Object run(int index) {
+					return reflects[index].invokeRawBy(receiver, arguments);
+				}
+			});
+		}
+
+		@SuppressWarnings("unchecked")
+		private <T> T raw(BatchExecutor.Task<Object> task) throws ReflectException {
+			return (T) batchExecutor.run(new Object[reflects.length], task);
+		}
+
+		/**
+		 * 异步调用每个元素，完成时结果为按元素顺序组成的BatchReflect，有元素失败时合并所有失败，
+		 * 取消返回的Future会取消所有未完成的调用，见{@link #async(Executor, int)}
+		 */
+		@Override
+		public CompletableFuture<Reflect> callAsync() {
+			return super.asyncExecutor.submitAll(this, reflects.length, callTask());
+		}
+
+		@Override
+		public CompletableFuture<Reflect> callAsync(Object... arguments) {
+			return super.asyncExecutor.submitAll(this, reflects.length, callTask(arguments));
+		}
+
+		@Override
+		public CompletableFuture<Reflect> callByAsync(Object receiver) {
+			return super.asyncExecutor.submitAll(this, reflects.length, callByTask(receiver));
+		}
+
+		@Override
+		public CompletableFuture<Reflect> callByAsync(Object receiver, Object... arguments) {
+			return super.asyncExecutor.submitAll(this, reflects.length, callByTask(receiver, arguments));
+		}
+
+		@Override
+		public BatchMethodReflect async(Executor executor) {
+			return async(executor, 0);
+		}
+
+		@Override
+		public BatchMethodReflect async(Executor executor, int maxConcurrency) throws ReflectException {
+			super.async(executor, maxConcurrency);
+			return this;
+		}
+
+		private BatchExecutor.Task<Reflect> callTask() {
+			return new BatchExecutor.Task<Reflect>() {
+				@Override
+				Reflect run(int index) {
+					if (receivers != null) {
+						MethodReflect reflect = reflects[index];
+						return reflect.callBound(BatchMethodReflect.this, receivers[index], reflect.getArguments());
+					}
+					return reflects[index].call();
+				}
+			};
+		}
+
+		private BatchExecutor.Task<Reflect> callTask(final Object[] arguments) {
+			return new BatchExecutor.Task<Reflect>() {
+				@Override
+				Reflect run(int index) {
+					if (receivers != null) {
+						return reflects[index].callBound(BatchMethodReflect.this, receivers[index], arguments);
+					}
+					return reflects[index].call(arguments);
+				}
+			};
+		}
+
+		private BatchExecutor.Task<Reflect> callByTask(final Object receiver, final Object[] arguments) {
+			return new BatchExecutor.Task<Reflect>() {
+				@Override
+				Reflect run(int index) {
+					return reflects[index].callBy(receiver, arguments);
+				}
+			};
+		}
+
+		private BatchExecutor.Task<Reflect> callByTask(final Object receiver) {
+			return new BatchExecutor.Task<Reflect>() {
+				@Override
+				Reflect run(int index) {
+					return reflects[index].callBy(receiver);
+				}
+			};
+		}
+
+		/**
+		 * 使用默认线程池并行调用，见{@link BatchReflect#parallel(Executor, int)}
+		 * 
+		 * @return
+		 */
+		public BatchMethodReflect parallel() {
+			return parallel(null, 0);
+		}
+
+		public BatchMethodReflect parallel(Executor executor) {
+			return parallel(executor, 0);
+		}
+
+		public BatchMethodReflect parallel(Executor executor, int chunkSize) throws ReflectException {
+			this.batchExecutor = BatchExecutor.parallel(executor, chunkSize);
+			return this;
+		}
+
+		public BatchMethodReflect sequential() {
+			this.batchExecutor = BatchExecutor.SEQUENTIAL;
+			return this;
+		}
+
+		BatchMethodReflect executeWith(BatchExecutor batchExecutor) {
+			this.batchExecutor = batchExecutor;
+			return this;
+		}
+
+		public boolean isParallel() {
+			return batchExecutor.isParallel();
+		}
+
+		@Override
+		public Iterator<MethodReflect> iterator() {
+			if (receivers == null) {
+				return Arrays.asList(reflects).iterator();
+			}
+			MethodReflect[] bound = new MethodReflect[reflects.length];
+			for (int i = 0; i < reflects.length; i++) {
+				MethodReflect reflect = reflects[i];
+				bound[i] = new MethodReflect(this, reflect.off(), receivers[i], reflect.getArguments());
+			}
+			return Arrays.asList(bound).iterator();
+		}
+
+		@Override
+		public BatchMethodReflect release() {
+			super.release();
+			return this;
+		}
+
+		@Override
+		public List<Annotation> getAnnotations() {
+			List<Annotation> annotations = new ArrayList<Annotation>();
+			for (int i = 0; i < reflects.length; i++) {
+				MethodReflect reflect = reflects[i];
+				annotations.addAll(reflect.getAnnotations());
+			}
+			return annotations;
+		}
+
+		@Override
+		public <T extends Annotation> List<T> getAnnotations(Class<T> annotationClass) {
+			List<T> annotations = new ArrayList<T>();
+			for (int i = 0; i < reflects.length; i++) {
+				MethodReflect reflect = reflects[i];
+				annotations.addAll(reflect.getAnnotations(annotationClass));
+			}
+			return annotations;
+		}
+
+		@Override
+		public <T extends Annotation> T getAnnotation(Class<T> annotationClass) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public List<Annotation> getDeclaredAnnotations() {
+			List<Annotation> annotations = new ArrayList<Annotation>();
+			for (int i = 0; i < reflects.length; i++) {
+				MethodReflect reflect = reflects[i];
+				annotations.addAll(reflect.getDeclaredAnnotations());
+			}
+			return annotations;
+		}
+	}
+
+	public static class ConstructorReflect extends MemberReflect<Constructor<?>> {
+		public ConstructorReflect(Reflect from, Constructor<?> member) {
+			super(from, member);
+		}
+
+		private Object[] arguments = EMPTY_OBJECT_ARRAY;
+
+		public ConstructorReflect(Reflect from, Constructor<?> member, Object... arguments) {
+			super(from, member);
+			if (arguments != null) {
+				this.arguments = arguments;
+			}
+		}
+
+		public Reflect create() throws ReflectException {
+			return create(arguments);
+		}
+
+		private Reflect create(Reflect from, Object... arguments) throws ReflectException {
+			try {
+				return Reflect.on(from, newInstance(arguments));
+			} catch (ReflectException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new ReflectException(e);
+			}
+		}
+
+		public Reflect create(Object... arguments) throws ReflectException {
+			try {
+				return Reflect.on(this, newInstance(arguments));
+			} catch (ReflectException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new ReflectException(e);
+			}
+		}
+
+		/**
+		 * 使用绑定的参数创建实例，不创建Reflect包装对象
+		 * 
+		 * @return
+		 * @throws ReflectException
+		 */
+		public <T> T createRaw() throws ReflectException {
+			return createRaw(arguments);
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> T createRaw(Object... arguments) throws ReflectException {
+			try {
+				return (T) newInstance(arguments);
+			} catch (ReflectException e) {
+				throw e;
+			} catch (Exception e) {
+				throw new ReflectException(e);
+			}
+		}
+
+		private Object newInstance(Object[] arguments) throws Exception {
+			long start = MemberMetrics.start();
+			Object event = ReflectEvents.beginInvoke();
+			boolean failed = true;
+			try {
+				Object instance = newInstance0(arguments);
+				failed = false;
+				return instance;
+			} finally {
+				MemberMetrics.record(super.value, start, failed);
+				ReflectEvents.endInvoke(event, super.value, failed);
+			}
+		}
+
+		private Object newInstance0(Object[] arguments) throws Exception {
+			if (super.value.isVarArgs()) {
+				VarargsSpreader spreader = VarargsSpreader.of(super.value);
+				if (spreader.isVariableArityCall(arguments)) {
+					return spreader.invoke(null, arguments);
+				}
+			}
+			if (getInvocationMode() == InvocationMode.ACCESSOR) {
+				return declaringAccessor().newInstance(super.accessorIndex, arguments);
+			}
+			return accessible(super.off()).newInstance(arguments);
+		}
+
+		@Override
+		public boolean isConstructor() {
+			return true;
+		}
+
+		@Override
+		public Constructor<?> off() {
+			return super.off();
+		}
+
+		@Override
+		public ConstructorReflect release() {
+			super.release();
+			return this;
+		}
+
+		@Override
+		public ConstructorReflect invocationMode(InvocationMode mode) {
+			super.invocationMode(mode);
+			return this;
+		}
+	}
+
+	public static class ObjectReflect extends Reflect {
+		private Object object;
+
+		public ObjectReflect(Reflect from, Object object) {
+			super(from);
+			this.object = object;
+			if (object != null) {
+				super.type = object.getClass();
+			} else {
+				super.type = NULL.class;
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> T off() {
+			return (T) object;
+		}
+	}
+
+	public static class MapReflect extends Reflect {
+		private Map<String, Object> map;
+
+		public MapReflect(Reflect from, Map<String, Object> map) {
+			super(from);
+			this.map = map;
+			super.type = map.getClass();
+		}
+
+		@Override
+		public Reflect call(String name) throws ReflectException {
+			if (name == null)
+				return new NullReflect(this);
+			if (name.startsWith("get")) {
+				return Reflect.on(map.get(unTitle(name.substring(3))));
+			} else if (name.startsWith("is")) {
+				return Reflect.on(map.get(unTitle(name.substring(2))));
+			}
+			return super.call(name);
+		}
+
+		@Override
+		public Reflect call(String name, Object... arguments) throws ReflectException {
+			if (name == null)
+				return new NullReflect(this);
+			if (name.startsWith("set")) {
+				if (arguments != null && arguments.length == 1) {
+					map.put(unTitle(name.substring(2)), arguments[0]);
+					return new NullReflect(this);
+				}
+			}
+			return super.call(name, arguments);
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Map<String, Object> off() {
+			return map;
+		}
+
+	}
+
+	public static class NullReflect extends Reflect {
+		public NullReflect(Reflect from) {
+			super(from);
+		}
+
+		@Override
+		public Reflect back() {
+			Reflect back = super.back();
+			return back == null ? this : back;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> T off() {
+			return (T) NULL.INSTANCE;
+		}
+	}
+
+	public static class BatchReflect extends Reflect implements Iterable<Reflect> {
+		private final Object[] origin;
+		private final Reflect[] reflects;
+		private BatchExecutor batchExecutor = BatchExecutor.SEQUENTIAL;
+
+		public BatchReflect(Reflect from, Object[] origin, Reflect... reflects) {
+			super(from);
+			this.origin = origin;
+			this.reflects = reflects;
+		}
+
+		@Override
+		public boolean isClass() {
+			return false;
+		}
+
+		@Override
+		public boolean isField() {
+			return false;
+		}
+
+		@Override
+		public boolean isMethod() {
+			return false;
+		}
+
+		@Override
+		public boolean isConstructor() {
+			return false;
+		}
+
+		@Override
+		public boolean isMap() {
+			return false;
+		}
+
+		@Override
+		public boolean isNull() {
+			return false;
+		}
+
+		@Override
+		public BatchMethodReflect method(String name) throws ReflectException {
+			return method(name, EMPTY_CLASS_ARRAY);
+		}
+
+		@Override
+		public BatchMethodReflect method(String name, Class<?>... parameterTypes) throws ReflectException {
+			return method(name, parameterTypes, EMPTY_OBJECT_ARRAY);
+		}
+
+		@Override
+		public BatchMethodReflect method(String name, Object... arguments) throws ReflectException {
+			return method(name, types(arguments), arguments);
+		}
+
+		/**
+		 * @throws ReflectException
+		 *             第一个找不到方法的元素的异常
+		 */
+		private BatchMethodReflect method(String name, Class<?>[] parameterTypes, Object[] arguments)
+				throws ReflectException {
+			ReflectException[] failures = new ReflectException[origin.length];
+			MethodReflect[] shared = resolve(name, parameterTypes, arguments, failures);
+			for (ReflectException failure : failures) {
+				if (failure != null) {
+					throw failure;
+				}
+			}
+			return BatchMethodReflect.shared(this, origin, shared, arguments).executeWith(batchExecutor);
+		}
+
+		/**
+		 * 按元素的运行时类型解析方法，每个类型只解析一次，同类型的元素共用同一个MethodReflect，
+		 * 一批同类型的对象只需一次查找
+		 * 
+		 * @param name
+		 * @param parameterTypes
+		 * @param arguments
+		 *            绑定到共用MethodReflect的参数
+		 * @param failures
+		 *            保存找不到方法的元素的异常，同一类型的元素共用同一个异常
+		 * @return 每个元素对应的MethodReflect，找不到方法的元素为null
+		 */
+		private MethodReflect[] resolve(String name, Class<?>[] parameterTypes, Object[] arguments,
+				ReflectException[] failures) {
+			MethodReflect[] shared = new MethodReflect[origin.length];
+			Map<Class<?>, Object> groups = new IdentityHashMap<Class<?>, Object>(4);
+			Class<?> lastType = null;
+			Object last = null;
+			for (int i = 0; i < origin.length; i++) {
+				Class<?> type = origin[i] == null ? NULL.class : origin[i].getClass();
+				if (type != lastType) {
+					last = groups.get(type);
+					if (last == null) {
+						try {
+							Method method = ClassMetadata.of(type).method(name, parameterTypes);
+							last = new MethodReflect(this, method, null, arguments);
+						} catch (ReflectException e) {
+							last = e;
+						}
+						groups.put(type, last);
+					}
+					lastType = type;
+				}
+				if (last instanceof ReflectException) {
+					failures[i] = (ReflectException) last;
+				} else {
+					shared[i] = (MethodReflect) last;
+				}
+			}
+			return shared;
+		}
+
+		/**
+		 * 元素的方法解析失败时在该元素的任务中抛出，与调用失败一样按执行方式合并
+		 */
+		private static MethodReflect resolved(MethodReflect[] shared, ReflectException[] failures, int index)
+				throws ReflectException {
+			if (failures[index] != null) {
+				throw failures[index];
+			}
+			return shared[index];
+		}
+
+		/**
+		 * 所有元素都是普通对象（不是Class、Map、null等特殊包装）时，可以按类型分组调用
+		 */
+		private boolean isPlainObjects() {
+			if (origin == null || reflects.length != origin.length) {
+				return false;
+			}
+			for (Reflect reflect : reflects) {
+				if (reflect.getClass() != ObjectReflect.class) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public FieldReflect field(String name) throws ReflectException {
+			return super.field(name);
+		}
+
+		@Override
+		public Map<String, Reflect> fieldValues() {
+			return super.fieldValues();
+		}
+
+		@Override
+		public Reflect callBy(final Object receiver, final String name, final Object... arguments)
+				throws ReflectException {
+			if (isPlainObjects()) {
+				final ReflectException[] failures = new ReflectException[origin.length];
+				final MethodReflect[] shared = resolve(name, EMPTY_CLASS_ARRAY, EMPTY_OBJECT_ARRAY, failures);
+				return collect(this, batchExecutor, shared.length, new BatchExecutor.Task<Reflect>() {
+					@Override
+					Reflect run(int index) {
+						return resolved(shared, failures, index).callBound(reflects[index], receiver, arguments);
+					}
+				});
+			}
+			return collect(this, batchExecutor, reflects.length, new BatchExecutor.Task<Reflect>() {
+				@Override
+				Reflect run(int index) {
+					return reflects[index].callBy(receiver, name, arguments);
+				}
+			});
+		}
+
+		@Override
+		public BatchReflect call(String name) throws ReflectException {
+			return this.call(name, EMPTY_OBJECT_ARRAY);
+		}
+
+		@Override
+		public BatchReflect call(final String name, final Object... arguments) throws ReflectException {
+			if (isPlainObjects()) {
+				if (name == null || name.length() < 1) {
+					throw new ReflectException("Illegal method name:" + name);
+				}
+				final ReflectException[] failures = new ReflectException[origin.length];
+				final MethodReflect[] shared = resolve(name, types(arguments), arguments, failures);
+				return collect(this, batchExecutor, shared.length, new BatchExecutor.Task<Reflect>() {
+					@Override
+					Reflect run(int index) {
+						return resolved(shared, failures, index).callBound(reflects[index], origin[index], arguments);
+					}
+				});
+			}
+			return collect(this, batchExecutor, reflects.length, new BatchExecutor.Task<Reflect>() {
+				@Override
+				Reflect run(int index) {
+					return reflects[index].call(name, arguments);
+				}
+			});
+		}
+
+		@Override
+		public BatchReflect create() throws ReflectException {
+			return this.create(EMPTY_OBJECT_ARRAY);
+		}
+
+		/**
+		 * 创建的实例按元素顺序组成的Object[]，不创建Reflect包装对象
+		 */
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> T createRaw(final Object... arguments) throws ReflectException {
+			return (T) batchExecutor.run(new Object[reflects.length], new BatchExecutor.Task<Object>() {
+				@Override
+				Object run(int index) {
+					return reflects[index].createRaw(arguments);
+				}
+			});
+		}
+
+		@Override
+		public BatchReflect create(final Object... arguments) throws ReflectException {
+			return collect(this, batchExecutor, reflects.length, new BatchExecutor.Task<Reflect>() {
+				@Override
+				Reflect run(int index) {
+					return reflects[index].create(arguments);
+				}
+			});
+		}
+
+		/**
+		 * 对每个元素执行任务，结果按元素顺序组成新的BatchReflect，并沿用当前的执行方式
+		 */
+		static BatchReflect collect(Reflect from, BatchExecutor batchExecutor, int size,
+				BatchExecutor.Task<Reflect> task) throws ReflectException {
+			BatchReflect batch = of(from, batchExecutor.run(new Reflect[size], task));
+			batch.batchExecutor = batchExecutor;
+			return batch;
+		}
+
+		static BatchReflect of(Reflect from, Reflect[] reflects) {
+			Object[] values = new Object[reflects.length];
+			for (int i = 0; i < reflects.length; i++) {
+				values[i] = reflects[i].off();
+			}
+			return new BatchReflect(from, values, reflects);
+		}
+
+		/**
+		 * 使用默认线程池并行执行，见{@link #parallel(Executor, int)}
+		 * 
+		 * @return
+		 */
+		public BatchReflect parallel() {
+			return parallel(null, 0);
+		}
+
+		public BatchReflect parallel(Executor executor) {
+			return parallel(executor, 0);
+		}
+
+		/**
+		 * 之后的call、callBy、create以及由method得到的BatchMethodReflect并行执行。
+		 * 元素按块拆分后交给线程池，结果保持元素顺序；执行完所有元素后，
+		 * 把所有失败合并为一个ReflectException抛出，每个失败作为suppressed异常
+		 * 
+		 * @param executor
+		 *            null时使用{@link Reflect#getDefaultBatchExecutor()}，ForkJoinPool按块递归拆分
+		 * @param chunkSize
+		 *            每块元素个数，0表示按并行度自动计算
+		 * @return
+		 * @throws ReflectException
+		 *             chunkSize小于0
+		 */
+		public BatchReflect parallel(Executor executor, int chunkSize) throws ReflectException {
+			this.batchExecutor = BatchExecutor.parallel(executor, chunkSize);
+			return this;
+		}
+
+		public BatchReflect sequential() {
+			this.batchExecutor = BatchExecutor.SEQUENTIAL;
+			return this;
+		}
+
+		public boolean isParallel() {
+			return batchExecutor.isParallel();
+		}
+
+		@Override
+		public String toString() {
+			return new StringBuilder().append(getClass()).append('<').append(Arrays.toString(origin)).append('>')
+					.toString();
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Object[] off() {
+			return origin;
+		}
+
+		@Override
+		public Iterator<Reflect> iterator() {
+			return Arrays.asList(reflects).iterator();
+		}
+	}
+
+	/**
+	 * 流式批量调用，见{@link Reflect#stream(Iterable)}。
+	 * <p>
+	 * call、callBy、create、get只记录操作，消费{@link #stream()}或{@link #values()}时才逐个元素执行，
+	 * 输入和结果都不会整体保存在数组中。方法和字段按元素的运行时类型解析，并记住最近一次解析的类型，
+	 * 连续的同类型元素不再重复查找。结果流只能消费一次。
+	 */
+	public static class StreamReflect {
+		private Stream<Reflect> stream;
+
+		StreamReflect(Stream<Reflect> stream) {
+			this.stream = stream;
+		}
+
+		public StreamReflect call(String name) throws ReflectException {
+			return call(name, EMPTY_OBJECT_ARRAY);
+		}
+
+		/**
+		 * 对每个元素调用方法，结果作为下一步的元素
+		 * 
+		 * @param name
+		 * @param arguments
+		 * @return
+		 * @throws ReflectException
+		 */
+		public StreamReflect call(final String name, final Object... arguments) throws ReflectException {
+			if (name == null || name.length() < 1) {
+				throw new ReflectException("Illegal method name:" + name);
+			}
+			final Class<?>[] types = types(arguments);
+			return map(new Step<MethodReflect>() {
+				@Override
+				MethodReflect resolve(Class<?> type) {
+					return new MethodReflect(nullReflect(), ClassMetadata.of(type).method(name, types), null, arguments);
+				}
+
+				@Override
+				Reflect apply(MethodReflect method, Object object) {
+					return method.callBy(object, arguments);
+				}
+
+				@Override
+				Reflect fallback(Reflect reflect) {
+					return reflect.call(name, arguments);
+				}
+			});
+		}
+
+		/**
+		 * 以receiver为接收者调用每个元素上的方法，见{@link Reflect#callBy(Object, String, Object...)}
+		 */
+		public StreamReflect callBy(final Object receiver, final String name, final Object... arguments)
+				throws ReflectException {
+			return map(new Step<MethodReflect>() {
+				@Override
+				MethodReflect resolve(Class<?> type) {
+					return new MethodReflect(nullReflect(), ClassMetadata.of(type).method(name, EMPTY_CLASS_ARRAY),
+							null, arguments);
+				}
+
+				@Override
+				Reflect apply(MethodReflect method, Object object) {
+					return method.callBy(receiver, arguments);
+				}
+
+				@Override
+				Reflect fallback(Reflect reflect) {
+					return reflect.callBy(receiver, name, arguments);
+				}
+			});
+		}
+
+		/**
+		 * 读取每个元素的字段值，结果作为下一步的元素
+		 * 
+		 * @param name
+		 *            字段名
+		 * @return
+		 * @throws ReflectException
+		 *             消费时元素上不存在该字段
+		 */
+		public StreamReflect get(final String name) throws ReflectException {
+			return map(new Step<FieldReflect>() {
+				@Override
+				FieldReflect resolve(Class<?> type) {
+					Field field = ClassMetadata.of(type).field(name);
+					if (field == null) {
+						throw noSuchField(type, name);
+					}
+					return new FieldReflect(nullReflect(), field, null);
+				}
+
+				@Override
+				Reflect apply(FieldReflect field, Object object) {
+					return field.get(object);
+				}
+
+				@Override
+				Reflect fallback(Reflect reflect) {
+					FieldReflect field = reflect.field(name);
+					if (field == null) {
+						throw noSuchField(reflect.type(), name);
+					}
+					return field.get();
+				}
+			});
+		}
+
+		private static ReflectException noSuchField(Class<?> type, String name) {
+			return new ReflectException(new NoSuchFieldException(name + " on type " + type));
+		}
+
+		public StreamReflect create() throws ReflectException {
+			return create(EMPTY_OBJECT_ARRAY);
+		}
+
+		/**
+		 * 对每个元素创建实例，见{@link Reflect#create(Object...)}
+		 */
+		public StreamReflect create(final Object... arguments) throws ReflectException {
+			return map(new Function<Reflect, Reflect>() {
+				@Override
+				public Reflect apply(Reflect reflect) {
+					return reflect.create(arguments);
+				}
+			});
+		}
+
+		public StreamReflect map(Function<? super Reflect, ? extends Reflect> mapper) {
+			stream = stream.map(mapper);
+			return this;
+		}
+
+		public StreamReflect parallel() {
+			stream = stream.parallel();
+			return this;
+		}
+
+		public StreamReflect sequential() {
+			stream = stream.sequential();
+			return this;
+		}
+
+		/**
+		 * @return 每个元素的结果
+		 */
+		public Stream<Reflect> stream() {
+			return stream;
+		}
+
+		/**
+		 * @return 每个元素的结果值，null值为null
+		 */
+		public <T> Stream<T> values() {
+			return stream.map(new Function<Reflect, T>() {
+				@Override
+				public T apply(Reflect reflect) {
+					return reflect instanceof NullReflect ? null : reflect.<T> off();
+				}
+			});
+		}
+
+		/**
+		 * 按普通对象元素的运行时类型解析一次成员，其它元素（Class、Map、null等）按各自的规则处理
+		 */
+		private static abstract class Step<M> implements Function<Reflect, Reflect> {
+			private volatile Resolved<M> last;
+
+			@Override
+			public Reflect apply(Reflect reflect) {
+				if (reflect.getClass() != ObjectReflect.class) {
+					return fallback(reflect);
+				}
+				Class<?> type = reflect.type();
+				Resolved<M> resolved = last;
+				if (resolved == null || resolved.type != type) {
+					resolved = new Resolved<M>(type, resolve(type));
+					last = resolved;
+				}
+				return apply(resolved.member, reflect.off());
+			}
+
+			abstract M resolve(Class<?> type) throws ReflectException;
+
+			abstract Reflect apply(M member, Object object) throws ReflectException;
+
+			abstract Reflect fallback(Reflect reflect) throws ReflectException;
+		}
+
+		private static final class Resolved<M> {
+			final Class<?> type;
+			final M member;
+
+			Resolved(Class<?> type, M member) {
+				this.type = type;
+				this.member = member;
+			}
+		}
+	}
+
+	public static class EnumReflect<T extends Enum<T>> extends Reflect {
+		private final Class<T> enumType;
+		Field valuesField = null;
+
+		public EnumReflect(Class<T> enumType) {
+			super(nullReflect());
+			this.enumType = enumType;
+			if (!enumType.isEnum()) {
+				throw new ReflectException(enumType.getName() + " is not enum type");
+			}
+			for (Field field : enumType.getDeclaredFields()) {
+				if (field.getName().contains("$VALUES")) {
+					valuesField = field;
+					break;
+				}
+			}
+			accessible(valuesField);
+			try {
+				breakFinal(valuesField);
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		public T[] values() {
+			try {
+				T[] values = (T[]) valuesField.get(enumType);
+				return values;
+			} catch (Exception e) {
+				return (T[]) new Object[0];
+			}
+		}
+
+		/**
+		 * 是否包含指定名称的枚举
+		 * 
+		 * @param name
+		 * @return
+		 * @throws NullPointerException
+		 *             if name is null
+		 */
+		public boolean contains(String name) {
+			try {
+				return Enum.valueOf(enumType, name) != null;
+			} catch (IllegalArgumentException e) {
+				return false;
+			}
+		}
+
+		public T valueOf(String name) {
+			if (name == null || name.length() < 1) {
+				return null;
+			}
+			return Enum.valueOf(enumType, name);
+		}
+
+		/**
+		 * 添加枚举
+		 * 
+		 * @param name
+		 * @param arguments
+		 * @return
+		 */
+		@SuppressWarnings({ "unchecked" })
+		public T add(String name, Object... arguments) {
+			try {
+				return valueOf(name);
+			} catch (IllegalArgumentException ex) {
+			}
+
+			try {
+				T[] values = (T[]) valuesField.get(enumType);
+
+				T newEnum = makeEnum(arguments, name, values.length);
+
+				T[] newValues = (T[]) Array.newInstance(enumType, values.length + 1);
+				newValues[values.length] = newEnum;
+
+				System.arraycopy(values, 0, newValues, 0, values.length);
+
+				FieldAccessor fa = reflectionFactory.newFieldAccessor(valuesField, false);
+				fa.set(null, newValues);
+
+				// enumConstantDirectory
+				Field directField = similarField(Class.class, "enumConstantDirectory");
+				if (directField != null) {
+					breakFinal(directField);
+					FieldAccessor directFA = reflectionFactory.newFieldAccessor(directField, false);
+					Map<String, T> direct = (Map<String, T>) directFA.get(enumType);
+					direct.put(name, newEnum);
+				}
+				// enumConstants
+				Field constantsField = similarField(Class.class, "enumConstants");
+				if (constantsField != null) {
+					breakFinal(constantsField);
+					FieldAccessor constantsFA = reflectionFactory.newFieldAccessor(constantsField, false);
+					constantsFA.set(enumType, newValues);
+				}
+				ReflectEvents.enumMutation(enumType, name, values.length);
+
+				return newEnum;
+			} catch (ReflectException ex) {
+				throw ex;
+			} catch (Exception ex) {
+				throw new ReflectException("add enum failed", ex);
+			}
+		}
+
+		private T makeEnum(Object[] arguments, String name, int odinal) throws Exception {
+			Constructor<T> constr = getConstructor(enumType, arguments);
+			if (constr == null) {
+				throw new ReflectException("constructor not found:" + enumType.getName() + "."
+						+ enumType.getSimpleName() + "(" + typeName(arguments) + ")");
+			}
+			constr.setAccessible(true);
+			Object[] args = new Object[arguments.length + 2];
+			args[0] = name;
+			args[1] = odinal;
+			System.arraycopy(arguments, 0, args, 2, arguments.length);
+			if (constr.isVarArgs() && VarargsSpreader.isVariableArityCall(constr.getParameterTypes(), args)) {
+				args = VarargsSpreader.pack(constr.getParameterTypes(), args);
+			}
+			ConstructorAccessor accessor = reflectionFactory.newConstructorAccessor(constr);
+			return enumType.cast(accessor.newInstance(args));
+		}
+
+		private static String typeName(Object[] arguments) {
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < arguments.length; i++) {
+				if (arguments[i] == null) {
+					sb.append("null");
+				} else {
+					sb.append(arguments[i].getClass().getName()).append(',');
+				}
+			}
+			if (sb.length() > 0) {
+				sb.deleteCharAt(sb.length() - 1);
+			}
+			return sb.toString();
+		}
+
+		private static Field similarField(Class<?> on, String name) {
+			for (Field field : on.getDeclaredFields()) {
+				if (field.getName().contains(name)) {
+					return field;
+				}
+			}
+			return null;
+		}
+
+		@SuppressWarnings("unchecked")
+		private static <T> Constructor<T> getConstructor(Class<T> type, Object... arguments) {
+			Constructor<?>[] constrs = type.getDeclaredConstructors();
+			if (constrs.length == 1) {
+				return (Constructor<T>) constrs[0];
+			}
+			Class<?>[] types = types(arguments);
+			Class<?>[] realTypes = new Class<?>[types.length + 2];
+			realTypes[0] = String.class;
+			realTypes[1] = int.class;
+			System.arraycopy(types, 0, realTypes, 2, types.length);
+			return (Constructor<T>) ClassMetadata.of(type).constructorOrNull(realTypes);
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Class<T> off() {
+			return enumType;
+		}
+
+	}
+
+	/**
+	 * 方法调用方式
+	 */
+	public static enum InvocationMode {
+		/**
+		 * 通过{@link Method#invoke(Object, Object...)}调用
+		 */
+		REFLECTION,
+		/**
+		 * 每个方法解析一次MethodHandle并缓存，之后通过MethodHandle调用，字段和构造器仍使用反射
+		 */
+		METHOD_HANDLE,
+		/**
+		 * 通过声明类的{@link ClassAccessor}按下标访问字段、方法和构造器，不可直接访问的成员退回反射
+		 */
+		ACCESSOR
+	}
+
+	/**
+	 * 链式调用历史，即{@link Reflect#back()}能够回到的上一节点。
+	 * <p>
+	 * 每个Reflect默认强引用上一节点，长链条的最后一个节点会使整条链上的对象无法回收，
+	 * 大量使用时可以改用弱引用、限制深度或者不保存历史。
+	 */
+	public static final class ChainHistory {
+		/**
+		 * 保存完整的历史（默认）
+		 */
+		public static final ChainHistory FULL = new ChainHistory(0);
+		/**
+		 * 弱引用上一节点，上一节点被回收后back()返回NullReflect
+		 */
+		public static final ChainHistory WEAK = new ChainHistory(0);
+		/**
+		 * 不保存历史，back()总是返回NullReflect
+		 */
+		public static final ChainHistory DISABLED = new ChainHistory(0);
+
+		private final int maxDepth;
+
+		private ChainHistory(int maxDepth) {
+			this.maxDepth = maxDepth;
+		}
+
+		/**
+		 * 最多强引用maxDepth个上一节点，更早的节点被断开
+		 * 
+		 * @param maxDepth
+		 * @return
+		 * @throws ReflectException
+		 *             maxDepth小于1
+		 */
+		public static ChainHistory depth(int maxDepth) throws ReflectException {
+			if (maxDepth < 1) {
+				throw new ReflectException("max depth must be positive:" + maxDepth);
+			}
+			return new ChainHistory(maxDepth);
+		}
+
+		public int getMaxDepth() {
+			return maxDepth;
+		}
+
+		@Override
+		public String toString() {
+			if (this == FULL) {
+				return "FULL";
+			} else if (this == WEAK) {
+				return "WEAK";
+			} else if (this == DISABLED) {
+				return "DISABLED";
+			}
+			return "DEPTH(" + maxDepth + ")";
+		}
+	}
+
+	private static class NULL {
+		/**
+		 * {@link NullReflect#off()}的返回值，所有NullReflect共用
+		 */
+		static final NULL INSTANCE = new NULL();
+	}
+
+	static final class MethodKey {
+		private String name;
+		private Class<?>[] parameterTypes;
+		private int hash;
+
+		MethodKey(String name, Class<?>[] parameterTypes) {
+			super();
+			this.name = name;
+			// 调用方可能复用并修改数组
+			this.parameterTypes = parameterTypes.clone();
+			this.hash = hash0();
+		}
+
+		String name() {
+			return name;
+		}
+
+		Class<?>[] parameterTypes() {
+			return parameterTypes;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		private int hash0() {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((name == null) ? 0 : name.hashCode());
+			result = prime * result + Arrays.hashCode(parameterTypes);
+			return result;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (obj == null)
+				return false;
+			if (getClass() != obj.getClass())
+				return false;
+			MethodKey other = (MethodKey) obj;
+			if (name == null) {
+				if (other.name != null)
+					return false;
+			} else if (!name.equals(other.name))
+				return false;
+			if (!Arrays.equals(parameterTypes, other.parameterTypes))
+				return false;
+			return true;
+		}
+	}
+}
@@ -0,0 +1,170 @@
+package com.vgerbot.reflect;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * 离线分析JFR录制文件中的Reflect事件（见{@link JfrEvents}），输出耗时最多的成员、查找和缓存未命中率。
+ * <p>
+ * 录制时需要先通过{@link ReflectEvents#enable()}或-Dcom.vgerbot.reflect.jfr=true启用事件。
+ * 运行：java -cp reflect.jar com.vgerbot.reflect.ReflectEventAnalyzer recording.jfr [top]
+ *
+ * @author y1j2x34
+ */
+public final class ReflectEventAnalyzer {
+	private final Map<String, Stat> invocations = new HashMap<String, Stat>();
+	private final Map<String, Stat> lookups = new HashMap<String, Stat>();
+	private final Map<String, Stat> misses = new HashMap<String, Stat>();
+	private int enumMutations;
+	private long hits = -1;
+	private long missCount = -1;
+
+	private ReflectEventAnalyzer() {
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("usage: ReflectEventAnalyzer <recording.jfr> [top]");
+			System.exit(1);
+		}
+		System.out.print(analyze(Paths.get(args[0]), args.length > 1 ? Integer.parseInt(args[1]) : 10));
+	}
+
+	/**
+	 * 分析录制文件
+	 *
+	 * @param file
+	 * @param top
+	 *            每项列出的条数
+	 * @return 文本报告
+	 * @throws IOException
+	 */
+	public static String analyze(Path file, int top) throws IOException {
+		ReflectEventAnalyzer analyzer = new ReflectEventAnalyzer();
+		RecordingFile recording = new RecordingFile(file);
+		try {
+			while (recording.hasMoreEvents()) {
+				analyzer.accept(recording.readEvent());
+			}
+		} finally {
+			recording.close();
+		}
+		return analyzer.report(top);
+	}
+
+	private void accept(RecordedEvent event) {
+		String name = event.getEventType().getName();
+		long nanos = event.getDuration().toNanos();
+		if (JfrEvents.INVOKE.equals(name)) {
+			stat(invocations, event.getString("member")).add(nanos, event.getBoolean("failed"));
+		} else if (JfrEvents.LOOKUP.equals(name)) {
+			RecordedClass type = event.getValue("type");
+			String key = event.getString("kind") + " " + (type == null ? "" : type.getName() + " ")
+					+ event.getString("name");
+			stat(lookups, key).add(nanos, !event.getBoolean("found"));
+		} else if (JfrEvents.CACHE_MISS.equals(name)) {
+			stat(misses, event.getString("cache")).add(0, false);
+		} else if (JfrEvents.ENUM_MUTATION.equals(name)) {
+			enumMutations++;
+		} else if (JfrEvents.CACHE_STATISTICS.equals(name)) {
+			// 计数是累计值，取最后一次
+			hits = event.getLong("hits");
+			missCount = event.getLong("misses");
+		}
+	}
+
+	private static Stat stat(Map<String, Stat> stats, String key) {
+		Stat stat = stats.get(key);
+		if (stat == null) {
+			stat = new Stat(key);
+			stats.put(key, stat);
+		}
+		return stat;
+	}
+
+	private String report(int top) {
+		StringBuilder report = new StringBuilder();
+		report.append("Slowest members (invocations over threshold)\n");
+		report.append(String.format("%10s %8s %12s %12s %12s  %s%n", "count", "failed", "total(ms)", "max(ms)",
+				"mean(us)", "member"));
+		for (Stat stat : sorted(invocations, top)) {
+			report.append(String.format("%10d %8d %12.3f %12.3f %12.1f  %s%n", stat.count, stat.flagged,
+					stat.totalNanos / 1e6, stat.maxNanos / 1e6, stat.totalNanos / 1e3 / stat.count, stat.key));
+		}
+		report.append("\nSlowest lookups\n");
+		report.append(String.format("%10s %8s %12s %12s  %s%n", "count", "missing", "total(ms)", "max(ms)", "lookup"));
+		for (Stat stat : sorted(lookups, top)) {
+			report.append(String.format("%10d %8d %12.3f %12.3f  %s%n", stat.count, stat.flagged,
+					stat.totalNanos / 1e6, stat.maxNanos / 1e6, stat.key));
+		}
+		report.append("\nCache misses by cache\n");
+		List<Stat> caches = new ArrayList<Stat>(misses.values());
+		Collections.sort(caches, new Comparator<Stat>() {
+			@Override
+			public int compare(Stat a, Stat b) {
+				return a.count < b.count ? 1 : a.count == b.count ? 0 : -1;
+			}
+		});
+		for (Stat stat : caches) {
+			report.append(String.format("%10d  %s%n", stat.count, stat.key));
+		}
+		if (hits >= 0) {
+			long total = hits + missCount;
+			report.append(String.format("%nMetadata cache: %d hits, %d misses, miss rate %.2f%%%n", hits, missCount,
+					total == 0 ? 0.0 : missCount * 100.0 / total));
+		}
+		if (enumMutations > 0) {
+			report.append(String.format("%nEnum mutations: %d%n", enumMutations));
+		}
+		return report.toString();
+	}
+
+	/**
+	 * 按总耗时从大到小排列
+	 */
+	private static List<Stat> sorted(Map<String, Stat> stats, int top) {
+		List<Stat> sorted = new ArrayList<Stat>(stats.values());
+		Collections.sort(sorted, new Comparator<Stat>() {
+			@Override
+			public int compare(Stat a, Stat b) {
+				return a.totalNanos < b.totalNanos ? 1 : a.totalNanos == b.totalNanos ? 0 : -1;
+			}
+		});
+		return sorted.size() > top ? sorted.subList(0, top) : sorted;
+	}
+
+	private static final class Stat {
+		final String key;
+		long count;
+		/**
+		 * 调用失败或查找不到的次数
+		 */
+		long flagged;
+		long totalNanos;
+		long maxNanos;
+
+		Stat(String key) {
+			this.key = key;
+		}
+
+		void add(long nanos, boolean flag) {
+			count++;
+			if (flag) {
+				flagged++;
+			}
+			totalNanos += nanos;
+			maxNanos = Math.max(maxNanos, nanos);
+		}
+	}
+}
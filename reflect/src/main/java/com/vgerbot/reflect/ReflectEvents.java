@@ -0,0 +1,108 @@
+package com.vgerbot.reflect;
+
+import java.lang.reflect.Member;
+
+/**
+ * 查找、调用过程中发出的Java Flight Recorder事件，事件定义见{@link JfrEvents}。
+ * <p>
+ * 默认不发出任何事件，也不会加载jdk.jfr的类或初始化Flight Recorder。调用{@link #enable()}或设置系统属性
+ * "com.vgerbot.reflect.jfr"为true后，在有正在进行的录制时发出事件；没有录制时每个埋点只多一次volatile读。
+ * 运行时没有jdk.jfr（早于8u262的JDK 8）时无法启用。
+ *
+ * @author y1j2x34
+ */
+public final class ReflectEvents {
+	private static final String PROPERTY = "com.vgerbot.reflect.jfr";
+
+	/**
+	 * 是否有正在进行的录制，启用后由{@link JfrEvents}注册的监听器更新
+	 */
+	static volatile boolean recording;
+
+	private static boolean enabled;
+
+	static {
+		if ("true".equalsIgnoreCase(System.getProperty(PROPERTY))) {
+			enable();
+		}
+	}
+
+	private ReflectEvents() {
+	}
+
+	/**
+	 * 注册Flight Recorder监听器和周期事件，之后的录制中会包含Reflect的事件。
+	 * 首次调用会初始化Flight Recorder，耗时可能达数百毫秒
+	 *
+	 * @return 运行时没有jdk.jfr时返回false
+	 */
+	public static synchronized boolean enable() {
+		if (!enabled) {
+			try {
+				Class.forName("jdk.jfr.FlightRecorder");
+				JfrEvents.register();
+				enabled = true;
+			} catch (Throwable e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public static synchronized boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @return 事件，未录制时返回null
+	 */
+	static Object beginInvoke() {
+		return recording ? JfrEvents.beginInvoke() : null;
+	}
+
+	static void endInvoke(Object event, Member member, boolean failed) {
+		if (event != null) {
+			JfrEvents.endInvoke(event, member, failed);
+		}
+	}
+
+	static Object beginLookup() {
+		return recording ? JfrEvents.beginLookup() : null;
+	}
+
+	/**
+	 * @param event
+	 *            {@link #beginLookup()}的返回值
+	 * @param type
+	 * @param kind
+	 *            field、method、constructor或class
+	 * @param name
+	 * @param parameterTypes
+	 *            字段和类为null
+	 * @param found
+	 */
+	static void endLookup(Object event, Class<?> type, String kind, String name, Class<?>[] parameterTypes,
+			boolean found) {
+		if (event != null) {
+			JfrEvents.endLookup(event, type, kind, name, parameterTypes, found);
+		}
+	}
+
+	/**
+	 * @param type
+	 * @param cache
+	 *            缓存的名称，如field、method、accessor
+	 * @param key
+	 */
+	static void cacheMiss(Class<?> type, String cache, Object key) {
+		if (recording) {
+			JfrEvents.cacheMiss(type, cache, key);
+		}
+	}
+
+	static void enumMutation(Class<?> enumType, String name, int ordinal) {
+		if (recording) {
+			JfrEvents.enumMutation(enumType, name, ordinal);
+		}
+	}
+}
@@ -0,0 +1,184 @@
+package com.vgerbot.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 可变参数方法、构造器的调用器，缓存在{@link ClassMetadata}中。
+ * <p>
+ * 按实参个数预先生成(Object receiver, Object[] arguments)Object形式的MethodHandle，
+ * 由asCollector把末尾的实参收集为可变参数数组，调用时只分配这一个数组。
+ *
+ * @author y1j2x34
+ */
+final class VarargsSpreader {
+	private final Executable executable;
+	private final Class<?>[] parameterTypes;
+	private final Class<?> componentType;
+	private final boolean hasReceiver;
+	/**
+	 * 固定参数形式的目标，第一个参数为接收者（静态方法、构造器忽略该参数）
+	 */
+	private final MethodHandle target;
+	/**
+	 * 实参个数 -&gt; 展开后的MethodHandle
+	 */
+	private final ConcurrentMap<Integer, MethodHandle> spreaders = new ConcurrentHashMap<Integer, MethodHandle>();
+
+	private VarargsSpreader(Executable executable) throws IllegalAccessException {
+		this.executable = executable;
+		this.parameterTypes = executable.getParameterTypes();
+		this.componentType = parameterTypes[parameterTypes.length - 1].getComponentType();
+		MethodHandle target;
+		if (executable instanceof Method) {
+			target = MethodHandleInvoker.unreflect((Method) executable);
+			hasReceiver = !Modifier.isStatic(executable.getModifiers());
+		} else {
+			target = unreflectConstructor((Constructor<?>) executable);
+			hasReceiver = false;
+		}
+		target = target.asFixedArity();
+		if (!hasReceiver) {
+			target = MethodHandles.dropArguments(target, 0, Object.class);
+		}
+		this.target = target;
+	}
+
+	/**
+	 * 创建调用器，请通过{@link ClassMetadata}获取已缓存的实例
+	 *
+	 * @param executable
+	 *            可变参数的方法或构造器
+	 * @return
+	 * @throws ReflectException
+	 */
+	static VarargsSpreader create(Executable executable) throws ReflectException {
+		if (!executable.isVarArgs()) {
+			throw new ReflectException("not a varargs member:" + executable);
+		}
+		try {
+			return new VarargsSpreader(executable);
+		} catch (IllegalAccessException e) {
+			throw new ReflectException(e);
+		} catch (RuntimeException e) {
+			throw new ReflectException("cannot resolve method handle of " + executable, e);
+		}
+	}
+
+	static VarargsSpreader of(Executable executable) throws ReflectException {
+		return ClassMetadata.of(executable.getDeclaringClass()).spreader(executable);
+	}
+
+	private static MethodHandle unreflectConstructor(Constructor<?> constructor) throws IllegalAccessException {
+		Lookup lookup = MethodHandleInvoker.privateLookup(constructor.getDeclaringClass());
+		if (lookup != null) {
+			try {
+				return lookup.unreflectConstructor(constructor);
+			} catch (IllegalAccessException ignore) {
+			}
+		}
+		return MethodHandles.lookup().unreflectConstructor(Reflect.accessible(constructor));
+	}
+
+	/**
+	 * 实参是否需要按可变参数打包：个数与形参不同，或最后一个实参不是可变参数数组
+	 *
+	 * @param parameterTypes
+	 *            可变参数成员的形参类型
+	 * @param arguments
+	 * @return
+	 */
+	static boolean isVariableArityCall(Class<?>[] parameterTypes, Object[] arguments) {
+		int length = arguments == null ? 0 : arguments.length;
+		if (length != parameterTypes.length) {
+			return true;
+		}
+		Object last = arguments[length - 1];
+		return last != null && !parameterTypes[length - 1].isInstance(last);
+	}
+
+	boolean isVariableArityCall(Object[] arguments) {
+		return isVariableArityCall(parameterTypes, arguments);
+	}
+
+	/**
+	 * 把末尾的实参打包为可变参数数组，用于无法通过MethodHandle调用的场景（如创建枚举）
+	 *
+	 * @param parameterTypes
+	 * @param arguments
+	 * @return
+	 */
+	static Object[] pack(Class<?>[] parameterTypes, Object[] arguments) {
+		int fixed = parameterTypes.length - 1;
+		Class<?> componentType = parameterTypes[fixed].getComponentType();
+		Object[] packed = new Object[parameterTypes.length];
+		System.arraycopy(arguments, 0, packed, 0, fixed);
+		Object array = Array.newInstance(componentType, arguments.length - fixed);
+		for (int i = fixed; i < arguments.length; i++) {
+			Reflect.checkValue(componentType, arguments[i]);
+			Array.set(array, i - fixed, arguments[i]);
+		}
+		packed[fixed] = array;
+		return packed;
+	}
+
+	/**
+	 * 以可变参数形式调用
+	 *
+	 * @param receiver
+	 *            静态方法、构造器时忽略
+	 * @param arguments
+	 *            展开的实参
+	 * @return 方法返回值或新实例，void方法返回null
+	 * @throws InvocationTargetException
+	 *             目标方法抛出异常
+	 * @throws IllegalArgumentException
+	 *             接收者或参数与签名不符
+	 */
+	Object invoke(Object receiver, Object... arguments) throws InvocationTargetException {
+		if (arguments == null) {
+			arguments = new Object[0];
+		}
+		if (hasReceiver) {
+			Reflect.checkReceiver((Method) executable, receiver);
+		}
+		int fixed = parameterTypes.length - 1;
+		if (arguments.length < fixed) {
+			throw new IllegalArgumentException("wrong number of arguments");
+		}
+		for (int i = 0; i < arguments.length; i++) {
+			Reflect.checkValue(i < fixed ? parameterTypes[i] : componentType, arguments[i]);
+		}
+		MethodHandle spreader = spreader(arguments.length);
+		try {
+			return (Object) spreader.invokeExact(receiver, arguments);
+		} catch (Throwable e) {
+			throw new InvocationTargetException(e);
+		}
+	}
+
+	private MethodHandle spreader(int count) {
+		MethodHandle spreader = spreaders.get(count);
+		if (spreader == null) {
+			int fixed = parameterTypes.length - 1;
+			MethodHandle handle = target.asCollector(parameterTypes[fixed], count - fixed);
+			handle = handle.asType(MethodType.genericMethodType(handle.type().parameterCount()));
+			spreader = handle.asSpreader(Object[].class, count);
+			MethodHandle previous = spreaders.putIfAbsent(count, spreader);
+			if (previous != null) {
+				spreader = previous;
+			}
+		}
+		return spreader;
+	}
+}
@@ -0,0 +1,176 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vgerbot.reflect.Reflect.ClassReflect;
+import com.vgerbot.reflect.Reflect.FieldReflect;
+import com.vgerbot.reflect.Reflect.MethodReflect;
+
+/**
+ * 不加载类的注解索引
+ *
+ * @author y1j2x34
+ */
+public class AnnotationIndexTest {
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.TYPE)
+	@Inherited
+	public @interface Marker {
+	}
+
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target({ ElementType.METHOD, ElementType.FIELD })
+	public @interface Tag {
+		String value() default "";
+	}
+
+	private File classes;
+	private URLClassLoader loader;
+
+	@Before
+	public void compile() throws IOException {
+		File testClasses = new File(AnnotationIndexTest.class.getProtectionDomain().getCodeSource().getLocation()
+				.getPath());
+		classes = TestClasses.directory("index");
+		String imports = "import com.vgerbot.reflect.AnnotationIndexTest.Marker;"
+				+ "import com.vgerbot.reflect.AnnotationIndexTest.Tag;";
+		TestClasses.compile(classes, "q.Base", "package q;" + imports
+				+ "@Marker public class Base implements Runnable {"
+				+ "@Tag(\"count\") int count; @Tag(value = \"run\") public void run() {} public void plain() {} }",
+				testClasses);
+		TestClasses.compile(classes, "q.Child", "package q; public class Child extends Base {}", testClasses);
+		TestClasses.compile(classes, "q.Plain", "package q; public class Plain {}", testClasses);
+		loader = new URLClassLoader(new URL[] { TestClasses.url(classes) }, AnnotationIndexTest.class.getClassLoader());
+	}
+
+	@After
+	public void close() throws IOException {
+		loader.close();
+	}
+
+	@Test
+	public void indexesClassesMembersAndSubtypes() {
+		AnnotationIndex index = AnnotationIndex.scan(loader, Collections.singletonList(classes));
+		assertEquals(3, index.size());
+		assertTrue(index.contains("q.Child"));
+
+		assertEquals(names("q.Base", "q.Child"), classNames(index.getAnnotatedClasses(Marker.class)));
+		List<MethodReflect> methods = index.getAnnotatedMethods(Tag.class);
+		assertEquals(1, methods.size());
+		assertEquals("run", methods.get(0).off().getName());
+		List<FieldReflect> fields = index.getAnnotatedFields(Tag.class);
+		assertEquals(1, fields.size());
+		assertEquals("count", fields.get(0).off().getName());
+		assertEquals(names("q.Base", "q.Child"), classNames(index.getSubtypes(Runnable.class)));
+		assertTrue(index.getAnnotatedClasses(Retention.class).isEmpty());
+	}
+
+	@Test
+	public void savesAndLoadsIndex() throws IOException {
+		AnnotationIndex index = AnnotationIndex.scan(loader, Collections.singletonList(classes));
+		File file = new File(TestClasses.directory("cache"), "index.bin");
+		index.save(file);
+		AnnotationIndex loaded = AnnotationIndex.load(file, loader);
+		assertNotNull(loaded);
+		assertEquals(index.getClassNames(), loaded.getClassNames());
+		assertEquals(names("q.Base", "q.Child"), classNames(loaded.getAnnotatedClasses(Marker.class)));
+		assertFalse(loaded.isStale());
+
+		TestClasses.compile(classes, "q.Added", "package q; public class Added {}");
+		assertTrue(loaded.isStale());
+		AnnotationIndex rescanned = AnnotationIndex.scan(loader, file, Collections.singletonList(classes));
+		assertTrue(rescanned.contains("q.Added"));
+	}
+
+	@Test
+	public void corruptedIndexFailsWithReflectException() throws IOException {
+		File file = corruptedIndex();
+		try {
+			AnnotationIndex.load(file, loader);
+			fail();
+		} catch (ReflectException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void rescansWhenCacheIsCorrupted() throws IOException {
+		File file = corruptedIndex();
+		AnnotationIndex index = AnnotationIndex.scan(loader, file, Collections.singletonList(classes));
+		assertEquals(3, index.size());
+		assertEquals(3, AnnotationIndex.load(file, loader).size());
+	}
+
+	@Test
+	public void truncatedIndexFailsWithReflectException() throws IOException {
+		File file = new File(TestClasses.directory("cache"), "index.bin");
+		AnnotationIndex.scan(loader, Collections.singletonList(classes)).save(file);
+		RandomAccessFile out = new RandomAccessFile(file, "rw");
+		try {
+			out.setLength(out.length() / 2);
+		} finally {
+			out.close();
+		}
+		try {
+			AnnotationIndex.load(file, loader);
+			fail();
+		} catch (ReflectException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * 头部有效，唯一的类名指向不存在的字符串下标
+	 */
+	private File corruptedIndex() throws IOException {
+		File file = new File(TestClasses.directory("cache"), "index.bin");
+		AnnotationIndex.scan(loader, Collections.singletonList(classes)).save(file);
+		RandomAccessFile out = new RandomAccessFile(file, "rw");
+		try {
+			out.seek(8);
+			// 0个请求的根、0个根、1个字符串"a"、1个类，类名下标为5
+			out.write(new byte[] { 0, 0, 1, 0, 1, 'a', 1, 5 });
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+
+	private static List<String> names(String... names) {
+		List<String> list = new ArrayList<String>();
+		Collections.addAll(list, names);
+		return list;
+	}
+
+	private static List<String> classNames(List<ClassReflect> classes) {
+		List<String> names = new ArrayList<String>();
+		for (ClassReflect type : classes) {
+			names.add(type.off().getName());
+		}
+		Collections.sort(names);
+		return names;
+	}
+}
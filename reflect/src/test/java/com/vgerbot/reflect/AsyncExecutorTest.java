@@ -0,0 +1,269 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * 异步调用的并发限制、取消与默认线程池
+ *
+ * @author y1j2x34
+ */
+public class AsyncExecutorTest {
+
+	private final ExecutorService pool = Executors.newCachedThreadPool();
+
+	@After
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	/**
+	 * 开始后等待release的调用，记录同时运行的最大个数
+	 */
+	static class Blocking extends BatchExecutor.Task<Reflect> {
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger started = new AtomicInteger();
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		private final CountDownLatch[] arrivals;
+
+		Blocking(int calls) {
+			arrivals = new CountDownLatch[calls + 1];
+			for (int i = 0; i < arrivals.length; i++) {
+				arrivals[i] = new CountDownLatch(i);
+			}
+		}
+
+		@Override
+		Reflect run(int index) {
+			int current = running.incrementAndGet();
+			int max;
+			while ((max = maxRunning.get()) < current && !maxRunning.compareAndSet(max, current)) {
+			}
+			started.incrementAndGet();
+			for (CountDownLatch arrival : arrivals) {
+				arrival.countDown();
+			}
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+				throw new ReflectException("interrupted", e);
+			} finally {
+				running.decrementAndGet();
+			}
+			return Reflect.on(Integer.valueOf(index));
+		}
+
+		void awaitStarted(int count) throws InterruptedException {
+			assertTrue(arrivals[count].await(5, TimeUnit.SECONDS));
+		}
+	}
+
+	@Test
+	public void queuesCallsAboveConcurrencyLimit() throws Exception {
+		AsyncExecutor executor = AsyncExecutor.of(pool, 2);
+		Blocking task = new Blocking(4);
+		CompletableFuture<?>[] futures = new CompletableFuture<?>[4];
+		for (int i = 0; i < futures.length; i++) {
+			futures[i] = executor.submit(task);
+		}
+		task.awaitStarted(2);
+		// 前两个调用未结束，其余调用只能在队列中等待
+		assertEquals(2, task.started.get());
+		for (CompletableFuture<?> future : futures) {
+			assertFalse(future.isDone());
+		}
+		task.release.countDown();
+		CompletableFuture.allOf(futures).get(5, TimeUnit.SECONDS);
+		assertEquals(4, task.started.get());
+		assertEquals(2, task.maxRunning.get());
+	}
+
+	@Test
+	public void cancelledQueuedCallNeverRuns() throws Exception {
+		AsyncExecutor executor = AsyncExecutor.of(pool, 1);
+		Blocking task = new Blocking(1);
+		CompletableFuture<Reflect> first = executor.submit(task);
+		task.awaitStarted(1);
+		final AtomicInteger queuedRuns = new AtomicInteger();
+		CompletableFuture<Reflect> queued = executor.submit(new BatchExecutor.Task<Reflect>() {
+			@Override
+			Reflect run(int index) {
+				queuedRuns.incrementAndGet();
+				return Reflect.on((Object) "queued");
+			}
+		});
+		assertTrue(queued.cancel(false));
+
+		task.release.countDown();
+		assertEquals(Integer.valueOf(0), first.get(5, TimeUnit.SECONDS).off());
+		// 队列按顺序执行，最后提交的调用完成时已取消的调用已经出队
+		CompletableFuture<Reflect> last = executor.submit(new BatchExecutor.Task<Reflect>() {
+			@Override
+			Reflect run(int index) {
+				return Reflect.on((Object) "last");
+			}
+		});
+		assertEquals("last", last.get(5, TimeUnit.SECONDS).off());
+		assertEquals(0, queuedRuns.get());
+		assertTrue(queued.isCancelled());
+	}
+
+	@Test
+	public void cancelInterruptsRunningCall() throws Exception {
+		AsyncExecutor executor = AsyncExecutor.of(pool, 1);
+		Blocking task = new Blocking(1);
+		CompletableFuture<Reflect> running = executor.submit(task);
+		task.awaitStarted(1);
+		assertTrue(running.cancel(true));
+		assertTrue(task.interrupted.await(5, TimeUnit.SECONDS));
+		try {
+			running.get();
+			fail();
+		} catch (CancellationException expected) {
+		}
+		// 中断后释放并发名额
+		CompletableFuture<Reflect> next = executor.submit(new BatchExecutor.Task<Reflect>() {
+			@Override
+			Reflect run(int index) {
+				return Reflect.on(Thread.currentThread().isInterrupted());
+			}
+		});
+		assertEquals(Boolean.FALSE, next.get(5, TimeUnit.SECONDS).off());
+	}
+
+	@Test
+	public void cancellingBatchCancelsEveryCall() throws Exception {
+		AsyncExecutor executor = AsyncExecutor.of(pool, 1);
+		Blocking task = new Blocking(3);
+		CompletableFuture<Reflect> batch = executor.submitAll(Reflect.on((Object) "from"), 3, task);
+		task.awaitStarted(1);
+		assertTrue(batch.cancel(true));
+		assertTrue(task.interrupted.await(5, TimeUnit.SECONDS));
+		CompletableFuture<Reflect> next = executor.submit(new BatchExecutor.Task<Reflect>() {
+			@Override
+			Reflect run(int index) {
+				return Reflect.on((Object) "next");
+			}
+		});
+		assertEquals("next", next.get(5, TimeUnit.SECONDS).off());
+		assertEquals(1, task.started.get());
+	}
+
+	@Test
+	public void batchKeepsOrderAndCombinesFailures() throws Exception {
+		AsyncExecutor executor = AsyncExecutor.of(pool, 2);
+		Reflect result = executor.submitAll(Reflect.on((Object) "from"), 3, new BatchExecutor.Task<Reflect>() {
+			@Override
+			Reflect run(int index) {
+				return Reflect.on(Integer.valueOf(index * 10));
+			}
+		}).get(5, TimeUnit.SECONDS);
+		assertArrayEquals(new Object[] { 0, 10, 20 }, result.<Object[]> off());
+
+		BatchExecutor.Task<Reflect> failing = new BatchExecutor.Task<Reflect>() {
+			@Override
+			Reflect run(int index) {
+				if (index != 1) {
+					throw new ReflectException("element " + index);
+				}
+				return Reflect.on((Object) "ok");
+			}
+		};
+		CompletableFuture<Reflect> failed = executor.submitAll(Reflect.on((Object) "from"), 3, failing);
+		try {
+			failed.get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException e) {
+			assertEquals("2 of 3 batch elements failed", e.getCause().getMessage());
+			assertEquals(2, e.getCause().getSuppressed().length);
+		}
+	}
+
+	@Test
+	public void rejectionFailsCallAndReleasesSlot() throws Exception {
+		final AtomicInteger submitted = new AtomicInteger();
+		Executor rejectFirst = new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				if (submitted.getAndIncrement() == 0) {
+					throw new RejectedExecutionException("full");
+				}
+				command.run();
+			}
+		};
+		AsyncExecutor executor = AsyncExecutor.of(rejectFirst, 1);
+		BatchExecutor.Task<Reflect> task = new BatchExecutor.Task<Reflect>() {
+			@Override
+			Reflect run(int index) {
+				return Reflect.on((Object) "ran");
+			}
+		};
+		try {
+			executor.submit(task).get();
+			fail();
+		} catch (ExecutionException e) {
+			assertTrue(e.getCause() instanceof ReflectException);
+			assertTrue(e.getCause().getCause() instanceof RejectedExecutionException);
+		}
+		assertEquals("ran", executor.submit(task).get().off());
+	}
+
+	@Test
+	public void fallsBackToDaemonThreadPool() throws Exception {
+		boolean virtualThreads;
+		try {
+			Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			virtualThreads = true;
+		} catch (NoSuchMethodException e) {
+			virtualThreads = false;
+		}
+		assumeTrue(!virtualThreads);
+		final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+		final CountDownLatch done = new CountDownLatch(1);
+		AsyncExecutor.defaultExecutor().execute(new Runnable() {
+			@Override
+			public void run() {
+				thread.set(Thread.currentThread());
+				done.countDown();
+			}
+		});
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertTrue(thread.get().isDaemon());
+		assertTrue(thread.get().getName().startsWith("reflect-async-"));
+		assertSame(AsyncExecutor.defaultExecutor(), AsyncExecutor.defaultExecutor());
+	}
+
+	@Test
+	public void rejectsNegativeConcurrency() {
+		try {
+			AsyncExecutor.of(null, -1);
+			fail();
+		} catch (ReflectException e) {
+			assertTrue(e.getMessage().startsWith("negative max concurrency"));
+		}
+		assertSame(AsyncExecutor.DEFAULT, AsyncExecutor.of(null, 0));
+	}
+}
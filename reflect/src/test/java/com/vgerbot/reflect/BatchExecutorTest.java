@@ -0,0 +1,149 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * 批量任务的顺序执行与并行执行
+ *
+ * @author y1j2x34
+ */
+public class BatchExecutorTest {
+
+	private static BatchExecutor.Task<Integer> square(final Set<Thread> threads) {
+		return new BatchExecutor.Task<Integer>() {
+			@Override
+			Integer run(int index) {
+				threads.add(Thread.currentThread());
+				return index * index;
+			}
+		};
+	}
+
+	private static Set<Thread> threads() {
+		return Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+	}
+
+	@Test
+	public void keepsOrderAcrossForkJoinChunks() {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Integer[] results = BatchExecutor.parallel(pool, 3).run(new Integer[1000], square(threads()));
+			for (int i = 0; i < results.length; i++) {
+				assertEquals(i * i, results[i].intValue());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void keepsOrderWithPlainExecutorAndAutoChunks() {
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			Integer[] results = BatchExecutor.parallel(executor, 0).run(new Integer[257], square(threads()));
+			for (int i = 0; i < results.length; i++) {
+				assertEquals(i * i, results[i].intValue());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void combinesFailuresAsSuppressed() {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			final IllegalStateException cause = new IllegalStateException("odd");
+			BatchExecutor.Task<Integer> task = new BatchExecutor.Task<Integer>() {
+				@Override
+				Integer run(int index) {
+					if (index % 3 == 1) {
+						throw cause;
+					}
+					return index;
+				}
+			};
+			try {
+				BatchExecutor.parallel(pool, 1).run(new Integer[7], task);
+				fail();
+			} catch (ReflectException e) {
+				assertEquals("2 of 7 batch elements failed", e.getMessage());
+				Throwable[] suppressed = e.getSuppressed();
+				assertEquals(2, suppressed.length);
+				assertEquals("batch element 1 failed", suppressed[0].getMessage());
+				assertEquals("batch element 4 failed", suppressed[1].getMessage());
+				assertSame(cause, suppressed[0].getCause());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void sequentialStopsAtFirstFailure() {
+		final int[] ran = new int[1];
+		try {
+			BatchExecutor.SEQUENTIAL.run(new Integer[5], new BatchExecutor.Task<Integer>() {
+				@Override
+				Integer run(int index) {
+					ran[0]++;
+					if (index == 2) {
+						throw new ReflectException("element 2");
+					}
+					return index;
+				}
+			});
+			fail();
+		} catch (ReflectException e) {
+			assertEquals("element 2", e.getMessage());
+			assertEquals(0, e.getSuppressed().length);
+		}
+		assertEquals(3, ran[0]);
+	}
+
+	@Test
+	public void runsInCallerBelowTwoElements() {
+		Executor rejecting = new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				throw new AssertionError("should not submit");
+			}
+		};
+		Set<Thread> threads = threads();
+		Integer[] results = BatchExecutor.parallel(rejecting, 0).run(new Integer[1], square(threads));
+		assertArrayEquals(new Integer[] { 0 }, results);
+		assertEquals(Collections.singleton(Thread.currentThread()), threads);
+
+		threads.clear();
+		results = BatchExecutor.SEQUENTIAL.run(new Integer[4], square(threads));
+		assertArrayEquals(new Integer[] { 0, 1, 4, 9 }, results);
+		assertEquals(Collections.singleton(Thread.currentThread()), threads);
+	}
+
+	@Test
+	public void rejectsNegativeChunkSize() {
+		try {
+			BatchExecutor.parallel(null, -1);
+			fail();
+		} catch (ReflectException e) {
+			assertTrue(e.getMessage().startsWith("negative chunk size"));
+		}
+		assertFalse(BatchExecutor.SEQUENTIAL.isParallel());
+		assertTrue(BatchExecutor.parallel(null, 0).isParallel());
+	}
+}
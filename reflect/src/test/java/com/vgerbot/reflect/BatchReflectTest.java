@@ -0,0 +1,108 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.vgerbot.reflect.Reflect.BatchReflect;
+import com.vgerbot.reflect.Reflect.MethodReflect;
+
+/**
+ * 批量调用时按类型共用方法
+ *
+ * @author y1j2x34
+ */
+public class BatchReflectTest {
+
+	static class Counter {
+		private int count;
+
+		Counter(int count) {
+			this.count = count;
+		}
+
+		int next() {
+			return ++count;
+		}
+
+		int add(int delta) {
+			count += delta;
+			return count;
+		}
+	}
+
+	static class Other {
+		int next() {
+			return -1;
+		}
+	}
+
+	@Test
+	public void backIsBoundToEachElement() {
+		Counter[] counters = { new Counter(0), new Counter(10), new Counter(20) };
+		BatchReflect results = Reflect.on(counters).call("add", 1);
+		assertArrayEquals(new Object[] { 1, 11, 21 }, results.off());
+		int i = 0;
+		for (Reflect result : results) {
+			MethodReflect back = (MethodReflect) result.back();
+			assertSame(counters[i], back.getReceiver());
+			assertEquals(counters[i].count + 1, (int) back.call().<Integer> off());
+			i++;
+		}
+	}
+
+	@Test
+	public void methodBatchBindsEachElement() {
+		Counter[] counters = { new Counter(0), new Counter(10) };
+		BatchReflect results = Reflect.on(counters).method("next").call();
+		assertArrayEquals(new Object[] { 1, 11 }, results.off());
+		for (Reflect result : results) {
+			((MethodReflect) result.back()).call();
+		}
+		assertEquals(2, counters[0].count);
+		assertEquals(12, counters[1].count);
+	}
+
+	@Test
+	public void sequentialResolveFailureStopsAtFailingElement() {
+		Counter first = new Counter(0);
+		Counter last = new Counter(0);
+		try {
+			Reflect.on(new Object[] { first, "text", last }).call("next");
+			fail();
+		} catch (ReflectException e) {
+			assertTrue(e.getCause() instanceof NoSuchMethodException);
+		}
+		assertEquals(1, first.count);
+		assertEquals(0, last.count);
+	}
+
+	@Test
+	public void parallelResolveFailuresAreSuppressed() {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Counter[] counters = { new Counter(0), new Counter(0) };
+			Object[] elements = { counters[0], "a", new Other(), "b", counters[1] };
+			try {
+				Reflect.on(elements).parallel(executor, 1).call("next");
+				fail();
+			} catch (ReflectException e) {
+				assertEquals("2 of 5 batch elements failed", e.getMessage());
+				assertEquals(2, e.getSuppressed().length);
+				assertEquals("batch element 1 failed", e.getSuppressed()[0].getMessage());
+				assertEquals("batch element 3 failed", e.getSuppressed()[1].getMessage());
+			}
+			assertEquals(1, counters[0].count);
+			assertEquals(1, counters[1].count);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * 按字段名复制
+ *
+ * @author y1j2x34
+ */
+public class BeanCopierTest {
+
+	static class Source {
+		private long id = Long.MAX_VALUE - 1;
+		private int count = 42;
+		private char letter = 'x';
+		private float score = 1.5f;
+		private boolean active = true;
+		private byte level = -3;
+		private Integer boxed = Integer.valueOf(7);
+		private int unboxed = 9;
+		private Integer nothing;
+		private String name = "mario";
+		private String mismatch = "text";
+		private String onlySource = "source";
+	}
+
+	static class Target {
+		private long id;
+		private long count;
+		private int letter;
+		private double score;
+		private boolean active;
+		private short level;
+		private long boxed;
+		private Long unboxed;
+		private int nothing = 5;
+		private String name = "luigi";
+		private int mismatch = 11;
+		private String onlyTarget = "target";
+	}
+
+	static class Point {
+		private long x = 1000000L;
+		private int y = 2;
+		private double z = 0.25d;
+	}
+
+	@Test
+	public void copiesPrimitivePairs() {
+		Target target = Reflect.copier(Source.class, Target.class).copy(new Source());
+		assertEquals(Long.MAX_VALUE - 1, target.id);
+		assertEquals(42L, target.count);
+		assertEquals('x', target.letter);
+		assertEquals(1.5d, target.score, 0d);
+		assertTrue(target.active);
+		assertEquals(-3, target.level);
+	}
+
+	@Test
+	public void copiesBoxedPairs() {
+		Target target = Reflect.copier(Source.class, Target.class).copy(new Source());
+		assertEquals(7L, target.boxed);
+		assertEquals(Long.valueOf(9L), target.unboxed);
+		assertEquals("mario", target.name);
+	}
+
+	@Test
+	public void nullDoesNotOverwritePrimitive() {
+		Source source = new Source();
+		source.name = null;
+		Target target = Reflect.copier(Source.class, Target.class).copy(source, new Target());
+		assertEquals(5, target.nothing);
+		assertNull(target.name);
+
+		target = Reflect.copier(Source.class, Target.class).skipNull().copy(source, new Target());
+		assertEquals("luigi", target.name);
+	}
+
+	@Test
+	public void skipsMismatchedAndMissingFields() {
+		BeanCopier<Source, Target> copier = Reflect.copier(Source.class, Target.class);
+		assertFalse(copier.names().contains("mismatch"));
+		assertFalse(copier.names().contains("onlySource"));
+		assertFalse(copier.names().contains("onlyTarget"));
+
+		Target target = copier.copy(new Source());
+		assertEquals(11, target.mismatch);
+		assertEquals("target", target.onlyTarget);
+	}
+
+	@Test
+	public void copiesAll() {
+		Point[] points = Reflect.copier(Point.class, Point.class).copyAll(new Point[] { new Point(), null });
+		assertEquals(1000000L, points[0].x);
+		assertNull(points[1]);
+		assertEquals(2, Reflect.copier(Point.class, Point.class).copyAll(Arrays.asList(new Point(), null)).size());
+		assertSame(Reflect.copier(Point.class, Point.class), BeanCopier.of(Point.class, Point.class));
+	}
+
+	@Test
+	public void primitiveCopyDoesNotAllocate() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+		assumeTrue(bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled());
+
+		BeanCopier<Point, Point> copier = Reflect.copier(Point.class, Point.class);
+		Point source = new Point();
+		Point target = new Point();
+		int iterations = 200000;
+		long sum = run(copier, source, target, iterations);
+		long thread = Thread.currentThread().getId();
+		long before = bean.getThreadAllocatedBytes(thread);
+		sum += run(copier, source, target, iterations);
+		long allocated = bean.getThreadAllocatedBytes(thread) - before;
+		assertTrue(sum != 0);
+		assertEquals(0, allocated / iterations);
+	}
+
+	private static long run(BeanCopier<Point, Point> copier, Point source, Point target, int iterations) {
+		long sum = 0;
+		for (int i = 0; i < iterations; i++) {
+			source.x = 1000000L + i;
+			sum += copier.copy(source, target).x;
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,142 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.vgerbot.reflect.Reflect.ChainHistory;
+import com.vgerbot.reflect.Reflect.FieldReflect;
+import com.vgerbot.reflect.Reflect.NullReflect;
+import com.vgerbot.reflect.Reflect.ObjectReflect;
+
+/**
+ * 链式调用历史的保存方式
+ *
+ * @author y1j2x34
+ */
+public class ChainHistoryTest {
+
+	static class Node {
+		final Node next;
+
+		Node(Node next) {
+			this.next = next;
+		}
+
+		static Node list(int length) {
+			Node node = null;
+			for (int i = 0; i < length; i++) {
+				node = new Node(node);
+			}
+			return node;
+		}
+	}
+
+	/**
+	 * 可以通过back()回到的节点个数
+	 */
+	private static int length(Reflect reflect) {
+		int length = 0;
+		for (Reflect node = reflect.back(); !isStart(node); node = node.back()) {
+			length++;
+		}
+		return length;
+	}
+
+	private static boolean isStart(Reflect reflect) {
+		return reflect == null || reflect instanceof NullReflect;
+	}
+
+	private static Reflect walk(Reflect reflect, int steps) {
+		for (int i = 0; i < steps; i++) {
+			reflect = reflect.field("next").get();
+		}
+		return reflect;
+	}
+
+	@Test
+	public void fullKeepsEveryNode() {
+		Reflect root = Reflect.on(Node.list(4)).chainHistory(ChainHistory.FULL);
+		Reflect last = walk(root, 3);
+		assertEquals(6, length(last));
+		assertSame(root, last.back().back().back().back().back().back());
+	}
+
+	@Test
+	public void disabledKeepsNothing() {
+		Reflect last = walk(Reflect.on(Node.list(3)).chainHistory(ChainHistory.DISABLED), 2);
+		assertEquals(0, length(last));
+		assertTrue(isStart(last.back()));
+		assertSame(ChainHistory.DISABLED, last.getChainHistory());
+	}
+
+	@Test
+	public void weakReturnsReachableNodes() {
+		Reflect root = Reflect.on(Node.list(3)).chainHistory(ChainHistory.WEAK);
+		FieldReflect field = root.field("next");
+		Reflect value = field.get();
+		assertSame(field, value.back());
+		assertSame(root, field.back());
+		assertSame(ChainHistory.WEAK, value.getChainHistory());
+	}
+
+	@Test
+	public void weakDropsCollectedNodes() throws InterruptedException {
+		Reflect value = walk(Reflect.on(Node.list(3)).chainHistory(ChainHistory.WEAK), 1);
+		for (int i = 0; i < 20 && !isStart(value.back()); i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertTrue(isStart(value.back()));
+	}
+
+	@Test
+	public void asObjectKeepsWeakHistory() {
+		Reflect root = Reflect.on(Node.list(3)).chainHistory(ChainHistory.WEAK);
+		FieldReflect field = root.field("next");
+		Reflect value = field.get();
+		ObjectReflect object = value.asObject();
+		assertSame(field, object.back());
+		assertSame(value.off(), object.off());
+		assertSame(ChainHistory.WEAK, object.getChainHistory());
+		assertSame(field, object.field("next").back().back());
+	}
+
+	@Test
+	public void asObjectKeepsOtherHistories() {
+		Reflect value = Reflect.on(Node.list(3)).chainHistory(ChainHistory.DISABLED).field("next").get();
+		assertTrue(isStart(value.asObject().back()));
+		assertSame(ChainHistory.DISABLED, value.asObject().getChainHistory());
+
+		ChainHistory depth = ChainHistory.depth(2);
+		Reflect last = walk(Reflect.on(Node.list(5)).chainHistory(depth), 3);
+		ObjectReflect object = last.asObject();
+		assertSame(depth, object.getChainHistory());
+		assertSame(last.back(), object.back());
+		assertTrue(length(object) <= 2);
+	}
+
+	@Test
+	public void depthLimitsLinearChain() {
+		Reflect last = walk(Reflect.on(Node.list(6)).chainHistory(ChainHistory.depth(2)), 5);
+		assertEquals(2, length(last));
+		assertEquals(3, length(walk(Reflect.on(Node.list(6)).chainHistory(ChainHistory.depth(3)), 5)));
+	}
+
+	@Test
+	public void depthDoesNotTruncateSiblingChains() {
+		Reflect root = Reflect.on(Node.list(8)).chainHistory(ChainHistory.depth(2));
+		FieldReflect field = root.field("next");
+		Reflect first = field.get();
+		Reflect second = field.get();
+		FieldReflect extended = first.field("next");
+		assertSame(root, second.back().back());
+		assertSame(field, extended.back().back());
+
+		Reflect last = walk(extended.get(), 2);
+		assertEquals(2, length(last));
+		assertSame(root, second.back().back());
+	}
+}
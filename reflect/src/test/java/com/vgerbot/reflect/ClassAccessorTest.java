@@ -0,0 +1,198 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.Test;
+
+import com.vgerbot.reflect.Reflect.InvocationMode;
+
+/**
+ * 生成的按下标访问成员的访问器
+ *
+ * @author y1j2x34
+ */
+public class ClassAccessorTest {
+
+	static class Parent {
+		String inherited = "parent";
+
+		String describe() {
+			return "parent";
+		}
+	}
+
+	static class Account extends Parent {
+		static int created;
+		String owner;
+		long balance;
+		final String id;
+		private int secret = 7;
+
+		Account() {
+			this("none", 0);
+		}
+
+		Account(String owner, long balance) {
+			this.owner = owner;
+			this.balance = balance;
+			this.id = owner + "#" + ++created;
+		}
+
+		private Account(int secret) {
+			this("private", 0);
+			this.secret = secret;
+		}
+
+		long deposit(long amount) {
+			balance += amount;
+			return balance;
+		}
+
+		void fail(String message) {
+			throw new IllegalStateException(message);
+		}
+
+		static String join(String a, int b) {
+			return a + b;
+		}
+
+		private int secret() {
+			return secret;
+		}
+
+		@Override
+		String describe() {
+			return "account " + owner;
+		}
+	}
+
+	@Test
+	public void isSharedPerClass() {
+		assertSame(ClassAccessor.of(Account.class), ClassAccessor.of(Account.class));
+		assertSame(ClassAccessor.of(Account.class), Reflect.on(Account.class).accessor());
+		assertSame(Account.class, ClassAccessor.of(Account.class).type());
+	}
+
+	@Test
+	public void readsAndWritesFieldsByIndex() {
+		ClassAccessor accessor = ClassAccessor.of(Account.class);
+		Account account = new Account("mario", 10);
+		int owner = accessor.fieldIndex("owner");
+		assertTrue(accessor.isDirectField(owner));
+		assertTrue(accessor.isDirectSetter(owner));
+		assertEquals("mario", accessor.get(account, owner));
+		accessor.set(account, owner, "luigi");
+		assertEquals("luigi", account.owner);
+
+		int balance = accessor.fieldIndex("balance");
+		accessor.set(account, balance, 20L);
+		assertEquals(20L, accessor.get(account, balance));
+
+		int created = accessor.fieldIndex("created");
+		accessor.set(null, created, 100);
+		assertEquals(100, Account.created);
+
+		assertEquals("parent", accessor.get(account, accessor.fieldIndex("inherited")));
+		assertEquals(-1, accessor.fieldIndex("missing"));
+	}
+
+	@Test
+	public void fallsBackToReflectionForPrivateAndFinalFields() {
+		ClassAccessor accessor = ClassAccessor.of(Account.class);
+		Account account = new Account("mario", 10);
+		int secret = accessor.fieldIndex("secret");
+		assertFalse(accessor.isDirectField(secret));
+		assertEquals(7, accessor.get(account, secret));
+		accessor.set(account, secret, 8);
+		assertEquals(8, account.secret);
+
+		int id = accessor.fieldIndex("id");
+		assertTrue(accessor.isDirectField(id));
+		assertFalse(accessor.isDirectSetter(id));
+		assertEquals(account.id, accessor.get(account, id));
+	}
+
+	@Test
+	public void invokesMethodsAndConstructorsByIndex() throws Exception {
+		ClassAccessor accessor = ClassAccessor.of(Account.class);
+		Account account = new Account("mario", 10);
+		int deposit = accessor.methodIndex("deposit", long.class);
+		assertTrue(accessor.isDirectMethod(deposit));
+		assertEquals(15L, accessor.invoke(account, deposit, 5L));
+
+		assertEquals("a1", accessor.invoke(null, accessor.methodIndex("join", String.class, int.class), "a", 1));
+		assertEquals("account mario",
+				accessor.invoke(account, accessor.methodIndex(Parent.class.getDeclaredMethod("describe"))));
+
+		int secret = accessor.methodIndex("secret");
+		assertFalse(accessor.isDirectMethod(secret));
+		assertEquals(7, accessor.invoke(account, secret));
+
+		int constructor = accessor.constructorIndex(String.class, long.class);
+		assertTrue(accessor.isDirectConstructor(constructor));
+		Account created = (Account) accessor.newInstance(constructor, "peach", 3L);
+		assertEquals("peach", created.owner);
+		assertEquals(3L, created.balance);
+		assertEquals("none", ((Account) accessor.newInstance(accessor.constructorIndex(), (Object[]) null)).owner);
+
+		int hidden = accessor.constructorIndex(int.class);
+		assertFalse(accessor.isDirectConstructor(hidden));
+		assertEquals(9, ((Account) accessor.newInstance(hidden, 9)).secret);
+	}
+
+	@Test
+	public void wrapsExceptionsLikeReflection() {
+		ClassAccessor accessor = ClassAccessor.of(Account.class);
+		Account account = new Account("mario", 10);
+		try {
+			accessor.invoke(account, accessor.methodIndex("fail", String.class), "boom");
+			fail();
+		} catch (ReflectException e) {
+			assertTrue(e.getCause() instanceof InvocationTargetException);
+			assertEquals("boom", e.getCause().getCause().getMessage());
+		}
+		try {
+			accessor.get(new Object(), accessor.fieldIndex("owner"));
+			fail();
+		} catch (ReflectException e) {
+			assertTrue(e.getCause() instanceof IllegalArgumentException);
+		}
+		try {
+			accessor.set(account, accessor.fieldIndex("balance"), "ten");
+			fail();
+		} catch (ReflectException e) {
+			assertTrue(e.getCause() instanceof IllegalArgumentException);
+		}
+		try {
+			accessor.invoke(account, accessor.methodIndex("deposit", long.class), "ten");
+			fail();
+		} catch (ReflectException e) {
+			assertTrue(e.getCause() instanceof IllegalArgumentException);
+		}
+	}
+
+	@Test
+	public void reflectUsesAccessorInAccessorMode() {
+		Account account = new Account("mario", 10);
+		Reflect reflect = Reflect.on(account);
+		assertEquals("mario", reflect.field("owner").invocationMode(InvocationMode.ACCESSOR).getValue());
+		reflect.field("owner").invocationMode(InvocationMode.ACCESSOR).set("luigi");
+		assertEquals("luigi", account.owner);
+		assertEquals(Long.valueOf(12),
+				reflect.method("deposit", long.class).invocationMode(InvocationMode.ACCESSOR).call(2L).off());
+		Reflect.setDefaultInvocationMode(InvocationMode.ACCESSOR);
+		try {
+			Account created = Reflect.on(Account.class).create("peach", 1L).off();
+			assertEquals("peach", created.owner);
+			assertEquals(Long.valueOf(3), Reflect.on(created).call("deposit", 2L).off());
+		} finally {
+			Reflect.setDefaultInvocationMode(InvocationMode.REFLECTION);
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * 按导入包查找简单类名
+ *
+ * @author y1j2x34
+ */
+public class ClassFinderTest {
+
+	@Test
+	public void resolvesImportsPrimitivesAndFullNames() {
+		ClassFinder finder = ClassFinder.of();
+		List<String> imports = Arrays.asList("java.util.*", "java.io.File", "java.util.concurrent");
+		assertSame(List.class, finder.findClass(imports, "List"));
+		assertSame(File.class, finder.findClass(imports, "File"));
+		assertSame(java.util.concurrent.TimeUnit.class, finder.findClass(imports, "TimeUnit"));
+		assertSame(int.class, finder.findClass(imports, "int"));
+		assertSame(Object.class, finder.findClass(imports, null));
+		assertSame(String.class, finder.findClass(imports, "java.lang.String"));
+		assertNull(finder.findClass(imports, "NoSuchClass"));
+		assertNull(finder.findClass(imports, "NoSuchClass"));
+	}
+
+	@Test(expected = ReflectException.class)
+	public void findThrowsForMissingClass() {
+		ClassFinder.of().find(Collections.singletonList("java.util.*"), "NoSuchClass");
+	}
+
+	@Test
+	public void findsClassesOfUrls() throws IOException {
+		File b = TestClasses.directory("b");
+		TestClasses.compile(b, "p.Y", "package p; public class Y {}");
+		ClassFinder finder = ClassFinder.of(TestClasses.url(b));
+		try {
+			List<String> imports = Collections.singletonList("p.*");
+			assertEquals("p.Y", finder.findClass(imports, "Y").getName());
+			assertNull(finder.findClass(imports, "Z"));
+		} finally {
+			finder.close();
+		}
+	}
+
+	@Test
+	public void findsClassesOfNonSystemParent() throws Exception {
+		File a = TestClasses.directory("a");
+		TestClasses.compile(a, "p.X", "package p; public class X {}");
+		File b = TestClasses.directory("b");
+		TestClasses.compile(b, "p.Y", "package p; public class Y {}");
+		URLClassLoader parent = new URLClassLoader(new URL[] { TestClasses.url(a) });
+		ClassFinder finder = ClassFinder.of(parent, TestClasses.url(b));
+		try {
+			List<String> imports = Collections.singletonList("p.*");
+			Class<?> x = finder.findClass(imports, "X");
+			assertNotNull(x);
+			assertSame(finder.getClassLoader().loadClass("p.X"), x);
+			assertEquals("p.Y", finder.findClass(imports, "Y").getName());
+		} finally {
+			finder.close();
+			parent.close();
+		}
+	}
+
+	@Test
+	public void refreshForgetsMisses() throws IOException {
+		File b = TestClasses.directory("b");
+		TestClasses.compile(b, "p.Y", "package p; public class Y {}");
+		ClassFinder finder = ClassFinder.of(TestClasses.url(b));
+		try {
+			List<String> imports = Collections.singletonList("p.*");
+			assertNull(finder.findClass(imports, "W"));
+			TestClasses.compile(b, "p.W", "package p; public class W {}");
+			assertNull(finder.findClass(imports, "W"));
+			finder.refresh();
+			ClassNameCache.clear();
+			assertNotNull(finder.findClass(imports, "W"));
+		} finally {
+			finder.close();
+		}
+	}
+
+	@Test
+	public void reflectFindDoesNotRetainUrlLoaders() throws Exception {
+		File b = TestClasses.directory("b");
+		TestClasses.compile(b, "p.V", "package p; public class V {}");
+		WeakReference<ClassLoader> loader = findWithUrl(b);
+		for (int i = 0; i < 20 && loader.get() != null; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertNull(loader.get());
+	}
+
+	private static WeakReference<ClassLoader> findWithUrl(File classes) {
+		URL[] urls = { TestClasses.url(classes) };
+		Class<?> type = Reflect.find(Collections.singletonList("p.*"), "V", urls).off();
+		assertEquals("p.V", type.getName());
+		return new WeakReference<ClassLoader>(type.getClassLoader());
+	}
+}
@@ -0,0 +1,151 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.vgerbot.reflect.Reflect.InvocationMode;
+import com.vgerbot.reflect.Reflect.MethodKey;
+
+/**
+ * 进程内共享的字段、方法缓存
+ *
+ * @author y1j2x34
+ */
+public class ClassMetadataTest {
+
+	static class Base {
+		int inherited;
+
+		String hello() {
+			return "base";
+		}
+	}
+
+	static class Box extends Base {
+		public final int x;
+		private final String name;
+
+		Box(int x, String name) {
+			this.x = x;
+			this.name = name;
+		}
+
+		@Override
+		String hello() {
+			return "box";
+		}
+
+		String greet(String name) {
+			return "hello " + name;
+		}
+	}
+
+	static class Named {
+		String name = "named";
+	}
+
+	@Test
+	public void sharesLookupsAcrossInstances() {
+		Field first = Reflect.on(new Box(1, "a")).field("x").off();
+		Field second = Reflect.on(new Box(2, "b")).field("x").off();
+		assertSame(first, second);
+		assertSame(ClassMetadata.of(Box.class), ClassMetadata.of(Box.class));
+		assertEquals("box", Reflect.on(new Box(1, "a")).call("hello").off());
+		assertTrue(Reflect.on(Box.class).hasField("inherited"));
+	}
+
+	@Test
+	public void forcedWriteDoesNotChangeSharedField() {
+		Box box = new Box(1, "a");
+		Reflect.on(box).field("x").set(2);
+		assertEquals(2, box.x);
+
+		Field shared = Reflect.on(box).field("x").off();
+		assertTrue(Modifier.isFinal(shared.getModifiers()));
+		assertTrue(Reflect.on(box).field("x").isFinal());
+	}
+
+	@Test
+	public void forcedWriteOfFinalFieldInAccessorMode() {
+		Box box = new Box(1, "a");
+		Reflect.on(box).field("name").set("b");
+		Reflect.on(box).field("name").invocationMode(InvocationMode.ACCESSOR).set("c");
+		assertEquals("c", Reflect.on(box).field("name").getValue());
+		Reflect.on(box).field("x").invocationMode(InvocationMode.ACCESSOR).setInt(7);
+		assertEquals(7, box.x);
+	}
+
+	@Test
+	public void forceAccessorIsCreatedOncePerField() {
+		Field field = Reflect.on(Box.class).field("x").off();
+		ClassMetadata metadata = ClassMetadata.of(Box.class);
+		assertSame(metadata.forceAccessor(field), metadata.forceAccessor(field));
+	}
+
+	@Test
+	public void noFinalOnlyAffectsItsOwnInstance() {
+		Box box = new Box(1, "a");
+		Reflect.on(box).field("x").noFinal().set(3, false);
+		assertEquals(3, box.x);
+		assertTrue(Reflect.on(box).field("x").isFinal());
+	}
+
+	@Test(expected = ReflectException.class)
+	public void unforcedWriteOfFinalFieldFails() {
+		Reflect.on(new Box(1, "a")).field("x").set(3, false);
+	}
+
+	@Test
+	public void copiesParameterTypesIntoKey() {
+		Class<?>[] types = { String.class };
+		assertTrue(Reflect.on(Box.class).hasMethod("greet", types));
+		types[0] = Integer.class;
+		assertFalse(Reflect.on(Box.class).hasMethod("greet", types));
+		for (MethodKey key : ClassMetadata.of(Box.class).methods.keySet()) {
+			assertEquals(new MethodKey(key.name(), key.parameterTypes()).hashCode(), key.hashCode());
+		}
+		assertTrue(Reflect.on(Box.class).hasMethod("greet", String.class));
+	}
+
+	@Test
+	public void doesNotPinForeignClassLoaders() throws Exception {
+		File classes = TestClasses.directory("plugin");
+		TestClasses.compile(classes, "plugin.Item", "package plugin; public class Item { public String name; }");
+		WeakReference<ClassLoader> loader = usePlugin(classes);
+		for (int i = 0; i < 20 && loader.get() != null; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertNull(loader.get());
+	}
+
+	private static WeakReference<ClassLoader> usePlugin(File classes) throws Exception {
+		URLClassLoader loader = new URLClassLoader(new URL[] { TestClasses.url(classes) },
+				ClassMetadataTest.class.getClassLoader());
+		Class<?> type = loader.loadClass("plugin.Item");
+		Object item = type.newInstance();
+		Map<String, Object> map = new HashMap<String, Object>();
+		Reflect.on(map).call("put", "k", item);
+		assertSame(item, map.get("k"));
+		assertTrue(Reflect.on(HashMap.class).hasMethod("containsValue", type));
+		Reflect.on(Box.class).hasMethod("greet", type);
+		Object copy = Reflect.copier(Named.class, type).copy(new Named());
+		assertEquals("named", Reflect.on(copy).field("name").getValue());
+		loader.close();
+		return new WeakReference<ClassLoader>(loader);
+	}
+}
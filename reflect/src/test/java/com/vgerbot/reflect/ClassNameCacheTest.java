@@ -0,0 +1,153 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 按类加载器缓存的类名解析
+ *
+ * @author y1j2x34
+ */
+public class ClassNameCacheTest {
+
+	static class Inner {
+		static class Nested {
+		}
+	}
+
+	/**
+	 * 记录loadClass调用次数
+	 */
+	static class CountingLoader extends ClassLoader {
+		int loads;
+
+		CountingLoader() {
+			super(ClassNameCacheTest.class.getClassLoader());
+		}
+
+		@Override
+		public Class<?> loadClass(String name) throws ClassNotFoundException {
+			loads++;
+			return super.loadClass(name);
+		}
+	}
+
+	private final ClassLoader loader = ClassNameCacheTest.class.getClassLoader();
+
+	@Before
+	public void clear() {
+		ClassNameCache.clear();
+	}
+
+	@After
+	public void reset() throws ReflectException {
+		ClassMetadata.setMissTtl(0, TimeUnit.NANOSECONDS);
+	}
+
+	@Test
+	public void resolvesBinaryAndSourceNames() {
+		assertSame(String.class, ClassNameCache.find("java.lang.String", loader));
+		String outer = ClassNameCacheTest.class.getName();
+		assertSame(Inner.class, ClassNameCache.find(outer + "$Inner", loader));
+		assertSame(Inner.class, ClassNameCache.find(outer + ".Inner", loader));
+		assertSame(Inner.Nested.class, ClassNameCache.find(outer + "$Inner.Nested", loader));
+		assertSame(Inner.class, Reflect.on(outer + ".Inner").off());
+	}
+
+	@Test
+	public void resolvesArrays() {
+		assertSame(int[][].class, ClassNameCache.find("int[][]", loader));
+		assertSame(String[].class, ClassNameCache.find("java.lang.String[]", loader));
+		assertSame(Inner[].class, ClassNameCache.find(ClassNameCacheTest.class.getName() + ".Inner[]", loader));
+		assertSame(int[][].class, ClassNameCache.find("[[I", loader));
+		assertSame(String[].class, ClassNameCache.find("[Ljava.lang.String;", loader));
+		assertSame(String[].class, ClassNameCache.find("[Ljava.lang.String", loader));
+		assertSame(String[].class, Reflect.on("java.lang.String[]").off());
+	}
+
+	@Test
+	public void rejectsMalformedNames() {
+		assertNull(ClassNameCache.find("[", loader));
+		assertNull(ClassNameCache.find("[X", loader));
+		assertNull(ClassNameCache.find("[L;", loader));
+		assertNull(ClassNameCache.find("missing.Type[]", loader));
+	}
+
+	@Test
+	public void cachesHitsAndMisses() {
+		CountingLoader counting = new CountingLoader();
+		assertSame(String.class, ClassNameCache.find("java.lang.String", counting));
+		assertSame(String.class, ClassNameCache.find("java.lang.String", counting));
+		assertEquals(1, counting.loads);
+
+		assertNull(ClassNameCache.find("missing.Type", counting));
+		int loads = counting.loads;
+		assertNull(ClassNameCache.find("missing.Type", counting));
+		assertEquals(loads, counting.loads);
+		try {
+			ClassNameCache.forName("missing.Type", counting);
+			fail();
+		} catch (ReflectException e) {
+			assertTrue(e.getCause() instanceof ClassNotFoundException);
+		}
+		assertEquals(loads, counting.loads);
+	}
+
+	@Test
+	public void missesExpireWithMissTtl() throws InterruptedException {
+		ClassMetadata.setMissTtl(10, TimeUnit.MILLISECONDS);
+		CountingLoader counting = new CountingLoader();
+		assertNull(ClassNameCache.find("missing.Type", counting));
+		int loads = counting.loads;
+		Thread.sleep(30);
+		assertNull(ClassNameCache.find("missing.Type", counting));
+		assertTrue(counting.loads > loads);
+	}
+
+	@Test
+	public void separatesClassLoaders() throws Exception {
+		URL classes = Inner.class.getProtectionDomain().getCodeSource().getLocation();
+		URLClassLoader isolated = new URLClassLoader(new URL[] { classes }, null);
+		try {
+			Class<?> type = ClassNameCache.find(Inner.class.getName(), isolated);
+			assertNotSame(Inner.class, type);
+			assertSame(isolated, type.getClassLoader());
+			assertSame(Inner.class, ClassNameCache.find(Inner.class.getName(), loader));
+			assertSame(type, Reflect.on(Inner.class.getName(), isolated).off());
+		} finally {
+			isolated.close();
+		}
+	}
+
+	@Test
+	public void doesNotPinClassLoaders() throws Exception {
+		WeakReference<ClassLoader> reference = resolveWithIsolatedLoader();
+		for (int i = 0; i < 20 && reference.get() != null; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertNull(reference.get());
+	}
+
+	private static WeakReference<ClassLoader> resolveWithIsolatedLoader() throws Exception {
+		URL classes = Inner.class.getProtectionDomain().getCodeSource().getLocation();
+		URLClassLoader isolated = new URLClassLoader(new URL[] { classes }, null);
+		assertSame(isolated, ClassNameCache.find(Inner.class.getName(), isolated).getClassLoader());
+		assertNull(ClassNameCache.find("missing.Type", isolated));
+		isolated.close();
+		return new WeakReference<ClassLoader>(isolated);
+	}
+}
@@ -0,0 +1,110 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.vgerbot.reflect.Reflect.ConstructorReflect;
+import com.vgerbot.reflect.Reflect.InvocationMode;
+
+/**
+ * 可重复使用的构造器和不创建包装对象的实例化
+ *
+ * @author y1j2x34
+ */
+public class CreateRawTest {
+
+	static class Point {
+		final long x;
+		final Object label;
+
+		private Point() {
+			this(0, "origin");
+		}
+
+		private Point(long x, Object label) {
+			this.x = x;
+			this.label = label;
+		}
+
+		Point(String fail) {
+			throw new IllegalStateException(fail);
+		}
+	}
+
+	@After
+	public void restore() {
+		Reflect.setDefaultInvocationMode(InvocationMode.REFLECTION);
+	}
+
+	@Test
+	public void constructorIsReusableFactory() {
+		ConstructorReflect factory = Reflect.on(Point.class).constructor(long.class, Object.class);
+		Point first = factory.createRaw(1L, "a");
+		Point second = factory.createRaw(2L, "b");
+		assertNotSame(first, second);
+		assertEquals(1L, first.x);
+		assertEquals("b", second.label);
+		assertEquals(Point.class, factory.<Point> create(3L, "c").off().getClass());
+	}
+
+	@Test
+	public void constructorFindsCompatibleSignature() {
+		ConstructorReflect factory = Reflect.on(Point.class).constructor(Integer.class, String.class);
+		Point point = factory.createRaw(5, "widened");
+		assertEquals(5L, point.x);
+		assertEquals("widened", point.label);
+	}
+
+	@Test
+	public void createsRawInstancesInEveryMode() {
+		for (InvocationMode mode : InvocationMode.values()) {
+			Reflect.setDefaultInvocationMode(mode);
+			Point origin = Reflect.on(Point.class).createRaw();
+			assertEquals(mode.name(), "origin", origin.label);
+			Point point = Reflect.on(Point.class).createRaw(7L, mode);
+			assertEquals(mode.name(), 7L, point.x);
+			assertEquals(mode, point.label);
+
+			Point bound = new ConstructorReflect(null, Reflect.on(Point.class).constructor().off())
+					.invocationMode(mode).createRaw();
+			assertEquals(mode.name(), "origin", bound.label);
+		}
+	}
+
+	@Test
+	public void missingConstructorFails() {
+		try {
+			Reflect.on(Point.class).createRaw(1, 2, 3);
+			fail();
+		} catch (ReflectException e) {
+			assertTrue(e.getCause() instanceof NoSuchMethodException);
+		}
+		try {
+			Reflect.on(Point.class).constructor(boolean.class);
+			fail();
+		} catch (ReflectException e) {
+			assertTrue(e.getCause() instanceof NoSuchMethodException);
+		}
+	}
+
+	@Test
+	public void wrapsConstructorExceptions() {
+		for (InvocationMode mode : InvocationMode.values()) {
+			Reflect.setDefaultInvocationMode(mode);
+			try {
+				Reflect.on(Point.class).createRaw("boom");
+				fail();
+			} catch (ReflectException e) {
+				assertTrue(mode.name(), e.getCause() instanceof InvocationTargetException);
+				assertTrue(mode.name(), e.getCause().getCause() instanceof IllegalStateException);
+			}
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import org.junit.Test;
+
+/**
+ * 字段转换为函数式接口实例
+ *
+ * @author y1j2x34
+ */
+public class FieldFunctionTest {
+
+	static class Bean {
+		private long id = 1000000L;
+		private int count = 3;
+		private double ratio = 0.5d;
+		private boolean active = true;
+		private Boolean flag = Boolean.TRUE;
+		private String name = "mario";
+		private final long version = 7L;
+		public long visible = 1000000L;
+	}
+
+	@Test
+	public void readsAndWritesPrivatePrimitives() {
+		Bean bean = new Bean();
+		Reflect reflect = Reflect.on(Bean.class);
+		ToLongFunction<Bean> id = reflect.field("id").longGetter();
+		assertTrue(id.getClass().getName().endsWith("$HandleFunction"));
+		assertEquals(1000000L, id.applyAsLong(bean));
+		ObjLongConsumer<Bean> setId = reflect.field("id").longSetter();
+		setId.accept(bean, 42L);
+		assertEquals(42L, bean.id);
+
+		ToIntFunction<Bean> count = reflect.field("count").intGetter();
+		assertEquals(3, count.applyAsInt(bean));
+		ObjIntConsumer<Bean> setCount = reflect.field("count").intSetter();
+		setCount.accept(bean, 4);
+		assertEquals(4, bean.count);
+
+		ToDoubleFunction<Bean> ratio = reflect.field("ratio").doubleGetter();
+		assertEquals(0.5d, ratio.applyAsDouble(bean), 0d);
+		ObjDoubleConsumer<Bean> setRatio = reflect.field("ratio").doubleSetter();
+		setRatio.accept(bean, 1.5d);
+		assertEquals(1.5d, bean.ratio, 0d);
+
+		Predicate<Bean> active = reflect.field("active").booleanGetter();
+		assertTrue(active.test(bean));
+		Predicate<Bean> flag = reflect.field("flag").booleanGetter();
+		assertTrue(flag.test(bean));
+	}
+
+	@Test
+	public void widensLikeJava() {
+		Bean bean = new Bean();
+		ToLongFunction<Bean> count = Reflect.on(Bean.class).field("count").longGetter();
+		assertEquals(3L, count.applyAsLong(bean));
+		ToDoubleFunction<Bean> id = Reflect.on(Bean.class).field("id").doubleGetter();
+		assertEquals(1000000d, id.applyAsDouble(bean), 0d);
+		ObjIntConsumer<Bean> setId = Reflect.on(Bean.class).field("id").intSetter();
+		setId.accept(bean, 9);
+		assertEquals(9L, bean.id);
+	}
+
+	@Test
+	public void readsAndWritesPrivateObjects() {
+		Bean bean = new Bean();
+		Function<Bean, String> name = Reflect.on(Bean.class).field("name").getter();
+		assertEquals("mario", name.apply(bean));
+		BiConsumer<Bean, Object> setName = Reflect.on(Bean.class).field("name").setter();
+		setName.accept(bean, "luigi");
+		assertEquals("luigi", bean.name);
+		Function<Bean, Long> id = Reflect.on(Bean.class).field("id").getter();
+		assertEquals(Long.valueOf(1000000L), id.apply(bean));
+	}
+
+	@Test(expected = ReflectException.class)
+	public void rejectsWrongValueType() {
+		BiConsumer<Bean, Object> setName = Reflect.on(Bean.class).field("name").setter();
+		setName.accept(new Bean(), 1);
+	}
+
+	@Test(expected = ReflectException.class)
+	public void rejectsFinalFieldSetter() {
+		ObjLongConsumer<Bean> setVersion = Reflect.on(Bean.class).field("version").longSetter();
+		setVersion.accept(new Bean(), 8L);
+	}
+
+	@Test
+	public void finalFieldGetterWorks() {
+		ToLongFunction<Bean> version = Reflect.on(Bean.class).field("version").longGetter();
+		assertEquals(7L, version.applyAsLong(new Bean()));
+	}
+
+	@Test
+	public void primitiveAccessDoesNotAllocate() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+		assumeTrue(bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled());
+
+		ToLongFunction<Bean> privateId = Reflect.on(Bean.class).field("id").longGetter();
+		ToLongFunction<Bean> publicId = Reflect.on(Bean.class).field("visible").longGetter();
+		ObjLongConsumer<Bean> setId = Reflect.on(Bean.class).field("id").longSetter();
+		assertEquals(0, allocatedPerOperation(bean, privateId, setId));
+		assertEquals(0, allocatedPerOperation(bean, publicId, setId));
+	}
+
+	private static long allocatedPerOperation(com.sun.management.ThreadMXBean threads, ToLongFunction<Bean> getter,
+			ObjLongConsumer<Bean> setter) {
+		Bean bean = new Bean();
+		int iterations = 200000;
+		long sum = run(bean, getter, setter, iterations);
+		long thread = Thread.currentThread().getId();
+		long before = threads.getThreadAllocatedBytes(thread);
+		sum += run(bean, getter, setter, iterations);
+		long allocated = threads.getThreadAllocatedBytes(thread) - before;
+		assertTrue(sum != 0);
+		return allocated / iterations;
+	}
+
+	private static long run(Bean bean, ToLongFunction<Bean> getter, ObjLongConsumer<Bean> setter, int iterations) {
+		long sum = 0;
+		for (int i = 0; i < iterations; i++) {
+			setter.accept(bean, 1000000L + i);
+			sum += getter.applyAsLong(bean);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,245 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * 对象与Map的往返转换
+ *
+ * @author y1j2x34
+ */
+public class MapCodecTest {
+
+	static class Primitives {
+		boolean z = true;
+		byte b = 1;
+		char c = 'c';
+		short s = 2;
+		int i = 3;
+		long j = 4L;
+		float f = 5.5f;
+		private double d = 6.5;
+	}
+
+	static class Boxed {
+		Boolean z;
+		Byte b;
+		Character c;
+		Short s;
+		Integer i;
+		Long j;
+		Float f;
+		Double d;
+		String text = "text";
+	}
+
+	static class Base {
+		int id = 1;
+		String name = "base";
+	}
+
+	static class Child extends Base {
+		String name = "child";
+		long size = 2;
+	}
+
+	static class Address {
+		String city = "city";
+		int zip = 100;
+	}
+
+	static class Person {
+		String name = "person";
+		Address address = new Address();
+		Person friend;
+		List<String> tags = Arrays.asList("a");
+	}
+
+	static class NoDefaultConstructor {
+		int value;
+
+		NoDefaultConstructor(int value) {
+			this.value = value;
+		}
+	}
+
+	@Test
+	public void primitivesRoundTrip() {
+		Primitives source = new Primitives();
+		source.z = false;
+		source.b = Byte.MIN_VALUE;
+		source.c = Character.MAX_VALUE;
+		source.s = Short.MIN_VALUE;
+		source.i = Integer.MAX_VALUE;
+		source.j = Long.MIN_VALUE;
+		source.f = Float.NaN;
+		source.d = -Double.MAX_VALUE;
+		Map<String, Object> map = Reflect.toMap(source);
+		assertEquals(Arrays.asList("z", "b", "c", "s", "i", "j", "f", "d"),
+				Arrays.asList(map.keySet().toArray()));
+		assertEquals(Boolean.FALSE, map.get("z"));
+		assertEquals(Long.valueOf(Long.MIN_VALUE), map.get("j"));
+		assertEquals(Character.valueOf(Character.MAX_VALUE), map.get("c"));
+
+		Primitives copy = Reflect.fromMap(map, Primitives.class);
+		assertFalse(copy.z);
+		assertEquals(Byte.MIN_VALUE, copy.b);
+		assertEquals(Character.MAX_VALUE, copy.c);
+		assertEquals(Short.MIN_VALUE, copy.s);
+		assertEquals(Integer.MAX_VALUE, copy.i);
+		assertEquals(Long.MIN_VALUE, copy.j);
+		assertTrue(Float.isNaN(copy.f));
+		assertEquals(-Double.MAX_VALUE, copy.d, 0);
+		assertEquals(map, Reflect.toMap(copy));
+	}
+
+	@Test
+	public void boxedRoundTrip() {
+		Boxed source = new Boxed();
+		source.z = Boolean.TRUE;
+		source.b = (byte) 7;
+		source.c = 'x';
+		source.s = (short) 8;
+		source.i = 9;
+		source.j = 10L;
+		source.f = 11.5f;
+		source.d = 12.5;
+		Map<String, Object> map = Reflect.toMap(source);
+		Boxed copy = Reflect.fromMap(map, Boxed.class);
+		assertEquals(Boolean.TRUE, copy.z);
+		assertEquals(Byte.valueOf((byte) 7), copy.b);
+		assertEquals(Character.valueOf('x'), copy.c);
+		assertEquals(Short.valueOf((short) 8), copy.s);
+		assertEquals(Integer.valueOf(9), copy.i);
+		assertEquals(Long.valueOf(10L), copy.j);
+		assertEquals(Float.valueOf(11.5f), copy.f);
+		assertEquals(Double.valueOf(12.5), copy.d);
+		assertEquals(map, Reflect.toMap(copy));
+	}
+
+	@Test
+	public void nullValuesRoundTrip() {
+		Boxed source = new Boxed();
+		source.text = null;
+		Map<String, Object> map = Reflect.toMap(source);
+		assertEquals(9, map.size());
+		assertTrue(map.containsKey("i"));
+		assertNull(map.get("i"));
+		assertTrue(map.containsKey("text"));
+
+		Boxed copy = Reflect.fromMap(map, Boxed.class);
+		assertNull(copy.i);
+		// 值为null的键覆盖字段的默认值
+		assertNull(copy.text);
+		assertEquals(map, Reflect.toMap(copy));
+	}
+
+	@Test
+	public void nullValueIsIgnoredForPrimitives() {
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("i", null);
+		map.put("d", null);
+		map.put("j", 42L);
+		Primitives copy = Reflect.fromMap(map, Primitives.class);
+		assertEquals(3, copy.i);
+		assertEquals(6.5, copy.d, 0);
+		assertEquals(42L, copy.j);
+	}
+
+	@Test
+	public void missingKeysKeepDefaults() {
+		Primitives primitives = Reflect.fromMap(new HashMap<String, Object>(), Primitives.class);
+		assertEquals(Reflect.toMap(new Primitives()), Reflect.toMap(primitives));
+
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("i", 5);
+		map.put("unknown", "ignored");
+		Boxed boxed = Reflect.fromMap(map, Boxed.class);
+		assertEquals(Integer.valueOf(5), boxed.i);
+		assertNull(boxed.j);
+		assertEquals("text", boxed.text);
+	}
+
+	@Test
+	public void subclassFieldsShadowSuperclassFields() {
+		MapCodec<Child> codec = MapCodec.of(Child.class);
+		assertSame(codec, MapCodec.of(Child.class));
+		assertEquals(Arrays.asList("id", "name", "size"), codec.names());
+
+		Child source = new Child();
+		source.id = 7;
+		source.name = "renamed";
+		Map<String, Object> map = codec.toMap(source);
+		assertEquals("renamed", map.get("name"));
+		Child copy = codec.fromMap(map);
+		assertEquals(7, copy.id);
+		assertEquals("renamed", copy.name);
+		assertEquals("base", ((Base) copy).name);
+		assertEquals(2L, copy.size);
+	}
+
+	@Test
+	public void flattenedRoundTrip() {
+		Person source = new Person();
+		source.address.city = "elsewhere";
+		source.friend = source;
+		Map<String, Object> map = Reflect.toMap(source, true);
+		assertEquals(Arrays.asList("name", "address.city", "address.zip", "friend", "tags"),
+				Arrays.asList(map.keySet().toArray()));
+		// 循环引用不再展开
+		assertSame(source, map.get("friend"));
+
+		map.remove("friend");
+		Person copy = Reflect.fromMap(map, Person.class);
+		assertEquals("elsewhere", copy.address.city);
+		assertEquals(100, copy.address.zip);
+		assertEquals(source.tags, copy.tags);
+		assertNull(copy.friend);
+
+		Map<String, Object> nested = Reflect.toMap(source);
+		assertSame(source.address, nested.get("address"));
+		assertSame(source.address, Reflect.fromMap(nested, Person.class).address);
+	}
+
+	@Test
+	public void rejectsWrongValueType() {
+		Map<String, Object> map = new LinkedHashMap<String, Object>();
+		map.put("i", "3");
+		try {
+			Reflect.fromMap(map, Primitives.class);
+			fail();
+		} catch (ReflectException expected) {
+		}
+	}
+
+	@Test
+	public void requiresDefaultConstructor() {
+		MapCodec<NoDefaultConstructor> codec = MapCodec.of(NoDefaultConstructor.class);
+		assertEquals(Integer.valueOf(3), codec.toMap(new NoDefaultConstructor(3)).get("value"));
+		try {
+			codec.fromMap(new HashMap<String, Object>());
+			fail();
+		} catch (ReflectException e) {
+			assertTrue(e.getCause() instanceof NoSuchMethodException);
+		}
+		try {
+			MapCodec.of(int[].class);
+			fail();
+		} catch (ReflectException expected) {
+		}
+		assertArrayEquals(new Object[0], MapCodec.of(Object.class).names().toArray());
+	}
+}
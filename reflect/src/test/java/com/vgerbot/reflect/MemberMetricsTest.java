@@ -0,0 +1,109 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 按成员统计调用
+ *
+ * @author y1j2x34
+ */
+public class MemberMetricsTest {
+
+	static class Service {
+		int work() {
+			return 1;
+		}
+
+		int fail() {
+			throw new IllegalStateException();
+		}
+	}
+
+	@Before
+	public void enable() {
+		MemberMetrics.reset();
+		MemberMetrics.setEnabled(true);
+	}
+
+	@After
+	public void disable() {
+		MemberMetrics.setEnabled(false);
+		MemberMetrics.reset();
+	}
+
+	@Test
+	public void recordsCallsAndFailures() throws Exception {
+		Reflect service = Reflect.on(new Service());
+		service.call("work");
+		service.call("work");
+		try {
+			service.call("fail");
+		} catch (ReflectException expected) {
+		}
+		MemberMetrics.Snapshot work = MemberMetrics.snapshot(Service.class.getDeclaredMethod("work"));
+		assertEquals(2, work.getCount());
+		assertEquals(0, work.getErrorCount());
+		assertEquals("com.vgerbot.reflect.MemberMetricsTest$Service#work()", work.getName());
+		MemberMetrics.Snapshot fail = MemberMetrics.snapshot(Service.class.getDeclaredMethod("fail"));
+		assertEquals(1, fail.getErrorCount());
+		assertEquals(2, MemberMetrics.snapshot().size());
+		assertEquals(1, MemberMetrics.top(1).size());
+	}
+
+	@Test
+	public void recordsRawCreation() throws Exception {
+		Service service = Reflect.on(Service.class).createRaw();
+		assertNotNull(service);
+		MemberMetrics.Snapshot create = MemberMetrics.snapshot(Service.class.getDeclaredConstructor());
+		assertEquals(1, create.getCount());
+		assertEquals("com.vgerbot.reflect.MemberMetricsTest$Service#<init>()", create.getName());
+	}
+
+	@Test
+	public void resetClearsEveryClass() throws Exception {
+		Reflect.on(new Service()).call("work");
+		Reflect.on(new StringBuilder("a")).call("length");
+		assertEquals(2, MemberMetrics.snapshot().size());
+		MemberMetrics.reset();
+		assertTrue(MemberMetrics.snapshot().isEmpty());
+		assertNull(MemberMetrics.snapshot(Service.class.getDeclaredMethod("work")));
+	}
+
+	@Test
+	public void doesNotPinForeignClassLoaders() throws Exception {
+		File classes = TestClasses.directory("metrics");
+		TestClasses.compile(classes, "plugin.Task",
+				"package plugin; public class Task { public int run() { return 1; } }");
+		WeakReference<ClassLoader> loader = usePlugin(classes);
+		for (int i = 0; i < 20 && loader.get() != null; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertNull(loader.get());
+	}
+
+	private static WeakReference<ClassLoader> usePlugin(File classes) throws Exception {
+		URLClassLoader loader = new URLClassLoader(new URL[] { TestClasses.url(classes) },
+				MemberMetricsTest.class.getClassLoader());
+		Class<?> type = loader.loadClass("plugin.Task");
+		Reflect.on(type.newInstance()).call("run");
+		Method run = type.getMethod("run");
+		assertNotNull(MemberMetrics.snapshot(run));
+		assertEquals(1, MemberMetrics.snapshot(run).getCount());
+		loader.close();
+		return new WeakReference<ClassLoader>(loader);
+	}
+}
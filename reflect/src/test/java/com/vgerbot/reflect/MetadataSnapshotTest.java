@@ -0,0 +1,120 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * 元数据快照的写入、读取和失效
+ *
+ * @author y1j2x34
+ */
+public class MetadataSnapshotTest {
+
+	static class Shape {
+		int sides;
+
+		String name() {
+			return "shape";
+		}
+	}
+
+	static class Square extends Shape implements Comparable<Square> {
+		double size;
+
+		Square() {
+		}
+
+		Square(double size) {
+			this.size = size;
+		}
+
+		public int compareTo(Square other) {
+			return Double.compare(size, other.size);
+		}
+	}
+
+	@After
+	public void reset() {
+		ClassMetadata.setSnapshot(null);
+	}
+
+	@Test
+	public void writesAndReadsRecordedLookups() throws Exception {
+		Reflect.on(Square.class).hasField("missing");
+		Reflect.on(Square.class).hasMethod("name");
+		Reflect.on(Square.class).hasMethod("missing");
+		File file = new File(TestClasses.directory("snapshot"), "metadata.bin");
+		MetadataSnapshot.write(file, Arrays.<Class<?>>asList(Square.class, Shape.class));
+
+		MetadataSnapshot snapshot = MetadataSnapshot.load(file);
+		assertEquals(2, snapshot.size());
+		assertTrue(snapshot.contains(Square.class));
+		assertFalse(snapshot.contains(MetadataSnapshotTest.class));
+
+		MetadataSnapshot.ClassRecord record = snapshot.record(Square.class);
+		assertEquals(Shape.class.getDeclaredField("sides"), record.field("sides"));
+		assertTrue(record.field("missing") instanceof ClassMetadata.Miss);
+		Method name = (Method) record.member("name", new Class<?>[0]);
+		assertSame(Shape.class, name.getDeclaringClass());
+		assertTrue(record.member("missing", new Class<?>[0]) instanceof ClassMetadata.Miss);
+		assertEquals(Square.class.getDeclaredConstructor(double.class),
+				record.member("<init>", new Class<?>[] { double.class }));
+		assertNull(record.member("unknown", new Class<?>[0]));
+	}
+
+	@Test
+	public void ignoresFilesThatAreNotSnapshots() throws IOException {
+		File file = new File(TestClasses.directory("snapshot"), "other.bin");
+		TestClasses.write(file, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 });
+		assertNull(MetadataSnapshot.load(file));
+	}
+
+	@Test
+	public void dropsRecordWhenSuperclassChanges() throws Exception {
+		File base = TestClasses.directory("base");
+		File child = TestClasses.directory("child");
+		TestClasses.compile(base, "q.Base", "package q; public class Base {}");
+		TestClasses.compile(child, "q.Child", "package q; public class Child extends Base {}", base);
+		File file = new File(TestClasses.directory("snapshot"), "metadata.bin");
+
+		URLClassLoader loader = new URLClassLoader(new URL[] { TestClasses.url(base), TestClasses.url(child) }, null);
+		try {
+			Class<?> type = loader.loadClass("q.Child");
+			assertFalse(Reflect.on(type).hasMethod("foo"));
+			MetadataSnapshot.write(file, Collections.<Class<?>>singletonList(type));
+			assertTrue(MetadataSnapshot.load(file).contains(type));
+		} finally {
+			loader.close();
+		}
+
+		File compiled = new File(base, "q/Base.class");
+		long lastModified = compiled.lastModified();
+		TestClasses.compile(base, "q.Base", "package q; public class Base { public void foo() {} }");
+		compiled.setLastModified(lastModified + 10000);
+
+		loader = new URLClassLoader(new URL[] { TestClasses.url(base), TestClasses.url(child) }, null);
+		try {
+			Class<?> type = loader.loadClass("q.Child");
+			MetadataSnapshot snapshot = MetadataSnapshot.load(file);
+			assertFalse(snapshot.contains(type));
+			ClassMetadata.setSnapshot(snapshot);
+			assertTrue(Reflect.on(type).hasMethod("foo"));
+		} finally {
+			loader.close();
+		}
+	}
+}
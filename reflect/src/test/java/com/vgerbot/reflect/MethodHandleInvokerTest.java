@@ -0,0 +1,115 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.vgerbot.reflect.Reflect.InvocationMode;
+import com.vgerbot.reflect.Reflect.MethodReflect;
+
+/**
+ * 通过MethodHandle调用方法，结果和异常与反射调用一致
+ *
+ * @author y1j2x34
+ */
+public class MethodHandleInvokerTest {
+
+	static class Calculator {
+		private int base = 10;
+
+		private int add(int a, int b) {
+			return base + a + b;
+		}
+
+		static String join(String a, Object b) {
+			return a + b;
+		}
+
+		long widen(long value) {
+			return value * 2;
+		}
+
+		void fail() {
+			throw new UnsupportedOperationException("fail");
+		}
+
+		void nothing() {
+		}
+	}
+
+	@After
+	public void restore() {
+		Reflect.setDefaultInvocationMode(InvocationMode.REFLECTION);
+	}
+
+	private static MethodReflect method(String name, Class<?>... types) {
+		return Reflect.on(new Calculator()).method(name, types).invocationMode(InvocationMode.METHOD_HANDLE);
+	}
+
+	@Test
+	public void callsPrivateStaticAndWideningMethods() {
+		assertEquals(Integer.valueOf(13), method("add", int.class, int.class).call(1, 2).off());
+		assertEquals("a1", method("join", String.class, Object.class).call(new Object[] { "a", 1 }).off());
+		assertEquals(Long.valueOf(6L), method("widen", long.class).call(3).off());
+		assertNull(method("nothing").invokeRaw());
+	}
+
+	@Test
+	public void usesDefaultInvocationMode() {
+		Reflect.setDefaultInvocationMode(InvocationMode.METHOD_HANDLE);
+		MethodReflect add = Reflect.on(new Calculator()).method("add", int.class, int.class);
+		assertSame(InvocationMode.METHOD_HANDLE, add.getInvocationMode());
+		assertEquals(Integer.valueOf(13), add.call(1, 2).off());
+	}
+
+	@Test
+	public void cachesInvokerPerMethod() throws Exception {
+		Method add = Calculator.class.getDeclaredMethod("add", int.class, int.class);
+		MethodHandleInvoker invoker = MethodHandleInvoker.of(add);
+		assertSame(invoker, MethodHandleInvoker.of(add));
+		assertEquals(add, invoker.method());
+	}
+
+	@Test
+	public void wrapsTargetExceptionsLikeReflection() {
+		for (InvocationMode mode : InvocationMode.values()) {
+			try {
+				Reflect.on(new Calculator()).method("fail").invocationMode(mode).call();
+				fail();
+			} catch (ReflectException e) {
+				assertTrue(mode.name(), e.getCause() instanceof InvocationTargetException);
+				assertTrue(mode.name(), e.getCause().getCause() instanceof UnsupportedOperationException);
+			}
+		}
+	}
+
+	@Test
+	public void rejectsBadArgumentsLikeReflection() {
+		for (InvocationMode mode : InvocationMode.values()) {
+			MethodReflect add = Reflect.on(new Calculator()).method("add", int.class, int.class).invocationMode(mode);
+			assertCause(mode, IllegalArgumentException.class, add, new Calculator(), "1", 2);
+			assertCause(mode, IllegalArgumentException.class, add, new Calculator(), 1);
+			assertCause(mode, IllegalArgumentException.class, add, new Calculator(), null, 2);
+			assertCause(mode, IllegalArgumentException.class, add, "receiver", 1, 2);
+			assertCause(mode, NullPointerException.class, add, null, 1, 2);
+		}
+	}
+
+	private static void assertCause(InvocationMode mode, Class<? extends Throwable> cause, MethodReflect method,
+			Object receiver, Object... arguments) {
+		try {
+			method.invokeRawBy(receiver, arguments);
+			fail(mode.name());
+		} catch (ReflectException e) {
+			assertTrue(mode + ": " + e.getCause(), cause.isInstance(e.getCause()));
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * 查找失败结果的负缓存
+ *
+ * @author y1j2x34
+ */
+public class MissCacheTest {
+
+	static class Sample {
+		int value;
+
+		Sample() {
+		}
+
+		int value() {
+			return value;
+		}
+	}
+
+	@Before
+	public void clear() {
+		ClassMetadata.of(Sample.class).clear();
+		ClassMetadata.resetStatistics();
+	}
+
+	@After
+	public void reset() throws ReflectException {
+		ClassMetadata.setMissTtl(0, TimeUnit.NANOSECONDS);
+	}
+
+	@Test
+	public void cachesMissingMembers() {
+		Reflect reflect = Reflect.on(Sample.class);
+		assertFalse(reflect.hasField("missing"));
+		assertFalse(reflect.hasMethod("missing", int.class));
+		assertNull(reflect.field("missing"));
+		assertFalse(reflect.hasMethod("missing", int.class));
+		assertEquals(2, ClassMetadata.missCount());
+		assertEquals(2, ClassMetadata.hitCount());
+		assertTrue(reflect.hasField("value"));
+		assertTrue(reflect.hasMethod("value"));
+	}
+
+	@Test
+	public void cachedMissStillFails() {
+		Reflect reflect = Reflect.on(new Sample());
+		for (int i = 0; i < 2; i++) {
+			try {
+				reflect.call("missing");
+				fail();
+			} catch (ReflectException e) {
+				assertTrue(e.getCause() instanceof NoSuchMethodException);
+			}
+			try {
+				Reflect.on(Sample.class).create("no such constructor");
+				fail();
+			} catch (ReflectException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void evictsMisses() {
+		assertFalse(Reflect.on(Sample.class).hasField("missing"));
+		assertTrue(Reflect.on(Sample.class).hasField("value"));
+		ClassMetadata.of(Sample.class).evictMisses();
+		ClassMetadata.resetStatistics();
+		assertFalse(Reflect.on(Sample.class).hasField("missing"));
+		assertTrue(Reflect.on(Sample.class).hasField("value"));
+		assertEquals(1, ClassMetadata.missCount());
+		assertEquals(1, ClassMetadata.hitCount());
+	}
+
+	@Test
+	public void missesExpireAfterTtl() throws InterruptedException {
+		ClassMetadata.setMissTtl(20, TimeUnit.MILLISECONDS);
+		assertEquals(20, ClassMetadata.getMissTtl(TimeUnit.MILLISECONDS));
+		assertFalse(Reflect.on(Sample.class).hasField("missing"));
+		assertFalse(Reflect.on(Sample.class).hasField("missing"));
+		assertEquals(1, ClassMetadata.missCount());
+		Thread.sleep(50);
+		assertFalse(Reflect.on(Sample.class).hasField("missing"));
+		assertEquals(2, ClassMetadata.missCount());
+	}
+
+	@Test
+	public void ttlOnlyAffectsLaterMisses() throws InterruptedException {
+		assertFalse(Reflect.on(Sample.class).hasField("missing"));
+		ClassMetadata.setMissTtl(1, TimeUnit.MILLISECONDS);
+		Thread.sleep(20);
+		assertFalse(Reflect.on(Sample.class).hasField("missing"));
+		assertEquals(1, ClassMetadata.missCount());
+	}
+
+	@Test(expected = ReflectException.class)
+	public void rejectsNegativeTtl() {
+		ClassMetadata.setMissTtl(-1, TimeUnit.SECONDS);
+	}
+}
@@ -0,0 +1,141 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+
+import org.junit.Test;
+
+/**
+ * 按实参类型选择重载
+ *
+ * @author y1j2x34
+ */
+public class OverloadIndexTest {
+
+	static class Overloads {
+		String number(int value) {
+			return "int";
+		}
+
+		String number(long value) {
+			return "long";
+		}
+
+		String number(Object value) {
+			return "Object";
+		}
+
+		String wide(long value) {
+			return "long";
+		}
+
+		String wide(Integer value) {
+			return "Integer";
+		}
+
+		String text(Object value) {
+			return "Object";
+		}
+
+		String text(CharSequence value) {
+			return "CharSequence";
+		}
+
+		String text(String value) {
+			return "String";
+		}
+
+		String primitive(int value) {
+			return "int";
+		}
+
+		String pair(Integer a, Object b) {
+			return "Integer,Object";
+		}
+
+		String pair(Object a, Integer b) {
+			return "Object,Integer";
+		}
+	}
+
+	static class Derived extends Overloads {
+		@Override
+		String text(String value) {
+			return "Derived String";
+		}
+	}
+
+	private static String resolve(Class<?> type, String name, Class<?>... argumentTypes) {
+		Method method = OverloadIndex.methods(type).resolve(name, argumentTypes);
+		return method == null ? null : method.getName() + method.getParameterTypes()[0].getSimpleName();
+	}
+
+	@Test
+	public void prefersExactMatch() {
+		assertEquals("numberint", resolve(Overloads.class, "number", int.class));
+		assertEquals("numberint", resolve(Overloads.class, "number", Integer.class));
+		assertEquals("numberlong", resolve(Overloads.class, "number", Long.class));
+		assertEquals("textString", resolve(Overloads.class, "text", String.class));
+	}
+
+	@Test
+	public void picksMostSpecificWidening() {
+		assertEquals("numberint", resolve(Overloads.class, "number", Short.class));
+		assertEquals("numberint", resolve(Overloads.class, "number", Character.class));
+		assertEquals("numberObject", resolve(Overloads.class, "number", Double.class));
+		assertEquals("textCharSequence", resolve(Overloads.class, "text", StringBuilder.class));
+		assertEquals("textObject", resolve(Overloads.class, "text", Object.class));
+	}
+
+	@Test
+	public void prefersWideningOverBoxing() {
+		assertEquals("widelong", resolve(Overloads.class, "wide", int.class));
+		assertEquals("wideInteger", resolve(Overloads.class, "wide", Integer.class));
+	}
+
+	@Test
+	public void returnsNullWhenNothingApplies() {
+		assertNull(resolve(Overloads.class, "primitive", String.class));
+		assertNull(resolve(Overloads.class, "primitive", Long.class));
+		assertNull(resolve(Overloads.class, "missing", int.class));
+		assertNull(resolve(Overloads.class, "number", int.class, int.class));
+	}
+
+	@Test
+	public void breaksTiesDeterministically() {
+		Method first = OverloadIndex.methods(Overloads.class).resolve("pair",
+				new Class<?>[] { Integer.class, Integer.class });
+		assertEquals(Integer.class, first.getParameterTypes()[0]);
+		for (int i = 0; i < 10; i++) {
+			assertEquals(first, OverloadIndex.methods(Overloads.class).resolve("pair",
+					new Class<?>[] { Integer.class, Integer.class }));
+		}
+	}
+
+	@Test
+	public void prefersOverridingMethod() {
+		Method method = OverloadIndex.methods(Derived.class).resolve("text", new Class<?>[] { String.class });
+		assertSame(Derived.class, method.getDeclaringClass());
+		assertEquals("Derived String", Reflect.on(new Derived()).call("text", "a").off());
+	}
+
+	@Test
+	public void callsResolvedOverload() {
+		Reflect reflect = Reflect.on(new Overloads());
+		assertEquals("int", reflect.call("number", (short) 1).off());
+		assertEquals("long", reflect.call("number", 1L).off());
+		assertEquals("Object", reflect.call("number", 1.5d).off());
+		assertEquals("String", reflect.call("text", (Object) null).off());
+		assertEquals("Object", reflect.call("number", (Object) null).off());
+		try {
+			reflect.call("primitive", (Object) null);
+			fail();
+		} catch (ReflectException e) {
+			// null不能传给基本类型形参
+		}
+	}
+}
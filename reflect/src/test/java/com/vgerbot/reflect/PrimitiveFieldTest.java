@@ -0,0 +1,201 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.vgerbot.reflect.Reflect.FieldReflect;
+import com.vgerbot.reflect.Reflect.InvocationMode;
+
+/**
+ * 基本类型字段的读写
+ *
+ * @author y1j2x34
+ */
+public class PrimitiveFieldTest {
+
+	static class Values {
+		boolean z;
+		byte b;
+		char c;
+		short s;
+		int i;
+		long j;
+		float f;
+		double d;
+		public final int constant;
+		static long counter;
+
+		Values(int constant) {
+			this.constant = constant;
+		}
+	}
+
+	@After
+	public void reset() {
+		MemberMetrics.setEnabled(false);
+		MemberMetrics.reset();
+	}
+
+	@Test
+	public void readsAndWritesEveryPrimitiveType() {
+		for (InvocationMode mode : InvocationMode.values()) {
+			Values values = new Values(0);
+			Reflect reflect = Reflect.on(values);
+			reflect.field("z").invocationMode(mode).setBoolean(true);
+			reflect.field("b").invocationMode(mode).setByte((byte) 1);
+			reflect.field("c").invocationMode(mode).setChar('c');
+			reflect.field("s").invocationMode(mode).setShort((short) 2);
+			reflect.field("i").invocationMode(mode).setInt(3);
+			reflect.field("j").invocationMode(mode).setLong(4L);
+			reflect.field("f").invocationMode(mode).setFloat(5f);
+			reflect.field("d").invocationMode(mode).setDouble(6d);
+
+			assertTrue(reflect.field("z").invocationMode(mode).getBoolean());
+			assertEquals(1, reflect.field("b").invocationMode(mode).getByte());
+			assertEquals('c', reflect.field("c").invocationMode(mode).getChar());
+			assertEquals(2, reflect.field("s").invocationMode(mode).getShort());
+			assertEquals(3, reflect.field("i").invocationMode(mode).getInt());
+			assertEquals(4L, reflect.field("j").invocationMode(mode).getLong());
+			assertEquals(5f, reflect.field("f").invocationMode(mode).getFloat(), 0f);
+			assertEquals(6d, reflect.field("d").invocationMode(mode).getDouble(), 0d);
+		}
+	}
+
+	@Test
+	public void keepsExtremeValues() {
+		for (InvocationMode mode : InvocationMode.values()) {
+			Values values = new Values(0);
+			Reflect reflect = Reflect.on(values);
+			reflect.field("b").invocationMode(mode).setByte(Byte.MIN_VALUE);
+			reflect.field("c").invocationMode(mode).setChar(Character.MAX_VALUE);
+			reflect.field("s").invocationMode(mode).setShort(Short.MIN_VALUE);
+			reflect.field("i").invocationMode(mode).setInt(Integer.MIN_VALUE);
+			reflect.field("j").invocationMode(mode).setLong(Long.MIN_VALUE);
+			reflect.field("f").invocationMode(mode).setFloat(-0f);
+			reflect.field("d").invocationMode(mode).setDouble(Double.NaN);
+			reflect.field("constant").invocationMode(mode).setInt(-1);
+
+			assertEquals(Byte.MIN_VALUE, reflect.field("b").invocationMode(mode).getByte());
+			assertEquals(Character.MAX_VALUE, reflect.field("c").invocationMode(mode).getChar());
+			assertEquals(Short.MIN_VALUE, reflect.field("s").invocationMode(mode).getShort());
+			assertEquals(Integer.MIN_VALUE, reflect.field("i").invocationMode(mode).getInt());
+			assertEquals(Long.MIN_VALUE, reflect.field("j").invocationMode(mode).getLong());
+			assertEquals(Float.floatToRawIntBits(-0f),
+					Float.floatToRawIntBits(reflect.field("f").invocationMode(mode).getFloat()));
+			assertTrue(Double.isNaN(reflect.field("d").invocationMode(mode).getDouble()));
+			assertEquals(-1, values.constant);
+		}
+	}
+
+	@Test
+	public void primitiveAccessDoesNotAllocate() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threads;
+		assumeTrue(bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled());
+
+		for (InvocationMode mode : InvocationMode.values()) {
+			Values values = new Values(0);
+			FieldReflect j = Reflect.on(values).field("j").invocationMode(mode);
+			FieldReflect d = Reflect.on(values).field("d").invocationMode(mode);
+			int iterations = 200000;
+			double sum = run(j, d, iterations);
+			long thread = Thread.currentThread().getId();
+			long before = bean.getThreadAllocatedBytes(thread);
+			sum += run(j, d, iterations);
+			long allocated = bean.getThreadAllocatedBytes(thread) - before;
+			assertTrue(sum != 0);
+			assertEquals(mode.name(), 0, allocated / iterations);
+		}
+	}
+
+	private static double run(FieldReflect j, FieldReflect d, int iterations) {
+		double sum = 0;
+		for (int i = 0; i < iterations; i++) {
+			j.setLong(1000000L + i);
+			d.setDouble(i * 0.5d);
+			sum += j.getLong() + d.getDouble();
+		}
+		return sum;
+	}
+
+	@Test
+	public void accessorWidensLikeReflection() {
+		Values values = new Values(0);
+		values.s = 7;
+		values.c = 'a';
+		Reflect reflect = Reflect.on(values);
+		assertEquals(7, reflect.field("s").invocationMode(InvocationMode.ACCESSOR).getInt());
+		assertEquals(7L, reflect.field("s").invocationMode(InvocationMode.ACCESSOR).getLong());
+		assertEquals('a', reflect.field("c").invocationMode(InvocationMode.ACCESSOR).getInt());
+		reflect.field("j").invocationMode(InvocationMode.ACCESSOR).setInt(9);
+		assertEquals(9L, values.j);
+	}
+
+	@Test
+	public void accessorReadsStaticFields() {
+		Values.counter = 11;
+		FieldReflect counter = Reflect.on(Values.class).field("counter").invocationMode(InvocationMode.ACCESSOR);
+		assertEquals(11L, counter.getLong(null));
+		counter.setLong(12L);
+		assertEquals(12L, Values.counter);
+	}
+
+	@Test
+	public void generatedAccessorHasPrimitiveSlots() {
+		ClassAccessor accessor = ClassAccessor.of(Values.class);
+		int index = accessor.fieldIndex("i");
+		assertTrue(accessor.isDirectField(index));
+		Values values = new Values(0);
+		accessor.setInt(values, index, 42);
+		assertEquals(42, accessor.getInt(values, index));
+		assertEquals(42L, accessor.getLong(values, index));
+	}
+
+	@Test
+	public void forcedWriteOfFinalPrimitive() {
+		Values values = new Values(1);
+		Reflect.on(values).field("constant").invocationMode(InvocationMode.ACCESSOR).setInt(2);
+		assertEquals(2, values.constant);
+		assertTrue(Reflect.on(values).field("constant").isFinal());
+	}
+
+	@Test(expected = ReflectException.class)
+	public void unforcedWriteOfFinalPrimitiveFails() {
+		Reflect.on(new Values(1)).field("constant").setInt(2, false);
+	}
+
+	@Test
+	public void recordsMetrics() {
+		MemberMetrics.setEnabled(true);
+		Values values = new Values(0);
+		FieldReflect field = Reflect.on(values).field("i");
+		field.setInt(1);
+		field.getInt();
+		field.invocationMode(InvocationMode.ACCESSOR).getInt();
+		Field member = field.off();
+		MemberMetrics.Snapshot snapshot = MemberMetrics.snapshot(member);
+		assertEquals(3, snapshot.getCount());
+		assertEquals(0, snapshot.getErrorCount());
+	}
+
+	@Test
+	public void doesNotCreateForceAccessorForNonFinalField() {
+		Values values = new Values(0);
+		FieldReflect i = Reflect.on(values).field("i");
+		FieldReflect d = Reflect.on(values).field("d");
+		ClassMetadata.resetStatistics();
+		i.setInt(1);
+		d.setDouble(1d);
+		assertEquals(0, ClassMetadata.missCount());
+		assertFalse(Reflect.on(values).field("i").isFinal());
+	}
+}
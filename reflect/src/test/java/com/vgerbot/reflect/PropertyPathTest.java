@@ -0,0 +1,132 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * 属性路径的解析与取值
+ *
+ * @author y1j2x34
+ */
+public class PropertyPathTest {
+
+	public static class Address {
+		private final String zip;
+
+		public Address(String zip) {
+			this.zip = zip;
+		}
+
+		public String getZip() {
+			return zip;
+		}
+	}
+
+	public static class Customer {
+		private final String name;
+		private final Address address;
+		private final boolean vip;
+		static String category = "retail";
+
+		public Customer(String name, Address address, boolean vip) {
+			this.name = name;
+			this.address = address;
+			this.vip = vip;
+		}
+
+		public String displayName() {
+			return "<" + name + ">";
+		}
+
+		public boolean isVip() {
+			return vip;
+		}
+	}
+
+	public static class Holder {
+		public Object value;
+
+		public Holder() {
+			value = new Holder[] { null };
+		}
+	}
+
+	@Test
+	public void readsFieldsGettersAndIndexes() {
+		Customer mario = new Customer("mario", new Address("10001"), true);
+		Customer luigi = new Customer("luigi", null, false);
+		Map<String, Object> root = new HashMap<String, Object>();
+		root.put("customers", Arrays.asList(mario, luigi));
+		root.put("array", new int[] { 1, 2, 3 });
+
+		assertEquals("10001", Reflect.path("customers[0].address.zip").get(root));
+		assertEquals("<luigi>", Reflect.path("customers[1].displayName").get(root));
+		assertEquals(Boolean.TRUE, Reflect.path("customers[0].vip").get(root));
+		assertEquals("retail", Reflect.path("customers[0].category").get(root));
+		assertEquals(2, (int) Reflect.<Integer>path("array[1]").get(root));
+		assertNull(Reflect.path("customers[1].address.zip").get(root));
+	}
+
+	@Test
+	public void resolvesEachRuntimeType() {
+		PropertyPath path = Reflect.path("zip");
+		assertEquals("a", path.get(new Address("a")));
+		assertEquals("b", path.get(Collections.singletonMap("zip", "b")));
+		assertEquals("c", path.get(new Address("c")));
+	}
+
+	@Test
+	public void doesNotCacheCompiledPaths() {
+		assertNotSame(Reflect.path("a.b"), Reflect.path("a.b"));
+	}
+
+	@Test(expected = ReflectException.class)
+	public void rejectsMalformedPath() {
+		Reflect.path("a..b");
+	}
+
+	@Test(expected = ReflectException.class)
+	public void missingPropertyFails() {
+		Reflect.path("missing").get(new Address("a"));
+	}
+
+	@Test(expected = ReflectException.class)
+	public void indexOutOfBoundsFails() {
+		Reflect.path("[3]").get(Arrays.asList(1, 2));
+	}
+
+	@Test
+	public void doesNotPinResolvedClassLoader() throws Exception {
+		PropertyPath path = Reflect.path("value[0]");
+		WeakReference<ClassLoader> loader = useIsolatedHolder(path);
+		for (int i = 0; i < 20 && loader.get() != null; i++) {
+			System.gc();
+			Thread.sleep(50);
+		}
+		assertNull(loader.get());
+	}
+
+	private static WeakReference<ClassLoader> useIsolatedHolder(PropertyPath path) throws Exception {
+		URL classes = Holder.class.getProtectionDomain().getCodeSource().getLocation();
+		URLClassLoader loader = new URLClassLoader(new URL[] { classes }, null);
+		Class<?> type = loader.loadClass(Holder.class.getName());
+		assertNotSame(Holder.class, type);
+		assertNull(path.get(type.newInstance()));
+		List<Object> values = Collections.singletonList(type.newInstance());
+		assertNull(Reflect.path("[0].value[0]").get(values));
+		loader.close();
+		return new WeakReference<ClassLoader>(loader);
+	}
+}
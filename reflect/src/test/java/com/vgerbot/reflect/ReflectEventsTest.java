@@ -0,0 +1,74 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * JFR事件只在启用后发出
+ *
+ * @author y1j2x34
+ */
+public class ReflectEventsTest {
+
+	static class Target {
+		String name;
+
+		String hello() {
+			return "hello";
+		}
+	}
+
+	@Test
+	public void recordsEventsOnlyAfterEnable() throws Exception {
+		Reflect.on(new Target()).method("hello").call();
+		assertFalse(ReflectEvents.isEnabled());
+		assertFalse(ReflectEvents.recording);
+
+		assertTrue(ReflectEvents.enable());
+		assertTrue(ReflectEvents.isEnabled());
+		File file = File.createTempFile("reflect", ".jfr");
+		try {
+			Recording recording = new Recording();
+			recording.enable(JfrEvents.LOOKUP);
+			recording.enable(JfrEvents.CACHE_MISS);
+			recording.enable(JfrEvents.INVOKE).withoutThreshold();
+			recording.start();
+			try {
+				assertTrue(ReflectEvents.recording);
+				Reflect.on(new Target()).field("name");
+				Reflect.on(Target.class).createRaw();
+			} finally {
+				recording.stop();
+				recording.dump(file.toPath());
+				recording.close();
+			}
+			assertFalse(ReflectEvents.recording);
+
+			boolean lookup = false;
+			boolean create = false;
+			List<RecordedEvent> events = RecordingFile.readAllEvents(file.toPath());
+			for (RecordedEvent event : events) {
+				if (JfrEvents.LOOKUP.equals(event.getEventType().getName()) && "name".equals(event.getString("name"))) {
+					lookup = true;
+				}
+				if (JfrEvents.INVOKE.equals(event.getEventType().getName())
+						&& event.getString("member").endsWith("$Target#<init>()")) {
+					create = true;
+				}
+			}
+			assertTrue(lookup);
+			assertTrue(create);
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * README中的基本用法
+ *
+ * @author y1j2x34
+ */
+public class ReflectTest {
+
+	static class Person {
+		private String name;
+		private int age = 0;
+
+		Person() {
+			name = "default name";
+		}
+
+		Person(String name, int age) {
+			this.name = name;
+			this.age = age;
+		}
+
+		Person(String name) {
+			this.name = name;
+		}
+
+		String selfIntroduction() {
+			return "Hello!My name is '" + name + "'";
+		}
+
+		boolean wasDead() {
+			return age > 200;
+		}
+
+		public String getName() {
+			return name;
+		}
+	}
+
+	@Test
+	public void createsInstancesWithMatchingConstructor() {
+		Person person = Reflect.on(Person.class).create().off();
+		assertEquals("default name", person.getName());
+		person = Reflect.on(Person.class).create("mario").off();
+		assertEquals("mario", person.getName());
+		person = Reflect.on(Person.class).create("kankan", 260).off();
+		assertTrue(person.wasDead());
+	}
+
+	@Test
+	public void callsMethodsByTypesAndByArguments() {
+		Reflect person = Reflect.on(Person.class).create("data");
+		assertEquals("Hello!My name is 'data'", person.method("selfIntroduction").call().off());
+		assertEquals("data", person.call("getName").off());
+		assertEquals(Boolean.FALSE, person.call("wasDead").off());
+	}
+
+	@Test
+	public void readsAndWritesFields() {
+		Reflect person = Reflect.on(Person.class).create("data");
+		assertEquals("data", person.field("name").get().off());
+		person.field("age").set(300);
+		assertTrue(((Person) person.off()).wasDead());
+		assertEquals(2, person.fieldValues().size());
+	}
+
+	@Test
+	public void missingFieldReturnsNull() {
+		Reflect person = Reflect.on(Person.class).create();
+		assertNull(person.field("missing"));
+		assertFalse(person.hasField("missing"));
+		assertTrue(person.hasField("name"));
+	}
+}
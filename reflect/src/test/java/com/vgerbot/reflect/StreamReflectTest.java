@@ -0,0 +1,123 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.vgerbot.reflect.Reflect.StreamReflect;
+
+/**
+ * 流式批量调用的延迟执行和按类型解析
+ *
+ * @author y1j2x34
+ */
+public class StreamReflectTest {
+
+	static class Cat {
+		static final AtomicInteger calls = new AtomicInteger();
+		String name = "cat";
+
+		String speak() {
+			calls.incrementAndGet();
+			return "meow";
+		}
+
+		Cat self() {
+			return this;
+		}
+	}
+
+	static class Dog {
+		String name = "dog";
+
+		String speak() {
+			return "woof";
+		}
+
+		Dog self() {
+			return this;
+		}
+	}
+
+	@Test
+	public void stepsRunOnlyWhenConsumed() {
+		Cat.calls.set(0);
+		List<Object> cats = Arrays.<Object> asList(new Cat(), new Cat(), new Cat());
+		StreamReflect stream = Reflect.stream(cats).call("self").call("speak");
+		assertEquals(0, Cat.calls.get());
+
+		Iterator<Object> values = stream.values().iterator();
+		assertEquals("meow", values.next());
+		assertEquals(1, Cat.calls.get());
+		values.next();
+		values.next();
+		assertEquals(3, Cat.calls.get());
+	}
+
+	@Test
+	public void failuresSurfaceWhenConsumed() {
+		StreamReflect stream = Reflect.stream(Arrays.<Object> asList(new Cat(), "text")).call("speak");
+		Iterator<Object> values = stream.values().iterator();
+		assertEquals("meow", values.next());
+		try {
+			values.next();
+			fail();
+		} catch (ReflectException e) {
+			assertTrue(e.getCause() instanceof NoSuchMethodException);
+		}
+	}
+
+	@Test
+	public void resolvesAgainWhenElementTypeChanges() {
+		List<Object> animals = Arrays.<Object> asList(new Cat(), new Dog(), new Cat(), new Cat(), new Dog());
+		List<Object> sounds = Reflect.stream(animals).call("speak").values().collect(Collectors.toList());
+		assertEquals(Arrays.<Object> asList("meow", "woof", "meow", "meow", "woof"), sounds);
+
+		List<Object> names = Reflect.stream(animals).get("name").values().collect(Collectors.toList());
+		assertEquals(Arrays.<Object> asList("cat", "dog", "cat", "cat", "dog"), names);
+
+		// 同名方法在不同类型上返回类型不同，下一步按结果的类型解析
+		List<Object> selves = Reflect.stream(animals).call("self").get("name").values()
+				.collect(Collectors.toList());
+		assertEquals(names, selves);
+	}
+
+	@Test
+	public void resolvesOncePerRunOfSameType() {
+		List<Object> animals = new ArrayList<Object>();
+		for (int i = 0; i < 10; i++) {
+			animals.add(new Cat());
+		}
+		animals.add(new Dog());
+		animals.add(new Cat());
+		StreamReflect stream = Reflect.stream(animals).call("speak");
+		ClassMetadata.resetStatistics();
+		assertEquals(12, stream.values().count());
+		assertEquals(3, ClassMetadata.hitCount() + ClassMetadata.missCount());
+	}
+
+	@Test
+	public void specialElementsUseTheirOwnRules() {
+		Map<String, Object> map = new HashMap<String, Object>();
+		map.put("name", "map");
+		List<Object> sizes = Reflect.stream(Arrays.<Object> asList(new ArrayList<Object>(), map)).call("size")
+				.values().collect(Collectors.toList());
+		assertEquals(Arrays.<Object> asList(0, 1), sizes);
+
+		List<Object> types = Arrays.<Object> asList(StringBuilder.class, Cat.class);
+		List<Object> created = Reflect.stream(types).create().values().collect(Collectors.toList());
+		assertTrue(created.get(0) instanceof StringBuilder);
+		assertTrue(created.get(1) instanceof Cat);
+	}
+}
@@ -0,0 +1,120 @@
+package com.vgerbot.reflect;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+/**
+ * 测试用：把源码编译到临时目录，用于构造独立的类目录和类加载器
+ *
+ * @author y1j2x34
+ */
+final class TestClasses {
+	private static final List<File> directories = new ArrayList<File>();
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			@Override
+			public void run() {
+				synchronized (directories) {
+					for (File directory : directories) {
+						delete(directory);
+					}
+				}
+			}
+		});
+	}
+
+	private TestClasses() {
+	}
+
+	/**
+	 * 在临时目录下创建子目录，JVM退出时删除
+	 */
+	static File directory(String prefix) throws IOException {
+		File directory = File.createTempFile("reflect-" + prefix, "");
+		if (!directory.delete() || !directory.mkdirs()) {
+			throw new IOException("Can not create " + directory);
+		}
+		synchronized (directories) {
+			directories.add(directory);
+		}
+		return directory;
+	}
+
+	private static void delete(File file) {
+		File[] children = file.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+
+	/**
+	 * 编译一个类到目标目录
+	 *
+	 * @param output
+	 *            类目录
+	 * @param className
+	 *            完整类名
+	 * @param source
+	 *            源码
+	 * @param classPath
+	 *            编译时依赖的类目录
+	 */
+	static void compile(File output, String className, String source, File... classPath) throws IOException {
+		File sources = directory("sources");
+		File file = new File(sources, className.replace('.', File.separatorChar) + ".java");
+		file.getParentFile().mkdirs();
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			writer.write(source);
+		} finally {
+			writer.close();
+		}
+		List<String> arguments = new ArrayList<String>();
+		arguments.add("-d");
+		arguments.add(output.getPath());
+		arguments.add("-nowarn");
+		StringBuilder path = new StringBuilder(output.getPath());
+		for (File entry : classPath) {
+			path.append(File.pathSeparator).append(entry.getPath());
+		}
+		arguments.add("-cp");
+		arguments.add(path.toString());
+		arguments.add(file.getPath());
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler.run(null, null, null, arguments.toArray(new String[arguments.size()])) != 0) {
+			throw new IllegalStateException("Can not compile " + className);
+		}
+	}
+
+	static URL url(File file) {
+		try {
+			return file.toURI().toURL();
+		} catch (MalformedURLException e) {
+			throw new IllegalArgumentException(e);
+		}
+	}
+
+	static void write(File file, byte[] bytes) throws IOException {
+		OutputStream out = new FileOutputStream(file);
+		try {
+			out.write(bytes);
+		} finally {
+			out.close();
+		}
+	}
+}
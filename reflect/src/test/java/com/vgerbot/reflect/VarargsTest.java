@@ -0,0 +1,113 @@
+package com.vgerbot.reflect;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * 可变参数方法、构造器的匹配与调用
+ *
+ * @author y1j2x34
+ */
+public class VarargsTest {
+
+	static class Texts {
+		final String[] items;
+
+		Texts(String... items) {
+			this.items = items;
+		}
+
+		String join(String separator, String... parts) {
+			StringBuilder builder = new StringBuilder();
+			for (int i = 0; i < parts.length; i++) {
+				if (i > 0) {
+					builder.append(separator);
+				}
+				builder.append(parts[i]);
+			}
+			return builder.toString();
+		}
+
+		int count(Object... values) {
+			return values.length;
+		}
+
+		int sum(int... values) {
+			int sum = 0;
+			for (int value : values) {
+				sum += value;
+			}
+			return sum;
+		}
+
+		String describe(String a, String b) {
+			return "fixed";
+		}
+
+		String describe(String... values) {
+			return "varargs";
+		}
+
+		static String format(String format, Object... arguments) {
+			return String.format(format, arguments);
+		}
+	}
+
+	enum Level {
+		LOW("low");
+
+		final String[] tags;
+
+		Level(String... tags) {
+			this.tags = tags;
+		}
+	}
+
+	@Test
+	public void callsWithSpreadArguments() {
+		Reflect texts = Reflect.on(new Texts());
+		assertEquals("a,b,c", texts.call("join", ",", "a", "b", "c").off());
+		assertEquals("a", texts.call("join", ",", "a").off());
+		assertEquals("", texts.call("join", ",").off());
+		assertEquals(3, (int) texts.<Integer>call("count", 1, "a", null).off());
+		assertEquals(0, (int) texts.<Integer>call("count").off());
+		assertEquals(6, (int) texts.<Integer>call("sum", 1, 2, 3).off());
+		assertEquals("1-x", Reflect.on(Texts.class).call("format", "%d-%s", 1, "x").off());
+	}
+
+	@Test
+	public void passesPackedArrayThrough() {
+		Reflect texts = Reflect.on(new Texts());
+		assertEquals("x;y", texts.call("join", ";", new String[] { "x", "y" }).off());
+		assertEquals(5, (int) texts.<Integer>call("sum", new int[] { 2, 3 }).off());
+	}
+
+	@Test
+	public void prefersFixedArity() {
+		Reflect texts = Reflect.on(new Texts());
+		assertEquals("fixed", texts.call("describe", "a", "b").off());
+		assertEquals("varargs", texts.call("describe", "a").off());
+		assertEquals("varargs", texts.call("describe", "a", "b", "c").off());
+	}
+
+	@Test
+	public void createsWithVarargsConstructor() {
+		assertArrayEquals(new String[] { "a", "b" }, Reflect.on(Texts.class).<Texts>createRaw("a", "b").items);
+		assertArrayEquals(new String[0], Reflect.on(Texts.class).create().<Texts>off().items);
+		assertArrayEquals(new String[] { "c" }, Reflect.on(Texts.class).create("c").<Texts>off().items);
+	}
+
+	@Test
+	public void addsEnumWithVarargsConstructor() {
+		Level high = Reflect.onEnum(Level.class).add("HIGH", "x", "y");
+		assertArrayEquals(new String[] { "x", "y" }, high.tags);
+		assertEquals(high, Level.valueOf("HIGH"));
+	}
+
+	@Test(expected = ReflectException.class)
+	public void rejectsMismatchedComponent() {
+		Reflect.on(new Texts()).call("sum", 1, "x");
+	}
+}